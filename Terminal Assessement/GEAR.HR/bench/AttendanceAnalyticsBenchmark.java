@@ -0,0 +1,187 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * AttendanceAnalyticsBenchmark class times AttendanceAnalytics on a generated year of attendance
+ * Stores a year of workdays for a workforce, times full rebuilds, one of them while corrections are being
+ * recorded, then records batches of corrections to the last two months, as clerks correct the current pay
+ * periods, removes a few employees, and compares reading a month's counts from the rollups with scanning its
+ * records. Every month's rollups are checked against a fresh scan.
+ * Stores through Attendance, which writes GEAR.HR in the working folder, so it must be run from a folder
+ * without GEAR.HR data; that folder can be deleted afterwards
+ * Usage: java -cp bin AttendanceAnalyticsBenchmark [employees]
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class AttendanceAnalyticsBenchmark {
+    private static final int DEFAULT_EMPLOYEES = 10_000;
+    private static final int FIRST_EMPLOYEE = 10_000;
+    private static final int ROUNDS = 3;
+    private static final int CORRECTION_BATCHES = 500;
+    private static final int CORRECTION_BATCH_SIZE = 100;
+    private static final int REMOVED_EMPLOYEES = 10;
+    private static final Path DATA_FOLDER = Paths.get("GEAR.HR");
+
+    /**
+     * Generates the attendance, times rebuilds, corrections and reads, and checks the rollups.
+     *
+     * @param args Optional employee count (default 10,000)
+     * @throws Exception If the records cannot be written or read
+     */
+    public static void main(String[] args) throws Exception {
+        int employees = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_EMPLOYEES;
+        if (Files.exists(DATA_FOLDER)) {
+            System.err.println("Run from a folder without GEAR.HR data; the benchmark writes its attendance to " + DATA_FOLDER.toAbsolutePath());
+            return;
+        }
+        Random random = new Random(42);
+        long start = System.nanoTime();
+        long stored = 0;
+        for (YearMonth month = YearMonth.of(2025, 1); month.getYear() == 2025; month = month.plusMonths(1)) {
+            List<Attendance.AttendanceRecord> records = new ArrayList<>();
+            for (LocalDate day = month.atDay(1); !day.isAfter(month.atEndOfMonth()); day = day.plusDays(1)) {
+                if (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                    continue;
+                }
+                for (int employee = 0; employee < employees; employee++) {
+                    records.add(randomRecord(random, FIRST_EMPLOYEE + employee, day));
+                }
+            }
+            Attendance.putRecords(records);
+            stored += records.size();
+        }
+        FlushScheduler.flushAll();
+        System.out.printf("Attendance: %,d records of %,d employees over 12 months stored in %,d ms, on %d cores%n",
+            stored, employees, (System.nanoTime() - start) / 1_000_000, Runtime.getRuntime().availableProcessors());
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            System.out.printf("Rebuild %d: %s%n", round, AttendanceAnalytics.rebuild().getSummary());
+        }
+
+        // Corrections recorded while every month is rolled up again
+        AtomicBoolean rebuilding = new AtomicBoolean(true);
+        long[] concurrent = new long[1];
+        Thread writer = new Thread(() -> {
+            Random writerRandom = new Random(7);
+            try {
+                while (rebuilding.get()) {
+                    Attendance.putRecords(corrections(writerRandom, employees));
+                    concurrent[0] += CORRECTION_BATCH_SIZE;
+                }
+            } catch (IOException e) {
+                System.err.println("Error recording corrections: " + e.getMessage());
+            }
+        }, "analytics-writer");
+        writer.start();
+        AttendanceAnalytics.RebuildResult result = AttendanceAnalytics.rebuild();
+        rebuilding.set(false);
+        writer.join();
+        System.out.printf("Rebuild with corrections recorded meanwhile: %s | %,d corrections recorded%n", result.getSummary(), concurrent[0]);
+
+        start = System.nanoTime();
+        for (int batch = 0; batch < CORRECTION_BATCHES; batch++) {
+            Attendance.putRecords(corrections(random, employees));
+        }
+        long correctionNanos = System.nanoTime() - start;
+        int corrections = CORRECTION_BATCHES * CORRECTION_BATCH_SIZE;
+        for (int i = 0; i < REMOVED_EMPLOYEES; i++) {
+            Attendance.removeAttendanceRecords(String.valueOf(FIRST_EMPLOYEE + random.nextInt(employees)));
+        }
+        System.out.printf("Corrections: %,d in batches of %d in %,d ms (%,.0f per second, rollups included) | %d employees removed%n",
+            corrections, CORRECTION_BATCH_SIZE, correctionNanos / 1_000_000, corrections * 1e9 / correctionNanos, REMOVED_EMPLOYEES);
+
+        YearMonth month = YearMonth.of(2025, 12);
+        for (int round = 1; round <= ROUNDS; round++) {
+            start = System.nanoTime();
+            List<AttendanceAnalytics.PositionCounts> positions = AttendanceAnalytics.getPositionCounts(month);
+            long rollupNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            Map<String, AttendanceAnalytics.Counts> scanned = scan(month);
+            long scanNanos = System.nanoTime() - start;
+            System.out.printf("Read %s %d: from rollups %.2f ms (%d positions) | scanning records %.2f ms (%,d employees)%n",
+                month, round, rollupNanos / 1e6, positions.size(), scanNanos / 1e6, scanned.size());
+        }
+
+        int mismatches = 0;
+        int employeeMonths = 0;
+        for (YearMonth checked : AttendanceAnalytics.getMonths()) {
+            Map<String, AttendanceAnalytics.Counts> expected = scan(checked);
+            Map<String, AttendanceAnalytics.Counts> actual = AttendanceAnalytics.getEmployeeCounts(checked);
+            employeeMonths += expected.size();
+            for (Map.Entry<String, AttendanceAnalytics.Counts> counts : expected.entrySet()) {
+                if (!counts.getValue().equals(actual.get(counts.getKey()))) {
+                    mismatches++;
+                }
+            }
+            mismatches += Math.max(0, actual.size() - expected.size());
+        }
+        System.out.println(AttendanceAnalytics.getStatusSummary());
+        System.out.printf("Exactness check: %,d of %,d employee months differ from a scan of the records%n", mismatches, employeeMonths);
+        FlushScheduler.flushAll();
+    }
+
+    /**
+     * Makes a batch of corrections to random employees on random days of November and December.
+     *
+     * @param random The random source
+     * @param employees The number of employees
+     * @return The corrected records
+     */
+    private static List<Attendance.AttendanceRecord> corrections(Random random, int employees) {
+        List<Attendance.AttendanceRecord> records = new ArrayList<>(CORRECTION_BATCH_SIZE);
+        for (int i = 0; i < CORRECTION_BATCH_SIZE; i++) {
+            LocalDate day = LocalDate.of(2025, 11, 1).plusDays(random.nextInt(61));
+            records.add(randomRecord(random, FIRST_EMPLOYEE + random.nextInt(employees), day));
+        }
+        return records;
+    }
+
+    /**
+     * Makes one day's record: mostly present, some late or leaving early or staying late, a few absences and half days.
+     *
+     * @param random The random source
+     * @param employeeNumber The employee number
+     * @param day The day
+     * @return The record
+     */
+    private static Attendance.AttendanceRecord randomRecord(Random random, int employeeNumber, LocalDate day) {
+        int draw = random.nextInt(100);
+        if (draw < 3) {
+            return new Attendance.AttendanceRecord(employeeNumber, (int) day.toEpochDay(), Attendance.Status.ABSENT.getCode(),
+                Attendance.AttendanceRecord.NO_TIME, Attendance.AttendanceRecord.NO_TIME);
+        }
+        if (draw < 5) {
+            return new Attendance.AttendanceRecord(employeeNumber, (int) day.toEpochDay(), Attendance.Status.HALF_DAY.getCode(),
+                (short) (8 * 60), (short) (12 * 60));
+        }
+        int in = 7 * 60 + 30 + random.nextInt(75);
+        int out = 16 * 60 + random.nextInt(180);
+        Attendance.Status status = in > AttendancePay.SHIFT_START ? Attendance.Status.LATE : Attendance.Status.PRESENT;
+        return new Attendance.AttendanceRecord(employeeNumber, (int) day.toEpochDay(), status.getCode(), (short) in, (short) out);
+    }
+
+    /**
+     * Adds up a month's counts from its records, as the dashboard would without rollups.
+     *
+     * @param month The month
+     * @return Map of employeeId -> counts
+     * @throws IOException If the records cannot be read
+     */
+    private static Map<String, AttendanceAnalytics.Counts> scan(YearMonth month) throws IOException {
+        Map<String, AttendanceAnalytics.Counts> counts = new HashMap<>();
+        for (Attendance.AttendanceRecord record : Attendance.getRecords(month.toString())) {
+            counts.merge(record.getEmployeeId(), AttendanceAnalytics.Counts.of(record), AttendanceAnalytics.Counts::plus);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,151 @@
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * AttendanceIndexBenchmark class times the employee and date indexes of PackedAttendance against full scans
+ * Generates one month of working days for a workforce, then fetches one employee's month, the daily roster
+ * and removes employees both by scanning every record, as was done before, and through the indexes,
+ * checks that both return the same records and prints the time per query and the memory of the indexes
+ * Usage: java -cp bin AttendanceIndexBenchmark [employees]
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class AttendanceIndexBenchmark {
+    private static final int DEFAULT_EMPLOYEES = 20_000;
+    private static final int QUERIES = 200;
+    private static final int ROUNDS = 3;
+    private static final String[] STATUSES = {"Present", "Present", "Present", "Present", "Late", "Absent", "On Leave", "Half Day"};
+
+    /**
+     * Generates the month, runs both forms of every query and checks they agree.
+     *
+     * @param args Optional employee count (default 20,000)
+     */
+    public static void main(String[] args) {
+        int employees = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_EMPLOYEES;
+        LocalDate first = LocalDate.of(2025, 7, 1);
+        LocalDate last = first.plusMonths(1).minusDays(1);
+        List<LocalDate> days = new ArrayList<>();
+        for (LocalDate date = first; !date.isAfter(last); date = date.plusDays(1)) {
+            if (date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                days.add(date);
+            }
+        }
+        PackedAttendance records = new PackedAttendance();
+        Random random = new Random(42);
+        for (LocalDate date : days) {
+            for (int employee = 0; employee < employees; employee++) {
+                String status = STATUSES[random.nextInt(STATUSES.length)];
+                boolean worked = status.equals("Present") || status.equals("Late");
+                records.put(new Attendance.AttendanceRecord(String.valueOf(10_000 + employee), date.toString(), status,
+                    worked ? "08:00" : "", worked ? "17:00" : ""));
+            }
+        }
+        records.trimToSize();
+        System.out.printf("Records: %,d (%,d employees x %d working days)%n", records.size(), employees, days.size());
+
+        long start = System.nanoTime();
+        records.getRecordsOn(first);
+        System.out.printf("Index build on first query: %,d ms, %.1f bytes/record over the %.1f bytes/record table%n",
+            (System.nanoTime() - start) / 1_000_000, (double) records.getIndexBytes() / records.size(),
+            (double) records.getTableBytes() / records.size());
+
+        int mismatches = 0;
+        for (int round = 1; round <= ROUNDS; round++) {
+            long scanNanos = 0;
+            long indexNanos = 0;
+            for (int query = 0; query < QUERIES; query++) {
+                String employeeId = String.valueOf(10_000 + random.nextInt(employees));
+                start = System.nanoTime();
+                List<Attendance.AttendanceRecord> scanned = new ArrayList<>();
+                for (Attendance.AttendanceRecord record : records.values()) {
+                    if (record.getEmployeeId().equals(employeeId)) {
+                        scanned.add(record);
+                    }
+                }
+                scanned.sort(Comparator.comparing(Attendance.AttendanceRecord::getDate));
+                scanNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                List<Attendance.AttendanceRecord> indexed = records.getEmployeeRecords(employeeId, first, last);
+                indexNanos += System.nanoTime() - start;
+                mismatches += differences(scanned, indexed);
+            }
+            System.out.printf("Round %d: one employee's month: scan %,.0f us | index %,.1f us%n",
+                round, scanNanos / 1000.0 / QUERIES, indexNanos / 1000.0 / QUERIES);
+
+            scanNanos = 0;
+            indexNanos = 0;
+            for (LocalDate date : days) {
+                String text = date.toString();
+                start = System.nanoTime();
+                List<Attendance.AttendanceRecord> scanned = new ArrayList<>();
+                for (Attendance.AttendanceRecord record : records.values()) {
+                    if (record.getDate().equals(text)) {
+                        scanned.add(record);
+                    }
+                }
+                scanned.sort(Comparator.comparing(Attendance.AttendanceRecord::getEmployeeNumber));
+                scanNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                List<Attendance.AttendanceRecord> indexed = records.getRecordsOn(date);
+                indexNanos += System.nanoTime() - start;
+                mismatches += differences(scanned, indexed);
+            }
+            System.out.printf("Round %d: daily roster: scan %,.1f ms | index %,.2f ms%n",
+                round, scanNanos / 1_000_000.0 / days.size(), indexNanos / 1_000_000.0 / days.size());
+        }
+
+        // Removing an employee: key prefix scan of a copy against the employee index
+        PackedAttendance copy = new PackedAttendance();
+        copy.putAll(records);
+        long scanNanos = 0;
+        long indexNanos = 0;
+        for (int query = 0; query < QUERIES; query++) {
+            String employeeId = String.valueOf(10_000 + query);
+            start = System.nanoTime();
+            String prefix = employeeId + "|";
+            int scanned = 0;
+            for (Map.Entry<String, Attendance.AttendanceRecord> entry : copy.entrySet()) {
+                if (entry.getKey().startsWith(prefix)) {
+                    copy.remove(entry.getKey());
+                    scanned++;
+                }
+            }
+            scanNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int indexed = records.removeEmployee(employeeId);
+            indexNanos += System.nanoTime() - start;
+            mismatches += scanned == indexed ? 0 : 1;
+        }
+        System.out.printf("Remove one employee: scan %,.1f ms | index %,.1f us%n",
+            scanNanos / 1_000_000.0 / QUERIES, indexNanos / 1000.0 / QUERIES);
+        mismatches += copy.size() == records.size() ? 0 : 1;
+        System.out.printf("Exactness check: %,d results differ%n", mismatches);
+    }
+
+    /**
+     * Compares two results record by record.
+     *
+     * @param expected The records found by scanning
+     * @param actual The records found through an index
+     * @return 0 if both hold the same records in the same order, otherwise 1
+     */
+    private static int differences(List<Attendance.AttendanceRecord> expected, List<Attendance.AttendanceRecord> actual) {
+        if (expected.size() != actual.size()) {
+            return 1;
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            if (!Attendance.sameRecord(expected.get(i), actual.get(i))) {
+                return 1;
+            }
+        }
+        return 0;
+    }
+}
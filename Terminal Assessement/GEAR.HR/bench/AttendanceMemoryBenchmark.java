@@ -0,0 +1,166 @@
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * AttendanceMemoryBenchmark class compares the heap used by attendance records held as Strings with PackedAttendance
+ * Generates a year of working days for a workforce, holds it once as five Strings per record under
+ * "employeeID|date" keys in a HashMap, as attendance was held before, and once in PackedAttendance,
+ * checks that every record reads back identically and prints bytes per record and lookup rates
+ * Usage: java -cp bin AttendanceMemoryBenchmark [employees]
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class AttendanceMemoryBenchmark {
+    private static final int DEFAULT_EMPLOYEES = 2_000;
+    private static final int ROUNDS = 3;
+    private static final String[] STATUSES = {"Present", "Present", "Present", "Present", "Late", "Absent", "On Leave", "Half Day"};
+
+    /**
+     * Generates the records, measures both forms and checks they agree.
+     *
+     * @param args Optional employee count (default 2,000)
+     */
+    public static void main(String[] args) {
+        int employees = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_EMPLOYEES;
+        LocalDate first = LocalDate.of(2024, 1, 1);
+        int days = 0;
+        for (LocalDate date = first; date.getYear() == 2024; date = date.plusDays(1)) {
+            if (date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                days++;
+            }
+        }
+        int records = employees * days;
+        System.out.printf("Records: %,d (%,d employees x %d working days)%n", records, employees, days);
+
+        long before = usedHeap();
+        Map<String, String[]> strings = new HashMap<>();
+        fill(employees, first, (key, fields) -> strings.put(key, fields));
+        long stringBytes = usedHeap() - before;
+
+        before = usedHeap();
+        PackedAttendance packed = new PackedAttendance();
+        fill(employees, first, (key, fields) ->
+            packed.put(new Attendance.AttendanceRecord(fields[0], fields[1], fields[2], fields[3], fields[4])));
+        packed.trimToSize();
+        long packedBytes = usedHeap() - before;
+
+        System.out.printf("Strings in HashMap: %,d MB (%.0f bytes/record)%n", stringBytes >> 20, (double) stringBytes / records);
+        System.out.printf("PackedAttendance:   %,d MB (%.1f bytes/record, table %.1f bytes/record, %d overflow)%n",
+            packedBytes >> 20, (double) packedBytes / records, (double) packed.getTableBytes() / records,
+            packed.getOverflowCount());
+        System.out.printf("10 years for 20,000 employees: about %,d MB as Strings, %,d MB packed%n",
+            stringBytes / records * 20_000L * days * 10 >> 20, packed.getTableBytes() * 20_000L * 10 / employees >> 20);
+
+        String[] keys = strings.keySet().toArray(new String[0]);
+        for (int round = 1; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            long found = 0;
+            for (String key : keys) {
+                found += strings.get(key)[2].length();
+            }
+            long stringNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (String key : keys) {
+                found -= packed.get(key).getStatus().length();
+            }
+            long packedNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long minutes = 0;
+            for (int employee = 0; employee < employees; employee++) {
+                for (int day = 0; day < 366; day++) {
+                    Attendance.AttendanceRecord record = packed.get(10_000 + employee, (int) first.toEpochDay() + day);
+                    if (record != null) {
+                        minutes += record.getTimeInMinutes();
+                    }
+                }
+            }
+            long typedNanos = System.nanoTime() - start;
+            System.out.printf("Round %d: String key lookups %,.0f/s | packed by String key %,.0f/s | packed by number and day "
+                    + "%,.0f/s%s%n", round, perSecond(keys.length, stringNanos), perSecond(keys.length, packedNanos),
+                perSecond(employees * 366, typedNanos), found == 0 && minutes > 0 ? "" : " | RESULTS DIFFER");
+        }
+
+        int mismatches = 0;
+        for (Map.Entry<String, String[]> entry : strings.entrySet()) {
+            Attendance.AttendanceRecord record = packed.get(entry.getKey());
+            String[] fields = entry.getValue();
+            if (record == null || !record.getEmployeeId().equals(fields[0]) || !record.getDate().equals(fields[1])
+                    || !record.getStatus().equals(fields[2]) || !record.getTimeIn().equals(fields[3])
+                    || !record.getTimeOut().equals(fields[4])) {
+                mismatches++;
+            }
+        }
+        System.out.printf("Exactness check: %,d of %,d records differ%n", mismatches + Math.abs(packed.size() - strings.size()), records);
+    }
+
+    /**
+     * Receives one generated record.
+     */
+    private interface Sink {
+        void accept(String key, String[] fields);
+    }
+
+    /**
+     * Generates a year of working days for every employee, each field a separate String as read from a CSV line.
+     *
+     * @param employees The number of employees
+     * @param first The first day of the year
+     * @param sink Receives the records
+     */
+    private static void fill(int employees, LocalDate first, Sink sink) {
+        Random random = new Random(42);
+        for (LocalDate date = first; date.getYear() == first.getYear(); date = date.plusDays(1)) {
+            if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                continue;
+            }
+            for (int employee = 0; employee < employees; employee++) {
+                String status = STATUSES[random.nextInt(STATUSES.length)];
+                boolean worked = status.equals("Present") || status.equals("Late");
+                String employeeId = String.valueOf(10_000 + employee);
+                String day = date.toString();
+                String timeIn = worked ? time(7 * 60 + 30 + random.nextInt(90)) : "";
+                String timeOut = worked ? time(16 * 60 + 30 + random.nextInt(120)) : "";
+                sink.accept(Attendance.recordKey(employeeId, day),
+                    new String[]{new String(employeeId), new String(day), new String(status), timeIn, timeOut});
+            }
+        }
+    }
+
+    /**
+     * Writes minutes of the day as HH:mm.
+     *
+     * @param minutes Minutes of the day
+     * @return The time
+     */
+    private static String time(int minutes) {
+        return String.format("%02d:%02d", minutes / 60, minutes % 60);
+    }
+
+    /**
+     * Measures the heap in use after garbage collection.
+     *
+     * @return Used heap in bytes
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Converts a count and duration to a rate.
+     *
+     * @param count The number of lookups
+     * @param nanos The elapsed time in nanoseconds
+     * @return Lookups per second
+     */
+    private static double perSecond(long count, long nanos) {
+        return count * 1_000_000_000.0 / nanos;
+    }
+}
@@ -0,0 +1,272 @@
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * ClockServerBenchmark class drives ClockServer with punches over loopback HTTP and measures latency
+ * Starts the server on month partitions in a temporary folder and sends punches at a fixed rate from client
+ * threads, each holding one kept-alive connection as a time clock would and sending a request only once the
+ * last is answered. Each employee always punches through the same client, so their punches arrive in order: every employee clocks
+ * in, then every employee clocks out, day after day. Latency is taken from the time each punch was due to be
+ * sent, so a client that falls behind counts its wait. Each round uses a new month, and every stored record is
+ * checked against the punches sent
+ * Usage: java -cp bin ClockServerBenchmark [punches per second] [seconds per round]
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class ClockServerBenchmark {
+    private static final int DEFAULT_RATE = 5_000;
+    private static final int DEFAULT_SECONDS = 5;
+    private static final int EMPLOYEES = 20_000;
+    private static final int FIRST_EMPLOYEE = 10_000;
+    private static final int CLIENTS = 50;
+    private static final int ROUNDS = 3;
+
+    /**
+     * Runs the rounds and prints throughput, latency percentiles and the exactness check.
+     *
+     * @param args Optional punches per second (default 5,000) and seconds per round (default 5)
+     * @throws Exception If the server cannot be started or a request fails
+     */
+    public static void main(String[] args) throws Exception {
+        int rate = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_RATE;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SECONDS;
+
+        Path folder = Files.createTempDirectory("clock");
+        AttendancePartitions partitions = new AttendancePartitions(folder.resolve("attendance"), folder.resolve("none.csv"), 3);
+        partitions.open();
+        ClockServer.RecordStore store = new ClockServer.RecordStore() {
+            @Override
+            public Attendance.AttendanceRecord get(String employeeId, LocalDate date) throws IOException {
+                List<Attendance.AttendanceRecord> records = partitions.getEmployeeRecords(employeeId, date, date);
+                return records.isEmpty() ? null : records.get(0);
+            }
+
+            @Override
+            public void putAllDurably(List<Attendance.AttendanceRecord> records) throws IOException {
+                partitions.putAllDurably(records);
+            }
+        };
+        ClockServer server = new ClockServer(new InetSocketAddress("127.0.0.1", 0), store, employeeId -> {
+            int employeeNumber = Integer.parseInt(employeeId);
+            return employeeNumber >= FIRST_EMPLOYEE && employeeNumber < FIRST_EMPLOYEE + EMPLOYEES;
+        }, null);
+        InetSocketAddress address = new InetSocketAddress("127.0.0.1", server.getPort());
+        System.out.printf("Clock server on port %d with %s | %,d punches/s for %d s per round from %d clients%n",
+            server.getPort(), server.usesVirtualThreads() ? "virtual threads" : "a thread pool (no virtual threads before Java 21)",
+            rate, seconds, CLIENTS);
+
+        int mismatches = 0;
+        for (int round = 1; round <= ROUNDS; round++) {
+            LocalDate firstDay = LocalDate.of(2025, 6 + round, 1);
+            int punches = rate * seconds;
+            long[] latencies = new long[punches];
+            AtomicInteger failures = new AtomicInteger();
+            long start = System.nanoTime() + 10_000_000L;
+            Thread[] clients = new Thread[CLIENTS];
+            for (int client = 0; client < CLIENTS; client++) {
+                int first = client;
+                clients[client] = new Thread(() -> {
+                    Socket socket = null;
+                    InputStream in = null;
+                    // Punch i is due at start + i / rate; EMPLOYEES is a multiple of CLIENTS, so each employee has one client
+                    for (int i = first; i < punches; i += CLIENTS) {
+                        long due = start + i * 1_000_000_000L / rate;
+                        long wait = due - System.nanoTime();
+                        if (wait > 0) {
+                            LockSupport.parkNanos(wait);
+                        }
+                        try {
+                            if (socket == null) {
+                                socket = new Socket();
+                                socket.setTcpNoDelay(true);
+                                socket.connect(address);
+                                in = new BufferedInputStream(socket.getInputStream());
+                            }
+                            if (send(socket.getOutputStream(), in, punchBody(firstDay, i)) != 200) {
+                                failures.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            failures.incrementAndGet();
+                            close(socket);
+                            socket = null;
+                        }
+                        latencies[i] = System.nanoTime() - due;
+                    }
+                    close(socket);
+                }, "clock-client-" + client);
+                clients[client].start();
+            }
+            for (Thread client : clients) {
+                client.join();
+            }
+            long elapsed = System.nanoTime() - start;
+
+            Arrays.sort(latencies);
+            System.out.printf("Round %d: %,d punches in %,d ms (%,.0f punches/s) | Latency p50 %.2f ms | p99 %.2f ms | max %.2f ms"
+                    + " | Failed: %,d%n", round, punches, elapsed / 1_000_000, punches * 1_000_000_000.0 / elapsed,
+                percentile(latencies, 0.50), percentile(latencies, 0.99), latencies[punches - 1] / 1_000_000.0, failures.get());
+            mismatches += check(partitions, firstDay, punches) + failures.get();
+        }
+        System.out.println(server.getSummary());
+        System.out.println(FlushScheduler.getStatusSummary());
+        System.out.printf("Exactness check: %,d records differ from the punches sent%n", mismatches);
+
+        server.stop();
+        FlushScheduler.flushAll();
+        try (Stream<Path> files = Files.walk(folder)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    /**
+     * Builds the form of punch i: rounds of one punch per employee, clocking in on even rounds and out on odd ones.
+     *
+     * @param firstDay The day of the first round
+     * @param i The punch number
+     * @return The request body
+     */
+    private static String punchBody(LocalDate firstDay, int i) {
+        int employee = i % EMPLOYEES;
+        int round = i / EMPLOYEES;
+        LocalDate day = firstDay.plusDays(round / 2);
+        int minute = punchMinute(employee, day, round % 2 == 1);
+        return String.format("employeeId=%d&time=%sT%02d:%02d", FIRST_EMPLOYEE + employee, day, minute / 60, minute % 60);
+    }
+
+    /**
+     * Picks an employee's time in or time out of a day, the same on every call.
+     *
+     * @param employee The employee index
+     * @param day The day
+     * @param out true for the time out
+     * @return Minutes of the day
+     */
+    private static int punchMinute(int employee, LocalDate day, boolean out) {
+        int hash = (employee * 31 + (int) day.toEpochDay()) * 0x9E3779B1;
+        return out ? 16 * 60 + 30 + ((hash >>> 8) & 0xFFFF) % 120 : 7 * 60 + 30 + (hash >>> 16) % 90;
+    }
+
+    /**
+     * Posts one punch over a kept-alive connection and reads the whole response, so the next request can follow.
+     * Written directly on the socket rather than through HttpURLConnection so the clients, which share the
+     * machine with the server, spend as little time as a time clock would.
+     *
+     * @param out The connection's output
+     * @param in The connection's buffered input
+     * @param body The form
+     * @return The HTTP status code
+     * @throws IOException If the connection fails or the response cannot be read
+     */
+    private static int send(OutputStream out, InputStream in, String body) throws IOException {
+        byte[] form = body.getBytes(StandardCharsets.UTF_8);
+        byte[] head = ("POST " + ClockServer.PUNCH_PATH + " HTTP/1.1\r\nHost: 127.0.0.1\r\n"
+            + "Content-Type: application/x-www-form-urlencoded\r\nContent-Length: " + form.length + "\r\n\r\n")
+            .getBytes(StandardCharsets.US_ASCII);
+        byte[] request = Arrays.copyOf(head, head.length + form.length);
+        System.arraycopy(form, 0, request, head.length, form.length);
+        out.write(request);
+        out.flush();
+
+        String statusLine = readLine(in);
+        int contentLength = 0;
+        for (String header = readLine(in); !header.isEmpty(); header = readLine(in)) {
+            if (header.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                contentLength = Integer.parseInt(header.substring(15).trim());
+            }
+        }
+        for (int i = 0; i < contentLength; i++) {
+            if (in.read() < 0) {
+                throw new IOException("Connection closed in the response");
+            }
+        }
+        return Integer.parseInt(statusLine.substring(9, 12));
+    }
+
+    /**
+     * Reads one line of a response header.
+     *
+     * @param in The response
+     * @return The line without its line break
+     * @throws IOException If the connection is closed first
+     */
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int c = in.read(); c != '\n'; c = in.read()) {
+            if (c < 0) {
+                throw new IOException("Connection closed in the response");
+            }
+            if (c != '\r') {
+                line.append((char) c);
+            }
+        }
+        return line.toString();
+    }
+
+    /**
+     * Closes a client connection, ignoring errors.
+     *
+     * @param socket The connection, or null
+     */
+    private static void close(Socket socket) {
+        try {
+            if (socket != null) {
+                socket.close();
+            }
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+
+    /**
+     * Compares the stored records of a round with the records its punches should have made.
+     *
+     * @param partitions The attendance storage
+     * @param firstDay The day of the first round
+     * @param punches The number of punches sent
+     * @return The number of records that differ or are missing
+     * @throws IOException If the records cannot be read
+     */
+    private static int check(AttendancePartitions partitions, LocalDate firstDay, int punches) throws IOException {
+        int mismatches = 0;
+        int rounds = (punches + EMPLOYEES - 1) / EMPLOYEES;
+        for (int round = 0; round < rounds; round += 2) {
+            LocalDate day = firstDay.plusDays(round / 2);
+            for (int employee = 0; employee < EMPLOYEES && round * EMPLOYEES + employee < punches; employee++) {
+                int in = punchMinute(employee, day, false);
+                boolean clockedOut = (round + 1) * EMPLOYEES + employee < punches;
+                Attendance.AttendanceRecord expected = new Attendance.AttendanceRecord(FIRST_EMPLOYEE + employee, (int) day.toEpochDay(),
+                    (in > AttendancePay.SHIFT_START ? Attendance.Status.LATE : Attendance.Status.PRESENT).getCode(), (short) in,
+                    clockedOut ? (short) punchMinute(employee, day, true) : Attendance.AttendanceRecord.NO_TIME);
+                List<Attendance.AttendanceRecord> stored = partitions.getEmployeeRecords(String.valueOf(FIRST_EMPLOYEE + employee), day, day);
+                if (stored.size() != 1 || !Attendance.sameRecord(stored.get(0), expected)) {
+                    mismatches++;
+                }
+            }
+        }
+        return mismatches;
+    }
+
+    /**
+     * Reads a percentile from sorted latencies.
+     *
+     * @param sorted Latencies in nanoseconds, in ascending order
+     * @param fraction The percentile as a fraction
+     * @return The latency in milliseconds
+     */
+    private static double percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))] / 1_000_000.0;
+    }
+}
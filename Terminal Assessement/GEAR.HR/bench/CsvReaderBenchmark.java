@@ -0,0 +1,106 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+/**
+ * CsvReaderBenchmark class compares CsvReader with the regex split previously used by
+ * EmployeeProfile.loadEmployeesFromCSV on a generated employees file
+ * Usage: java -cp bin CsvReaderBenchmark [rows]
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class CsvReaderBenchmark {
+    private static final String QUOTED_COMMA_SPLIT = ",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)";
+    private static final int DEFAULT_ROWS = 1_000_000;
+    private static final int ROUNDS = 3;
+
+    /**
+     * Generates the test file and times both parsers.
+     *
+     * @param args Optional row count (default 1,000,000)
+     * @throws IOException If the test file cannot be written or read
+     */
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROWS;
+        Path file = Files.createTempFile("employees-bench", ".csv");
+        try {
+            writeEmployeesFile(file, rows);
+            System.out.printf("Employees file: %,d rows, %,d bytes%n", rows, Files.size(file));
+
+            for (int round = 1; round <= ROUNDS; round++) {
+                long start = System.nanoTime();
+                long regexFields = parseWithRegex(file);
+                long regexNanos = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                long readerFields = parseWithCsvReader(file);
+                long readerNanos = System.nanoTime() - start;
+
+                System.out.printf("Round %d: regex %,d ms (%,d fields) | CsvReader %,d ms (%,d fields) | speedup %.1fx%n",
+                    round, regexNanos / 1_000_000, regexFields, readerNanos / 1_000_000, readerFields,
+                    (double) regexNanos / readerNanos);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Writes an employees.csv-style file, with a quoted comma in every fourth address.
+     *
+     * @param file The file to write
+     * @param rows The number of data rows
+     * @throws IOException If the file cannot be written
+     */
+    private static void writeEmployeesFile(Path file, int rows) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("EmployeeNumber,LastName,FirstName,SSS,PhilHealth,TIN,PagIBIG,Email,Position,Address,Phone");
+            writer.newLine();
+            for (int i = 0; i < rows; i++) {
+                int id = 10000 + i;
+                String address = i % 4 == 0 ? "\"Leyte, Palo\"" : "Philippines";
+                writer.write(id + ",Garcia,Manuel III,44-4506057-3,820126853951,442-605-657-000,691295330870,"
+                    + "emp" + id + "@motorph.com,Developer," + address + ",966-860-270");
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Parses the file the way the old loader did.
+     *
+     * @param file The file to parse
+     * @return The total number of fields, so the work cannot be optimized away
+     * @throws IOException If the file cannot be read
+     */
+    private static long parseWithRegex(Path file) throws IOException {
+        long fields = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                fields += line.split(QUOTED_COMMA_SPLIT, -1).length;
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Parses the file with CsvReader, creating every field String as the loader does.
+     *
+     * @param file The file to parse
+     * @return The total number of fields, so the work cannot be optimized away
+     * @throws IOException If the file cannot be read
+     */
+    private static long parseWithCsvReader(Path file) throws IOException {
+        long fields = 0;
+        try (CsvReader reader = CsvReader.open(file)) {
+            reader.next();
+            while (reader.next()) {
+                for (int i = 0; i < reader.getFieldCount(); i++) {
+                    fields += reader.getField(i).isEmpty() ? 0 : 1;
+                }
+            }
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,196 @@
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+/**
+ * PayrollKernelBenchmark class compares PayrollKernel with one PayrollData object per employee and with BigDecimal
+ * Computes contributions, withholding tax and net salary for generated salaries three ways,
+ * checks that every result is identical to the centavo and prints the timings
+ * The BigDecimal path applies the built-in contribution tables, so run it with the default rules/ folder
+ * Usage: java -cp bin PayrollKernelBenchmark [rows]
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class PayrollKernelBenchmark {
+    private static final int DEFAULT_ROWS = 1_000_000;
+    private static final int ROUNDS = 5;
+
+    // Built-in tables as BigDecimal values
+    private static final BigDecimal SSS_FIRST_STEP = new BigDecimal("5250");
+    private static final BigDecimal SSS_STEP_WIDTH = new BigDecimal("500");
+    private static final BigDecimal SSS_FIRST_AMOUNT = new BigDecimal("250");
+    private static final BigDecimal SSS_STEP_AMOUNT = new BigDecimal("25");
+    private static final BigDecimal SSS_MAXIMUM = new BigDecimal("1750");
+    private static final BigDecimal PHILHEALTH_RATE = new BigDecimal("0.05");
+    private static final BigDecimal PHILHEALTH_MINIMUM = new BigDecimal("500");
+    private static final BigDecimal PHILHEALTH_MAXIMUM = new BigDecimal("5000");
+    private static final BigDecimal PAGIBIG_RATE = new BigDecimal("0.02");
+    private static final BigDecimal PAGIBIG_MAXIMUM = new BigDecimal("200");
+    private static final BigDecimal[][] TAX_BRACKETS = {
+        {new BigDecimal("666666"), new BigDecimal("200833.33"), new BigDecimal("0.35"), new BigDecimal("666667")},
+        {new BigDecimal("166666"), new BigDecimal("40833.33"), new BigDecimal("0.32"), new BigDecimal("166667")},
+        {new BigDecimal("66666"), new BigDecimal("10833.33"), new BigDecimal("0.30"), new BigDecimal("66667")},
+        {new BigDecimal("33332"), new BigDecimal("2500.00"), new BigDecimal("0.25"), new BigDecimal("33333")},
+        {new BigDecimal("20833"), BigDecimal.ZERO, new BigDecimal("0.20"), new BigDecimal("20833")}
+    };
+
+    /**
+     * Generates the salaries, checks all paths agree and times them.
+     *
+     * @param args Optional row count (default 1,000,000)
+     */
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROWS;
+        long[] base = new long[rows];
+        long[] rice = new long[rows];
+        long[] phone = new long[rows];
+        long[] clothing = new long[rows];
+        Random random = new Random(42);
+        for (int i = 0; i < rows; i++) {
+            // Mostly random centavo amounts, plus salaries on and next to bracket edges
+            switch (i % 8) {
+                case 0: base[i] = 525_000 + 50_000 * random.nextInt(62) - 1; break;
+                case 1: base[i] = 525_000 + 50_000 * random.nextInt(62); break;
+                default: base[i] = random.nextInt(80_000_000); break;
+            }
+            rice[i] = 150_000;
+            phone[i] = random.nextInt(200_000);
+            clothing[i] = random.nextInt(100_000);
+        }
+        System.out.printf("Rows: %,d on %d cores%n", rows, Runtime.getRuntime().availableProcessors());
+
+        PayrollKernel kernel = new PayrollKernel(rows);
+        SalaryComputation.PayrollData[] objects = new SalaryComputation.PayrollData[rows];
+        BigDecimal[] decimalNet = new BigDecimal[rows];
+        for (int round = 1; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            long objectTotal = computeObjects(base, rice, phone, clothing, objects);
+            long objectNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            BigDecimal decimalTotal = computeDecimals(base, rice, phone, clothing, decimalNet);
+            long decimalNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < rows; i++) {
+                kernel.set(i, null, base[i], rice[i], phone[i], clothing[i]);
+            }
+            kernel.computeContributions();
+            kernel.computePay(0, rows);
+            long kernelTotal = sumNet(kernel);
+            long kernelNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            kernel.computePay();
+            long parallelNanos = System.nanoTime() - start;
+
+            boolean totalsEqual = objectTotal == kernelTotal && decimalTotal.movePointRight(2).longValueExact() == kernelTotal;
+            System.out.printf("Round %d: BigDecimal %,d ms | objects %,d ms | kernel %,d ms (%.1fx BigDecimal) "
+                    + "| kernel pay only, parallel %,d ms | totals %s%n",
+                round, decimalNanos / 1_000_000, objectNanos / 1_000_000, kernelNanos / 1_000_000,
+                (double) decimalNanos / kernelNanos, parallelNanos / 1_000_000, totalsEqual ? "equal" : "DIFFERENT");
+        }
+
+        int mismatches = 0;
+        for (int i = 0; i < rows; i++) {
+            if (!sameAmounts(objects[i], kernel, i) || decimalNet[i].movePointRight(2).longValueExact() != kernel.getNetSalary(i)) {
+                if (mismatches++ < 5) {
+                    System.out.println("Mismatch at row " + i + ", base salary " + Money.format(base[i]));
+                }
+            }
+        }
+        System.out.printf("Exactness check: %,d of %,d rows differ%n", mismatches, rows);
+    }
+
+    /**
+     * Computes every row as the application does for a new payroll record.
+     *
+     * @param base The base salaries in centavos
+     * @param rice The rice subsidies in centavos
+     * @param phone The phone allowances in centavos
+     * @param clothing The clothing allowances in centavos
+     * @param objects Receives the payroll objects
+     * @return The sum of net salaries in centavos, so the work cannot be optimized away
+     */
+    private static long computeObjects(long[] base, long[] rice, long[] phone, long[] clothing,
+                                       SalaryComputation.PayrollData[] objects) {
+        long total = 0;
+        for (int i = 0; i < base.length; i++) {
+            objects[i] = SalaryComputation.computePayrollData(base[i], rice[i], phone[i], clothing[i]);
+            total += objects[i].calculateNetSalary();
+        }
+        return total;
+    }
+
+    /**
+     * Computes every row with BigDecimal arithmetic and the built-in tables, rounding like Money.
+     *
+     * @param base The base salaries in centavos
+     * @param rice The rice subsidies in centavos
+     * @param phone The phone allowances in centavos
+     * @param clothing The clothing allowances in centavos
+     * @param net Receives the net salaries in pesos
+     * @return The sum of net salaries in pesos
+     */
+    private static BigDecimal computeDecimals(long[] base, long[] rice, long[] phone, long[] clothing, BigDecimal[] net) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < base.length; i++) {
+            BigDecimal salary = BigDecimal.valueOf(base[i], 2);
+            BigDecimal allowances = BigDecimal.valueOf(rice[i], 2).add(BigDecimal.valueOf(phone[i], 2))
+                .add(BigDecimal.valueOf(clothing[i], 2));
+
+            BigDecimal sss = salary.compareTo(SSS_FIRST_STEP) < 0 ? SSS_FIRST_AMOUNT
+                : SSS_FIRST_AMOUNT.add(SSS_STEP_AMOUNT.multiply(salary.subtract(SSS_FIRST_STEP)
+                    .divideToIntegralValue(SSS_STEP_WIDTH).add(BigDecimal.ONE))).min(SSS_MAXIMUM);
+            BigDecimal philHealth = salary.multiply(PHILHEALTH_RATE).setScale(2, RoundingMode.HALF_UP)
+                .min(PHILHEALTH_MAXIMUM).max(PHILHEALTH_MINIMUM);
+            BigDecimal pagIbig = salary.signum() < 0 ? BigDecimal.ZERO
+                : salary.multiply(PAGIBIG_RATE).setScale(2, RoundingMode.HALF_UP).min(PAGIBIG_MAXIMUM);
+
+            BigDecimal taxable = salary.add(allowances);
+            BigDecimal tax = BigDecimal.ZERO;
+            for (BigDecimal[] bracket : TAX_BRACKETS) {
+                if (taxable.compareTo(bracket[0]) > 0) {
+                    BigDecimal excess = taxable.subtract(bracket[3]).max(BigDecimal.ZERO);
+                    tax = excess.multiply(bracket[2]).setScale(2, RoundingMode.HALF_UP).add(bracket[1]);
+                    break;
+                }
+            }
+
+            net[i] = salary.subtract(sss.add(philHealth).add(pagIbig).add(tax)).add(allowances);
+            total = total.add(net[i]);
+        }
+        return total;
+    }
+
+    /**
+     * Sums the net salaries of the kernel in row order.
+     *
+     * @param kernel The computed kernel
+     * @return The sum of net salaries in centavos
+     */
+    private static long sumNet(PayrollKernel kernel) {
+        long total = 0;
+        for (int i = 0; i < kernel.size(); i++) {
+            total += kernel.getNetSalary(i);
+        }
+        return total;
+    }
+
+    /**
+     * Checks that every amount of a row is the same on the object and kernel paths.
+     *
+     * @param data The object path result
+     * @param kernel The kernel
+     * @param row The row
+     * @return true if all amounts are identical
+     */
+    private static boolean sameAmounts(SalaryComputation.PayrollData data, PayrollKernel kernel, int row) {
+        return data.getSSSDeduction() == kernel.getSSSDeduction(row)
+            && data.getPhilHealthDeduction() == kernel.getPhilHealthDeduction(row)
+            && data.getPagIbigDeduction() == kernel.getPagIbigDeduction(row)
+            && data.getTaxDeduction() == kernel.getTaxDeduction(row)
+            && data.calculateTotalDeductions() == kernel.getTotalDeductions(row)
+            && data.calculateTotalAllowances() == kernel.getTotalAllowances(row)
+            && data.calculateNetSalary() == kernel.getNetSalary(row);
+    }
+}
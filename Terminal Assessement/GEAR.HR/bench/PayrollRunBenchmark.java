@@ -0,0 +1,62 @@
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * PayrollRunBenchmark class times a batch payroll run over a generated workforce
+ * Writes the payslips and register to a temporary folder that is deleted afterwards, then reruns the last period
+ * after raising one employee in a hundred, which rewrites only their payslips
+ * Usage: java -cp bin PayrollRunBenchmark [employees]
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class PayrollRunBenchmark {
+    private static final int DEFAULT_EMPLOYEES = 100_000;
+    private static final int ROUNDS = 3;
+
+    /**
+     * Generates the workforce and times the payroll runs.
+     *
+     * @param args Optional employee count (default 100,000)
+     * @throws IOException If the payslips cannot be written or deleted
+     */
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_EMPLOYEES;
+        List<EmployeeProfile.Employee> employees = new ArrayList<>(count);
+        Map<String, SalaryComputation.PayrollData> payroll = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < count; i++) {
+            String id = String.valueOf(10000 + i);
+            employees.add(new EmployeeProfile.Employee(id, "Garcia", "Manuel III", "44-4506057-3", "820126853951",
+                "442-605-657-000", "691295330870", "emp" + id + "@motorph.com", "Developer", "Philippines", "966-860-270"));
+            double base = 20000 + random.nextInt(80) * 1000;
+            payroll.put(id, new SalaryComputation.PayrollData(base, base * 0.045, base * 0.025, 200.0,
+                (float) (base * 0.1), 1500.0f, 1000.0f, 800.0f));
+        }
+        System.out.printf("Workforce: %,d employees on %d cores%n", count, Runtime.getRuntime().availableProcessors());
+
+        Path directory = Files.createTempDirectory("payroll-run-bench");
+        try {
+            for (int round = 1; round <= ROUNDS; round++) {
+                PayrollRun.Result result = PayrollRun.run(employees, payroll, YearMonth.of(2025, round), directory, null);
+                System.out.println("Round " + round + ": " + result.getSummary());
+            }
+
+            for (int i = 0; i < count; i += 100) {
+                String id = employees.get(i).getEmployeeNumber();
+                SalaryComputation.PayrollData data = payroll.get(id);
+                payroll.put(id, SalaryComputation.computePayrollData(data.getBaseSalary() + 100_000, data.getRiceSubsidy(),
+                    data.getPhoneAllowance(), data.getClothingAllowance()));
+            }
+            PayrollRun.Result rerun = PayrollRun.run(employees, payroll, YearMonth.of(2025, ROUNDS), directory, null);
+            System.out.println("Rerun after 1% raises: " + rerun.getSummary());
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * PayslipRenderBenchmark class compares PayslipTemplate with building payslips through String.format
+ * Renders generated payslips in memory with both, checks that the text payslips are identical,
+ * then times writing text and HTML payslip files to a temporary folder that is deleted afterwards
+ * Usage: java -cp bin PayslipRenderBenchmark [payslips]
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class PayslipRenderBenchmark {
+    private static final int DEFAULT_PAYSLIPS = 100_000;
+    private static final int ROUNDS = 5;
+    private static final String PERIOD = "July 2025";
+
+    /**
+     * Generates the payroll data, checks the renderer and times it.
+     *
+     * @param args Optional payslip count (default 100,000)
+     * @throws IOException If the payslip files cannot be written or deleted
+     */
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PAYSLIPS;
+        EmployeeProfile.Employee[] employees = new EmployeeProfile.Employee[count];
+        SalaryComputation.PayrollData[] payroll = new SalaryComputation.PayrollData[count];
+        Random random = new Random(42);
+        for (int i = 0; i < count; i++) {
+            String id = String.valueOf(10000 + i);
+            employees[i] = new EmployeeProfile.Employee(id, "Garcia", "Manuel III", "44-4506057-3", "820126853951",
+                "442-605-657-000", "691295330870", "emp" + id + "@motorph.com", "Developer", "Philippines", "966-860-270");
+            // Up to 100 million pesos, so amounts with one to three thousands separators are all covered
+            long base = i % 100 == 0 ? random.nextInt(Integer.MAX_VALUE) * 4L : random.nextInt(20_000_000);
+            payroll[i] = SalaryComputation.PayrollData.ofCentavos(base, random.nextInt(175_000), random.nextInt(500_000),
+                random.nextInt(20_000), random.nextInt(5_000_000), 150_000, random.nextInt(200_000), random.nextInt(100_000));
+            if (i % 4 == 0) {
+                payroll[i] = payroll[i].withAttendance(random.nextInt(500_000));
+            }
+        }
+        System.out.printf("Payslips: %,d%n", count);
+
+        int mismatches = 0;
+        PayslipTemplate.Renderer renderer = PayslipTemplate.TEXT.newRenderer();
+        for (int i = 0; i < count; i++) {
+            String expected = formatWithStringFormat(employees[i], PERIOD, payroll[i]);
+            if (!expected.contentEquals(renderer.render(employees[i], PERIOD, payroll[i]))) {
+                if (mismatches++ < 5) {
+                    System.out.println("Mismatch for employee " + employees[i].getEmployeeNumber());
+                }
+            }
+        }
+        System.out.printf("Exactness check: %,d of %,d payslips differ%n", mismatches, count);
+
+        Path directory = Files.createTempDirectory("payslip-render-bench");
+        try {
+            for (int round = 1; round <= ROUNDS; round++) {
+                long start = System.nanoTime();
+                long length = 0;
+                for (int i = 0; i < count; i++) {
+                    length += formatWithStringFormat(employees[i], PERIOD, payroll[i]).length();
+                }
+                long formatNanos = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (int i = 0; i < count; i++) {
+                    length -= renderer.render(employees[i], PERIOD, payroll[i]).length();
+                }
+                long templateNanos = System.nanoTime() - start;
+
+                long textNanos = writeAll(PayslipTemplate.TEXT, employees, payroll, directory);
+                long htmlNanos = writeAll(PayslipTemplate.HTML, employees, payroll, directory);
+
+                System.out.printf("Round %d: String.format %,.0f/s | template %,.0f/s (%.1fx) | text files %,.0f/s "
+                        + "| HTML files %,.0f/s%s%n",
+                    round, perSecond(count, formatNanos), perSecond(count, templateNanos), (double) formatNanos / templateNanos,
+                    perSecond(count, textNanos), perSecond(count, htmlNanos), length == 0 ? "" : " | LENGTHS DIFFER");
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes one payslip file per employee with one renderer, as a payroll run batch does.
+     *
+     * @param template The template
+     * @param employees The employees
+     * @param payroll The payroll data of each employee
+     * @param directory The folder receiving the files
+     * @return The elapsed time in nanoseconds
+     * @throws IOException If a file cannot be written
+     */
+    private static long writeAll(PayslipTemplate template, EmployeeProfile.Employee[] employees,
+                                 SalaryComputation.PayrollData[] payroll, Path directory) throws IOException {
+        long start = System.nanoTime();
+        PayslipTemplate.Renderer renderer = template.newRenderer();
+        for (int i = 0; i < employees.length; i++) {
+            Path file = directory.resolve(employees[i].getEmployeeNumber() + "." + template.getFileExtension());
+            renderer.write(file, employees[i], PERIOD, payroll[i]);
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Builds the text payslip with String.format, the way SalaryComputation did before PayslipTemplate.
+     *
+     * @param employee The employee
+     * @param month The pay period
+     * @param data The payroll data
+     * @return The payslip
+     */
+    private static String formatWithStringFormat(EmployeeProfile.Employee employee, String month,
+                                                 SalaryComputation.PayrollData data) {
+        StringBuilder result = new StringBuilder();
+        result.append("SALARY COMPUTATION FOR ").append(month.toUpperCase()).append("\n");
+        result.append("=====================================\n\n");
+        result.append("Employee: ").append(employee.getFirstName()).append(" ").append(employee.getLastName()).append("\n");
+        result.append("Employee ID: ").append(employee.getEmployeeNumber()).append("\n");
+        result.append("Position: ").append(employee.getPosition()).append("\n\n");
+        result.append("GROSS SALARY:\n");
+        result.append("Base Salary: ₱").append(pesos(data.getBaseSalary())).append("\n");
+        result.append("Absences/Tardiness: ₱").append(pesos(data.getAttendanceDeduction())).append("\n");
+        result.append("Gross Pay: ₱").append(pesos(data.calculateGrossPay())).append("\n\n");
+        result.append("DEDUCTIONS:\n");
+        result.append("SSS: ₱").append(pesos(data.getSSSDeduction())).append("\n");
+        result.append("PhilHealth: ₱").append(pesos(data.getPhilHealthDeduction())).append("\n");
+        result.append("Pag-IBIG: ₱").append(pesos(data.getPagIbigDeduction())).append("\n");
+        result.append("Withholding Tax: ₱").append(pesos(data.getTaxDeduction())).append("\n");
+        result.append("Total Deductions: ₱").append(pesos(data.calculateTotalDeductions())).append("\n\n");
+        result.append("ALLOWANCES:\n");
+        result.append("Rice Subsidy: ₱").append(pesos(data.getRiceSubsidy())).append("\n");
+        result.append("Phone Allowance: ₱").append(pesos(data.getPhoneAllowance())).append("\n");
+        result.append("Clothing Allowance: ₱").append(pesos(data.getClothingAllowance())).append("\n");
+        result.append("Total Allowances: ₱").append(pesos(data.calculateTotalAllowances())).append("\n\n");
+        result.append("NET SALARY: ₱").append(pesos(data.calculateNetSalary())).append("\n");
+        return result.toString();
+    }
+
+    /**
+     * Formats centavos with String.format, as payslips were formatted before.
+     *
+     * @param centavos The amount in centavos
+     * @return The formatted amount
+     */
+    private static String pesos(long centavos) {
+        return String.format("%,.2f", Money.toPesos(centavos));
+    }
+
+    /**
+     * Converts a count and duration to a rate.
+     *
+     * @param count The number of payslips
+     * @param nanos The elapsed time in nanoseconds
+     * @return Payslips per second
+     */
+    private static double perSecond(int count, long nanos) {
+        return count * 1_000_000_000.0 / nanos;
+    }
+}
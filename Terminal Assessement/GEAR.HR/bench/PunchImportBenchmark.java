@@ -0,0 +1,147 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * PunchImportBenchmark class times PunchImporter on a generated time clock log
+ * Writes a month of punches for a workforce in clock order, four per day with a few lone punches and double taps,
+ * imports it without storing the records to time parsing and pairing on one thread, then imports it into month
+ * partitions in a temporary folder and checks every stored record against the first and last punch generated
+ * Usage: java -cp bin PunchImportBenchmark [employees]
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class PunchImportBenchmark {
+    private static final int DEFAULT_EMPLOYEES = 20_000;
+    private static final int ROUNDS = 3;
+
+    /**
+     * Generates the log, times both imports and checks the stored records.
+     *
+     * @param args Optional employee count (default 20,000)
+     * @throws IOException If a file cannot be written or read
+     */
+    public static void main(String[] args) throws IOException {
+        int employees = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_EMPLOYEES;
+        Path folder = Files.createTempDirectory("punches");
+        Path log = folder.resolve("punches.csv");
+        PackedAttendance expected = new PackedAttendance();
+        long punches = generate(log, employees, expected);
+        System.out.printf("Log: %,d punches, %,d MB, %,d employee days%n", punches, Files.size(log) >> 20, expected.size());
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            long[] records = new long[1];
+            PunchImporter importer = new PunchImporter(batch -> {
+                records[0] += batch.size();
+                return batch;
+            }, null, PunchImporter.DEFAULT_BATCH_SIZE);
+            PunchImporter.Result result;
+            try (InputStream in = Files.newInputStream(log)) {
+                result = importer.importLog(in, null);
+            }
+            System.out.printf("Round %d, parse and pair only: %s%n", round, result.getSummary());
+        }
+
+        AttendancePartitions partitions = new AttendancePartitions(folder.resolve("attendance"), folder.resolve("none.csv"), 3);
+        partitions.open();
+        PunchImporter importer = new PunchImporter(PunchImporter.mergingInto(partitions), null, PunchImporter.DEFAULT_BATCH_SIZE);
+        PunchImporter.Result result = importer.importLog(log);
+        System.out.printf("Into month partitions: %s%n", result.getSummary());
+
+        int mismatches = 0;
+        int stored = 0;
+        for (String month : partitions.getMonths()) {
+            for (Attendance.AttendanceRecord record : partitions.getRecords(month)) {
+                stored++;
+                if (!Attendance.sameRecord(record, expected.get(record.getEmployeeNumber(), record.getEpochDay()))) {
+                    mismatches++;
+                }
+            }
+        }
+        System.out.printf("Exactness check: %,d of %,d records differ, %,d stored, %,d unmatched reported%n",
+            mismatches + Math.abs(stored - expected.size()), expected.size(), stored, result.getUnmatchedDays());
+
+        FlushScheduler.flushAll();
+        try (Stream<Path> files = Files.walk(folder)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    /**
+     * Writes a month of punches in clock order: in, out and back from lunch, and out, with about one day in
+     * a thousand missing its last three punches and one in a hundred with a double tap at the door.
+     *
+     * @param log The file to write
+     * @param employees The number of employees
+     * @param expected Receives the record each complete employee day should produce
+     * @return The number of punches written
+     * @throws IOException If the file cannot be written
+     */
+    private static long generate(Path log, int employees, PackedAttendance expected) throws IOException {
+        Random random = new Random(42);
+        long count = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(log, StandardCharsets.UTF_8)) {
+            writer.write("EmployeeID,Timestamp");
+            writer.newLine();
+            StringBuilder line = new StringBuilder();
+            for (LocalDate date = LocalDate.of(2025, 7, 1); date.getMonthValue() == 7; date = date.plusDays(1)) {
+                if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                    continue;
+                }
+                // Minute of the day in the high bits and employee number in the low bits, so sorting gives clock order
+                List<Long> punches = new ArrayList<>(employees * 5);
+                for (int employee = 0; employee < employees; employee++) {
+                    int employeeNumber = 10_000 + employee;
+                    int in = 7 * 60 + 30 + random.nextInt(90);
+                    int out = 16 * 60 + 30 + random.nextInt(120);
+                    punches.add((long) in << 32 | employeeNumber);
+                    if (random.nextInt(1000) == 0) {
+                        continue;
+                    }
+                    if (random.nextInt(100) == 0) {
+                        punches.add((long) in << 32 | employeeNumber);
+                    }
+                    punches.add((long) (12 * 60 + random.nextInt(10)) << 32 | employeeNumber);
+                    punches.add((long) (12 * 60 + 50 + random.nextInt(10)) << 32 | employeeNumber);
+                    punches.add((long) out << 32 | employeeNumber);
+                    Attendance.Status status = in > AttendancePay.SHIFT_START ? Attendance.Status.LATE : Attendance.Status.PRESENT;
+                    expected.put(new Attendance.AttendanceRecord(String.valueOf(employeeNumber), date.toString(),
+                        status.toString(), time(in), time(out)));
+                }
+                long[] sorted = punches.stream().mapToLong(Long::longValue).toArray();
+                Arrays.sort(sorted);
+                String day = date.toString();
+                for (long punch : sorted) {
+                    int minute = (int) (punch >>> 32);
+                    line.setLength(0);
+                    line.append((int) punch).append(',').append(day).append(' ').append(time(minute)).append(':')
+                        .append(random.nextInt(6)).append(random.nextInt(10));
+                    writer.write(line.toString());
+                    writer.newLine();
+                }
+                count += sorted.length;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Writes minutes of the day as HH:mm.
+     *
+     * @param minutes Minutes of the day
+     * @return The time
+     */
+    private static String time(int minutes) {
+        return String.format("%02d:%02d", minutes / 60, minutes % 60);
+    }
+}
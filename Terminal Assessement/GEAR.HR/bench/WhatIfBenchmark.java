@@ -0,0 +1,96 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * WhatIfBenchmark class times WhatIfSimulator on a generated workforce
+ * Simulates a raise for one position and a raise for everyone, checks the totals and every changed employee
+ * against one PayrollData object per employee computed with the adjusted pay, and prints the timings
+ * Usage: java -cp bin WhatIfBenchmark [employees]
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class WhatIfBenchmark {
+    private static final int DEFAULT_EMPLOYEES = 100_000;
+    private static final int ROUNDS = 5;
+    private static final String[] POSITIONS = {"Developer", "HR Manager", "Accounting Head", "Payroll Rank and File",
+        "Sales & Marketing", "Supply Chain and Logistics", "Customer Service and Relations", "IT Operations and Systems"};
+
+    /**
+     * Generates the workforce, checks the simulator and times it.
+     *
+     * @param args Optional employee count (default 100,000)
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_EMPLOYEES;
+        List<EmployeeProfile.Employee> employees = new ArrayList<>(count);
+        Map<String, SalaryComputation.PayrollData> payroll = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < count; i++) {
+            String id = String.valueOf(10000 + i);
+            employees.add(new EmployeeProfile.Employee(id, "Garcia", "Manuel III", "44-4506057-3", "820126853951",
+                "442-605-657-000", "691295330870", "emp" + id + "@motorph.com", POSITIONS[i % POSITIONS.length],
+                "Philippines", "966-860-270"));
+            payroll.put(id, SalaryComputation.computePayrollData(2_000_000 + random.nextInt(18_000_000), 150_000,
+                random.nextInt(200_000), random.nextInt(100_000)));
+        }
+        ContributionRules.RuleSet rules = ContributionRules.current();
+        System.out.printf("Employees: %,d on %d cores%n", count, Runtime.getRuntime().availableProcessors());
+
+        long start = System.nanoTime();
+        WhatIfSimulator simulator = new WhatIfSimulator(employees, payroll, rules);
+        System.out.printf("Copy and baseline: %,d ms%n", (System.nanoTime() - start) / 1_000_000);
+
+        WhatIfSimulator.Adjustment developers =
+            WhatIfSimulator.Adjustment.percent("Developer", WhatIfSimulator.Component.BASE_SALARY, "5");
+        WhatIfSimulator.Adjustment everyone =
+            WhatIfSimulator.Adjustment.amount(null, WhatIfSimulator.Component.RICE_SUBSIDY, "500");
+        WhatIfSimulator.Result result = null;
+        for (int round = 1; round <= ROUNDS; round++) {
+            WhatIfSimulator.Result positionResult = simulator.simulate(developers);
+            result = simulator.simulate(developers, everyone);
+            System.out.printf("Round %d: one position %,d ms (%,d changed) | two adjustments, everyone %,d ms (%,d changed)%n",
+                round, positionResult.getElapsedNanos() / 1_000_000, positionResult.getChangedCount(),
+                result.getElapsedNanos() / 1_000_000, result.getChangedCount());
+        }
+        System.out.println(result.getSummary());
+
+        // The same scenario one PayrollData object at a time
+        long baselineNet = 0, scenarioNet = 0, baselineCost = 0, scenarioCost = 0;
+        int mismatches = 0, changed = 0;
+        for (EmployeeProfile.Employee employee : employees) {
+            SalaryComputation.PayrollData data = payroll.get(employee.getEmployeeNumber());
+            long base = data.getBaseSalary();
+            if ("Developer".equals(employee.getPosition())) {
+                base += Money.multiply(base, developers.getRate());
+            }
+            SalaryComputation.PayrollData current = SalaryComputation.computePayrollData(data.getBaseSalary(),
+                data.getRiceSubsidy(), data.getPhoneAllowance(), data.getClothingAllowance());
+            SalaryComputation.PayrollData adjusted = SalaryComputation.computePayrollData(base,
+                data.getRiceSubsidy() + everyone.getAmount(), data.getPhoneAllowance(), data.getClothingAllowance());
+            baselineNet += current.calculateNetSalary();
+            scenarioNet += adjusted.calculateNetSalary();
+            baselineCost += current.calculateGrossPay() + current.calculateTotalAllowances();
+            scenarioCost += adjusted.calculateGrossPay() + adjusted.calculateTotalAllowances();
+            String resultId = changed < result.getChangedCount() ? result.getEmployeeId(changed) : null;
+            if (employee.getEmployeeNumber().equals(resultId)) {
+                if (result.getDelta(changed, WhatIfSimulator.Measure.NET_PAY)
+                        != adjusted.calculateNetSalary() - current.calculateNetSalary()
+                    || result.getDelta(changed, WhatIfSimulator.Measure.WITHHOLDING_TAX)
+                        != adjusted.getTaxDeduction() - current.getTaxDeduction()) {
+                    mismatches++;
+                }
+                changed++;
+            } else {
+                mismatches++;
+            }
+        }
+        boolean totalsEqual = baselineNet == result.getBaselineTotal(WhatIfSimulator.Measure.NET_PAY)
+            && scenarioNet == result.getScenarioTotal(WhatIfSimulator.Measure.NET_PAY)
+            && baselineCost == result.getBaselineTotal(WhatIfSimulator.Measure.PAYROLL_COST)
+            && scenarioCost == result.getScenarioTotal(WhatIfSimulator.Measure.PAYROLL_COST);
+        System.out.printf("Exactness check: totals %s, %,d of %,d employees differ%n",
+            totalsEqual ? "equal" : "DIFFERENT", mismatches, count);
+    }
+}
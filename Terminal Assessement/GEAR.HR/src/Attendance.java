@@ -11,7 +11,10 @@ import java.io.*;
 import java.nio.file.*;
 import javax.swing.table.*;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 /**
@@ -20,13 +23,16 @@ import java.util.stream.Collectors;
  * Note: All information in this program are sample data for demonstration purposes
  */
 public class Attendance {
-    // Attendance data storage: key format "employeeID|date"
-    private static final Map<String, AttendanceRecord> attendanceRecords = new HashMap<>();
-    private static final String ATTENDANCE_CSV_FILE = "GEAR.HR/attendance_records.csv";
+    // Held while records change and listeners are told; hold it to read records in step with the notifications
+    static final Object CHANGE_LOCK = new Object();
+
+    // Told about every change to the attendance records, in registration order
+    private static final List<ChangeListener> changeListeners = new CopyOnWriteArrayList<>();
     
     // UI components
     private static JTable attendanceTable;
     private static DefaultTableModel tableModel;
+    private static JComboBox<String> monthComboBox;
 
     // Application color scheme
     private static final Color BACKGROUND_WHITE = Color.WHITE;
@@ -46,9 +52,10 @@ public class Attendance {
     private static JTextField timeInField;
     private static JTextField timeOutField;
 
-    // Initialize attendance data from CSV file
+    // Initialize attendance data from CSV file and follow changes made by other instances
     static {
         loadAttendanceRecordsFromCSV();
+        DataFolderWatcher.register(Attendance::applyExternalChanges);
     }
 
     /**
@@ -359,17 +366,23 @@ public class Attendance {
         buttonPanel.setBorder(BorderFactory.createEmptyBorder(15, 0, 0, 0));
 
         JButton recordButton = createStyledButton("Record Attendance", BUTTON_ORANGE);
+        JButton rosterButton = createStyledButton("Daily Roster", ACCENT_GREY);
+        JButton importButton = createStyledButton("Import Punches", ACCENT_GREY);
+        JButton analyticsButton = createStyledButton("Analytics", ACCENT_GREY);
         JButton clearButton = createStyledButton("Clear", ACCENT_GREY);
-        JButton refreshButton = createStyledButton("Refresh", ACCENT_GREY);
 
         // Add action listeners
         recordButton.addActionListener(e -> handleRecordAttendance(attendanceFrame));
+        rosterButton.addActionListener(e -> handleShowRoster(attendanceFrame));
+        importButton.addActionListener(e -> handleImportPunches(attendanceFrame, importButton));
+        analyticsButton.addActionListener(e -> handleShowAnalytics(attendanceFrame, analyticsButton));
         clearButton.addActionListener(e -> handleClearAllRecords(attendanceFrame));
-        refreshButton.addActionListener(e -> handleRefreshData(attendanceFrame));
 
         buttonPanel.add(recordButton);
+        buttonPanel.add(rosterButton);
+        buttonPanel.add(importButton);
+        buttonPanel.add(analyticsButton);
         buttonPanel.add(clearButton);
-        buttonPanel.add(refreshButton);
 
         return buttonPanel;
     }
@@ -387,8 +400,12 @@ public class Attendance {
             BorderFactory.createEmptyBorder(0, 30, 0, 30)
         ));
         
-        // Create table title
-        JLabel tableTitle = createTableTitleLabel();
+        // Create table title with the month selector
+        JPanel titlePanel = new JPanel(new BorderLayout());
+        titlePanel.setOpaque(false);
+        titlePanel.add(createTableTitleLabel(), BorderLayout.WEST);
+        monthComboBox = createMonthComboBox();
+        titlePanel.add(monthComboBox, BorderLayout.EAST);
 
         // Create table model and table
         createAttendanceTable();
@@ -396,7 +413,7 @@ public class Attendance {
         JScrollPane scrollPane = new JScrollPane(attendanceTable);
         scrollPane.setPreferredSize(new Dimension(scrollPane.getPreferredSize().width, 600));
 
-        tablePanel.add(tableTitle, BorderLayout.NORTH);
+        tablePanel.add(titlePanel, BorderLayout.NORTH);
         tablePanel.add(scrollPane, BorderLayout.CENTER);
 
         return tablePanel;
@@ -415,6 +432,77 @@ public class Attendance {
         return tableTitle;
     }
 
+    /**
+     * Creates the month selector for the attendance table.
+     * Only the selected month is loaded from disk.
+     *
+     * @return JComboBox listing the months that hold attendance data
+     */
+    private static JComboBox<String> createMonthComboBox() {
+        JComboBox<String> comboBox = new JComboBox<>();
+        comboBox.setFont(new Font("Garet", Font.PLAIN, 12));
+        comboBox.setPreferredSize(new Dimension(150, 30));
+        comboBox.addActionListener(e -> {
+            if (tableModel != null) {
+                updateAttendanceTable();
+            }
+        });
+        return comboBox;
+    }
+
+    /**
+     * Refills the month selector and selects the given month.
+     * Falls back to the current month, or the latest month with data.
+     *
+     * @param preferredMonth The month to select, or null
+     */
+    private static void updateMonthComboBox(String preferredMonth) {
+        List<String> months;
+        try {
+            months = Repositories.attendance().getMonths();
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(null, "Error loading attendance records: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            months = new ArrayList<>();
+        }
+        String currentMonth = AttendancePartitions.monthOf(LocalDate.now().toString());
+        String selected = preferredMonth;
+        if (selected == null || !months.contains(selected)) {
+            selected = months.contains(currentMonth) || months.isEmpty() ? currentMonth : latestMonth(months);
+        }
+        if (!months.contains(selected)) {
+            months.add(selected);
+        }
+
+        // Replace the items without refreshing the table for every change
+        ActionListener[] listeners = monthComboBox.getActionListeners();
+        for (ActionListener listener : listeners) {
+            monthComboBox.removeActionListener(listener);
+        }
+        monthComboBox.removeAllItems();
+        for (int i = months.size() - 1; i >= 0; i--) {
+            monthComboBox.addItem(months.get(i));
+        }
+        monthComboBox.setSelectedItem(selected);
+        for (ActionListener listener : listeners) {
+            monthComboBox.addActionListener(listener);
+        }
+    }
+
+    /**
+     * Gets the latest dated month, or the undated partition if there is no other.
+     *
+     * @param months Months in calendar order
+     * @return The latest month
+     */
+    private static String latestMonth(List<String> months) {
+        for (int i = months.size() - 1; i >= 0; i--) {
+            if (!months.get(i).equals(AttendancePartitions.UNDATED_MONTH)) {
+                return months.get(i);
+            }
+        }
+        return months.get(months.size() - 1);
+    }
+
     /**
      * Creates the attendance table and sets up the table model.
      */
@@ -428,6 +516,7 @@ public class Attendance {
         };
         attendanceTable = new JTable(tableModel);
         styleAttendanceTable();
+        updateMonthComboBox(null);
         updateAttendanceTable();
     }
 
@@ -545,11 +634,23 @@ public class Attendance {
     }
 
     /**
-     * Updates the attendance table with current data.
+     * Updates the attendance table with the records of the selected month.
      */
     private static void updateAttendanceTable() {
         tableModel.setRowCount(0);
-        for (AttendanceRecord record : attendanceRecords.values()) {
+        String month = (String) monthComboBox.getSelectedItem();
+        if (month == null) {
+            return;
+        }
+        List<AttendanceRecord> records;
+        try {
+            records = Repositories.attendance().getRecords(month);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(null, "Error loading attendance records: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        records.sort(Comparator.comparing(AttendanceRecord::getDate).thenComparing(AttendanceRecord::getEmployeeId));
+        for (AttendanceRecord record : records) {
             tableModel.addRow(new Object[]{
                 record.getEmployeeId(),
                 record.getDate(),
@@ -562,57 +663,256 @@ public class Attendance {
     }
 
     /**
-     * Loads attendance records from the attendance_records.csv file into memory.
-     * Ensures that all attendance data is loaded into the attendanceRecords map.
+     * Applies attendance changes made by other instances sharing the data folder.
+     * Runs on the watcher thread; only the changed rows of the open table are updated.
+     *
+     * @throws IOException If the changes cannot be read
+     */
+    private static void applyExternalChanges() throws IOException {
+        List<RecordChange> changes;
+        synchronized (CHANGE_LOCK) {
+            changes = Repositories.attendance().reloadChanges();
+            for (ChangeListener listener : changeListeners) {
+                listener.recordsChanged(changes, true);
+            }
+        }
+        List<String> months = Repositories.attendance().getMonths();
+        SwingUtilities.invokeLater(() -> {
+            if (tableModel == null) {
+                return;
+            }
+            for (String month : months) {
+                if (((DefaultComboBoxModel<String>) monthComboBox.getModel()).getIndexOf(month) < 0) {
+                    updateMonthComboBox((String) monthComboBox.getSelectedItem());
+                    break;
+                }
+            }
+            String selected = (String) monthComboBox.getSelectedItem();
+            for (RecordChange change : changes) {
+                AttendanceRecord record = change.getNewRecord() != null ? change.getNewRecord() : change.getOldRecord();
+                if (AttendancePartitions.monthOf(record.getDate()).equals(selected)) {
+                    updateTableRow(record.getEmployeeId(), record.getDate(), change.getNewRecord());
+                }
+            }
+        });
+    }
+
+    /**
+     * Inserts, replaces or removes the table row of one attendance record.
+     * The table is sorted by date, then employee ID, so the row is found by binary search.
+     *
+     * @param employeeId The employee ID of the row
+     * @param date The date of the row
+     * @param record The new record, or null to remove the row
+     */
+    private static void updateTableRow(String employeeId, String date, AttendanceRecord record) {
+        int low = 0;
+        int high = tableModel.getRowCount() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int order = ((String) tableModel.getValueAt(middle, 1)).compareTo(date);
+            if (order == 0) {
+                order = ((String) tableModel.getValueAt(middle, 0)).compareTo(employeeId);
+            }
+            if (order < 0) {
+                low = middle + 1;
+            } else if (order > 0) {
+                high = middle - 1;
+            } else {
+                tableModel.removeRow(middle);
+                low = middle;
+                break;
+            }
+        }
+        if (record != null) {
+            tableModel.insertRow(low, new Object[]{
+                record.getEmployeeId(),
+                record.getDate(),
+                record.getStatus(),
+                record.getTimeIn(),
+                record.getTimeOut(),
+                record.getHoursWorked()
+            });
+        }
+    }
+
+    /**
+     * Opens the attendance repository.
+     * With CSV storage, moves the records of attendance_records.csv into month files on first run;
+     * months themselves are loaded only when they are viewed or queried.
      * Handles missing or malformed files gracefully.
      */
     private static void loadAttendanceRecordsFromCSV() {
-        if (!Files.exists(Paths.get(ATTENDANCE_CSV_FILE))) {
-            return;
+        try {
+            Repositories.attendance().open();
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(null, "Error loading attendance records: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
+    }
 
-        try (BufferedReader reader = Files.newBufferedReader(Paths.get(ATTENDANCE_CSV_FILE))) {
-            reader.readLine(); // Skip header line
+    /**
+     * Stores a single attendance record and appends it to its month's journal.
+     * Only the new entry is written; the month file is rewritten later by background compaction.
+     *
+     * @param record The attendance record to persist
+     */
+    private static void appendAttendanceRecord(AttendanceRecord record) {
+        try {
+            putRecord(record);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(null, "Error saving attendance records: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
 
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",");
-                if (data.length >= 5) {
-                    String key = data[0] + "|" + data[1];
-                    attendanceRecords.put(key, new AttendanceRecord(
-                        data[0], data[1], data[2], data[3], data[4]
-                    ));
+    /**
+     * Adds or replaces an attendance record and tells the change listeners.
+     *
+     * @param record The attendance record
+     * @throws IOException If the record cannot be written
+     */
+    static void putRecord(AttendanceRecord record) throws IOException {
+        synchronized (CHANGE_LOCK) {
+            AttendanceRecord previous = Repositories.attendance().put(record);
+            if (!sameRecord(previous, record)) {
+                List<RecordChange> changes = Collections.singletonList(new RecordChange(previous, record));
+                for (ChangeListener listener : changeListeners) {
+                    listener.recordsChanged(changes, false);
                 }
             }
-        } catch (IOException e) {
-            JOptionPane.showMessageDialog(null, "Error loading attendance records: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
     /**
-     * Saves all attendance records to the attendance_records.csv file.
-     * Writes the current state of attendanceRecords map to disk.
-     * Handles file I/O errors gracefully.
+     * Adds or replaces a batch of attendance records, written together, and tells the change listeners once.
+     *
+     * @param records The attendance records
+     * @throws IOException If the records cannot be written
+     */
+    static void putRecords(List<AttendanceRecord> records) throws IOException {
+        putRecords(records, false);
+    }
+
+    /**
+     * Adds or replaces a batch of attendance records like putRecords, optionally returning only once they are on disk.
+     *
+     * @param records The attendance records
+     * @param durable true to wait until the records are on disk, as for punches acknowledged to a time clock
+     * @throws IOException If the records cannot be written
      */
-    private static void saveAttendanceRecordsToCSV() {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(ATTENDANCE_CSV_FILE))) {
-            // Write CSV header
-            writer.println("EmployeeID,Date,Status,TimeIn,TimeOut");
-            // Write each record
-            for (AttendanceRecord record : attendanceRecords.values()) {
-                writer.println(String.join(",",
-                    record.getEmployeeId(),
-                    record.getDate(),
-                    record.getStatus(),
-                    record.getTimeIn(),
-                    record.getTimeOut()
-                ));
+    static void putRecords(List<AttendanceRecord> records, boolean durable) throws IOException {
+        synchronized (CHANGE_LOCK) {
+            List<AttendanceRecord> previous = durable ? Repositories.attendance().putAllDurably(records) : Repositories.attendance().putAll(records);
+            List<RecordChange> changes = new ArrayList<>();
+            for (int i = 0; i < records.size(); i++) {
+                if (!sameRecord(previous.get(i), records.get(i))) {
+                    changes.add(new RecordChange(previous.get(i), records.get(i)));
+                }
+            }
+            if (!changes.isEmpty()) {
+                for (ChangeListener listener : changeListeners) {
+                    listener.recordsChanged(changes, false);
+                }
             }
-        } catch (IOException e) {
-            JOptionPane.showMessageDialog(null, "Error saving attendance records: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
+    /**
+     * Registers a listener that is told about every change to the attendance records.
+     *
+     * @param listener The listener
+     */
+    public static void addChangeListener(ChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Gets the months that hold attendance data.
+     *
+     * @return Months in yyyy-MM format, in calendar order
+     * @throws IOException If the months cannot be read
+     */
+    static List<String> getMonths() throws IOException {
+        return Repositories.attendance().getMonths();
+    }
+
+    /**
+     * Gets the records of one month.
+     *
+     * @param month The month in yyyy-MM format
+     * @return The records of that month
+     * @throws IOException If the month cannot be loaded
+     */
+    static List<AttendanceRecord> getRecords(String month) throws IOException {
+        return Repositories.attendance().getRecords(month);
+    }
+
+    /**
+     * Gets the records of one employee dated within a range, without reading other employees' records.
+     *
+     * @param employeeId The employee ID
+     * @param from The first date, inclusive
+     * @param to The last date, inclusive
+     * @return The matching records, in date order
+     * @throws IOException If the records cannot be read
+     */
+    static List<AttendanceRecord> getEmployeeRecords(String employeeId, LocalDate from, LocalDate to) throws IOException {
+        return Repositories.attendance().getEmployeeRecords(employeeId, from, to);
+    }
+
+    /**
+     * Checks whether a month's records are held in memory, so changes other instances make to it are reported.
+     *
+     * @param month The month in yyyy-MM format
+     * @return true if the month is held in memory
+     */
+    static boolean isHeldInMemory(String month) {
+        return Repositories.attendance().isHeldInMemory(month);
+    }
+
+    /**
+     * Checks whether other instances may have changed a month that is not held in memory since it was last read here.
+     *
+     * @param month The month in yyyy-MM format
+     * @return true if changes to the month may not have been reported
+     * @throws IOException If the month's state cannot be read
+     */
+    static boolean mayHaveUnreadChanges(String month) throws IOException {
+        return Repositories.attendance().mayHaveUnreadChanges(month);
+    }
+
+    /**
+     * Builds the map key for an attendance record.
+     *
+     * @param employeeId The employee's ID
+     * @param date The attendance date
+     * @return Key in the format "employeeID|date"
+     */
+    static String recordKey(String employeeId, String date) {
+        return employeeId + "|" + date;
+    }
+
+    /**
+     * Gets the attendance records dated within a range.
+     * Only the months covered by the range are loaded.
+     *
+     * @param from The first date, inclusive
+     * @param to The last date, inclusive
+     * @return The matching attendance records
+     * @throws IOException If a month cannot be loaded
+     */
+    public static List<AttendanceRecord> getAttendanceRecords(LocalDate from, LocalDate to) throws IOException {
+        return Repositories.attendance().getRecordsBetween(from, to);
+    }
+
+    /**
+     * Builds a one-line summary of the attendance storage.
+     *
+     * @return Summary of months stored and loaded
+     */
+    public static String getStorageSummary() {
+        return Repositories.attendance().getStatusSummary();
+    }
+
     /**
      * Removes all attendance records for a specific employee.
      * Called when an employee is deleted from the system.
@@ -621,20 +921,108 @@ public class Attendance {
      */
     public static void removeAttendanceRecords(String employeeId) {
         // Remove all attendance records for this employee
-        attendanceRecords.entrySet().removeIf(entry -> entry.getKey().startsWith(employeeId + "|"));
-        saveAttendanceRecordsToCSV();
+        try {
+            synchronized (CHANGE_LOCK) {
+                Repositories.attendance().removeEmployee(employeeId);
+                for (ChangeListener listener : changeListeners) {
+                    listener.employeeRemoved(employeeId);
+                }
+            }
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(null, "Error saving attendance records: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * Checks whether two attendance records hold the same values.
+     *
+     * @param a The first record, or null
+     * @param b The second record, or null
+     * @return true if both are null or all their fields are equal
+     */
+    static boolean sameRecord(AttendanceRecord a, AttendanceRecord b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return a.hasSameValues(b);
+    }
+
+    /**
+     * Receives changes to the attendance records, e.g. to keep totals up to date without reading the records again.
+     * Called while CHANGE_LOCK is held, on the thread that made the change or on the watcher thread for changes
+     * made by other instances, so listeners must be quick and must update Swing components through SwingUtilities.invokeLater.
+     */
+    public interface ChangeListener {
+        /**
+         * Reports records that were added, replaced or removed.
+         *
+         * @param changes The changed records
+         * @param external true if other instances made the changes; only months held in memory are reported,
+         *                 so months not held in memory may have changed as well
+         */
+        void recordsChanged(List<RecordChange> changes, boolean external);
+
+        /**
+         * Reports that every record of an employee was removed.
+         *
+         * @param employeeId The employee ID
+         */
+        void employeeRemoved(String employeeId);
+
+        /**
+         * Reports that all attendance records were removed.
+         */
+        void allRecordsRemoved();
+    }
+
+    /**
+     * Inner class representing a change to one attendance record, made here or by another instance.
+     */
+    static class RecordChange {
+        private final AttendanceRecord oldRecord;
+        private final AttendanceRecord newRecord;
+
+        /**
+         * Creates a change.
+         *
+         * @param oldRecord The record before the change, or null if it was added
+         * @param newRecord The record after the change, or null if it was removed
+         */
+        public RecordChange(AttendanceRecord oldRecord, AttendanceRecord newRecord) {
+            this.oldRecord = oldRecord;
+            this.newRecord = newRecord;
+        }
+
+        // Getter methods
+        public AttendanceRecord getOldRecord() { return oldRecord; }
+        public AttendanceRecord getNewRecord() { return newRecord; }
     }
 
     /**
      * Inner class representing an attendance record.
-     * Contains all information about a single attendance entry.
+     * Contains all information about a single attendance entry, held as an employee number, an epoch day,
+     * a status code and minutes of the day. The text as entered is kept only when it cannot be rebuilt
+     * from those values, e.g. an employee ID with letters or a time such as "8:00".
      */
     static class AttendanceRecord {
-        private final String employeeId;
-        private final String date;
-        private final String status;
-        private final String timeIn;
-        private final String timeOut;
+        // Status code for a record without a status; Status codes start at 1
+        static final byte NO_STATUS = 0;
+
+        // Minutes of the day of a missing or unreadable time
+        static final short NO_TIME = -1;
+
+        // Employee number of an ID that is not a plain number, and epoch day of a date that is not yyyy-MM-dd
+        static final int NO_EMPLOYEE_NUMBER = -1;
+        static final int NO_EPOCH_DAY = Integer.MIN_VALUE;
+
+        private final int employeeNumber;
+        private final int epochDay;
+        private final byte status;
+        private final short timeIn;
+        private final short timeOut;
+
+        // Employee ID, date, status, time in and time out as entered; null when the fields above rebuild them exactly
+        private final String[] text;
 
         /**
          * Creates a new attendance record.
@@ -646,19 +1034,87 @@ public class Attendance {
          * @param timeOut The time the employee checked out
          */
         public AttendanceRecord(String employeeId, String date, String status, String timeIn, String timeOut) {
-            this.employeeId = employeeId;
-            this.date = date;
+            this.employeeNumber = parseEmployeeNumber(employeeId);
+            this.epochDay = parseEpochDay(date);
+            Status parsedStatus = Status.parse(status);
+            this.status = parsedStatus == null ? NO_STATUS : parsedStatus.getCode();
+            this.timeIn = parseMinutes(timeIn);
+            this.timeOut = parseMinutes(timeOut);
+            boolean exact = employeeNumber != NO_EMPLOYEE_NUMBER && epochDay != NO_EPOCH_DAY
+                && status.equals(parsedStatus == null ? "" : parsedStatus.toString())
+                && timeIn.equals(formatMinutes(this.timeIn)) && timeOut.equals(formatMinutes(this.timeOut));
+            this.text = exact ? null : new String[]{employeeId, date, status, timeIn, timeOut};
+        }
+
+        /**
+         * Creates a record from its packed values, as held by PackedAttendance.
+         *
+         * @param employeeNumber The employee number
+         * @param epochDay The date as days since 1970-01-01
+         * @param status The status code, NO_STATUS for none
+         * @param timeIn Minutes of the day checked in, NO_TIME for none
+         * @param timeOut Minutes of the day checked out, NO_TIME for none
+         */
+        AttendanceRecord(int employeeNumber, int epochDay, byte status, short timeIn, short timeOut) {
+            this.employeeNumber = employeeNumber;
+            this.epochDay = epochDay;
             this.status = status;
             this.timeIn = timeIn;
             this.timeOut = timeOut;
+            this.text = null;
         }
 
-        // Getter methods
-        public String getEmployeeId() { return employeeId; }
-        public String getDate() { return date; }
-        public String getStatus() { return status; }
-        public String getTimeIn() { return timeIn; }
-        public String getTimeOut() { return timeOut; }
+        // Typed getter methods
+        public int getEmployeeNumber() { return employeeNumber; }
+        public int getEpochDay() { return epochDay; }
+        public byte getStatusCode() { return status; }
+        public int getTimeInMinutes() { return timeIn; }
+        public int getTimeOutMinutes() { return timeOut; }
+
+        /**
+         * Gets the attendance status.
+         *
+         * @return The status, or null for an empty or unknown status
+         */
+        public Status getAttendanceStatus() {
+            return Status.of(status);
+        }
+
+        /**
+         * Gets the attendance date.
+         *
+         * @return The date, or null if the date is not in yyyy-MM-dd format
+         */
+        public LocalDate getLocalDate() {
+            return epochDay == NO_EPOCH_DAY ? null : LocalDate.ofEpochDay(epochDay);
+        }
+
+        /**
+         * Checks whether the record is held entirely in its typed values, so PackedAttendance can pack it.
+         *
+         * @return true if the text of every field can be rebuilt from the typed values
+         */
+        boolean isPackable() {
+            return text == null;
+        }
+
+        // Text getter methods, for files, the database and the attendance table
+        public String getEmployeeId() { return text != null ? text[0] : Integer.toString(employeeNumber); }
+        public String getDate() { return text != null ? text[1] : LocalDate.ofEpochDay(epochDay).toString(); }
+        public String getStatus() { return text != null ? text[2] : status == NO_STATUS ? "" : Status.of(status).toString(); }
+        public String getTimeIn() { return text != null ? text[3] : formatMinutes(timeIn); }
+        public String getTimeOut() { return text != null ? text[4] : formatMinutes(timeOut); }
+
+        /**
+         * Checks whether another record holds the same values.
+         *
+         * @param other The other record
+         * @return true if every field is equal
+         */
+        boolean hasSameValues(AttendanceRecord other) {
+            return employeeNumber == other.employeeNumber && epochDay == other.epochDay && status == other.status
+                && timeIn == other.timeIn && timeOut == other.timeOut && Arrays.equals(text, other.text);
+        }
 
         /**
          * Calculates and returns the hours worked based on time in and time out.
@@ -666,13 +1122,20 @@ public class Attendance {
          * @return Formatted string showing hours:minutes worked, or "N/A" if invalid
          */
         public String getHoursWorked() {
-            if (timeIn.isEmpty() || timeOut.isEmpty()) {
+            if (text == null) {
+                if (timeIn == NO_TIME || timeOut == NO_TIME) {
+                    return "N/A";
+                }
+                int diffMinutes = timeOut - timeIn;
+                return String.format("%d:%02d", diffMinutes / 60, diffMinutes % 60);
+            }
+            if (text[3].isEmpty() || text[4].isEmpty()) {
                 return "N/A";
             }
             
             try {
-                String[] inParts = timeIn.split(":");
-                String[] outParts = timeOut.split(":");
+                String[] inParts = text[3].split(":");
+                String[] outParts = text[4].split(":");
                 
                 int inHour = Integer.parseInt(inParts[0]);
                 int inMin = Integer.parseInt(inParts[1]);
@@ -691,6 +1154,158 @@ public class Attendance {
                 return "N/A";
             }
         }
+
+        /**
+         * Reads an employee ID written as a plain number, e.g. "10001".
+         *
+         * @param employeeId The employee ID
+         * @return The employee number, or NO_EMPLOYEE_NUMBER if the ID has other characters or leading zeros
+         */
+        static int parseEmployeeNumber(String employeeId) {
+            int length = employeeId.length();
+            if (length == 0 || length > 10 || (employeeId.charAt(0) == '0' && length > 1)) {
+                return NO_EMPLOYEE_NUMBER;
+            }
+            long number = 0;
+            for (int i = 0; i < length; i++) {
+                char c = employeeId.charAt(i);
+                if (c < '0' || c > '9') {
+                    return NO_EMPLOYEE_NUMBER;
+                }
+                number = number * 10 + (c - '0');
+            }
+            return number <= Integer.MAX_VALUE ? (int) number : NO_EMPLOYEE_NUMBER;
+        }
+
+        /**
+         * Reads a date written as yyyy-MM-dd.
+         *
+         * @param date The date
+         * @return Days since 1970-01-01, or NO_EPOCH_DAY if the text is not a valid date in that format
+         */
+        static int parseEpochDay(String date) {
+            if (date.length() != 10 || date.charAt(4) != '-' || date.charAt(7) != '-') {
+                return NO_EPOCH_DAY;
+            }
+            int year = digits(date, 0, 4);
+            int month = digits(date, 5, 7);
+            int day = digits(date, 8, 10);
+            if (year < 0 || month < 1 || month > 12 || day < 1 || day > java.time.YearMonth.of(year, month).lengthOfMonth()) {
+                return NO_EPOCH_DAY;
+            }
+            return (int) LocalDate.of(year, month, day).toEpochDay();
+        }
+
+        /**
+         * Reads a time such as "08:00" or " 8:05 ", as payroll reads time in and time out.
+         *
+         * @param time The time
+         * @return Minutes of the day, or NO_TIME if the text is not a time of day
+         */
+        static short parseMinutes(String time) {
+            int colon = time.indexOf(':');
+            try {
+                int hours = Integer.parseInt(time.substring(0, Math.max(0, colon)).trim());
+                int minutes = Integer.parseInt(time.substring(colon + 1).trim());
+                return hours >= 0 && hours < 24 && minutes >= 0 && minutes < 60 ? (short) (hours * 60 + minutes) : NO_TIME;
+            } catch (NumberFormatException e) {
+                return NO_TIME;
+            }
+        }
+
+        /**
+         * Writes minutes of the day as HH:mm.
+         *
+         * @param minutes Minutes of the day, or NO_TIME
+         * @return The time, or an empty string for NO_TIME
+         */
+        static String formatMinutes(int minutes) {
+            if (minutes == NO_TIME) {
+                return "";
+            }
+            char[] time = {(char) ('0' + minutes / 600), (char) ('0' + minutes / 60 % 10), ':',
+                (char) ('0' + minutes % 60 / 10), (char) ('0' + minutes % 10)};
+            return new String(time);
+        }
+
+        /**
+         * Reads a run of decimal digits.
+         *
+         * @param text The text
+         * @param from The first character
+         * @param to The character after the last
+         * @return The number, or -1 if a character is not a digit
+         */
+        private static int digits(String text, int from, int to) {
+            int number = 0;
+            for (int i = from; i < to; i++) {
+                char c = text.charAt(i);
+                if (c < '0' || c > '9') {
+                    return -1;
+                }
+                number = number * 10 + (c - '0');
+            }
+            return number;
+        }
+    }
+
+    /**
+     * The attendance statuses that can be recorded, with their one-byte codes.
+     */
+    public enum Status {
+        PRESENT("Present"),
+        ABSENT("Absent"),
+        LATE("Late"),
+        ON_LEAVE("On Leave"),
+        HALF_DAY("Half Day");
+
+        private static final Status[] BY_CODE = values();
+
+        private final String label;
+
+        Status(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Gets the code stored for this status.
+         *
+         * @return The code, from 1
+         */
+        public byte getCode() {
+            return (byte) (ordinal() + 1);
+        }
+
+        /**
+         * Gets the status of a code.
+         *
+         * @param code The code
+         * @return The status, or null for AttendanceRecord.NO_STATUS or an unknown code
+         */
+        public static Status of(byte code) {
+            return code >= 1 && code <= BY_CODE.length ? BY_CODE[code - 1] : null;
+        }
+
+        /**
+         * Reads a status the way payroll always has, ignoring case and surrounding spaces.
+         *
+         * @param text The status as entered
+         * @return The status, or null if the text is empty or another status
+         */
+        public static Status parse(String text) {
+            String trimmed = text.trim();
+            for (Status status : BY_CODE) {
+                if (status.label.equalsIgnoreCase(trimmed)) {
+                    return status;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
     }
 
     /**
@@ -719,16 +1334,20 @@ public class Attendance {
         }
         // Extract employee ID from selection
         String employeeId = employeeSelection.split(" - ")[0];
-        String key = employeeId + "|" + date;
         // Prevent duplicate attendance for the same day
-        if (attendanceRecords.containsKey(key)) {
-            showModernMessage(attendanceFrame, "Attendance for this employee on this date already exists.", "Duplicate Entry", JOptionPane.ERROR_MESSAGE);
+        try {
+            if (Repositories.attendance().contains(employeeId, date)) {
+                showModernMessage(attendanceFrame, "Attendance for this employee on this date already exists.", "Duplicate Entry", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+        } catch (IOException e) {
+            showModernMessage(attendanceFrame, "Error loading attendance records: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
-        // Add new attendance record
+        // Add new attendance record and show its month
         AttendanceRecord record = new AttendanceRecord(employeeId, date, status, timeIn, timeOut);
-        attendanceRecords.put(key, record);
-        saveAttendanceRecordsToCSV();
+        appendAttendanceRecord(record);
+        updateMonthComboBox(AttendancePartitions.monthOf(date));
         updateAttendanceTable();
         showModernMessage(attendanceFrame, "Attendance recorded successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
         // Optionally clear fields for next entry
@@ -739,6 +1358,327 @@ public class Attendance {
         timeOutField.setText("17:00");
     }
 
+    /**
+     * Handles showing the daily roster for the date in the form.
+     * Lists every employee with their attendance on that day and counts each status;
+     * only that day's records are read, through the date index.
+     *
+     * @param attendanceFrame The parent JFrame for positioning
+     */
+    private static void handleShowRoster(JFrame attendanceFrame) {
+        LocalDate date;
+        try {
+            date = LocalDate.parse(dateField.getText().trim());
+        } catch (DateTimeParseException e) {
+            showModernMessage(attendanceFrame, "Please enter the date as yyyy-MM-dd.", "Input Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        Map<String, AttendanceRecord> records = new LinkedHashMap<>();
+        try {
+            for (AttendanceRecord record : Repositories.attendance().getRecordsOn(date)) {
+                records.put(record.getEmployeeId(), record);
+            }
+        } catch (IOException e) {
+            showModernMessage(attendanceFrame, "Error loading attendance records: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        DefaultTableModel rosterModel = new DefaultTableModel(
+                new String[]{"Employee ID", "Name", "Status", "Time In", "Time Out", "Hours Worked"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (EmployeeProfile.Employee employee : EmployeeProfile.getAllEmployees()) {
+            addRosterRow(rosterModel, counts, employee.getEmployeeNumber(),
+                employee.getFirstName() + " " + employee.getLastName(), records.remove(employee.getEmployeeNumber()));
+        }
+        // Records of employees no longer in the employee list
+        for (AttendanceRecord record : records.values()) {
+            addRosterRow(rosterModel, counts, record.getEmployeeId(), "", record);
+        }
+
+        StringBuilder summary = new StringBuilder();
+        for (Map.Entry<String, Integer> count : counts.entrySet()) {
+            summary.append(summary.length() == 0 ? "" : " | ").append(count.getKey()).append(": ").append(count.getValue());
+        }
+        JLabel summaryLabel = new JLabel(summary.toString());
+        summaryLabel.setFont(new Font("Garet", Font.BOLD, 12));
+        summaryLabel.setBorder(BorderFactory.createEmptyBorder(0, 0, 10, 0));
+
+        JTable rosterTable = new JTable(rosterModel);
+        rosterTable.setFont(new Font("Garet", Font.PLAIN, 12));
+        rosterTable.setRowHeight(26);
+        rosterTable.getTableHeader().setFont(new Font("Garet", Font.BOLD, 12));
+        rosterTable.getTableHeader().setBackground(BUTTON_ORANGE);
+        rosterTable.getTableHeader().setForeground(TEXT_WHITE);
+        JScrollPane scrollPane = new JScrollPane(rosterTable);
+        scrollPane.setPreferredSize(new Dimension(700, 400));
+
+        JPanel rosterPanel = new JPanel(new BorderLayout());
+        rosterPanel.add(summaryLabel, BorderLayout.NORTH);
+        rosterPanel.add(scrollPane, BorderLayout.CENTER);
+        JOptionPane.showMessageDialog(attendanceFrame, rosterPanel, "Daily Roster - " + date, JOptionPane.PLAIN_MESSAGE);
+    }
+
+    /**
+     * Handles showing the attendance analytics dashboard.
+     * Lists a month's tardiness, undertime, overtime and absence counts by position or by employee, read from
+     * the rollups AttendanceAnalytics keeps; every month is rolled up in the background the first time.
+     *
+     * @param attendanceFrame The parent JFrame for positioning
+     * @param analyticsButton The button, disabled while the months are rolled up
+     */
+    private static void handleShowAnalytics(JFrame attendanceFrame, JButton analyticsButton) {
+        analyticsButton.setEnabled(false);
+        new SwingWorker<List<YearMonth>, Void>() {
+            @Override
+            protected List<YearMonth> doInBackground() throws Exception {
+                return AttendanceAnalytics.getMonths();
+            }
+
+            @Override
+            protected void done() {
+                analyticsButton.setEnabled(true);
+                try {
+                    List<YearMonth> months = get();
+                    if (months.isEmpty()) {
+                        showModernMessage(attendanceFrame, "No attendance records to analyze.", "Attendance Analytics", JOptionPane.INFORMATION_MESSAGE);
+                        return;
+                    }
+                    showAnalyticsDashboard(attendanceFrame, months);
+                } catch (InterruptedException | java.util.concurrent.ExecutionException ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    showModernMessage(attendanceFrame, "Error loading attendance analytics: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Shows the analytics dashboard with a month and view selector, the latest month first.
+     * The Rebuild button rolls up every month again, e.g. after attendance was backfilled outside the application.
+     *
+     * @param attendanceFrame The parent JFrame for positioning
+     * @param months The months that hold attendance data
+     */
+    private static void showAnalyticsDashboard(JFrame attendanceFrame, List<YearMonth> months) {
+        JComboBox<YearMonth> monthBox = new JComboBox<>(months.toArray(new YearMonth[0]));
+        monthBox.setSelectedIndex(months.size() - 1);
+        JComboBox<String> viewBox = new JComboBox<>(new String[]{"By Position", "By Employee"});
+        JButton rebuildButton = createStyledButton("Rebuild", ACCENT_GREY);
+        JLabel summaryLabel = new JLabel(" ");
+        summaryLabel.setFont(new Font("Garet", Font.BOLD, 12));
+        summaryLabel.setBorder(BorderFactory.createEmptyBorder(10, 0, 10, 0));
+
+        DefaultTableModel analyticsModel = new DefaultTableModel() {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        Runnable refresh = () -> {
+            try {
+                fillAnalyticsTable(analyticsModel, summaryLabel, (YearMonth) monthBox.getSelectedItem(),
+                    viewBox.getSelectedIndex() == 0);
+            } catch (IOException e) {
+                showModernMessage(attendanceFrame, "Error loading attendance analytics: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        };
+        monthBox.addActionListener(e -> refresh.run());
+        viewBox.addActionListener(e -> refresh.run());
+        rebuildButton.addActionListener(e -> {
+            rebuildButton.setEnabled(false);
+            new SwingWorker<AttendanceAnalytics.RebuildResult, Void>() {
+                @Override
+                protected AttendanceAnalytics.RebuildResult doInBackground() throws Exception {
+                    return AttendanceAnalytics.rebuild();
+                }
+
+                @Override
+                protected void done() {
+                    rebuildButton.setEnabled(true);
+                    try {
+                        AttendanceAnalytics.RebuildResult result = get();
+                        refresh.run();
+                        showModernMessage(attendanceFrame, result.getSummary(), "Rebuild Complete", JOptionPane.INFORMATION_MESSAGE);
+                    } catch (InterruptedException | java.util.concurrent.ExecutionException ex) {
+                        Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                        showModernMessage(attendanceFrame, "Error rebuilding attendance analytics: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                }
+            }.execute();
+        });
+        refresh.run();
+
+        JPanel selectorPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 0));
+        selectorPanel.add(new JLabel("Month:"));
+        selectorPanel.add(monthBox);
+        selectorPanel.add(viewBox);
+        selectorPanel.add(rebuildButton);
+        JPanel topPanel = new JPanel(new BorderLayout());
+        topPanel.add(selectorPanel, BorderLayout.NORTH);
+        topPanel.add(summaryLabel, BorderLayout.SOUTH);
+
+        JTable analyticsTable = new JTable(analyticsModel);
+        analyticsTable.setFont(new Font("Garet", Font.PLAIN, 12));
+        analyticsTable.setRowHeight(26);
+        analyticsTable.getTableHeader().setFont(new Font("Garet", Font.BOLD, 12));
+        analyticsTable.getTableHeader().setBackground(BUTTON_ORANGE);
+        analyticsTable.getTableHeader().setForeground(TEXT_WHITE);
+        JScrollPane scrollPane = new JScrollPane(analyticsTable);
+        scrollPane.setPreferredSize(new Dimension(900, 400));
+
+        JPanel analyticsPanel = new JPanel(new BorderLayout());
+        analyticsPanel.add(topPanel, BorderLayout.NORTH);
+        analyticsPanel.add(scrollPane, BorderLayout.CENTER);
+        JOptionPane.showMessageDialog(attendanceFrame, analyticsPanel, "Attendance Analytics", JOptionPane.PLAIN_MESSAGE);
+    }
+
+    /**
+     * Fills the analytics table with a month's counts, one row per position or per employee, and sums them
+     * in the summary line.
+     *
+     * @param analyticsModel The table model
+     * @param summaryLabel The summary line
+     * @param month The month
+     * @param byPosition true for one row per position, false for one row per employee
+     * @throws IOException If the month has to be rolled up again and its records cannot be read
+     */
+    private static void fillAnalyticsTable(DefaultTableModel analyticsModel, JLabel summaryLabel, YearMonth month,
+                                           boolean byPosition) throws IOException {
+        String[] counts = {"Late Days", "Late Minutes", "Undertime Days", "Undertime Minutes", "Overtime Days",
+            "Overtime Hours", "Absent Days"};
+        List<Object[]> rows = new ArrayList<>();
+        AttendanceAnalytics.Counts total = AttendanceAnalytics.Counts.EMPTY;
+        if (byPosition) {
+            analyticsModel.setColumnIdentifiers(concat(new String[]{"Position", "Employees"}, counts));
+            for (AttendanceAnalytics.PositionCounts position : AttendanceAnalytics.getPositionCounts(month)) {
+                rows.add(analyticsRow(position.getPosition(), position.getEmployees(), position.getCounts()));
+                total = total.plus(position.getCounts());
+            }
+        } else {
+            analyticsModel.setColumnIdentifiers(concat(new String[]{"Employee ID", "Name"}, counts));
+            Map<String, String> names = new HashMap<>();
+            for (EmployeeProfile.Employee employee : EmployeeProfile.getAllEmployees()) {
+                names.put(employee.getEmployeeNumber(), employee.getFirstName() + " " + employee.getLastName());
+            }
+            for (Map.Entry<String, AttendanceAnalytics.Counts> employee : new TreeMap<>(AttendanceAnalytics.getEmployeeCounts(month)).entrySet()) {
+                rows.add(analyticsRow(employee.getKey(), names.getOrDefault(employee.getKey(), ""), employee.getValue()));
+                total = total.plus(employee.getValue());
+            }
+        }
+        analyticsModel.setRowCount(0);
+        for (Object[] row : rows) {
+            analyticsModel.addRow(row);
+        }
+        summaryLabel.setText(String.format("Late: %d days (%d min) | Undertime: %d days (%d min) | Overtime: %d days (%.2f h)"
+                + " | Absent: %.1f days", total.getLateDays(), total.getLateMinutes(), total.getUndertimeDays(),
+            total.getUndertimeMinutes(), total.getOvertimeDays(), total.getOvertimeMinutes() / 60.0, total.getAbsentDays()));
+    }
+
+    /**
+     * Builds one row of the analytics table.
+     *
+     * @param key The position or employee ID
+     * @param detail The employee count or name
+     * @param counts The counts
+     * @return The row values
+     */
+    private static Object[] analyticsRow(String key, Object detail, AttendanceAnalytics.Counts counts) {
+        return new Object[]{
+            key,
+            detail,
+            counts.getLateDays(),
+            counts.getLateMinutes(),
+            counts.getUndertimeDays(),
+            counts.getUndertimeMinutes(),
+            counts.getOvertimeDays(),
+            String.format("%.2f", counts.getOvertimeMinutes() / 60.0),
+            String.format("%.1f", counts.getAbsentDays())
+        };
+    }
+
+    /**
+     * Joins two arrays of column names.
+     *
+     * @param first The leading columns
+     * @param second The trailing columns
+     * @return All columns
+     */
+    private static String[] concat(String[] first, String[] second) {
+        String[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    /**
+     * Handles importing a time clock punch log chosen by the user.
+     * The log is read and stored in the background; punches that could not be paired are listed
+     * in an exceptions file next to the log for review.
+     *
+     * @param attendanceFrame The parent JFrame for positioning
+     * @param importButton The button, disabled while the import runs
+     */
+    private static void handleImportPunches(JFrame attendanceFrame, JButton importButton) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Import Time Clock Punches");
+        if (chooser.showOpenDialog(attendanceFrame) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path log = chooser.getSelectedFile().toPath();
+        importButton.setEnabled(false);
+        new SwingWorker<PunchImporter.Result, Void>() {
+            @Override
+            protected PunchImporter.Result doInBackground() throws Exception {
+                return PunchImporter.forAttendance().importLog(log);
+            }
+
+            @Override
+            protected void done() {
+                importButton.setEnabled(true);
+                try {
+                    PunchImporter.Result result = get();
+                    updateMonthComboBox(null);
+                    updateAttendanceTable();
+                    String message = result.getSummary();
+                    if (result.getExceptionCount() > 0) {
+                        message += "\nExceptions: " + PunchImporter.getExceptionsFile(log);
+                    }
+                    showModernMessage(attendanceFrame, message, "Punch Import Complete", JOptionPane.INFORMATION_MESSAGE);
+                } catch (InterruptedException | java.util.concurrent.ExecutionException ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    showModernMessage(attendanceFrame, "Error importing punches: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Adds one employee's row to the daily roster and counts its status.
+     *
+     * @param rosterModel The roster table model
+     * @param counts Map of status -> number of employees, updated
+     * @param employeeId The employee ID
+     * @param name The employee name, empty if unknown
+     * @param record The employee's record that day, or null if there is none
+     */
+    private static void addRosterRow(DefaultTableModel rosterModel, Map<String, Integer> counts, String employeeId,
+                                     String name, AttendanceRecord record) {
+        String status = record != null ? record.getStatus() : "No Record";
+        counts.merge(status, 1, Integer::sum);
+        rosterModel.addRow(new Object[]{
+            employeeId,
+            name,
+            status,
+            record != null ? record.getTimeIn() : "",
+            record != null ? record.getTimeOut() : "",
+            record != null ? record.getHoursWorked() : ""
+        });
+    }
+
     /**
      * Handles clearing all attendance records.
      * Prompts for confirmation, clears all records, updates the table, and saves to CSV.
@@ -752,22 +1692,18 @@ public class Attendance {
             JOptionPane.YES_NO_OPTION, 
             JOptionPane.WARNING_MESSAGE);
         if (confirm == JOptionPane.YES_OPTION) {
-            attendanceRecords.clear();
+            try {
+                synchronized (CHANGE_LOCK) {
+                    Repositories.attendance().clear();
+                    for (ChangeListener listener : changeListeners) {
+                        listener.allRecordsRemoved();
+                    }
+                }
+            } catch (IOException e) {
+                showModernMessage(attendanceFrame, "Error saving attendance records: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            }
             updateAttendanceTable();
-            saveAttendanceRecordsToCSV();
             showModernMessage(attendanceFrame, "All attendance records have been cleared.", "Records Cleared", JOptionPane.INFORMATION_MESSAGE);
         }
     }
-
-    /**
-     * Handles refreshing attendance data from CSV.
-     * Updates the table and shows a confirmation message.
-     *
-     * @param attendanceFrame The parent JFrame for positioning
-     */
-    private static void handleRefreshData(JFrame attendanceFrame) {
-        loadAttendanceRecordsFromCSV();
-        updateAttendanceTable();
-        showModernMessage(attendanceFrame, "Data refreshed successfully", "Refresh Complete", JOptionPane.INFORMATION_MESSAGE);
-    }
 }
@@ -0,0 +1,645 @@
+import java.io.IOException;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * AttendanceAnalytics class handles monthly tardiness, undertime, overtime and absence counts for managers
+ * Keeps the counts of every employee for every month with attendance data, updated as records are added,
+ * corrected and removed, and adds them up by position when read, so the analytics dashboard never scans the
+ * raw attendance; a full rebuild rolls up all months again in parallel, e.g. after a backfill
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class AttendanceAnalytics {
+    // Position of employees who have attendance records but are no longer in the employee list
+    public static final String FORMER_EMPLOYEES = "(Former employees)";
+
+    // Counts per month, then per employee ID; guarded by Attendance.CHANGE_LOCK
+    private static final Map<YearMonth, Map<String, Counts>> months = new HashMap<>();
+
+    // Months whose counts may have missed changes, rolled up again when next read; guarded by Attendance.CHANGE_LOCK
+    private static final Set<YearMonth> staleMonths = new HashSet<>();
+
+    // Changes to the records of months being rolled up, by record key, replayed over the records read before the
+    // new counts are kept; guarded by Attendance.CHANGE_LOCK
+    private static final Map<YearMonth, List<Consumer<Map<String, Attendance.AttendanceRecord>>>> pendingChanges = new HashMap<>();
+
+    // Whether every month has been rolled up once; guarded by Attendance.CHANGE_LOCK
+    private static boolean built;
+
+    // Statistics since start-up; guarded by Attendance.CHANGE_LOCK
+    private static long fullRebuilds;
+    private static long monthRebuilds;
+    private static long incrementalUpdates;
+    private static long lastRebuildMillis;
+
+    // Keep the counts in step with every attendance change
+    static {
+        Attendance.addChangeListener(new CountsUpdater());
+    }
+
+    /**
+     * Attendance counts of one employee for one month, of a position, or of a single record.
+     * Late and undertime minutes are those AttendancePay deducts; overtime is time worked after the end of the shift.
+     * Counts are immutable; a change creates new counts with plus and minus.
+     */
+    public static final class Counts {
+        // Counts of a month without attendance records
+        public static final Counts EMPTY = new Counts(0, 0, 0, 0, 0, 0, 0, 0);
+
+        private final int recordedDays;
+        private final int lateDays;
+        private final int lateMinutes;
+        private final int undertimeDays;
+        private final int undertimeMinutes;
+        private final int overtimeDays;
+        private final int overtimeMinutes;
+        private final int absentHalfDays;
+
+        /**
+         * Creates counts.
+         *
+         * @param recordedDays Days with an attendance record
+         * @param lateDays Days marked Late or with time in after the start of the shift
+         * @param lateMinutes Minutes of the shift missed by arriving late
+         * @param undertimeDays Days with time out before the end of the shift
+         * @param undertimeMinutes Minutes of the shift missed by leaving early
+         * @param overtimeDays Days with time out after the end of the shift
+         * @param overtimeMinutes Minutes worked after the end of the shift
+         * @param absentHalfDays Absences in half days
+         */
+        Counts(int recordedDays, int lateDays, int lateMinutes, int undertimeDays, int undertimeMinutes,
+               int overtimeDays, int overtimeMinutes, int absentHalfDays) {
+            this.recordedDays = recordedDays;
+            this.lateDays = lateDays;
+            this.lateMinutes = lateMinutes;
+            this.undertimeDays = undertimeDays;
+            this.undertimeMinutes = undertimeMinutes;
+            this.overtimeDays = overtimeDays;
+            this.overtimeMinutes = overtimeMinutes;
+            this.absentHalfDays = absentHalfDays;
+        }
+
+        /**
+         * Derives the counts of one attendance record.
+         * Only Present and Late days with a valid time in and time out have late, undertime or overtime minutes;
+         * a Late day without times still counts as a late day. Absent days count as two half days of absence
+         * and half days as one.
+         *
+         * @param record The attendance record
+         * @return The counts of that day
+         */
+        public static Counts of(Attendance.AttendanceRecord record) {
+            Attendance.Status status = record.getAttendanceStatus();
+            if (status == Attendance.Status.ABSENT) {
+                return new Counts(1, 0, 0, 0, 0, 0, 0, 2);
+            }
+            if (status == Attendance.Status.HALF_DAY) {
+                return new Counts(1, 0, 0, 0, 0, 0, 0, 1);
+            }
+            if (status != Attendance.Status.PRESENT && status != Attendance.Status.LATE) {
+                return new Counts(1, 0, 0, 0, 0, 0, 0, 0);
+            }
+            AttendancePay.Rollup day = AttendancePay.Rollup.of(record);
+            int timeIn = record.getTimeInMinutes();
+            int timeOut = record.getTimeOutMinutes();
+            int overtime = timeIn < 0 || timeOut <= timeIn ? 0 : Math.max(0, timeOut - Math.max(timeIn, AttendancePay.SHIFT_END));
+            boolean late = status == Attendance.Status.LATE || day.getLateMinutes() > 0;
+            return new Counts(1, late ? 1 : 0, day.getLateMinutes(), day.getUndertimeMinutes() > 0 ? 1 : 0,
+                day.getUndertimeMinutes(), overtime > 0 ? 1 : 0, overtime, 0);
+        }
+
+        /**
+         * Adds other counts to these.
+         *
+         * @param other The counts to add
+         * @return The sum
+         */
+        public Counts plus(Counts other) {
+            return new Counts(recordedDays + other.recordedDays, lateDays + other.lateDays,
+                lateMinutes + other.lateMinutes, undertimeDays + other.undertimeDays,
+                undertimeMinutes + other.undertimeMinutes, overtimeDays + other.overtimeDays,
+                overtimeMinutes + other.overtimeMinutes, absentHalfDays + other.absentHalfDays);
+        }
+
+        /**
+         * Subtracts other counts from these.
+         *
+         * @param other The counts to subtract
+         * @return The difference
+         */
+        public Counts minus(Counts other) {
+            return new Counts(recordedDays - other.recordedDays, lateDays - other.lateDays,
+                lateMinutes - other.lateMinutes, undertimeDays - other.undertimeDays,
+                undertimeMinutes - other.undertimeMinutes, overtimeDays - other.overtimeDays,
+                overtimeMinutes - other.overtimeMinutes, absentHalfDays - other.absentHalfDays);
+        }
+
+        // Getter methods
+        public int getRecordedDays() { return recordedDays; }
+        public int getLateDays() { return lateDays; }
+        public int getLateMinutes() { return lateMinutes; }
+        public int getUndertimeDays() { return undertimeDays; }
+        public int getUndertimeMinutes() { return undertimeMinutes; }
+        public int getOvertimeDays() { return overtimeDays; }
+        public int getOvertimeMinutes() { return overtimeMinutes; }
+
+        /**
+         * Gets the absences.
+         *
+         * @return The absences in days, counting half days as 0.5
+         */
+        public double getAbsentDays() {
+            return absentHalfDays / 2.0;
+        }
+
+        /**
+         * Checks whether these counts hold no attendance.
+         *
+         * @return true if no day is counted
+         */
+        public boolean isEmpty() {
+            return recordedDays == 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d days recorded | %d late (%d min) | %d undertime (%d min) | %d overtime (%d min) | %.1f absent",
+                recordedDays, lateDays, lateMinutes, undertimeDays, undertimeMinutes, overtimeDays, overtimeMinutes,
+                getAbsentDays());
+        }
+
+        /**
+         * Compares every count of two Counts.
+         *
+         * @param other The other object
+         * @return true if both hold the same counts
+         */
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Counts)) {
+                return false;
+            }
+            Counts counts = (Counts) other;
+            return recordedDays == counts.recordedDays && lateDays == counts.lateDays
+                && lateMinutes == counts.lateMinutes && undertimeDays == counts.undertimeDays
+                && undertimeMinutes == counts.undertimeMinutes && overtimeDays == counts.overtimeDays
+                && overtimeMinutes == counts.overtimeMinutes && absentHalfDays == counts.absentHalfDays;
+        }
+
+        @Override
+        public int hashCode() {
+            return ((recordedDays * 31 + lateMinutes) * 31 + undertimeMinutes) * 31 + overtimeMinutes + absentHalfDays;
+        }
+    }
+
+    /**
+     * Counts of one position for a month: the sum over its employees with attendance that month.
+     */
+    public static final class PositionCounts {
+        private final String position;
+        private final int employees;
+        private final Counts counts;
+
+        /**
+         * Creates the counts of a position.
+         *
+         * @param position The position
+         * @param employees The number of its employees with attendance in the month
+         * @param counts The sum of their counts
+         */
+        PositionCounts(String position, int employees, Counts counts) {
+            this.position = position;
+            this.employees = employees;
+            this.counts = counts;
+        }
+
+        // Getter methods
+        public String getPosition() { return position; }
+        public int getEmployees() { return employees; }
+        public Counts getCounts() { return counts; }
+    }
+
+    /**
+     * Outcome of a full rebuild.
+     */
+    public static final class RebuildResult {
+        private final int monthCount;
+        private final long recordCount;
+        private final long millis;
+
+        /**
+         * Creates the outcome of a rebuild.
+         *
+         * @param monthCount Months rolled up
+         * @param recordCount Attendance records read
+         * @param millis Time taken in milliseconds
+         */
+        RebuildResult(int monthCount, long recordCount, long millis) {
+            this.monthCount = monthCount;
+            this.recordCount = recordCount;
+            this.millis = millis;
+        }
+
+        // Getter methods
+        public int getMonthCount() { return monthCount; }
+        public long getRecordCount() { return recordCount; }
+        public long getMillis() { return millis; }
+
+        /**
+         * Builds a one-line summary of the rebuild.
+         *
+         * @return Summary of months and records rolled up and the time taken
+         */
+        public String getSummary() {
+            return String.format("Rolled up %,d records of %d months in %,d ms", recordCount, monthCount, millis);
+        }
+    }
+
+    /**
+     * Gets the months that hold attendance data, rolling up every month first if that was never done.
+     *
+     * @return The months, in calendar order
+     * @throws IOException If the months cannot be read
+     */
+    public static synchronized List<YearMonth> getMonths() throws IOException {
+        buildIfNeeded();
+        return parseMonths(Attendance.getMonths());
+    }
+
+    /**
+     * Gets the counts of every employee with attendance in a month.
+     * Counts are read from the rollups; the month's records are only read if other instances may have changed
+     * them since, or if the month was never rolled up.
+     *
+     * @param month The month
+     * @return Map of employeeId -> counts
+     * @throws IOException If the month's records cannot be read
+     */
+    public static synchronized Map<String, Counts> getEmployeeCounts(YearMonth month) throws IOException {
+        buildIfNeeded();
+        synchronized (Attendance.CHANGE_LOCK) {
+            Map<String, Counts> counts = months.get(month);
+            if (counts != null && !staleMonths.contains(month)) {
+                return new HashMap<>(counts);
+            }
+        }
+        rollUp(Collections.singletonList(month));
+        synchronized (Attendance.CHANGE_LOCK) {
+            monthRebuilds++;
+            return new HashMap<>(months.getOrDefault(month, Collections.emptyMap()));
+        }
+    }
+
+    /**
+     * Gets the counts of every position with attendance in a month, adding up the counts of its employees
+     * under the position they hold now.
+     *
+     * @param month The month
+     * @return The counts of each position, in position order
+     * @throws IOException If the month's records cannot be read
+     */
+    public static List<PositionCounts> getPositionCounts(YearMonth month) throws IOException {
+        Map<String, String> positions = new HashMap<>();
+        for (EmployeeProfile.Employee employee : EmployeeProfile.getAllEmployees()) {
+            positions.put(employee.getEmployeeNumber(), employee.getPosition());
+        }
+        Map<String, Counts> totals = new TreeMap<>();
+        Map<String, Integer> employees = new HashMap<>();
+        for (Map.Entry<String, Counts> entry : getEmployeeCounts(month).entrySet()) {
+            String position = positions.getOrDefault(entry.getKey(), FORMER_EMPLOYEES);
+            totals.merge(position, entry.getValue(), Counts::plus);
+            employees.merge(position, 1, Integer::sum);
+        }
+        List<PositionCounts> result = new ArrayList<>();
+        for (Map.Entry<String, Counts> total : totals.entrySet()) {
+            result.add(new PositionCounts(total.getKey(), employees.get(total.getKey()), total.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * Rolls up every month again from its records, months in parallel, replacing all counts held.
+     * Attendance can still be recorded meanwhile: each month is read without holding Attendance.CHANGE_LOCK, and
+     * changes made while it is being rolled up are replayed over the records read.
+     *
+     * @return The months and records rolled up and the time taken
+     * @throws IOException If a month's records cannot be read; the counts of the months that were rolled up are kept
+     */
+    public static synchronized RebuildResult rebuild() throws IOException {
+        long start = System.nanoTime();
+        List<YearMonth> all = parseMonths(Attendance.getMonths());
+        synchronized (Attendance.CHANGE_LOCK) {
+            months.keySet().retainAll(all);
+            staleMonths.retainAll(all);
+            built = true;
+        }
+        long records = rollUp(all);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        synchronized (Attendance.CHANGE_LOCK) {
+            fullRebuilds++;
+            lastRebuildMillis = millis;
+        }
+        return new RebuildResult(all.size(), records, millis);
+    }
+
+    /**
+     * Builds a one-line summary of the analytics state.
+     *
+     * @return Summary of months and employee months held, rebuilds and incremental updates
+     */
+    public static String getStatusSummary() {
+        synchronized (Attendance.CHANGE_LOCK) {
+            long employeeMonths = 0;
+            for (Map<String, Counts> counts : months.values()) {
+                employeeMonths += counts.size();
+            }
+            return String.format("Attendance analytics: %d months held, %d stale | Employee months: %,d | Full rebuilds: %d"
+                    + " (last %,d ms) | Month rebuilds: %d | Incremental updates: %,d", months.size(), staleMonths.size(),
+                employeeMonths, fullRebuilds, lastRebuildMillis, monthRebuilds, incrementalUpdates);
+        }
+    }
+
+    /**
+     * Rolls up every month once, on first use.
+     *
+     * @throws IOException If a month's records cannot be read
+     */
+    private static synchronized void buildIfNeeded() throws IOException {
+        boolean needed;
+        synchronized (Attendance.CHANGE_LOCK) {
+            needed = !built;
+        }
+        if (needed) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rolls up months from their records in parallel and keeps the new counts.
+     * Changes to a month are queued from before it is read until its new counts are kept, and the month is read
+     * and added up without holding Attendance.CHANGE_LOCK, so writers are not held up by the disk. A read may or
+     * may not include a queued change, so when changes were queued they are replayed over the records read, each
+     * replacing the record of its day, and the month is added up again from the result. A month that cannot be
+     * read is marked stale, so it is rolled up again when next used.
+     *
+     * @param list The months
+     * @return The number of records read
+     * @throws IOException If a month's records cannot be read
+     */
+    private static long rollUp(List<YearMonth> list) throws IOException {
+        synchronized (Attendance.CHANGE_LOCK) {
+            staleMonths.addAll(list);
+        }
+        int[] recordCounts = new int[list.size()];
+        IOException[] failure = new IOException[1];
+        IntStream.range(0, list.size()).parallel().forEach(i -> {
+            YearMonth month = list.get(i);
+            synchronized (Attendance.CHANGE_LOCK) {
+                staleMonths.remove(month);
+                pendingChanges.put(month, new ArrayList<>());
+            }
+            List<Attendance.AttendanceRecord> records;
+            try {
+                records = Attendance.getRecords(month.toString());
+            } catch (IOException e) {
+                synchronized (Attendance.CHANGE_LOCK) {
+                    pendingChanges.remove(month);
+                    staleMonths.add(month);
+                    failure[0] = e;
+                }
+                return;
+            }
+            Map<String, Counts> counts = countRecords(records);
+            synchronized (Attendance.CHANGE_LOCK) {
+                List<Consumer<Map<String, Attendance.AttendanceRecord>>> changes = pendingChanges.remove(month);
+                if (!changes.isEmpty()) {
+                    counts = countRecords(replay(records, changes));
+                }
+                months.put(month, counts);
+            }
+            recordCounts[i] = records.size();
+        });
+        synchronized (Attendance.CHANGE_LOCK) {
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+        }
+        long records = 0;
+        for (int count : recordCounts) {
+            records += count;
+        }
+        return records;
+    }
+
+    /**
+     * Adds up records by employee.
+     *
+     * @param records The records
+     * @return Map of employeeId -> counts
+     */
+    private static Map<String, Counts> countRecords(Collection<Attendance.AttendanceRecord> records) {
+        Map<String, Counts> counts = new HashMap<>();
+        for (Attendance.AttendanceRecord record : records) {
+            counts.merge(record.getEmployeeId(), Counts.of(record), Counts::plus);
+        }
+        return counts;
+    }
+
+    /**
+     * Replays queued changes over a month's records as read. Each change sets the record of its day, so a change
+     * the read already included leaves the same record.
+     *
+     * @param records The records as read
+     * @param changes The changes queued since before the read, in order
+     * @return The month's records after the changes
+     */
+    private static Collection<Attendance.AttendanceRecord> replay(List<Attendance.AttendanceRecord> records,
+                                                                  List<Consumer<Map<String, Attendance.AttendanceRecord>>> changes) {
+        Map<String, Attendance.AttendanceRecord> days = new HashMap<>(records.size() * 4 / 3 + 1);
+        for (Attendance.AttendanceRecord record : records) {
+            days.put(Attendance.recordKey(record.getEmployeeId(), record.getDate()), record);
+        }
+        for (Consumer<Map<String, Attendance.AttendanceRecord>> change : changes) {
+            change.accept(days);
+        }
+        return days.values();
+    }
+
+    /**
+     * Gets the month of a record.
+     *
+     * @param record The attendance record
+     * @return The month, or null if the record has no valid date
+     */
+    private static YearMonth monthOf(Attendance.AttendanceRecord record) {
+        try {
+            return YearMonth.parse(AttendancePartitions.monthOf(record));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses month names, skipping any that are not yyyy-MM, such as the partition of records without a valid date.
+     *
+     * @param names Months in yyyy-MM format
+     * @return The months, in the same order
+     */
+    private static List<YearMonth> parseMonths(List<String> names) {
+        List<YearMonth> result = new ArrayList<>();
+        for (String name : names) {
+            try {
+                result.add(YearMonth.parse(name));
+            } catch (DateTimeParseException e) {
+                // Records without a valid date are not counted in any month
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Applies attendance changes to the counts held, and queues them for months being rolled up.
+     */
+    private static class CountsUpdater implements Attendance.ChangeListener {
+        @Override
+        public void recordsChanged(List<Attendance.RecordChange> changes, boolean external) {
+            for (Attendance.RecordChange change : changes) {
+                queue(change);
+                if (change.getOldRecord() != null) {
+                    apply(change.getOldRecord(), false);
+                }
+                if (change.getNewRecord() != null) {
+                    apply(change.getNewRecord(), true);
+                }
+            }
+            if (external) {
+                // Changes to months not held in memory are not reported, so those months are rolled up again when next read
+                for (YearMonth month : monthsHeld()) {
+                    try {
+                        if (Attendance.mayHaveUnreadChanges(month.toString())) {
+                            staleMonths.add(month);
+                        }
+                    } catch (IOException e) {
+                        staleMonths.add(month);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void employeeRemoved(String employeeId) {
+            for (List<Consumer<Map<String, Attendance.AttendanceRecord>>> pending : pendingChanges.values()) {
+                pending.add(days -> days.values().removeIf(record -> record.getEmployeeId().equals(employeeId)));
+            }
+            for (YearMonth month : monthsHeld()) {
+                update(month, counts -> counts.remove(employeeId));
+            }
+        }
+
+        @Override
+        public void allRecordsRemoved() {
+            for (List<Consumer<Map<String, Attendance.AttendanceRecord>>> pending : pendingChanges.values()) {
+                pending.add(Map::clear);
+            }
+            for (YearMonth month : monthsHeld()) {
+                update(month, Map::clear);
+            }
+        }
+
+        /**
+         * Adds a record to or subtracts it from its month's counts.
+         *
+         * @param record The attendance record
+         * @param add true to add, false to subtract
+         */
+        private void apply(Attendance.AttendanceRecord record, boolean add) {
+            YearMonth month = monthOf(record);
+            if (month == null) {
+                return;
+            }
+            Counts day = Counts.of(record);
+            String employeeId = record.getEmployeeId();
+            update(month, counts -> {
+                Counts current = counts.getOrDefault(employeeId, Counts.EMPTY);
+                Counts updated = add ? current.plus(day) : current.minus(day);
+                if (updated.isEmpty()) {
+                    counts.remove(employeeId);
+                } else {
+                    counts.put(employeeId, updated);
+                }
+            });
+        }
+
+        /**
+         * Queues a record change if its month is being rolled up.
+         *
+         * @param change The record change
+         */
+        private void queue(Attendance.RecordChange change) {
+            Attendance.AttendanceRecord oldRecord = change.getOldRecord();
+            Attendance.AttendanceRecord newRecord = change.getNewRecord();
+            YearMonth month = monthOf(newRecord != null ? newRecord : oldRecord);
+            List<Consumer<Map<String, Attendance.AttendanceRecord>>> pending = month == null ? null : pendingChanges.get(month);
+            if (pending == null) {
+                return;
+            }
+            pending.add(days -> {
+                if (oldRecord != null) {
+                    days.remove(Attendance.recordKey(oldRecord.getEmployeeId(), oldRecord.getDate()));
+                }
+                if (newRecord != null) {
+                    days.put(Attendance.recordKey(newRecord.getEmployeeId(), newRecord.getDate()), newRecord);
+                }
+            });
+        }
+
+        /**
+         * Applies a change to a month's counts, unless the month is being rolled up and has no counts yet.
+         * Before every month has been rolled up there is nothing to update. A month first seen after that
+         * starts from its change alone and is marked stale, as other instances may have recorded it already.
+         *
+         * @param month The month
+         * @param change The change to the month's counts
+         */
+        private void update(YearMonth month, Consumer<Map<String, Counts>> change) {
+            if (!built) {
+                return;
+            }
+            Map<String, Counts> counts = months.get(month);
+            if (counts == null && !pendingChanges.containsKey(month)) {
+                counts = new HashMap<>();
+                months.put(month, counts);
+                staleMonths.add(month);
+            }
+            if (counts != null) {
+                change.accept(counts);
+            }
+            incrementalUpdates++;
+        }
+
+        /**
+         * Gets the months held or being rolled up.
+         *
+         * @return The months
+         */
+        private Set<YearMonth> monthsHeld() {
+            Set<YearMonth> held = new HashSet<>(months.keySet());
+            held.addAll(pendingChanges.keySet());
+            return held;
+        }
+    }
+}
@@ -0,0 +1,715 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+
+/**
+ * AttendanceJournal class handles append-only persistence of attendance records
+ * Appends each change to a journal file and folds the journal into the base CSV on the FlushScheduler thread
+ * Appends and file replacements hold the SharedFileLock of the base file, so instances sharing the folder can use one journal,
+ * and each instance follows the others' entries by reading the journal on from where it stopped.
+ * The journal is only ever moved aside or deleted together with a version bump, so the version tells which
+ * journal an instance was reading; the lock file's tag records what each step of a compaction did, so other
+ * instances can follow it without file keys, which some file systems do not have
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class AttendanceJournal implements FlushScheduler.Store {
+    // Journal operations: PUT,<employeeID>,<date>,<status>,<timeIn>,<timeOut> | DEL,<employeeID> | CLEAR
+    private static final String OP_PUT = "PUT";
+    private static final String OP_DELETE = "DEL";
+    private static final String OP_CLEAR = "CLEAR";
+    private static final String BASE_HEADER = "EmployeeID,Date,Status,TimeIn,TimeOut";
+
+    // Number of journal entries after which the journal is folded into the base file, raised to a
+    // share of the base file's records so a large month busy with punches is not rewritten every few seconds
+    private static final int COMPACTION_THRESHOLD = 500;
+    private static final int COMPACTION_BASE_SHARE = 2;
+
+    // Lock-free reads that are retried when another instance rotates or compacts the files meanwhile
+    private static final int MAX_READ_ATTEMPTS = 3;
+
+    // Lock file tags: the last compaction step, and the length of the journal it moved aside, or -1 if the
+    // journal was appended to the leftover of an interrupted compaction instead
+    private static final int STEP_TAG = 0;
+    private static final int MOVED_LENGTH_TAG = 1;
+
+    private final Path baseFile;
+    private final Path journalFile;
+    private final Path compactingFile;
+    private int journalEntries;
+
+    // Records in the base file when it was last read or written
+    private int baseRecords;
+
+    // How far this instance has read: the version and base file it read, and the byte offset it read the
+    // version's journal up to
+    private long seenVersion = -1;
+    private BasicFileAttributes seenBase;
+    private long journalOffset;
+
+    /**
+     * Creates a journal for the given base file.
+     * The journal is stored next to the base file with a ".journal" suffix.
+     *
+     * @param baseFile The compact base CSV file
+     */
+    public AttendanceJournal(Path baseFile) {
+        this.baseFile = baseFile;
+        this.journalFile = Paths.get(baseFile.toString() + ".journal");
+        this.compactingFile = Paths.get(baseFile.toString() + ".journal.compacting");
+    }
+
+    /**
+     * Loads the base file and replays any journal entries on top of it.
+     * A journal left behind by an interrupted compaction is replayed before the live journal.
+     *
+     * @param records The map to fill, keyed by "employeeID|date"
+     * @throws IOException If a file cannot be read
+     */
+    public synchronized void load(Map<String, Attendance.AttendanceRecord> records) throws IOException {
+        readInto(records);
+        if (journalEntries >= compactionThreshold() || Files.exists(compactingFile)) {
+            scheduleCompaction();
+        }
+    }
+
+    /**
+     * Loads the base file and journals like load, without scheduling a compaction.
+     * The files are read without the lock; if another instance rotated or compacted them
+     * while they were read, the read is repeated, the last time under the lock.
+     *
+     * @param records The map to fill, keyed by "employeeID|date"
+     * @throws IOException If a file cannot be read
+     */
+    synchronized void readInto(Map<String, Attendance.AttendanceRecord> records) throws IOException {
+        for (int attempt = 1; attempt < MAX_READ_ATTEMPTS; attempt++) {
+            // Read in the form of the target, so loading a month into PackedAttendance holds no record objects
+            Map<String, Attendance.AttendanceRecord> read =
+                records instanceof PackedAttendance ? new PackedAttendance() : new LinkedHashMap<>();
+            long version = SharedFileLock.readVersion(baseFile);
+            readFiles(read, version);
+            if (SharedFileLock.readVersion(baseFile) == version) {
+                records.putAll(read);
+                return;
+            }
+        }
+        SharedFileLock.withLock(baseFile, version -> {
+            readFiles(records, version.get());
+            return null;
+        });
+    }
+
+    /**
+     * Reads the base file, the journal being compacted and the live journal into the map,
+     * and remembers how far they were read.
+     *
+     * @param records The map to fill
+     * @param version The version of the files being read
+     * @throws IOException If a file cannot be read
+     */
+    private void readFiles(Map<String, Attendance.AttendanceRecord> records, long version) throws IOException {
+        seenVersion = version;
+        seenBase = readStamp(baseFile);
+        readBase(baseFile, records);
+        baseRecords = records.size();
+        replay(compactingFile, records);
+
+        int[] entries = {0};
+        journalOffset = Files.exists(journalFile) ? replayFrom(journalFile, 0, records, null, entries) : 0;
+        journalEntries = entries[0];
+    }
+
+    /**
+     * Applies the journal entries other instances appended since this journal was last read.
+     * Only the new bytes are read. When the journal was moved aside for compaction meanwhile,
+     * the rest of it is read where it now lives before the new journal is started.
+     *
+     * @param records The loaded records of the month, updated in place
+     * @param previous Collects the value each changed key had before the first change, null if it did not exist
+     * @return false if the files were replaced in a way that cannot be followed, such as a base file
+     *         edited by hand or a compaction that finished before the rest of the journal was read;
+     *         the month must then be read again
+     * @throws IOException If a file cannot be read
+     */
+    synchronized boolean readNewEntries(Map<String, Attendance.AttendanceRecord> records,
+                                        Map<String, Attendance.AttendanceRecord> previous) throws IOException {
+        if (seenVersion < 0) {
+            return false;
+        }
+        return SharedFileLock.withLock(baseFile, version -> {
+            long currentVersion = version.get();
+            int[] entries = {journalEntries};
+            if (currentVersion == seenVersion) {
+                if (!sameStamp(readStamp(baseFile), seenBase)) {
+                    return false;
+                }
+            } else if (currentVersion == seenVersion + 1 && version.getTag(STEP_TAG) == foldedTag(seenVersion)) {
+                // The journal being compacted, already read here, was folded into the base file; the live journal is unchanged
+                seenVersion = currentVersion;
+                seenBase = readStamp(baseFile);
+            } else if (currentVersion == seenVersion + 2 && version.getTag(STEP_TAG) == foldedTag(seenVersion + 1)
+                    && version.getTag(MOVED_LENGTH_TAG) == journalOffset) {
+                // A whole compaction ran: the journal read here to its end was moved aside and folded in, and a new one started
+                seenVersion = currentVersion;
+                seenBase = readStamp(baseFile);
+                journalOffset = 0;
+                entries[0] = 0;
+            } else {
+                // Otherwise only followable if the one change since was moving the journal read here aside as a whole
+                BasicFileAttributes compacting = readStamp(compactingFile);
+                if (currentVersion != seenVersion + 1 || version.getTag(STEP_TAG) != movedAsideTag(seenVersion)
+                        || compacting == null || compacting.size() < journalOffset) {
+                    return false;
+                }
+                replayFrom(compactingFile, journalOffset, records, previous, entries);
+                seenVersion = currentVersion;
+                seenBase = readStamp(baseFile);
+                journalOffset = 0;
+                entries[0] = 0;
+            }
+
+            BasicFileAttributes journal = readStamp(journalFile);
+            if (journal == null) {
+                return journalOffset == 0;
+            }
+            if (journal.size() < journalOffset) {
+                return false;
+            }
+            journalOffset = replayFrom(journalFile, journalOffset, records, previous, entries);
+            journalEntries = entries[0];
+            return true;
+        });
+    }
+
+    /**
+     * Replaces the base file with the given records and discards both journals.
+     * Used when records are moved into this file from another store.
+     *
+     * @param records The records that make up the new base file
+     * @throws IOException If a file cannot be written
+     */
+    public synchronized void replaceBase(Collection<Attendance.AttendanceRecord> records) throws IOException {
+        Path tempFile = writeBase(baseFile, records);
+        SharedFileLock.withLock(baseFile, version -> {
+            FlushScheduler.moveIntoPlace(tempFile, baseFile);
+            Files.deleteIfExists(compactingFile);
+            Files.deleteIfExists(journalFile);
+            version.setTag(STEP_TAG, 0);
+            return version.increment();
+        });
+        journalEntries = 0;
+        baseRecords = records.size();
+    }
+
+    /**
+     * Appends a new or corrected attendance record to the journal.
+     *
+     * @param record The attendance record to append
+     * @throws IOException If the journal cannot be written
+     */
+    public synchronized void appendPut(Attendance.AttendanceRecord record) throws IOException {
+        append(putLine(record));
+    }
+
+    /**
+     * Appends new or corrected attendance records to the journal in a single write.
+     *
+     * @param records The attendance records to append
+     * @throws IOException If the journal cannot be written
+     */
+    public synchronized void appendPuts(List<Attendance.AttendanceRecord> records) throws IOException {
+        appendPuts(records, false);
+    }
+
+    /**
+     * Appends new or corrected attendance records to the journal in a single write, optionally returning
+     * only once the write has reached the disk, so the records survive a power failure as well as a crash.
+     *
+     * @param records The attendance records to append
+     * @param sync true to wait until the write is on disk
+     * @throws IOException If the journal cannot be written
+     */
+    public synchronized void appendPuts(List<Attendance.AttendanceRecord> records, boolean sync) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        StringBuilder entries = new StringBuilder(records.size() * 40);
+        for (Attendance.AttendanceRecord record : records) {
+            entries.append(putLine(record)).append(System.lineSeparator());
+        }
+        write(entries.toString(), records.size(), sync);
+    }
+
+    /**
+     * Builds the journal line of a PUT entry.
+     *
+     * @param record The attendance record
+     * @return The line, without a line break
+     */
+    private static String putLine(Attendance.AttendanceRecord record) {
+        return String.join(",", OP_PUT,
+            CsvReader.escape(record.getEmployeeId()),
+            CsvReader.escape(record.getDate()),
+            CsvReader.escape(record.getStatus()),
+            CsvReader.escape(record.getTimeIn()),
+            CsvReader.escape(record.getTimeOut())
+        );
+    }
+
+    /**
+     * Appends the removal of every attendance record of an employee to the journal.
+     *
+     * @param employeeId The employee ID whose records were removed
+     * @throws IOException If the journal cannot be written
+     */
+    public synchronized void appendDeleteEmployee(String employeeId) throws IOException {
+        append(OP_DELETE + "," + CsvReader.escape(employeeId));
+    }
+
+    /**
+     * Appends the removal of all attendance records to the journal.
+     *
+     * @throws IOException If the journal cannot be written
+     */
+    public synchronized void appendClear() throws IOException {
+        append(OP_CLEAR);
+    }
+
+    /**
+     * Writes one journal line in a single append so the entry survives a crash.
+     * The journal is opened per entry under the lock, because another instance may have
+     * moved it aside for compaction since the last entry.
+     * Schedules a background compaction once the journal grows past the threshold.
+     *
+     * @param line The journal line to write
+     * @throws IOException If the journal cannot be written
+     */
+    private void append(String line) throws IOException {
+        write(line + System.lineSeparator(), 1, false);
+    }
+
+    /**
+     * Writes journal lines in a single append, as described in append.
+     *
+     * @param lines The journal lines, each ending with a line break
+     * @param count The number of lines
+     * @param sync true to open the journal for synchronized writes, so the append returns once it is on disk
+     * @throws IOException If the journal cannot be written
+     */
+    private void write(String lines, int count, boolean sync) throws IOException {
+        byte[] entry = lines.getBytes(StandardCharsets.UTF_8);
+        SharedFileLock.withLock(baseFile, version -> {
+            // If every earlier entry has been read, this one is already applied in memory and need not be read back
+            boolean caughtUp = isCaughtUp(version.get());
+            if (sync) {
+                Files.write(journalFile, entry, StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.DSYNC);
+            } else {
+                Files.write(journalFile, entry, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            if (caughtUp) {
+                journalOffset += entry.length;
+            }
+            return null;
+        });
+        journalEntries += count;
+        if (journalEntries >= compactionThreshold()) {
+            scheduleCompaction();
+        }
+    }
+
+    /**
+     * Gets the number of journal entries that makes a compaction worthwhile: COMPACTION_THRESHOLD, or half
+     * the base file's records if more, so the cost of rewriting the base file stays in proportion to the
+     * entries folded into it.
+     *
+     * @return The number of entries
+     */
+    private int compactionThreshold() {
+        return Math.max(COMPACTION_THRESHOLD, baseRecords / COMPACTION_BASE_SHARE);
+    }
+
+    /**
+     * Schedules a background compaction on the FlushScheduler thread.
+     */
+    public void scheduleCompaction() {
+        FlushScheduler.markDirty(this);
+    }
+
+    /**
+     * Gets the store name used in flush reports.
+     *
+     * @return The name of the base file
+     */
+    @Override
+    public String getName() {
+        return baseFile.getFileName().toString();
+    }
+
+    /**
+     * Compacts the journal when FlushScheduler flushes this store.
+     *
+     * @throws IOException If a file cannot be read or written
+     */
+    @Override
+    public void flush() throws IOException {
+        compact();
+    }
+
+    /**
+     * Checks whether the files hold entries this instance has neither read nor written, without reading them,
+     * e.g. to tell whether other instances changed a month since it was last loaded.
+     *
+     * @return true if another instance changed the files since they were last read or written here
+     * @throws IOException If the file attributes cannot be read
+     */
+    synchronized boolean hasUnreadEntries() throws IOException {
+        return !isCaughtUp(SharedFileLock.readVersion(baseFile));
+    }
+
+    /**
+     * Checks whether the files are at the version and journal length this instance last read or wrote.
+     *
+     * @param version The current version of the files
+     * @return true if every entry in the files has been read or written here
+     * @throws IOException If the journal's attributes cannot be read
+     */
+    private boolean isCaughtUp(long version) throws IOException {
+        BasicFileAttributes journal = readStamp(journalFile);
+        return version == seenVersion && (journal == null ? journalOffset == 0 : journal.size() == journalOffset);
+    }
+
+    /**
+     * Gets the lock file tag that records a compaction moving the journal of a version aside as a whole.
+     * A step tag of 0 means the last change cannot be followed, e.g. a journal appended to the leftover of an
+     * interrupted compaction or a base file replaced with other records.
+     *
+     * @param version The version whose journal was moved aside
+     * @return The tag
+     */
+    private static long movedAsideTag(long version) {
+        return version * 2 + 1;
+    }
+
+    /**
+     * Gets the lock file tag that records a compaction folding the journal it moved aside into the base file,
+     * leaving the live journal of a version as it was.
+     *
+     * @param version The version whose journal being compacted was folded in
+     * @return The tag
+     */
+    private static long foldedTag(long version) {
+        return version * 2 + 2;
+    }
+
+    /**
+     * Folds the journal into the base file.
+     * The live journal is first moved aside so clerks can keep appending while the
+     * new base file is written; the base file is replaced atomically when done.
+     * Only the rotation and the final rename hold the lock. If another instance rotated or
+     * compacted the files in between, the new base file is discarded and compaction is retried later.
+     *
+     * @throws IOException If a file cannot be read or written
+     */
+    void compact() throws IOException {
+        long rotatedVersion;
+        synchronized (this) {
+            rotatedVersion = SharedFileLock.withLock(baseFile, version -> {
+                journalEntries = 0;
+                long current = version.get();
+                BasicFileAttributes journal = readStamp(journalFile);
+                boolean caughtUp = current == seenVersion && journal != null && journal.size() == journalOffset;
+                boolean whole = !Files.exists(compactingFile);
+                if (!rotateJournal()) {
+                    return current;
+                }
+                version.setTag(STEP_TAG, whole ? movedAsideTag(current) : 0);
+                version.setTag(MOVED_LENGTH_TAG, whole ? journal.size() : -1);
+                long next = version.increment();
+                if (caughtUp) {
+                    // Everything moved aside is already applied here, so keep following from the new journal
+                    seenVersion = next;
+                    journalOffset = 0;
+                }
+                return next;
+            });
+        }
+        if (!Files.exists(compactingFile)) {
+            return;
+        }
+
+        Map<String, Attendance.AttendanceRecord> merged = new LinkedHashMap<>();
+        readBase(baseFile, merged);
+        replay(compactingFile, merged);
+
+        Path tempFile = writeBase(baseFile, merged.values());
+        // Entries appended with sync are on disk, so the base file that replaces them must be too before they are deleted
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        boolean replaced;
+        synchronized (this) {
+            replaced = SharedFileLock.withLock(baseFile, version -> {
+                if (version.get() != rotatedVersion) {
+                    Files.deleteIfExists(tempFile);
+                    return false;
+                }
+                FlushScheduler.moveIntoPlace(tempFile, baseFile);
+                Files.deleteIfExists(compactingFile);
+                baseRecords = merged.size();
+                version.setTag(STEP_TAG, foldedTag(rotatedVersion));
+                long next = version.increment();
+                if (seenVersion == rotatedVersion) {
+                    // The new base file holds nothing that is not already applied here
+                    seenVersion = next;
+                    seenBase = readStamp(baseFile);
+                }
+                return true;
+            });
+        }
+        if (!replaced) {
+            scheduleCompaction();
+        }
+    }
+
+    /**
+     * Writes a compact base file to a temporary file next to it.
+     *
+     * @param file The base CSV file
+     * @param records The records to write
+     * @return The temporary file, to be moved over the base file under the lock
+     * @throws IOException If the file cannot be written
+     */
+    private static Path writeBase(Path file, Collection<Attendance.AttendanceRecord> records) throws IOException {
+        return FlushScheduler.writeTempFile(file, writer -> {
+            writer.write(BASE_HEADER);
+            writer.newLine();
+            for (Attendance.AttendanceRecord record : records) {
+                writer.write(String.join(",",
+                    CsvReader.escape(record.getEmployeeId()),
+                    CsvReader.escape(record.getDate()),
+                    CsvReader.escape(record.getStatus()),
+                    CsvReader.escape(record.getTimeIn()),
+                    CsvReader.escape(record.getTimeOut())
+                ));
+                writer.newLine();
+            }
+        });
+    }
+
+    /**
+     * Moves the live journal aside for compaction so a fresh one is started.
+     * If an earlier compaction was interrupted, the live journal is appended to the
+     * leftover file so the order of entries is preserved.
+     * Callers must hold the lock of the base file.
+     *
+     * @return true if a journal was moved, false if there was none
+     * @throws IOException If the journal cannot be moved
+     */
+    private boolean rotateJournal() throws IOException {
+        if (!Files.exists(journalFile)) {
+            return false;
+        }
+        if (Files.exists(compactingFile)) {
+            Files.write(compactingFile, Files.readAllBytes(journalFile), StandardOpenOption.APPEND);
+            Files.delete(journalFile);
+        } else {
+            Files.move(journalFile, compactingFile, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return true;
+    }
+
+    /**
+     * Reads a compact base file into the map.
+     * Very large files are read and parsed in parallel chunks by ParallelAttendanceLoader.
+     *
+     * @param file The base CSV file
+     * @param records The map to fill
+     * @throws IOException If the file cannot be read
+     */
+    private static void readBase(Path file, Map<String, Attendance.AttendanceRecord> records) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        if (ParallelAttendanceLoader.isLargeFile(file)) {
+            ParallelAttendanceLoader.load(file, records);
+            return;
+        }
+        try (CsvReader reader = CsvReader.open(file)) {
+            reader.next(); // Skip header line
+
+            while (reader.next()) {
+                if (reader.getFieldCount() >= 5) {
+                    String employeeId = reader.getField(0);
+                    String date = reader.getField(1);
+                    records.put(Attendance.recordKey(employeeId, date),
+                        new Attendance.AttendanceRecord(employeeId, date, reader.getField(2), reader.getField(3), reader.getField(4)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Replays journal entries in order on top of the map.
+     * Replaying is idempotent, so a journal that was already folded into the base
+     * file can safely be replayed again after a crash.
+     *
+     * @param file The journal file
+     * @param records The map to update
+     * @return The number of entries replayed
+     * @throws IOException If the file cannot be read
+     */
+    private static int replay(Path file, Map<String, Attendance.AttendanceRecord> records) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try (CsvReader reader = CsvReader.open(file)) {
+            return replay(reader, records, null);
+        }
+    }
+
+    /**
+     * Replays the complete journal lines that follow a byte offset.
+     * A last line without a line break may still be being written, so it is left for the next read.
+     *
+     * @param file The journal file
+     * @param offset The number of bytes already replayed
+     * @param records The map to update
+     * @param previous Collects the value each changed key had before the first change, or null
+     * @param entries Incremented by the number of entries replayed
+     * @return The byte offset after the last replayed line
+     * @throws IOException If the file cannot be read
+     */
+    private static long replayFrom(Path file, long offset, Map<String, Attendance.AttendanceRecord> records,
+                                   Map<String, Attendance.AttendanceRecord> previous, int[] entries) throws IOException {
+        byte[] bytes;
+        try (SeekableByteChannel channel = Files.newByteChannel(file)) {
+            long size = channel.size();
+            if (size <= offset) {
+                return offset;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(size - offset));
+            channel.position(offset);
+            while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+                // Keep reading until the buffer is full or the file ends
+            }
+            bytes = buffer.array();
+        }
+
+        int end = bytes.length;
+        while (end > 0 && bytes[end - 1] != '\n') {
+            end--;
+        }
+        if (end > 0) {
+            try (CsvReader reader = new CsvReader(new InputStreamReader(
+                     new ByteArrayInputStream(bytes, 0, end), StandardCharsets.UTF_8))) {
+                entries[0] += replay(reader, records, previous);
+            }
+        }
+        return offset + end;
+    }
+
+    /**
+     * Replays the journal entries read by a CsvReader.
+     *
+     * @param reader The reader positioned before the first entry
+     * @param records The map to update
+     * @param previous Collects the value each changed key had before the first change, or null
+     * @return The number of entries replayed
+     * @throws IOException If the entries cannot be read
+     */
+    private static int replay(CsvReader reader, Map<String, Attendance.AttendanceRecord> records,
+                              Map<String, Attendance.AttendanceRecord> previous) throws IOException {
+        int entries = 0;
+        while (reader.next()) {
+            if (reader.fieldEquals(0, OP_PUT) && reader.getFieldCount() >= 6) {
+                String employeeId = reader.getField(1);
+                String date = reader.getField(2);
+                String key = Attendance.recordKey(employeeId, date);
+                remember(records, previous, key);
+                records.put(key,
+                    new Attendance.AttendanceRecord(employeeId, date, reader.getField(3), reader.getField(4), reader.getField(5)));
+            } else if (reader.fieldEquals(0, OP_DELETE) && reader.getFieldCount() >= 2) {
+                String employeeId = reader.getField(1);
+                if (records instanceof PackedAttendance) {
+                    // Reads only the employee's records through the employee index
+                    PackedAttendance packed = (PackedAttendance) records;
+                    if (previous != null) {
+                        for (Attendance.AttendanceRecord record : packed.getEmployeeRecords(employeeId)) {
+                            remember(records, previous, Attendance.recordKey(record.getEmployeeId(), record.getDate()));
+                        }
+                    }
+                    packed.removeEmployee(employeeId);
+                } else {
+                    String prefix = employeeId + "|";
+                    Iterator<String> keys = records.keySet().iterator();
+                    while (keys.hasNext()) {
+                        String key = keys.next();
+                        if (key.startsWith(prefix)) {
+                            remember(records, previous, key);
+                            keys.remove();
+                        }
+                    }
+                }
+            } else if (reader.fieldEquals(0, OP_CLEAR)) {
+                if (previous != null) {
+                    for (String key : records.keySet()) {
+                        remember(records, previous, key);
+                    }
+                }
+                records.clear();
+            } else {
+                continue; // Skip torn or unknown lines
+            }
+            entries++;
+        }
+        return entries;
+    }
+
+    /**
+     * Records the value of a key before its first change.
+     *
+     * @param records The records about to change
+     * @param previous The values before the first change, or null if they are not collected
+     * @param key The key about to change
+     */
+    private static void remember(Map<String, Attendance.AttendanceRecord> records,
+                                 Map<String, Attendance.AttendanceRecord> previous, String key) {
+        if (previous != null && !previous.containsKey(key)) {
+            previous.put(key, records.get(key));
+        }
+    }
+
+    /**
+     * Reads the attributes that identify one version of a file.
+     *
+     * @param file The file
+     * @return The attributes, or null if the file does not exist
+     * @throws IOException If the attributes cannot be read
+     */
+    private static BasicFileAttributes readStamp(Path file) throws IOException {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether two attribute reads describe the same version of a file.
+     *
+     * @param a The first attributes, or null for a missing file
+     * @param b The second attributes, or null for a missing file
+     * @return true if both describe the same file contents
+     */
+    private static boolean sameStamp(BasicFileAttributes a, BasicFileAttributes b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return a.size() == b.size() && a.lastModifiedTime().equals(b.lastModifiedTime())
+            && Objects.equals(a.fileKey(), b.fileKey());
+    }
+}
@@ -0,0 +1,608 @@
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+/**
+ * AttendancePartitions class handles month-partitioned storage of attendance records
+ * Keeps one CSV file and journal per month plus an index of the months that hold data,
+ * and loads a month only when a view or query touches it, keeping the most recently used months in memory
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class AttendancePartitions implements Repositories.AttendanceRepository {
+    private static final String INDEX_FILE_NAME = "index.csv";
+    private static final String INDEX_HEADER = "Month";
+
+    // Partition for records whose date does not start with yyyy-MM
+    public static final String UNDATED_MONTH = "undated";
+
+    private final Path directory;
+    private final Path legacyFile;
+    private final Path indexFile;
+
+    // Months that hold attendance data, in calendar order
+    private final TreeSet<String> months = new TreeSet<>();
+
+    // One journal per month; journals are cheap and keep no records in memory
+    private final Map<String, AttendanceJournal> journals = new HashMap<>();
+
+    // Loaded months, least recently used first; the eldest is dropped past the limit
+    private final LinkedHashMap<String, PackedAttendance> residentMonths;
+    private long partitionLoads;
+
+    // Write-behind target that saves the month index
+    private final FlushScheduler.Store indexStore = new FlushScheduler.Store() {
+        @Override
+        public String getName() {
+            return "attendance index";
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writeIndex();
+        }
+    };
+
+    /**
+     * Creates the partitioned store.
+     *
+     * @param directory The directory holding the month files and index
+     * @param legacyFile The single attendance CSV used before partitioning, migrated on open
+     * @param maxResidentMonths The number of months kept in memory
+     */
+    public AttendancePartitions(Path directory, Path legacyFile, int maxResidentMonths) {
+        this.directory = directory;
+        this.legacyFile = legacyFile;
+        this.indexFile = directory.resolve(INDEX_FILE_NAME);
+        this.residentMonths = new LinkedHashMap<String, PackedAttendance>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PackedAttendance> eldest) {
+                return size() > maxResidentMonths;
+            }
+        };
+    }
+
+    /**
+     * Opens the store: migrates the legacy file if needed and reads the month index.
+     * Loaded months are dropped so they are read again from disk when next used.
+     *
+     * @throws IOException If the index or legacy file cannot be read or written
+     */
+    @Override
+    public synchronized void open() throws IOException {
+        Files.createDirectories(directory);
+        migrateLegacyFile();
+        residentMonths.clear();
+        months.clear();
+        if (Files.exists(indexFile)) {
+            readIndex();
+        } else {
+            rebuildIndex();
+        }
+    }
+
+    /**
+     * Gets the partition month of an attendance date.
+     *
+     * @param date The date in yyyy-MM-dd format
+     * @return The month in yyyy-MM format, or UNDATED_MONTH for other dates
+     */
+    public static String monthOf(String date) {
+        if (date != null && date.length() >= 7 && date.charAt(4) == '-') {
+            String month = date.substring(0, 7);
+            try {
+                YearMonth.parse(month);
+                return month;
+            } catch (RuntimeException e) {
+                // Fall through to the undated partition
+            }
+        }
+        return UNDATED_MONTH;
+    }
+
+    /**
+     * Gets the month partition of a record like monthOf(String), without parsing a date the record holds as a day.
+     *
+     * @param record The attendance record
+     * @return The month in yyyy-MM format, or UNDATED_MONTH
+     */
+    static String monthOf(Attendance.AttendanceRecord record) {
+        String date = record.getDate();
+        return record.getEpochDay() != Attendance.AttendanceRecord.NO_EPOCH_DAY && date.length() == 10 ? date.substring(0, 7) : monthOf(date);
+    }
+
+    /**
+     * Gets the months that hold attendance data.
+     *
+     * @return Months in calendar order, with UNDATED_MONTH last if present
+     */
+    @Override
+    public synchronized List<String> getMonths() {
+        return new ArrayList<>(months);
+    }
+
+    /**
+     * Checks whether an attendance record exists, loading only its month.
+     *
+     * @param employeeId The employee ID
+     * @param date The attendance date
+     * @return true if a record exists for the employee on that date
+     * @throws IOException If the month cannot be loaded
+     */
+    @Override
+    public synchronized boolean contains(String employeeId, String date) throws IOException {
+        String month = monthOf(date);
+        if (!months.contains(month)) {
+            return false;
+        }
+        int employeeNumber = Attendance.AttendanceRecord.parseEmployeeNumber(employeeId);
+        int epochDay = Attendance.AttendanceRecord.parseEpochDay(date);
+        if (employeeNumber == Attendance.AttendanceRecord.NO_EMPLOYEE_NUMBER
+                || epochDay == Attendance.AttendanceRecord.NO_EPOCH_DAY) {
+            return partition(month).containsKey(Attendance.recordKey(employeeId, date));
+        }
+        return partition(month).contains(employeeNumber, epochDay);
+    }
+
+    /**
+     * Gets the records of one month.
+     *
+     * @param month The month in yyyy-MM format
+     * @return The records of that month, in no particular order
+     * @throws IOException If the month cannot be loaded
+     */
+    @Override
+    public synchronized List<Attendance.AttendanceRecord> getRecords(String month) throws IOException {
+        if (!months.contains(month)) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(partition(month).values());
+    }
+
+    /**
+     * Gets the records dated within a range, loading only the months the range covers.
+     *
+     * @param from The first date, inclusive
+     * @param to The last date, inclusive
+     * @return The matching records, in no particular order
+     * @throws IOException If a month cannot be loaded
+     */
+    @Override
+    public synchronized List<Attendance.AttendanceRecord> getRecordsBetween(LocalDate from, LocalDate to) throws IOException {
+        List<Attendance.AttendanceRecord> result = new ArrayList<>();
+        long first = from.toEpochDay();
+        long last = to.toEpochDay();
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(YearMonth.from(to)); month = month.plusMonths(1)) {
+            for (Attendance.AttendanceRecord record : getRecords(month.toString())) {
+                int day = record.getEpochDay();
+                boolean inRange = day != Attendance.AttendanceRecord.NO_EPOCH_DAY
+                    ? day >= first && day <= last
+                    // Dates not written as yyyy-MM-dd are compared as text, as ISO dates sort as text
+                    : record.getDate().compareTo(from.toString()) >= 0 && record.getDate().compareTo(to.toString()) <= 0;
+                if (inRange) {
+                    result.add(record);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the records of one employee dated within a range, loading only the months the range covers.
+     * Each month finds them through its employee index instead of reading all its records.
+     *
+     * @param employeeId The employee ID
+     * @param from The first date, inclusive
+     * @param to The last date, inclusive
+     * @return The matching records, in date order
+     * @throws IOException If a month cannot be loaded
+     */
+    @Override
+    public synchronized List<Attendance.AttendanceRecord> getEmployeeRecords(String employeeId, LocalDate from, LocalDate to)
+            throws IOException {
+        List<Attendance.AttendanceRecord> result = new ArrayList<>();
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(YearMonth.from(to)); month = month.plusMonths(1)) {
+            if (months.contains(month.toString())) {
+                result.addAll(partition(month.toString()).getEmployeeRecords(employeeId, from, to));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the records of one day through its month's date index, loading only that month.
+     *
+     * @param date The date
+     * @return The records of that day, in employee number order
+     * @throws IOException If the month cannot be loaded
+     */
+    @Override
+    public synchronized List<Attendance.AttendanceRecord> getRecordsOn(LocalDate date) throws IOException {
+        String month = YearMonth.from(date).toString();
+        if (!months.contains(month)) {
+            return new ArrayList<>();
+        }
+        return partition(month).getRecordsOn(date);
+    }
+
+    /**
+     * Adds or replaces a record, appending it to its month's journal before it is added in memory,
+     * so a record that could not be written is not held either.
+     *
+     * @param record The attendance record
+     * @return The record replaced, or null if the employee had no record on that date
+     * @throws IOException If the month cannot be loaded or the journal cannot be written
+     */
+    @Override
+    public synchronized Attendance.AttendanceRecord put(Attendance.AttendanceRecord record) throws IOException {
+        String month = monthOf(record);
+        // Loaded before the append, so the month is read without this record
+        PackedAttendance records = partition(month);
+        journal(month).appendPut(record);
+        Attendance.AttendanceRecord previous = records.put(record);
+        if (months.add(month)) {
+            FlushScheduler.markDirty(indexStore);
+        }
+        return previous;
+    }
+
+    /**
+     * Adds or replaces a batch of records, appending each month's records to its journal in a single write.
+     *
+     * @param records The attendance records
+     * @return The record each one replaced, or null where there was none, in the same order
+     * @throws IOException If a month cannot be loaded or a journal cannot be written
+     */
+    @Override
+    public synchronized List<Attendance.AttendanceRecord> putAll(List<Attendance.AttendanceRecord> records) throws IOException {
+        return putAll(records, false);
+    }
+
+    /**
+     * Adds or replaces a batch of records like putAll, returning once each month's journal write is on disk.
+     *
+     * @param records The attendance records
+     * @return The record each one replaced, or null where there was none, in the same order
+     * @throws IOException If a month cannot be loaded or a journal cannot be written
+     */
+    @Override
+    public synchronized List<Attendance.AttendanceRecord> putAllDurably(List<Attendance.AttendanceRecord> records) throws IOException {
+        return putAll(records, true);
+    }
+
+    /**
+     * Adds or replaces a batch of records, appending each month's records to its journal in a single write.
+     * Months are written one at a time, each journaled before its records are added in memory, so loading
+     * a later month of the batch can only evict months whose records are already on disk.
+     *
+     * @param records The attendance records
+     * @param sync true to wait until each journal write is on disk
+     * @return The record each one replaced, or null where there was none, in the same order
+     * @throws IOException If a month cannot be loaded or a journal cannot be written; months written
+     *                     before it keep their records
+     */
+    private List<Attendance.AttendanceRecord> putAll(List<Attendance.AttendanceRecord> records, boolean sync) throws IOException {
+        Attendance.AttendanceRecord[] previous = new Attendance.AttendanceRecord[records.size()];
+        Map<String, List<Integer>> byMonth = new LinkedHashMap<>();
+        for (int i = 0; i < records.size(); i++) {
+            byMonth.computeIfAbsent(monthOf(records.get(i)), m -> new ArrayList<>()).add(i);
+        }
+        for (Map.Entry<String, List<Integer>> month : byMonth.entrySet()) {
+            List<Attendance.AttendanceRecord> monthRecords = new ArrayList<>(month.getValue().size());
+            for (int i : month.getValue()) {
+                monthRecords.add(records.get(i));
+            }
+            PackedAttendance partition = partition(month.getKey());
+            journal(month.getKey()).appendPuts(monthRecords, sync);
+            for (int i : month.getValue()) {
+                previous[i] = partition.put(records.get(i));
+            }
+            if (months.add(month.getKey())) {
+                FlushScheduler.markDirty(indexStore);
+            }
+        }
+        return Arrays.asList(previous);
+    }
+
+    /**
+     * Removes every record of an employee, found in each loaded month through its employee index.
+     * Months that are not loaded only get a journal entry; they are not read.
+     * Each month's journal is written before its records are removed from memory.
+     *
+     * @param employeeId The employee ID
+     * @throws IOException If a journal cannot be written; months written before it lose the
+     *                     employee's records
+     */
+    @Override
+    public synchronized void removeEmployee(String employeeId) throws IOException {
+        // Copied so looking up the loaded months does not count as using them
+        Map<String, PackedAttendance> loaded = new HashMap<>(residentMonths);
+        for (String month : months) {
+            journal(month).appendDeleteEmployee(employeeId);
+            PackedAttendance records = loaded.get(month);
+            if (records != null) {
+                records.removeEmployee(employeeId);
+            }
+        }
+    }
+
+    /**
+     * Removes all attendance records from every month.
+     * Each month's journal is written before its records are removed from memory.
+     *
+     * @throws IOException If a journal cannot be written; months written before it are cleared
+     */
+    @Override
+    public synchronized void clear() throws IOException {
+        Map<String, PackedAttendance> loaded = new HashMap<>(residentMonths);
+        for (String month : months) {
+            journal(month).appendClear();
+            PackedAttendance records = loaded.get(month);
+            if (records != null) {
+                records.clear();
+            }
+        }
+    }
+
+    /**
+     * Applies changes other instances made to the loaded months.
+     * Months added by others are picked up from the index; loaded months read only the journal
+     * entries appended since they were last read, and are read again only when their files were
+     * replaced in a way that cannot be followed.
+     *
+     * @return The records that changed in the loaded months
+     * @throws IOException If a month cannot be read
+     */
+    @Override
+    public synchronized List<Attendance.RecordChange> reloadChanges() throws IOException {
+        months.addAll(readIndexMonths());
+
+        List<Attendance.RecordChange> changes = new ArrayList<>();
+        for (Map.Entry<String, PackedAttendance> entry : residentMonths.entrySet()) {
+            PackedAttendance records = entry.getValue();
+            Map<String, Attendance.AttendanceRecord> previous = new HashMap<>();
+            AttendanceJournal journal = journal(entry.getKey());
+            if (!journal.readNewEntries(records, previous)) {
+                PackedAttendance fresh = new PackedAttendance();
+                journal.readInto(fresh);
+                // Keys changed before the files could no longer be followed already hold their old value
+                for (Map.Entry<String, Attendance.AttendanceRecord> record : records.entrySet()) {
+                    if (!previous.containsKey(record.getKey())) {
+                        previous.put(record.getKey(), record.getValue());
+                    }
+                }
+                for (String key : fresh.keySet()) {
+                    if (!previous.containsKey(key)) {
+                        previous.put(key, null);
+                    }
+                }
+                records.clear();
+                records.putAll(fresh);
+                records.trimToSize();
+            }
+            for (Map.Entry<String, Attendance.AttendanceRecord> change : previous.entrySet()) {
+                Attendance.AttendanceRecord now = records.get(change.getKey());
+                if (!Attendance.sameRecord(change.getValue(), now)) {
+                    changes.add(new Attendance.RecordChange(change.getValue(), now));
+                }
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Checks whether a month is loaded, so reloadChanges reports changes to it.
+     *
+     * @param month The month in yyyy-MM format
+     * @return true if the month is loaded
+     */
+    @Override
+    public synchronized boolean isHeldInMemory(String month) {
+        return residentMonths.containsKey(month);
+    }
+
+    /**
+     * Checks whether other instances changed a month that is not loaded since this instance last loaded or wrote it.
+     * Only the month's version and journal length are read.
+     *
+     * @param month The month in yyyy-MM format
+     * @return true if the month is not loaded and was never loaded here or has changed since
+     * @throws IOException If the month's files cannot be checked
+     */
+    @Override
+    public synchronized boolean mayHaveUnreadChanges(String month) throws IOException {
+        if (residentMonths.containsKey(month)) {
+            return false;
+        }
+        AttendanceJournal journal = journals.get(month);
+        return journal == null || journal.hasUnreadEntries();
+    }
+
+    /**
+     * Builds a one-line summary of the partition state.
+     *
+     * @return Summary of months stored, months loaded, load count and memory held by the loaded records and indexes
+     */
+    @Override
+    public synchronized String getStatusSummary() {
+        long records = 0;
+        long bytes = 0;
+        long indexBytes = 0;
+        for (PackedAttendance month : residentMonths.values()) {
+            records += month.size();
+            bytes += month.getTableBytes();
+            indexBytes += month.getIndexBytes();
+        }
+        return String.format("Attendance months: %d stored | %d loaded %s | Loads: %d | Records: %,d in %,d KB (%.1f bytes each)"
+                + " | Indexes: %,d KB", months.size(), residentMonths.size(), residentMonths.keySet(), partitionLoads,
+            records, bytes / 1024, records == 0 ? 0.0 : (double) bytes / records, indexBytes / 1024);
+    }
+
+    /**
+     * Gets a month's records, loading the month from disk if it is not in memory.
+     *
+     * @param month The month
+     * @return The live records of that month
+     * @throws IOException If the month cannot be loaded
+     */
+    private PackedAttendance partition(String month) throws IOException {
+        PackedAttendance records = residentMonths.get(month);
+        if (records == null) {
+            records = new PackedAttendance();
+            journal(month).load(records);
+            records.trimToSize();
+            residentMonths.put(month, records);
+            partitionLoads++;
+        }
+        return records;
+    }
+
+    /**
+     * Gets the journal of a month, creating it on first use.
+     *
+     * @param month The month
+     * @return The month's journal
+     */
+    private AttendanceJournal journal(String month) {
+        return journals.computeIfAbsent(month, m -> new AttendanceJournal(directory.resolve(m + ".csv")));
+    }
+
+    /**
+     * Moves the records of the single legacy attendance file into month files.
+     * The index is written after the month files, so an interrupted migration is simply
+     * run again; the legacy file is then kept with a ".migrated" suffix.
+     * Runs under the lock of the index so only one instance sharing the folder migrates.
+     *
+     * @throws IOException If a file cannot be read or written
+     */
+    private void migrateLegacyFile() throws IOException {
+        Path legacyJournalFile = Paths.get(legacyFile + ".journal");
+        Path legacyCompactingFile = Paths.get(legacyFile + ".journal.compacting");
+        if (Files.exists(indexFile)
+                || !(Files.exists(legacyFile) || Files.exists(legacyJournalFile) || Files.exists(legacyCompactingFile))) {
+            return;
+        }
+        SharedFileLock.withLock(indexFile, version -> {
+            if (!Files.exists(indexFile)) {
+                migrate(legacyJournalFile, legacyCompactingFile);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Does the migration described in migrateLegacyFile.
+     *
+     * @param legacyJournalFile The journal of the legacy file
+     * @param legacyCompactingFile The journal of the legacy file left by an interrupted compaction
+     * @throws IOException If a file cannot be read or written
+     */
+    private void migrate(Path legacyJournalFile, Path legacyCompactingFile) throws IOException {
+        AttendanceJournal legacyJournal = new AttendanceJournal(legacyFile);
+        Map<String, Attendance.AttendanceRecord> legacyRecords = new LinkedHashMap<>();
+        legacyJournal.readInto(legacyRecords);
+        Map<String, List<Attendance.AttendanceRecord>> byMonth = new TreeMap<>();
+        for (Attendance.AttendanceRecord record : legacyRecords.values()) {
+            byMonth.computeIfAbsent(monthOf(record), m -> new ArrayList<>()).add(record);
+        }
+        for (Map.Entry<String, List<Attendance.AttendanceRecord>> entry : byMonth.entrySet()) {
+            journal(entry.getKey()).replaceBase(entry.getValue());
+        }
+
+        months.clear();
+        months.addAll(byMonth.keySet());
+        writeIndex();
+
+        if (Files.exists(legacyFile)) {
+            Files.move(legacyFile, Paths.get(legacyFile + ".migrated"), StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.deleteIfExists(legacyJournalFile);
+        Files.deleteIfExists(legacyCompactingFile);
+    }
+
+    /**
+     * Reads the month index.
+     *
+     * @throws IOException If the index cannot be read
+     */
+    private void readIndex() throws IOException {
+        months.addAll(readIndexMonths());
+    }
+
+    /**
+     * Reads the months listed in the index file.
+     *
+     * @return The months, empty if there is no index file
+     * @throws IOException If the index cannot be read
+     */
+    private List<String> readIndexMonths() throws IOException {
+        List<String> indexMonths = new ArrayList<>();
+        if (!Files.exists(indexFile)) {
+            return indexMonths;
+        }
+        try (CsvReader reader = CsvReader.open(indexFile)) {
+            reader.next(); // Skip header line
+            while (reader.next()) {
+                indexMonths.add(reader.getField(0));
+            }
+        }
+        return indexMonths;
+    }
+
+    /**
+     * Rebuilds the month index from the month files in the directory.
+     * Used when the index has been deleted.
+     *
+     * @throws IOException If the directory cannot be listed
+     */
+    private void rebuildIndex() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.csv*")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String month = name.substring(0, name.indexOf(".csv"));
+                if (!name.equals(INDEX_FILE_NAME) && (month.equals(UNDATED_MONTH) || monthOf(month + "-01").equals(month))) {
+                    months.add(month);
+                }
+            }
+        }
+        if (!months.isEmpty()) {
+            FlushScheduler.markDirty(indexStore);
+        }
+    }
+
+    /**
+     * Writes the month index atomically.
+     * Months are never removed, so the index is merged with the months other instances
+     * sharing the folder added since it was read; this instance picks those months up too.
+     * The index is a few lines long, so it is read and written under its lock.
+     *
+     * @throws IOException If the index cannot be written
+     */
+    private void writeIndex() throws IOException {
+        // Copied before locking: open() holds this object while it takes the index lock
+        TreeSet<String> snapshot;
+        synchronized (this) {
+            snapshot = new TreeSet<>(months);
+        }
+        SharedFileLock.withLock(indexFile, version -> {
+            List<String> diskMonths = readIndexMonths();
+            if (Files.exists(indexFile) && snapshot.equals(new TreeSet<>(diskMonths))) {
+                return null; // Another instance already wrote the same months
+            }
+            snapshot.addAll(diskMonths);
+            FlushScheduler.writeAtomically(indexFile, writer -> {
+                writer.write(INDEX_HEADER);
+                writer.newLine();
+                for (String month : snapshot) {
+                    writer.write(CsvReader.escape(month));
+                    writer.newLine();
+                }
+            });
+            return version.increment();
+        });
+        synchronized (this) {
+            months.addAll(snapshot);
+        }
+    }
+}
@@ -0,0 +1,479 @@
+import java.io.IOException;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * AttendancePay class handles turning attendance into pay for a pay period
+ * Derives payable hours, absences, late and undertime minutes from the attendance records, and from them the
+ * absence and tardiness deductions at the daily rate; keeps running totals per employee and month that are
+ * updated as attendance is recorded, so payroll reads each month's records at most once
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class AttendancePay {
+    // Regular shift and its unpaid break, in minutes after midnight
+    public static final int SHIFT_START = 8 * 60;
+    public static final int SHIFT_END = 17 * 60;
+    public static final int BREAK_START = 12 * 60;
+    public static final int BREAK_END = 13 * 60;
+
+    // Paid minutes of a full working day
+    public static final int REGULAR_MINUTES = SHIFT_END - SHIFT_START - (BREAK_END - BREAK_START);
+
+    // The daily rate is the monthly base salary divided by this
+    public static final int WORKING_DAYS_PER_MONTH = 22;
+
+    // Totals per pay period, then per employee ID; guarded by Attendance.CHANGE_LOCK
+    private static final Map<YearMonth, Map<String, Rollup>> periods = new HashMap<>();
+
+    // Notified when the totals of an employee in a held period change
+    private static final List<RollupListener> rollupListeners = new CopyOnWriteArrayList<>();
+
+    // Statistics since start-up
+    private static long periodScans;
+    private static long employeeLookups;
+    private static long incrementalUpdates;
+
+    // Keep the totals in step with every attendance change
+    static {
+        Attendance.addChangeListener(new RollupUpdater());
+    }
+
+    /**
+     * Attendance totals of one employee for one pay period, or of a single record.
+     * Totals are immutable; a change creates new totals with plus and minus.
+     */
+    public static final class Rollup {
+        // Totals of a period without attendance records
+        public static final Rollup EMPTY = new Rollup(0, 0, 0, 0, 0, 0, 0);
+
+        private final int recordedDays;
+        private final int workedDays;
+        private final int absentHalfDays;
+        private final int leaveDays;
+        private final int payableMinutes;
+        private final int lateMinutes;
+        private final int undertimeMinutes;
+
+        /**
+         * Creates totals.
+         *
+         * @param recordedDays Days with an attendance record
+         * @param workedDays Days the employee came to work, including half days
+         * @param absentHalfDays Unpaid absences in half days
+         * @param leaveDays Days on paid leave
+         * @param payableMinutes Paid minutes, including paid leave
+         * @param lateMinutes Minutes of the shift missed by arriving late
+         * @param undertimeMinutes Minutes of the shift missed by leaving early
+         */
+        Rollup(int recordedDays, int workedDays, int absentHalfDays, int leaveDays, int payableMinutes,
+               int lateMinutes, int undertimeMinutes) {
+            this.recordedDays = recordedDays;
+            this.workedDays = workedDays;
+            this.absentHalfDays = absentHalfDays;
+            this.leaveDays = leaveDays;
+            this.payableMinutes = payableMinutes;
+            this.lateMinutes = lateMinutes;
+            this.undertimeMinutes = undertimeMinutes;
+        }
+
+        /**
+         * Derives the totals of one attendance record.
+         * Present and Late days are paid for the part of the shift between time in and time out, outside the break;
+         * a day without valid times is paid in full. Absent days are unpaid, half days are half paid and
+         * days on leave are paid in full. Other statuses only count as recorded days.
+         *
+         * @param record The attendance record
+         * @return The totals of that day
+         */
+        public static Rollup of(Attendance.AttendanceRecord record) {
+            Attendance.Status status = record.getAttendanceStatus();
+            if (status == null) {
+                return new Rollup(1, 0, 0, 0, 0, 0, 0);
+            }
+            switch (status) {
+                case PRESENT:
+                case LATE:
+                    int timeIn = record.getTimeInMinutes();
+                    int timeOut = record.getTimeOutMinutes();
+                    if (timeIn < 0 || timeOut <= timeIn) {
+                        return new Rollup(1, 1, 0, 0, REGULAR_MINUTES, 0, 0);
+                    }
+                    int payable = shiftMinutes(timeIn, timeOut);
+                    int late = shiftMinutes(SHIFT_START, timeIn);
+                    return new Rollup(1, 1, 0, 0, payable, late, REGULAR_MINUTES - payable - late);
+                case ABSENT:
+                    return new Rollup(1, 0, 2, 0, 0, 0, 0);
+                case HALF_DAY:
+                    return new Rollup(1, 1, 1, 0, REGULAR_MINUTES / 2, 0, 0);
+                case ON_LEAVE:
+                    return new Rollup(1, 0, 0, 1, REGULAR_MINUTES, 0, 0);
+                default:
+                    return new Rollup(1, 0, 0, 0, 0, 0, 0);
+            }
+        }
+
+        /**
+         * Adds other totals to these.
+         *
+         * @param other The totals to add
+         * @return The sum
+         */
+        public Rollup plus(Rollup other) {
+            return new Rollup(recordedDays + other.recordedDays, workedDays + other.workedDays,
+                absentHalfDays + other.absentHalfDays, leaveDays + other.leaveDays, payableMinutes + other.payableMinutes,
+                lateMinutes + other.lateMinutes, undertimeMinutes + other.undertimeMinutes);
+        }
+
+        /**
+         * Subtracts other totals from these.
+         *
+         * @param other The totals to subtract
+         * @return The difference
+         */
+        public Rollup minus(Rollup other) {
+            return new Rollup(recordedDays - other.recordedDays, workedDays - other.workedDays,
+                absentHalfDays - other.absentHalfDays, leaveDays - other.leaveDays, payableMinutes - other.payableMinutes,
+                lateMinutes - other.lateMinutes, undertimeMinutes - other.undertimeMinutes);
+        }
+
+        // Getter methods
+        public int getRecordedDays() { return recordedDays; }
+        public int getWorkedDays() { return workedDays; }
+        public int getLeaveDays() { return leaveDays; }
+        public int getPayableMinutes() { return payableMinutes; }
+        public int getLateMinutes() { return lateMinutes; }
+        public int getUndertimeMinutes() { return undertimeMinutes; }
+
+        /**
+         * Gets the unpaid absences.
+         *
+         * @return The absences in days, counting half days as 0.5
+         */
+        public double getAbsentDays() {
+            return absentHalfDays / 2.0;
+        }
+
+        /**
+         * Gets the paid hours.
+         *
+         * @return The payable hours
+         */
+        public double getPayableHours() {
+            return payableMinutes / 60.0;
+        }
+
+        /**
+         * Checks whether these totals hold no attendance.
+         *
+         * @return true if no day is counted
+         */
+        public boolean isEmpty() {
+            return recordedDays == 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d days recorded | %d worked | %.1f absent | %d on leave | %.2f payable hours "
+                    + "| %d min late | %d min undertime",
+                recordedDays, workedDays, getAbsentDays(), leaveDays, getPayableHours(), lateMinutes, undertimeMinutes);
+        }
+
+        /**
+         * Compares every total of two rollups.
+         *
+         * @param other The other object
+         * @return true if both hold the same totals
+         */
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Rollup)) {
+                return false;
+            }
+            Rollup rollup = (Rollup) other;
+            return recordedDays == rollup.recordedDays && workedDays == rollup.workedDays
+                && absentHalfDays == rollup.absentHalfDays && leaveDays == rollup.leaveDays
+                && payableMinutes == rollup.payableMinutes && lateMinutes == rollup.lateMinutes
+                && undertimeMinutes == rollup.undertimeMinutes;
+        }
+
+        @Override
+        public int hashCode() {
+            return ((recordedDays * 31 + absentHalfDays) * 31 + payableMinutes) * 31 + lateMinutes + undertimeMinutes;
+        }
+    }
+
+    /**
+     * Receives changes to the attendance totals held in memory.
+     * Called with Attendance.CHANGE_LOCK held, so a listener sees every change exactly once and in order.
+     */
+    public interface RollupListener {
+        /**
+         * Reports new totals for an employee in a held period.
+         *
+         * @param period The pay period
+         * @param employeeId The employee ID
+         * @param rollup The new totals, Rollup.EMPTY if the employee has no records left in the period
+         */
+        void rollupChanged(YearMonth period, String employeeId, Rollup rollup);
+
+        /**
+         * Reports that the totals of a period were dropped because its records changed outside this instance.
+         * They are read again when next used; totals copied from the period may be out of date.
+         *
+         * @param period The pay period
+         */
+        void periodDropped(YearMonth period);
+    }
+
+    /**
+     * Registers a listener notified when attendance totals change.
+     *
+     * @param listener The listener
+     */
+    public static void addRollupListener(RollupListener listener) {
+        rollupListeners.add(listener);
+    }
+
+    /**
+     * Gets the attendance totals of an employee for a pay period.
+     * Totals of a period already held are kept up to date by later changes. For other periods, such as a
+     * single payslip, only the employee's records are read, through the employee index, and the period is not held.
+     *
+     * @param employeeId The employee ID
+     * @param period The pay period
+     * @return The totals, Rollup.EMPTY if the employee has no records in the period
+     * @throws IOException If the period's records cannot be read
+     */
+    public static Rollup getRollup(String employeeId, YearMonth period) throws IOException {
+        synchronized (Attendance.CHANGE_LOCK) {
+            Map<String, Rollup> rollups = periods.get(period);
+            if (rollups != null) {
+                Rollup rollup = rollups.get(employeeId);
+                return rollup != null ? rollup : Rollup.EMPTY;
+            }
+            Rollup rollup = Rollup.EMPTY;
+            for (Attendance.AttendanceRecord record
+                    : Attendance.getEmployeeRecords(employeeId, period.atDay(1), period.atEndOfMonth())) {
+                rollup = rollup.plus(Rollup.of(record));
+            }
+            employeeLookups++;
+            return rollup;
+        }
+    }
+
+    /**
+     * Gets the attendance totals of every employee with records in a pay period.
+     *
+     * @param period The pay period
+     * @return Map of employeeId -> totals, a copy the caller may keep
+     * @throws IOException If the period's records cannot be read
+     */
+    public static Map<String, Rollup> getRollups(YearMonth period) throws IOException {
+        synchronized (Attendance.CHANGE_LOCK) {
+            return new HashMap<>(period(period));
+        }
+    }
+
+    /**
+     * Calculates the absence deduction: the daily rate for every unpaid day, half of it for a half day.
+     *
+     * @param baseSalary The monthly base salary in centavos
+     * @param rollup The employee's attendance totals for the period
+     * @return The deduction in centavos
+     */
+    public static long calculateAbsenceDeduction(long baseSalary, Rollup rollup) {
+        return fractionOf(baseSalary, rollup.absentHalfDays, 2L * WORKING_DAYS_PER_MONTH);
+    }
+
+    /**
+     * Calculates the tardiness deduction: the minute rate for every minute late or undertime.
+     *
+     * @param baseSalary The monthly base salary in centavos
+     * @param rollup The employee's attendance totals for the period
+     * @return The deduction in centavos
+     */
+    public static long calculateTardinessDeduction(long baseSalary, Rollup rollup) {
+        return fractionOf(baseSalary, rollup.lateMinutes + rollup.undertimeMinutes, (long) WORKING_DAYS_PER_MONTH * REGULAR_MINUTES);
+    }
+
+    /**
+     * Calculates the total attendance deduction, which never exceeds the base salary.
+     *
+     * @param baseSalary The monthly base salary in centavos
+     * @param rollup The employee's attendance totals for the period
+     * @return The deduction in centavos
+     */
+    public static long calculateDeduction(long baseSalary, Rollup rollup) {
+        long deduction = calculateAbsenceDeduction(baseSalary, rollup) + calculateTardinessDeduction(baseSalary, rollup);
+        return Math.max(0, Math.min(baseSalary, deduction));
+    }
+
+    /**
+     * Builds a one-line summary of the attendance totals.
+     *
+     * @return Summary of periods held, period scans, single-employee lookups and incremental updates
+     */
+    public static String getStatusSummary() {
+        synchronized (Attendance.CHANGE_LOCK) {
+            return String.format("Attendance pay: %d periods held | Scans: %d | Employee lookups: %d | Incremental updates: %d",
+                periods.size(), periodScans, employeeLookups, incrementalUpdates);
+        }
+    }
+
+    /**
+     * Gets the totals of a period, reading its records if they are not held yet.
+     * Called with Attendance.CHANGE_LOCK held, so no change can be missed or counted twice while reading.
+     *
+     * @param period The pay period
+     * @return Map of employeeId -> totals
+     * @throws IOException If the period's records cannot be read
+     */
+    private static Map<String, Rollup> period(YearMonth period) throws IOException {
+        Map<String, Rollup> rollups = periods.get(period);
+        if (rollups == null) {
+            rollups = new HashMap<>();
+            for (Attendance.AttendanceRecord record : Attendance.getRecords(period.toString())) {
+                rollups.merge(record.getEmployeeId(), Rollup.of(record), Rollup::plus);
+            }
+            periods.put(period, rollups);
+            periodScans++;
+        }
+        return rollups;
+    }
+
+    /**
+     * Applies attendance changes to the totals held in memory.
+     */
+    private static class RollupUpdater implements Attendance.ChangeListener {
+        @Override
+        public void recordsChanged(List<Attendance.RecordChange> changes, boolean external) {
+            for (Attendance.RecordChange change : changes) {
+                if (change.getOldRecord() != null) {
+                    apply(change.getOldRecord(), false);
+                }
+                if (change.getNewRecord() != null) {
+                    apply(change.getNewRecord(), true);
+                }
+            }
+            if (external) {
+                // Changes to months not held in memory are not reported, so their totals are read again when next used
+                periods.keySet().removeIf(period -> {
+                    if (Attendance.isHeldInMemory(period.toString())) {
+                        return false;
+                    }
+                    for (RollupListener listener : rollupListeners) {
+                        listener.periodDropped(period);
+                    }
+                    return true;
+                });
+            }
+        }
+
+        @Override
+        public void employeeRemoved(String employeeId) {
+            for (Map.Entry<YearMonth, Map<String, Rollup>> period : periods.entrySet()) {
+                if (period.getValue().remove(employeeId) != null) {
+                    fireRollupChanged(period.getKey(), employeeId, Rollup.EMPTY);
+                }
+            }
+        }
+
+        @Override
+        public void allRecordsRemoved() {
+            for (Map.Entry<YearMonth, Map<String, Rollup>> period : periods.entrySet()) {
+                for (String employeeId : period.getValue().keySet()) {
+                    fireRollupChanged(period.getKey(), employeeId, Rollup.EMPTY);
+                }
+                period.getValue().clear();
+            }
+        }
+
+        /**
+         * Adds a record to or subtracts it from its period's totals, if that period is held.
+         *
+         * @param record The attendance record
+         * @param add true to add, false to subtract
+         */
+        private void apply(Attendance.AttendanceRecord record, boolean add) {
+            YearMonth period;
+            try {
+                period = YearMonth.parse(AttendancePartitions.monthOf(record.getDate()));
+            } catch (DateTimeParseException e) {
+                return;
+            }
+            Map<String, Rollup> rollups = periods.get(period);
+            if (rollups == null) {
+                return;
+            }
+            Rollup day = Rollup.of(record);
+            Rollup current = rollups.getOrDefault(record.getEmployeeId(), Rollup.EMPTY);
+            Rollup updated = add ? current.plus(day) : current.minus(day);
+            if (updated.isEmpty()) {
+                rollups.remove(record.getEmployeeId());
+            } else {
+                rollups.put(record.getEmployeeId(), updated);
+            }
+            incrementalUpdates++;
+            fireRollupChanged(period, record.getEmployeeId(), updated.isEmpty() ? Rollup.EMPTY : updated);
+        }
+
+        /**
+         * Notifies the listeners of new totals.
+         *
+         * @param period The pay period
+         * @param employeeId The employee ID
+         * @param rollup The new totals
+         */
+        private void fireRollupChanged(YearMonth period, String employeeId, Rollup rollup) {
+            for (RollupListener listener : rollupListeners) {
+                listener.rollupChanged(period, employeeId, rollup);
+            }
+        }
+    }
+
+    /**
+     * Gets the part of the regular shift between two times that is outside the break.
+     *
+     * @param from The start, in minutes after midnight
+     * @param to The end, in minutes after midnight
+     * @return The minutes of shift time
+     */
+    private static int shiftMinutes(int from, int to) {
+        return overlap(from, to, SHIFT_START, SHIFT_END) - overlap(from, to, BREAK_START, BREAK_END);
+    }
+
+    /**
+     * Gets the length of the overlap of two time ranges.
+     *
+     * @param from The start of the first range
+     * @param to The end of the first range
+     * @param rangeStart The start of the second range
+     * @param rangeEnd The end of the second range
+     * @return The overlapping minutes, 0 if the ranges do not overlap
+     */
+    private static int overlap(int from, int to, int rangeStart, int rangeEnd) {
+        return Math.max(0, Math.min(to, rangeEnd) - Math.max(from, rangeStart));
+    }
+
+    /**
+     * Calculates numerator / denominator of an amount, rounded half up to the centavo.
+     *
+     * @param amount The amount in centavos
+     * @param numerator The numerator
+     * @param denominator The denominator
+     * @return The fraction of the amount in centavos, 0 for amounts or numerators that are not positive
+     */
+    private static long fractionOf(long amount, long numerator, long denominator) {
+        if (amount <= 0 || numerator <= 0) {
+            return 0;
+        }
+        return (Math.multiplyExact(amount, numerator) + denominator / 2) / denominator;
+    }
+}
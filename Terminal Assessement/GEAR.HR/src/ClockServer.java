@@ -0,0 +1,497 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * ClockServer class handles punches posted by kiosks and time clocks over HTTP
+ * An optional embedded server, started when the gearhr.clock.port system property is set, that takes
+ * POST /punch with "employeeId=...", and optionally "time=yyyy-MM-ddTHH:mm" for punches a clock held while offline.
+ * Each request runs on its own virtual thread where the Java runtime has them. Requests only queue their punch;
+ * one committer thread merges everything queued into the employees' records of the day and writes it in a single
+ * journal append per month that is on disk before any of those requests is answered, so a punch is never
+ * acknowledged and then lost, and a burst of punches costs one disk sync instead of one each
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class ClockServer {
+    public static final String PORT_PROPERTY = "gearhr.clock.port";
+    public static final String HOST_PROPERTY = "gearhr.clock.host";
+    public static final String TOKEN_PROPERTY = "gearhr.clock.token";
+    public static final String TOKEN_HEADER = "X-Clock-Token";
+    public static final String PUNCH_PATH = "/punch";
+
+    // Loopback only unless gearhr.clock.host names the address the kiosks reach
+    private static final String DEFAULT_HOST = "127.0.0.1";
+
+    // Punches merged and written together at most; a larger queue is written in several appends
+    private static final int MAX_BATCH = 2_000;
+    private static final int MAX_BODY_BYTES = 1_024;
+    private static final int BACKLOG = 1_024;
+    private static final int RESPONSE_TIMEOUT_SECONDS = 10;
+    private static final int POLL_MILLIS = 100;
+
+    // The server started from the system properties, or null
+    private static ClockServer configured;
+
+    // The JDK server leaves Nagle's algorithm on, which holds each short response until the client's delayed
+    // acknowledgement, about 40 ms; it reads the setting when the first server is created
+    static {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService requestExecutor;
+    private final boolean virtualThreads;
+    private final RecordStore store;
+    private final Predicate<String> knownEmployee;
+    private final String token;
+    private final BlockingQueue<Punch> pending = new LinkedBlockingQueue<>();
+    private final Thread committer;
+    private volatile boolean running = true;
+
+    // Counters for the status summary
+    private final AtomicLong acceptedPunches = new AtomicLong();
+    private final AtomicLong rejectedRequests = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+
+    /**
+     * The attendance storage the punches are merged into.
+     */
+    public interface RecordStore {
+        /**
+         * Gets an employee's record of a day.
+         *
+         * @param employeeId The employee ID
+         * @param date The date
+         * @return The record, or null if there is none
+         * @throws IOException If the record cannot be read
+         */
+        Attendance.AttendanceRecord get(String employeeId, LocalDate date) throws IOException;
+
+        /**
+         * Adds or replaces records, returning only once they are on disk.
+         *
+         * @param records The records
+         * @throws IOException If the records cannot be written
+         */
+        void putAllDurably(List<Attendance.AttendanceRecord> records) throws IOException;
+    }
+
+    /**
+     * One punch waiting for the committer.
+     */
+    private static final class Punch {
+        private final String employeeId;
+        private final int employeeNumber;
+        private final LocalDate date;
+        private final int minute;
+        private final CompletableFuture<Attendance.AttendanceRecord> recorded = new CompletableFuture<>();
+
+        private Punch(String employeeId, int employeeNumber, LocalDateTime time) {
+            this.employeeId = employeeId;
+            this.employeeNumber = employeeNumber;
+            this.date = time.toLocalDate();
+            this.minute = time.getHour() * 60 + time.getMinute();
+        }
+    }
+
+    /**
+     * Creates and starts a server.
+     *
+     * @param address The address and port to listen on; port 0 picks a free port
+     * @param store The attendance storage
+     * @param knownEmployee Tells whether an employee ID may punch
+     * @param token The value the X-Clock-Token header must have, or null to accept requests without it
+     * @throws IOException If the port cannot be opened
+     */
+    public ClockServer(InetSocketAddress address, RecordStore store, Predicate<String> knownEmployee, String token) throws IOException {
+        this.store = store;
+        this.knownEmployee = knownEmployee;
+        this.token = token;
+        ExecutorService virtual = newVirtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        this.requestExecutor = virtual != null ? virtual : Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "clock-request");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(address, BACKLOG);
+        server.createContext(PUNCH_PATH, this::handle);
+        server.setExecutor(requestExecutor);
+        this.committer = new Thread(this::commitLoop, "clock-committer");
+        committer.setDaemon(true);
+        committer.start();
+        server.start();
+    }
+
+    /**
+     * Starts the server on the attendance store if the gearhr.clock.port system property is set.
+     * Punches are accepted for the employees in EmployeeProfile.
+     */
+    public static synchronized void startIfConfigured() {
+        String port = System.getProperty(PORT_PROPERTY);
+        if (port == null || configured != null) {
+            return;
+        }
+        try {
+            InetSocketAddress address = new InetSocketAddress(System.getProperty(HOST_PROPERTY, DEFAULT_HOST), Integer.parseInt(port.trim()));
+            configured = new ClockServer(address, attendanceStore(), EmployeeProfile::isEmployee, System.getProperty(TOKEN_PROPERTY));
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Cannot start the clock server on port " + port + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets a record store over the attendance records, whose writes tell the change listeners.
+     *
+     * @return The record store
+     */
+    static RecordStore attendanceStore() {
+        return new RecordStore() {
+            @Override
+            public Attendance.AttendanceRecord get(String employeeId, LocalDate date) throws IOException {
+                List<Attendance.AttendanceRecord> records = Attendance.getEmployeeRecords(employeeId, date, date);
+                return records.isEmpty() ? null : records.get(0);
+            }
+
+            @Override
+            public void putAllDurably(List<Attendance.AttendanceRecord> records) throws IOException {
+                Attendance.putRecords(records, true);
+            }
+        };
+    }
+
+    /**
+     * Creates an executor that starts a virtual thread per task, available from Java 21.
+     * Found by reflection so the application still runs on older runtimes.
+     *
+     * @return The executor, or null if the runtime has no virtual threads
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Stops accepting requests, lets punches already queued be written and stops the committer.
+     */
+    public void stop() {
+        server.stop(0);
+        requestExecutor.shutdown();
+        // Not interrupted, as an interrupt would close the journal channel in the middle of a write
+        running = false;
+        try {
+            committer.join(TimeUnit.SECONDS.toMillis(RESPONSE_TIMEOUT_SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return The port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Checks whether requests run on virtual threads.
+     *
+     * @return true on a runtime with virtual threads, false if a thread pool is used instead
+     */
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Builds a one-line summary of this server for the status display.
+     *
+     * @return The summary
+     */
+    public String getSummary() {
+        long batchCount = batches.get();
+        return String.format("Clock server: port %d, %s | Punches: %,d | Rejected: %,d | Batches: %,d (%.1f punches each) | Failed: %,d",
+            getPort(), virtualThreads ? "virtual threads" : "thread pool", acceptedPunches.get(), rejectedRequests.get(),
+            batchCount, batchCount == 0 ? 0.0 : (double) acceptedPunches.get() / batchCount, failedBatches.get());
+    }
+
+    /**
+     * Builds a one-line summary of the server started from the system properties.
+     *
+     * @return The summary, or a note that the server is off
+     */
+    public static synchronized String getStatusSummary() {
+        return configured != null ? configured.getSummary() : "Clock server: off (set -D" + PORT_PROPERTY + " to start it)";
+    }
+
+    /**
+     * Handles one request: checks it, queues the punch and answers once it is on disk with the employee's
+     * record of the day as a CSV line "EmployeeID,Date,Status,TimeIn,TimeOut".
+     *
+     * @param exchange The request
+     * @throws IOException If the response cannot be sent
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405, "Use POST");
+                return;
+            }
+            if (token != null && !token.equals(exchange.getRequestHeaders().getFirst(TOKEN_HEADER))) {
+                respond(exchange, 401, "Missing or wrong " + TOKEN_HEADER);
+                return;
+            }
+            Map<String, String> fields = readForm(exchange);
+            if (fields == null) {
+                respond(exchange, 413, "Request body over " + MAX_BODY_BYTES + " bytes");
+                return;
+            }
+            String employeeId = fields.getOrDefault("employeeId", "").trim();
+            int employeeNumber = Attendance.AttendanceRecord.parseEmployeeNumber(employeeId);
+            if (employeeNumber == Attendance.AttendanceRecord.NO_EMPLOYEE_NUMBER) {
+                respond(exchange, 400, "employeeId must be an employee number");
+                return;
+            }
+            if (!knownEmployee.test(employeeId)) {
+                respond(exchange, 404, "Unknown employee " + employeeId);
+                return;
+            }
+            LocalDateTime time;
+            try {
+                time = fields.containsKey("time") ? LocalDateTime.parse(fields.get("time").trim()) : LocalDateTime.now();
+            } catch (DateTimeParseException e) {
+                respond(exchange, 400, "time must be yyyy-MM-ddTHH:mm[:ss]");
+                return;
+            }
+
+            // The request thread only waits on the punch, so it holds none of the store's locks
+            Punch punch = new Punch(employeeId, employeeNumber, time);
+            pending.add(punch);
+            Attendance.AttendanceRecord record;
+            try {
+                record = punch.recorded.get(RESPONSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                respond(exchange, 503, "Punch not recorded: " + cause.getMessage());
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                respond(exchange, 503, "Punch not recorded: server stopping");
+                return;
+            }
+            acceptedPunches.incrementAndGet();
+            respond(exchange, 200, String.join(",", record.getEmployeeId(), record.getDate(), record.getStatus(),
+                record.getTimeIn(), record.getTimeOut()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Reads the form fields of the query string and of a form-encoded body.
+     *
+     * @param exchange The request
+     * @return The fields, or null if the body is too large
+     * @throws IOException If the body cannot be read
+     */
+    private static Map<String, String> readForm(HttpExchange exchange) throws IOException {
+        byte[] body = new byte[MAX_BODY_BYTES];
+        int length = 0;
+        try (InputStream in = exchange.getRequestBody()) {
+            int read;
+            while ((read = in.read(body, length, body.length - length)) > 0) {
+                length += read;
+            }
+            if (length == body.length && in.read() != -1) {
+                return null;
+            }
+        }
+        Map<String, String> fields = new HashMap<>();
+        addFields(exchange.getRequestURI().getRawQuery(), fields);
+        addFields(new String(body, 0, length, StandardCharsets.UTF_8), fields);
+        return fields;
+    }
+
+    /**
+     * Decodes "name=value&..." pairs into the map.
+     *
+     * @param form The encoded pairs, or null
+     * @param fields The map to fill
+     * @throws UnsupportedEncodingException Never, as UTF-8 is always supported
+     */
+    private static void addFields(String form, Map<String, String> fields) throws UnsupportedEncodingException {
+        if (form == null || form.isEmpty()) {
+            return;
+        }
+        for (String pair : form.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                fields.put(URLDecoder.decode(pair.substring(0, equals), "UTF-8"), URLDecoder.decode(pair.substring(equals + 1), "UTF-8"));
+            }
+        }
+    }
+
+    /**
+     * Sends a plain text response.
+     *
+     * @param exchange The request
+     * @param status The HTTP status code
+     * @param text The response text
+     * @throws IOException If the response cannot be sent
+     */
+    private void respond(HttpExchange exchange, int status, String text) throws IOException {
+        if (status != 200) {
+            rejectedRequests.incrementAndGet();
+        }
+        byte[] bytes = (text + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Takes whatever punches are queued, up to MAX_BATCH, and writes them together, until stopped.
+     * Punches queued when the server stops are still written.
+     */
+    private void commitLoop() {
+        List<Punch> batch = new ArrayList<>();
+        while (running || !pending.isEmpty()) {
+            try {
+                Punch first = pending.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                return;
+            }
+            pending.drainTo(batch, MAX_BATCH - batch.size());
+            commit(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Merges a batch of punches into the records of their days and writes the records durably,
+     * then answers every punch of the batch with its record or the error. Only records a punch changed are
+     * written, so a repeated tap costs nothing. CHANGE_LOCK is held from reading the records to writing them,
+     * so an edit by a clerk is not overwritten.
+     *
+     * @param batch The punches, in the order they arrived
+     */
+    private void commit(List<Punch> batch) {
+        Map<Punch, Attendance.AttendanceRecord> results = new HashMap<>();
+        try {
+            synchronized (Attendance.CHANGE_LOCK) {
+                Map<String, Attendance.AttendanceRecord> stored = new HashMap<>();
+                Map<String, Attendance.AttendanceRecord> days = new LinkedHashMap<>();
+                for (Punch punch : batch) {
+                    String key = Attendance.recordKey(punch.employeeId, punch.date.toString());
+                    Attendance.AttendanceRecord current;
+                    if (days.containsKey(key)) {
+                        current = days.get(key);
+                    } else {
+                        current = store.get(punch.employeeId, punch.date);
+                        stored.put(key, current);
+                    }
+                    Attendance.AttendanceRecord record = applyPunch(current, punch.employeeNumber, punch.date, punch.minute);
+                    days.put(key, record);
+                    results.put(punch, record);
+                }
+                List<Attendance.AttendanceRecord> changed = new ArrayList<>();
+                for (Map.Entry<String, Attendance.AttendanceRecord> day : days.entrySet()) {
+                    if (!Attendance.sameRecord(stored.get(day.getKey()), day.getValue())) {
+                        changed.add(day.getValue());
+                    }
+                }
+                if (!changed.isEmpty()) {
+                    store.putAllDurably(changed);
+                }
+            }
+            batches.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            failedBatches.incrementAndGet();
+            System.err.println("Cannot record " + batch.size() + " punches: " + e.getMessage());
+            for (Punch punch : batch) {
+                punch.recorded.completeExceptionally(e);
+            }
+            return;
+        }
+        for (Punch punch : batch) {
+            punch.recorded.complete(results.get(punch));
+        }
+    }
+
+    /**
+     * Applies one punch to an employee's record of the day, with the same rules as PunchImporter:
+     * the earliest punch is the time in and the latest the time out, unless it is within a few minutes
+     * of the time in. A first punch after the shift start makes the day Late; a status a clerk set
+     * on a day with times, such as Half Day, is kept unless the time in changes.
+     *
+     * @param current The record so far, or null
+     * @param employeeNumber The employee number
+     * @param date The day of the punch
+     * @param minute The minute of the day of the punch
+     * @return The record with the punch applied
+     */
+    static Attendance.AttendanceRecord applyPunch(Attendance.AttendanceRecord current, int employeeNumber, LocalDate date, int minute) {
+        int epochDay = (int) date.toEpochDay();
+        if (current == null || current.getTimeInMinutes() == Attendance.AttendanceRecord.NO_TIME) {
+            return new Attendance.AttendanceRecord(employeeNumber, epochDay, arrivalStatus(minute),
+                (short) minute, Attendance.AttendanceRecord.NO_TIME);
+        }
+        int timeIn = Math.min(current.getTimeInMinutes(), minute);
+        int latest = Math.max(Math.max(current.getTimeInMinutes(), current.getTimeOutMinutes()), minute);
+        int timeOut = latest - timeIn < PunchImporter.DOUBLE_PUNCH_MINUTES ? Attendance.AttendanceRecord.NO_TIME : latest;
+        Attendance.Status status = current.getAttendanceStatus();
+        byte statusCode = timeIn != current.getTimeInMinutes() || status == null
+                || status == Attendance.Status.PRESENT || status == Attendance.Status.LATE
+            ? arrivalStatus(timeIn) : current.getStatusCode();
+        return new Attendance.AttendanceRecord(employeeNumber, epochDay, statusCode, (short) timeIn, (short) timeOut);
+    }
+
+    /**
+     * Gets the status of a day from the time in.
+     *
+     * @param timeIn Minutes of the day of the first punch
+     * @return The code of Late after the shift start, otherwise of Present
+     */
+    private static byte arrivalStatus(int timeIn) {
+        return (timeIn > AttendancePay.SHIFT_START ? Attendance.Status.LATE : Attendance.Status.PRESENT).getCode();
+    }
+}
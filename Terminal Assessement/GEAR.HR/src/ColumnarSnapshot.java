@@ -0,0 +1,304 @@
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ColumnarSnapshot class handles the binary startup snapshots kept next to the CSV files
+ * Stores numeric columns as primitive arrays and text columns dictionary-encoded, and is read back
+ * in one bulk read; a snapshot is only used while its CSV file is unchanged
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class ColumnarSnapshot {
+    // File layout: magic, format version, schema, CSV size, modified time and file key, row count, then each column
+    private static final int MAGIC = 0x47485253; // "GHRS"
+    private static final int FORMAT_VERSION = 2;
+
+    // Schema characters, one per column
+    public static final char DOUBLE_COLUMN = 'D';
+    public static final char FLOAT_COLUMN = 'F';
+    public static final char LONG_COLUMN = 'L';
+    public static final char STRING_COLUMN = 'S';
+
+    private final String schema;
+    private final int rowCount;
+    private final Object[] columns;
+
+    /**
+     * Creates an empty snapshot with one array per schema column.
+     *
+     * @param schema One schema character per column
+     * @param rowCount The number of rows
+     */
+    public ColumnarSnapshot(String schema, int rowCount) {
+        this.schema = schema;
+        this.rowCount = rowCount;
+        this.columns = new Object[schema.length()];
+        for (int i = 0; i < columns.length; i++) {
+            switch (schema.charAt(i)) {
+                case DOUBLE_COLUMN: columns[i] = new double[rowCount]; break;
+                case FLOAT_COLUMN: columns[i] = new float[rowCount]; break;
+                case LONG_COLUMN: columns[i] = new long[rowCount]; break;
+                case STRING_COLUMN: columns[i] = new String[rowCount]; break;
+                default: throw new IllegalArgumentException("Unknown column type: " + schema.charAt(i));
+            }
+        }
+    }
+
+    /**
+     * Gets the number of rows.
+     *
+     * @return The row count
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Gets a double column to read or fill.
+     *
+     * @param column The zero-based column index
+     * @return The column values
+     */
+    public double[] getDoubles(int column) {
+        return (double[]) columns[column];
+    }
+
+    /**
+     * Gets a float column to read or fill.
+     *
+     * @param column The zero-based column index
+     * @return The column values
+     */
+    public float[] getFloats(int column) {
+        return (float[]) columns[column];
+    }
+
+    /**
+     * Gets a long column to read or fill.
+     *
+     * @param column The zero-based column index
+     * @return The column values
+     */
+    public long[] getLongs(int column) {
+        return (long[]) columns[column];
+    }
+
+    /**
+     * Gets a text column to read or fill.
+     *
+     * @param column The zero-based column index
+     * @return The column values
+     */
+    public String[] getStrings(int column) {
+        return (String[]) columns[column];
+    }
+
+    /**
+     * Writes the snapshot, stamped with the size, modified time and file key of the CSV file holding the same data.
+     * The attributes are taken when that CSV file was read or written. Another instance replaces a CSV file by
+     * renaming a new one over it, so the replacement has a new file key even when its size and modified time
+     * match; where the file system has no file keys, only the size and modified time are compared.
+     *
+     * @param snapshotFile The snapshot file to write
+     * @param csvAttributes The attributes of the CSV file the data was read from or written to
+     * @throws IOException If the snapshot cannot be written
+     */
+    public void write(Path snapshotFile, BasicFileAttributes csvAttributes) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + rowCount * columns.length * 8);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        writeText(out, schema);
+        writeStamp(out, csvAttributes);
+        out.writeInt(rowCount);
+
+        for (int i = 0; i < columns.length; i++) {
+            switch (schema.charAt(i)) {
+                case DOUBLE_COLUMN:
+                    for (double value : getDoubles(i)) {
+                        out.writeDouble(value);
+                    }
+                    break;
+                case FLOAT_COLUMN:
+                    for (float value : getFloats(i)) {
+                        out.writeFloat(value);
+                    }
+                    break;
+                case LONG_COLUMN:
+                    for (long value : getLongs(i)) {
+                        out.writeLong(value);
+                    }
+                    break;
+                default:
+                    writeStringColumn(out, getStrings(i));
+                    break;
+            }
+        }
+        out.flush();
+        FlushScheduler.writeAtomically(snapshotFile, bytes.toByteArray());
+    }
+
+    /**
+     * Reads a snapshot if it matches the schema and its CSV file has not changed since it was written.
+     *
+     * @param snapshotFile The snapshot file
+     * @param csvFile The CSV file the snapshot was written from
+     * @param schema The expected schema
+     * @return The snapshot, or null if it is missing, stale or unreadable
+     */
+    public static ColumnarSnapshot read(Path snapshotFile, Path csvFile, String schema) {
+        if (!Files.exists(snapshotFile) || !Files.exists(csvFile)) {
+            return null;
+        }
+        try {
+            ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(snapshotFile));
+            if (in.getInt() != MAGIC || in.getInt() != FORMAT_VERSION || !readText(in).equals(schema)) {
+                return null;
+            }
+            if (!readStamp(in).equals(stampOf(Files.readAttributes(csvFile, BasicFileAttributes.class)))) {
+                return null; // CSV was edited or replaced after the snapshot was written
+            }
+
+            ColumnarSnapshot snapshot = new ColumnarSnapshot(schema, in.getInt());
+            for (int i = 0; i < schema.length(); i++) {
+                switch (schema.charAt(i)) {
+                    case DOUBLE_COLUMN:
+                        in.asDoubleBuffer().get(snapshot.getDoubles(i));
+                        in.position(in.position() + snapshot.rowCount * Double.BYTES);
+                        break;
+                    case FLOAT_COLUMN:
+                        in.asFloatBuffer().get(snapshot.getFloats(i));
+                        in.position(in.position() + snapshot.rowCount * Float.BYTES);
+                        break;
+                    case LONG_COLUMN:
+                        in.asLongBuffer().get(snapshot.getLongs(i));
+                        in.position(in.position() + snapshot.rowCount * Long.BYTES);
+                        break;
+                    default:
+                        readStringColumn(in, snapshot.getStrings(i));
+                        break;
+                }
+            }
+            return snapshot;
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException
+                | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            System.err.println("Ignoring unreadable snapshot " + snapshotFile.getFileName() + ": " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the stamp of a CSV file.
+     *
+     * @param out The output stream
+     * @param csvAttributes The attributes of the CSV file
+     * @throws IOException If the stamp cannot be written
+     */
+    private static void writeStamp(DataOutputStream out, BasicFileAttributes csvAttributes) throws IOException {
+        out.writeLong(csvAttributes.size());
+        out.writeLong(csvAttributes.lastModifiedTime().to(TimeUnit.NANOSECONDS));
+        writeText(out, String.valueOf(csvAttributes.fileKey()));
+    }
+
+    /**
+     * Reads the stamp written by writeStamp.
+     *
+     * @param in The snapshot bytes
+     * @return The stamp in the form of stampOf
+     */
+    private static String readStamp(ByteBuffer in) {
+        long size = in.getLong();
+        long modified = in.getLong();
+        return size + "|" + modified + "|" + readText(in);
+    }
+
+    /**
+     * Builds the stamp of a CSV file for comparison with one read from a snapshot.
+     *
+     * @param csvAttributes The attributes of the CSV file
+     * @return Size, modified time in nanoseconds and file key
+     */
+    private static String stampOf(BasicFileAttributes csvAttributes) {
+        return csvAttributes.size() + "|" + csvAttributes.lastModifiedTime().to(TimeUnit.NANOSECONDS)
+            + "|" + csvAttributes.fileKey();
+    }
+
+    /**
+     * Writes a text column as a dictionary of distinct values followed by one code per row.
+     *
+     * @param out The output stream
+     * @param values The column values
+     * @throws IOException If the column cannot be written
+     */
+    private static void writeStringColumn(DataOutputStream out, String[] values) throws IOException {
+        Map<String, Integer> dictionary = new HashMap<>();
+        int[] codes = new int[values.length];
+        ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        DataOutputStream entryOut = new DataOutputStream(entries);
+        for (int row = 0; row < values.length; row++) {
+            String value = values[row] != null ? values[row] : "";
+            Integer code = dictionary.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.put(value, code);
+                writeText(entryOut, value);
+            }
+            codes[row] = code;
+        }
+        out.writeInt(dictionary.size());
+        entryOut.flush();
+        entries.writeTo(out);
+        for (int code : codes) {
+            out.writeInt(code);
+        }
+    }
+
+    /**
+     * Reads a dictionary-encoded text column.
+     * Rows with the same value share one String instance.
+     *
+     * @param in The snapshot bytes
+     * @param values The array to fill
+     */
+    private static void readStringColumn(ByteBuffer in, String[] values) {
+        String[] dictionary = new String[in.getInt()];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = readText(in);
+        }
+        for (int row = 0; row < values.length; row++) {
+            values[row] = dictionary[in.getInt()];
+        }
+    }
+
+    /**
+     * Writes text as a byte count followed by UTF-8 bytes.
+     *
+     * @param out The output stream
+     * @param text The text to write
+     * @throws IOException If the text cannot be written
+     */
+    private static void writeText(DataOutputStream out, String text) throws IOException {
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    /**
+     * Reads text written by writeText.
+     *
+     * @param in The snapshot bytes
+     * @return The text
+     */
+    private static String readText(ByteBuffer in) {
+        int length = in.getInt();
+        String text = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return text;
+    }
+}
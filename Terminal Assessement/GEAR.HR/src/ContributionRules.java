@@ -0,0 +1,796 @@
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * ContributionRules class handles the SSS, PhilHealth, Pag-IBIG, withholding tax and annual income tax tables
+ * Loads every version of each table from CSV files named after the table and the date it takes effect,
+ * compiles each version into centavo arrays with a direct-index or binary-search bracket lookup, and gives
+ * the tables in force on any date so past periods are computed with the rules of their time;
+ * the folder is checked with the other data folders and reloaded when a table file is added or edited
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class ContributionRules {
+    // Folder holding one file per table version, e.g. sss_2023-01-01.csv
+    public static final String RULES_DIRECTORY = "GEAR.HR/rules";
+
+    // Table names used in the file names
+    public static final String SSS = "sss";
+    public static final String PHILHEALTH = "philhealth";
+    public static final String PAGIBIG = "pagibig";
+    public static final String TAX = "tax";
+    public static final String ANNUAL_TAX = "annualtax";
+    private static final String[] KINDS = {SSS, PHILHEALTH, PAGIBIG, TAX, ANNUAL_TAX};
+
+    // Effective date of the built-in tables, used when no rule files exist
+    private static final LocalDate DEFAULT_EFFECTIVE_DATE = LocalDate.of(2023, 1, 1);
+
+    // Rule sets loaded from the rules folder, replaced as a whole when the folder changes
+    private static volatile Timeline timeline;
+
+    // Rules in force today, replaced at midnight
+    private static volatile CurrentRules currentRules;
+
+    // Notified after the rules folder is reloaded
+    private static final List<ChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+
+    static {
+        timeline = load(Paths.get(RULES_DIRECTORY));
+        DataFolderWatcher.register(ContributionRules::reloadIfChanged);
+    }
+
+    /**
+     * Receives notice that the contribution and tax rules were reloaded.
+     */
+    public interface ChangeListener {
+        /**
+         * Called on the watcher thread after new rules took effect.
+         * Use forDate or forPeriod to get the rules now in force; rule sets obtained earlier keep the old tables.
+         */
+        void rulesChanged();
+    }
+
+    /**
+     * One compiled version of a contribution or tax table.
+     * Each bracket computes fixed + (amount - excessOver) * rate, limited to its minimum and maximum.
+     * Amounts are in centavos and rates in millionths, so every result is exact to the centavo.
+     */
+    public static final class Table {
+        private final String name;
+        private final LocalDate effectiveDate;
+
+        // true if a bracket starts at its bound ("From" column), false if it starts above it ("Over" column)
+        private final boolean inclusiveBounds;
+
+        // One entry per bracket; a missing minimum is Long.MIN_VALUE and a missing maximum Long.MAX_VALUE
+        private final long[] bounds;
+        private final long[] fixed;
+        private final long[] rate;
+        private final long[] excessOver;
+        private final long[] minimum;
+        private final long[] maximum;
+
+        // Width of evenly spaced brackets after the first, or 0 if the bounds must be searched
+        private final long stepWidth;
+
+        /**
+         * Creates a compiled table.
+         *
+         * @param name The table name
+         * @param effectiveDate The date the table takes effect
+         * @param inclusiveBounds true if brackets start at their bound, false if above it
+         * @param bounds The bracket bounds in centavos, strictly increasing
+         * @param fixed The fixed amount of each bracket in centavos
+         * @param rate The rate applied to the excess of each bracket, in millionths
+         * @param excessOver The amount above which each bracket's rate applies, in centavos
+         * @param minimum The lowest result of each bracket in centavos
+         * @param maximum The highest result of each bracket in centavos
+         * @throws IllegalArgumentException If the table has no brackets or the bounds are not increasing
+         */
+        Table(String name, LocalDate effectiveDate, boolean inclusiveBounds, long[] bounds, long[] fixed,
+              long[] rate, long[] excessOver, long[] minimum, long[] maximum) {
+            if (bounds.length == 0) {
+                throw new IllegalArgumentException("table has no brackets");
+            }
+            for (int i = 1; i < bounds.length; i++) {
+                if (bounds[i] <= bounds[i - 1]) {
+                    throw new IllegalArgumentException("bracket bounds must increase, found " + Money.format(bounds[i])
+                        + " after " + Money.format(bounds[i - 1]));
+                }
+            }
+            this.name = name;
+            this.effectiveDate = effectiveDate;
+            this.inclusiveBounds = inclusiveBounds;
+            this.bounds = bounds;
+            this.fixed = fixed;
+            this.rate = rate;
+            this.excessOver = excessOver;
+            this.minimum = minimum;
+            this.maximum = maximum;
+            this.stepWidth = evenStepWidth(bounds);
+        }
+
+        /**
+         * Computes the amount for a salary or taxable pay.
+         * Amounts below the first bound use the first bracket and the last bracket has no upper limit.
+         *
+         * @param amount The salary or taxable pay in centavos
+         * @return The contribution or tax in centavos
+         */
+        public long apply(long amount) {
+            int bracket = bracketOf(amount);
+            long result = fixed[bracket];
+            if (rate[bracket] != 0) {
+                long excess = amount - excessOver[bracket];
+                if (excess < 0) excess = 0;
+                result = Money.multiply(excess, rate[bracket]) + fixed[bracket];
+            }
+            return Math.max(minimum[bracket], Math.min(result, maximum[bracket]));
+        }
+
+        /**
+         * Finds the bracket of an amount.
+         * Evenly spaced tables compute the bracket from the amount; others use a binary search.
+         * An exact hit on an "Over" bound belongs to the bracket below, which the final check handles.
+         *
+         * @param amount The salary or taxable pay in centavos
+         * @return The bracket index
+         */
+        int bracketOf(long amount) {
+            int bracket;
+            if (stepWidth > 0) {
+                bracket = amount < bounds[1] ? 0 : (int) Math.min((amount - bounds[1]) / stepWidth + 1, bounds.length - 1);
+            } else {
+                bracket = Arrays.binarySearch(bounds, amount);
+                bracket = bracket >= 0 ? bracket : Math.max(0, -bracket - 2);
+            }
+            if (bracket > 0 && !reaches(amount, bounds[bracket])) {
+                bracket--;
+            }
+            return bracket;
+        }
+
+        /**
+         * Checks whether an amount falls in the bracket starting at a bound.
+         *
+         * @param amount The amount in centavos
+         * @param bound The bracket bound in centavos
+         * @return true if the amount is at or above the bound for "From" tables, above it for "Over" tables
+         */
+        private boolean reaches(long amount, long bound) {
+            return inclusiveBounds ? amount >= bound : amount > bound;
+        }
+
+        /**
+         * Finds the amounts this table and another table compute differently.
+         * Both tables are cut at every bracket start of either one; a piece where the brackets of both tables
+         * have the same fixed amount, rate, excess, minimum and maximum gives the same result for every amount in it.
+         * Where only the minimum or maximum changed, as when a contribution ceiling is raised, just the amounts
+         * below the higher minimum or above the lower maximum are included.
+         *
+         * @param other The other version of the table
+         * @return Ranges as {from, to} pairs in centavos, from inclusive and to exclusive, in increasing order;
+         *         empty if both tables give the same result for every amount
+         */
+        public long[] differingRanges(Table other) {
+            TreeSet<Long> starts = new TreeSet<>();
+            starts.add(Long.MIN_VALUE);
+            addBracketStarts(starts);
+            other.addBracketStarts(starts);
+
+            long[] ranges = new long[starts.size() * 4];
+            int count = 0;
+            Iterator<Long> iterator = starts.iterator();
+            long from = iterator.next();
+            while (from != Long.MAX_VALUE) {
+                long to = iterator.hasNext() ? iterator.next() : Long.MAX_VALUE;
+                int bracket = bracketOf(from);
+                int otherBracket = other.bracketOf(from);
+                if (sameBracket(bracket, other, otherBracket)) {
+                    from = to;
+                    continue;
+                }
+                if (fixed[bracket] == other.fixed[otherBracket] && rate[bracket] == other.rate[otherBracket]
+                        && excessOver[bracket] == other.excessOver[otherBracket] && rate[bracket] >= 0) {
+                    // Same formula, which never decreases, with other limits
+                    if (minimum[bracket] != other.minimum[otherBracket]) {
+                        long higherMinimum = Math.max(minimum[bracket], other.minimum[otherBracket]);
+                        count = addRange(ranges, count, from, firstExceeding(bracket, from, to, higherMinimum - 1));
+                    }
+                    if (maximum[bracket] != other.maximum[otherBracket]) {
+                        long lowerMaximum = Math.min(maximum[bracket], other.maximum[otherBracket]);
+                        count = addRange(ranges, count, firstExceeding(bracket, from, to, lowerMaximum), to);
+                    }
+                } else {
+                    count = addRange(ranges, count, from, to);
+                }
+                from = to;
+            }
+            return Arrays.copyOf(ranges, count);
+        }
+
+        /**
+         * Appends a range, joining it to the last one if they touch.
+         *
+         * @param ranges The ranges as {from, to} pairs
+         * @param count The number of values used
+         * @param from The first amount of the range
+         * @param to The amount after the range
+         * @return The new number of values used
+         */
+        private static int addRange(long[] ranges, int count, long from, long to) {
+            if (from >= to) {
+                return count;
+            }
+            if (count > 0 && from <= ranges[count - 1]) {
+                ranges[count - 1] = Math.max(ranges[count - 1], to);
+                return count;
+            }
+            ranges[count++] = from;
+            ranges[count++] = to;
+            return count;
+        }
+
+        /**
+         * Finds the lowest amount in a range whose bracket formula, before the minimum and maximum, exceeds a limit.
+         * The formula never decreases as the amount grows, so a binary search finds it.
+         *
+         * @param bracket The bracket
+         * @param from The first amount of the range
+         * @param to The amount after the range
+         * @param limit The limit in centavos
+         * @return The amount, or to if no amount in the range exceeds the limit
+         */
+        private long firstExceeding(int bracket, long from, long to, long limit) {
+            long low = from;
+            long high = to;
+            while (low < high) {
+                // The difference may not fit a signed long, but it always fits an unsigned one
+                long middle = low + ((high - low) >>> 1);
+                if (unlimited(bracket, middle) > limit) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Computes a bracket's formula before its minimum and maximum, as apply does,
+         * giving Long.MAX_VALUE for amounts too large to compute.
+         *
+         * @param bracket The bracket
+         * @param amount The amount in centavos
+         * @return The result in centavos
+         */
+        private long unlimited(int bracket, long amount) {
+            if (rate[bracket] == 0 || amount <= excessOver[bracket]) {
+                return fixed[bracket];
+            }
+            try {
+                return Math.addExact(Money.multiply(Math.subtractExact(amount, excessOver[bracket]), rate[bracket]),
+                    fixed[bracket]);
+            } catch (ArithmeticException e) {
+                return Long.MAX_VALUE;
+            }
+        }
+
+        /**
+         * Adds the lowest amount of every bracket after the first, which has no lower limit.
+         *
+         * @param starts Receives the amounts in centavos
+         */
+        private void addBracketStarts(TreeSet<Long> starts) {
+            for (int i = 1; i < bounds.length; i++) {
+                starts.add(inclusiveBounds ? bounds[i] : bounds[i] + 1);
+            }
+        }
+
+        /**
+         * Checks whether a bracket of this table computes the same formula as a bracket of another table.
+         *
+         * @param bracket The bracket of this table
+         * @param other The other table
+         * @param otherBracket The bracket of the other table
+         * @return true if every parameter is equal
+         */
+        private boolean sameBracket(int bracket, Table other, int otherBracket) {
+            return fixed[bracket] == other.fixed[otherBracket] && rate[bracket] == other.rate[otherBracket]
+                && excessOver[bracket] == other.excessOver[otherBracket]
+                && minimum[bracket] == other.minimum[otherBracket] && maximum[bracket] == other.maximum[otherBracket];
+        }
+
+        // Getter methods
+        public String getName() { return name; }
+        public LocalDate getEffectiveDate() { return effectiveDate; }
+        public int getBracketCount() { return bounds.length; }
+        public boolean isDirectIndexed() { return stepWidth > 0; }
+
+        @Override
+        public String toString() {
+            return name + " " + effectiveDate;
+        }
+    }
+
+    /**
+     * The tables in force from one date on.
+     */
+    public static final class RuleSet {
+        private final LocalDate effectiveDate;
+        private final Table sss;
+        private final Table philHealth;
+        private final Table pagIbig;
+        private final Table tax;
+        private final Table annualTax;
+
+        /**
+         * Creates a rule set.
+         *
+         * @param effectiveDate The date the rule set takes effect
+         * @param sss The SSS table
+         * @param philHealth The PhilHealth table
+         * @param pagIbig The Pag-IBIG table
+         * @param tax The monthly withholding tax table
+         * @param annualTax The annual income tax table used by the year-end true-up
+         */
+        RuleSet(LocalDate effectiveDate, Table sss, Table philHealth, Table pagIbig, Table tax, Table annualTax) {
+            this.effectiveDate = effectiveDate;
+            this.sss = sss;
+            this.philHealth = philHealth;
+            this.pagIbig = pagIbig;
+            this.tax = tax;
+            this.annualTax = annualTax;
+        }
+
+        /**
+         * Computes the SSS contribution of a base salary.
+         *
+         * @param baseSalary The base salary in centavos
+         * @return The SSS contribution in centavos
+         */
+        public long sss(long baseSalary) {
+            return sss.apply(baseSalary);
+        }
+
+        /**
+         * Computes the PhilHealth contribution of a base salary.
+         *
+         * @param baseSalary The base salary in centavos
+         * @return The PhilHealth contribution in centavos
+         */
+        public long philHealth(long baseSalary) {
+            return philHealth.apply(baseSalary);
+        }
+
+        /**
+         * Computes the Pag-IBIG contribution of a base salary.
+         *
+         * @param baseSalary The base salary in centavos
+         * @return The Pag-IBIG contribution in centavos
+         */
+        public long pagIbig(long baseSalary) {
+            return pagIbig.apply(baseSalary);
+        }
+
+        /**
+         * Computes the withholding tax of a taxable pay.
+         *
+         * @param taxable The base salary plus allowances in centavos
+         * @return The withholding tax in centavos
+         */
+        public long withholdingTax(long taxable) {
+            return tax.apply(taxable);
+        }
+
+        /**
+         * Computes the income tax due on a year's taxable pay.
+         *
+         * @param taxable The taxable pay of the whole year in centavos
+         * @return The annual income tax in centavos
+         */
+        public long annualIncomeTax(long taxable) {
+            return annualTax.apply(taxable);
+        }
+
+        // Getter methods
+        public LocalDate getEffectiveDate() { return effectiveDate; }
+        public Table getSSSTable() { return sss; }
+        public Table getPhilHealthTable() { return philHealth; }
+        public Table getPagIbigTable() { return pagIbig; }
+        public Table getTaxTable() { return tax; }
+        public Table getAnnualTaxTable() { return annualTax; }
+
+        @Override
+        public String toString() {
+            return "Rules from " + effectiveDate + ": " + sss + ", " + philHealth + ", " + pagIbig + ", " + tax + ", " + annualTax;
+        }
+    }
+
+    /**
+     * Rule sets in effective date order; each holds the tables in force from its date on.
+     */
+    private static final class Timeline {
+        private final LocalDate[] effectiveDates;
+        private final RuleSet[] ruleSets;
+
+        // File names, sizes and modification times of the rules folder when it was loaded
+        private final String folderStamp;
+
+        Timeline(LocalDate[] effectiveDates, RuleSet[] ruleSets, String folderStamp) {
+            this.effectiveDates = effectiveDates;
+            this.ruleSets = ruleSets;
+            this.folderStamp = folderStamp;
+        }
+
+        /**
+         * Finds the rule set in force on a date; dates before the earliest rule set use the earliest one.
+         *
+         * @param date The date
+         * @return The rule set
+         */
+        RuleSet on(LocalDate date) {
+            int index = Arrays.binarySearch(effectiveDates, date);
+            return ruleSets[index >= 0 ? index : Math.max(0, -index - 2)];
+        }
+    }
+
+    /**
+     * The rules in force today and the time they stop being today's rules.
+     */
+    private static final class CurrentRules {
+        private final RuleSet rules;
+        private final long validUntilMillis;
+
+        // The rule sets the rules were taken from, so a reload replaces them
+        private final Timeline source;
+
+        CurrentRules(RuleSet rules, long validUntilMillis, Timeline source) {
+            this.rules = rules;
+            this.validUntilMillis = validUntilMillis;
+            this.source = source;
+        }
+    }
+
+    /**
+     * Gets the rules in force today.
+     * The result is cached until midnight or until the rules are reloaded, so calls on the hot path allocate nothing.
+     *
+     * @return The current rule set
+     */
+    public static RuleSet current() {
+        CurrentRules cached = currentRules;
+        Timeline loaded = timeline;
+        if (cached == null || cached.source != loaded || System.currentTimeMillis() >= cached.validUntilMillis) {
+            LocalDate today = LocalDate.now();
+            long midnight = today.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            cached = new CurrentRules(loaded.on(today), midnight, loaded);
+            currentRules = cached;
+        }
+        return cached.rules;
+    }
+
+    /**
+     * Gets the rules in force on a date.
+     * Dates before the earliest rule set use the earliest one.
+     *
+     * @param date The date
+     * @return The rule set in force on that date
+     */
+    public static RuleSet forDate(LocalDate date) {
+        return timeline.on(date);
+    }
+
+    /**
+     * Gets the rules for a pay period, which are the rules in force on its last day.
+     *
+     * @param period The pay period
+     * @return The rule set for the period
+     */
+    public static RuleSet forPeriod(YearMonth period) {
+        return forDate(period.atEndOfMonth());
+    }
+
+    /**
+     * Gets every rule set, in effective date order.
+     *
+     * @return Unmodifiable list of rule sets
+     */
+    public static List<RuleSet> getRuleSets() {
+        return Collections.unmodifiableList(Arrays.asList(timeline.ruleSets));
+    }
+
+    /**
+     * Registers a listener notified after the rules are reloaded.
+     *
+     * @param listener The listener
+     */
+    public static void addChangeListener(ChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Reloads the rules folder if a table file was added, removed or edited since it was loaded,
+     * then notifies the listeners. Registered with DataFolderWatcher, so it runs on the watcher thread;
+     * a rate changed in the middle of a pay period applies to that period from then on.
+     *
+     * @throws IOException If the rules folder cannot be listed
+     */
+    static void reloadIfChanged() throws IOException {
+        Path directory = Paths.get(RULES_DIRECTORY);
+        synchronized (ContributionRules.class) {
+            if (folderStamp(directory).equals(timeline.folderStamp)) {
+                return;
+            }
+            timeline = load(directory);
+        }
+        for (ChangeListener listener : changeListeners) {
+            listener.rulesChanged();
+        }
+    }
+
+    /**
+     * Loads all table versions from the rules folder and builds the rule sets.
+     * The folder is created with the built-in tables if it does not exist yet.
+     * Files that cannot be read are reported and skipped; a table with no usable file uses its built-in version.
+     *
+     * @param directory The rules folder
+     * @return The rule sets
+     */
+    private static Timeline load(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            writeDefaultTables(directory);
+        }
+        String stamp;
+        try {
+            stamp = folderStamp(directory);
+        } catch (IOException e) {
+            stamp = "";
+        }
+
+        Map<String, TreeMap<LocalDate, Table>> versions = new HashMap<>();
+        for (String kind : KINDS) {
+            versions.put(kind, new TreeMap<>());
+        }
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.csv")) {
+                for (Path file : files) {
+                    loadTableFile(file, versions);
+                }
+            } catch (IOException e) {
+                System.err.println("Error reading contribution rules: " + e.getMessage());
+            }
+        }
+        for (String kind : KINDS) {
+            if (versions.get(kind).isEmpty()) {
+                try {
+                    versions.get(kind).put(DEFAULT_EFFECTIVE_DATE, readTable(kind, DEFAULT_EFFECTIVE_DATE,
+                        new CsvReader(new StringReader(defaultTable(kind)))));
+                } catch (IOException e) {
+                    throw new IllegalStateException("Built-in " + kind + " table is invalid", e);
+                }
+            }
+        }
+
+        // A new rule set starts on every date any table changes
+        TreeSet<LocalDate> dates = new TreeSet<>();
+        for (TreeMap<LocalDate, Table> tables : versions.values()) {
+            dates.addAll(tables.keySet());
+        }
+        LocalDate[] effectiveDates = dates.toArray(new LocalDate[0]);
+        RuleSet[] ruleSets = new RuleSet[effectiveDates.length];
+        for (int i = 0; i < effectiveDates.length; i++) {
+            LocalDate date = effectiveDates[i];
+            ruleSets[i] = new RuleSet(date, tableOn(versions.get(SSS), date), tableOn(versions.get(PHILHEALTH), date),
+                tableOn(versions.get(PAGIBIG), date), tableOn(versions.get(TAX), date), tableOn(versions.get(ANNUAL_TAX), date));
+        }
+        return new Timeline(effectiveDates, ruleSets, stamp);
+    }
+
+    /**
+     * Lists the name, size and modification time of every table file, which change whenever a file is edited.
+     *
+     * @param directory The rules folder
+     * @return The listing in file name order, empty if the folder does not exist
+     * @throws IOException If the folder cannot be listed
+     */
+    private static String folderStamp(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return "";
+        }
+        TreeMap<String, String> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.csv")) {
+            for (Path file : stream) {
+                files.put(file.getFileName().toString(), Files.size(file) + "@" + Files.getLastModifiedTime(file).toMillis());
+            }
+        }
+        return files.toString();
+    }
+
+    /**
+     * Loads one table file named "<table>_<yyyy-MM-dd>.csv".
+     *
+     * @param file The table file
+     * @param versions Map of table name -> versions by effective date, receiving the table
+     */
+    private static void loadTableFile(Path file, Map<String, TreeMap<LocalDate, Table>> versions) {
+        String fileName = file.getFileName().toString();
+        int separator = fileName.indexOf('_');
+        String kind = separator > 0 ? fileName.substring(0, separator) : "";
+        if (!versions.containsKey(kind)) {
+            System.err.println("Skipping contribution rules file " + fileName + ": unknown table name");
+            return;
+        }
+        try (CsvReader reader = CsvReader.open(file)) {
+            LocalDate effectiveDate = LocalDate.parse(fileName.substring(separator + 1, fileName.length() - ".csv".length()));
+            versions.get(kind).put(effectiveDate, readTable(kind, effectiveDate, reader));
+        } catch (IOException | DateTimeParseException | IllegalArgumentException e) {
+            System.err.println("Skipping contribution rules file " + fileName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads and compiles a table.
+     * The header names the columns; the first column is "From" or "Over", the others are optional:
+     * Fixed, Rate, ExcessOver (default 0), Minimum and Maximum (default no limit).
+     *
+     * @param kind The table name
+     * @param effectiveDate The date the table takes effect
+     * @param reader The table CSV
+     * @return The compiled table
+     * @throws IOException If the CSV cannot be read
+     * @throws IllegalArgumentException If the header or a value is invalid
+     */
+    private static Table readTable(String kind, LocalDate effectiveDate, CsvReader reader) throws IOException {
+        if (!reader.next()) {
+            throw new IllegalArgumentException("file is empty");
+        }
+        boolean inclusiveBounds;
+        if (reader.fieldEquals(0, "From")) {
+            inclusiveBounds = true;
+        } else if (reader.fieldEquals(0, "Over")) {
+            inclusiveBounds = false;
+        } else {
+            throw new IllegalArgumentException("first column must be From or Over");
+        }
+        int fixedColumn = -1, rateColumn = -1, excessOverColumn = -1, minimumColumn = -1, maximumColumn = -1;
+        for (int i = 1; i < reader.getFieldCount(); i++) {
+            if (reader.fieldEquals(i, "Fixed")) fixedColumn = i;
+            else if (reader.fieldEquals(i, "Rate")) rateColumn = i;
+            else if (reader.fieldEquals(i, "ExcessOver")) excessOverColumn = i;
+            else if (reader.fieldEquals(i, "Minimum")) minimumColumn = i;
+            else if (reader.fieldEquals(i, "Maximum")) maximumColumn = i;
+            else throw new IllegalArgumentException("unknown column " + reader.getField(i));
+        }
+
+        List<long[]> rows = new ArrayList<>();
+        while (reader.next()) {
+            if (!present(reader, 0)) {
+                throw new IllegalArgumentException("a row has no bracket bound");
+            }
+            rows.add(new long[] {
+                reader.getCentavos(0),
+                present(reader, fixedColumn) ? reader.getCentavos(fixedColumn) : 0,
+                present(reader, rateColumn) ? Money.parseRate(reader.getField(rateColumn)) : 0,
+                present(reader, excessOverColumn) ? reader.getCentavos(excessOverColumn) : 0,
+                present(reader, minimumColumn) ? reader.getCentavos(minimumColumn) : Long.MIN_VALUE,
+                present(reader, maximumColumn) ? reader.getCentavos(maximumColumn) : Long.MAX_VALUE
+            });
+        }
+        long[][] columns = new long[6][rows.size()];
+        for (int row = 0; row < rows.size(); row++) {
+            for (int column = 0; column < columns.length; column++) {
+                columns[column][row] = rows.get(row)[column];
+            }
+        }
+        return new Table(kind, effectiveDate, inclusiveBounds, columns[0], columns[1], columns[2], columns[3], columns[4], columns[5]);
+    }
+
+    /**
+     * Checks whether the current row has a value in an optional column.
+     *
+     * @param reader The reader positioned on the row
+     * @param column The column index, or -1 if the file has no such column
+     * @return true if the field exists and is not blank
+     */
+    private static boolean present(CsvReader reader, int column) {
+        return column >= 0 && column < reader.getFieldCount() && !reader.getField(column).trim().isEmpty();
+    }
+
+    /**
+     * Finds the version of a table in force on a date, or the earliest version before all of them.
+     *
+     * @param tables The versions of one table by effective date
+     * @param date The date
+     * @return The table in force
+     */
+    private static Table tableOn(TreeMap<LocalDate, Table> tables, LocalDate date) {
+        Map.Entry<LocalDate, Table> entry = tables.floorEntry(date);
+        return entry != null ? entry.getValue() : tables.firstEntry().getValue();
+    }
+
+    /**
+     * Gets the step between evenly spaced bounds.
+     * The first bracket may have any width, as in the SSS table whose first bracket covers everything below 5,250.
+     *
+     * @param bounds The bracket bounds in centavos
+     * @return The common width of every bracket after the first, or 0 if they differ
+     */
+    private static long evenStepWidth(long[] bounds) {
+        if (bounds.length < 3) {
+            return 0;
+        }
+        long width = bounds[2] - bounds[1];
+        for (int i = 2; i < bounds.length; i++) {
+            if (bounds[i] - bounds[i - 1] != width) {
+                return 0;
+            }
+        }
+        return width;
+    }
+
+    /**
+     * Writes the built-in tables to a new rules folder so they can be edited and versioned.
+     *
+     * @param directory The rules folder
+     */
+    private static void writeDefaultTables(Path directory) {
+        try {
+            Files.createDirectories(directory);
+            for (String kind : KINDS) {
+                String text = defaultTable(kind);
+                FlushScheduler.writeAtomically(directory.resolve(kind + "_" + DEFAULT_EFFECTIVE_DATE + ".csv"),
+                    writer -> writer.write(text.replace("\n", System.lineSeparator())));
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing default contribution rules: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Builds the CSV text of a built-in table.
+     *
+     * @param kind The table name
+     * @return The table CSV
+     */
+    private static String defaultTable(String kind) {
+        switch (kind) {
+            case SSS:
+                // 250 below 5,250, then 25 more for every 500 up to 1,750 from 34,750
+                StringBuilder sss = new StringBuilder("From,Fixed\n0,250\n");
+                for (int bracket = 1; bracket <= 60; bracket++) {
+                    sss.append(5250 + 500 * (bracket - 1)).append(',').append(250 + 25 * bracket).append('\n');
+                }
+                return sss.toString();
+            case PHILHEALTH:
+                return "From,Fixed,Rate,ExcessOver,Minimum,Maximum\n0,0,0.05,0,500,5000\n";
+            case PAGIBIG:
+                return "From,Fixed,Rate,ExcessOver,Minimum,Maximum\n0,0,0.02,0,,200\n";
+            case TAX:
+                return "Over,Fixed,Rate,ExcessOver\n"
+                    + "0,0,0,0\n"
+                    + "20833,0,0.20,20833\n"
+                    + "33332,2500.00,0.25,33333\n"
+                    + "66666,10833.33,0.30,66667\n"
+                    + "166666,40833.33,0.32,166667\n"
+                    + "666666,200833.33,0.35,666667\n";
+            case ANNUAL_TAX:
+                // The monthly brackets above for a whole year
+                return "Over,Fixed,Rate,ExcessOver\n"
+                    + "0,0,0,0\n"
+                    + "250000,0,0.20,250000\n"
+                    + "400000,30000,0.25,400000\n"
+                    + "800000,130000,0.30,800000\n"
+                    + "2000000,490000,0.32,2000000\n"
+                    + "8000000,2410000,0.35,8000000\n";
+            default:
+                throw new IllegalArgumentException("Unknown table " + kind);
+        }
+    }
+}
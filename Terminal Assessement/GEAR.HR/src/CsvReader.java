@@ -0,0 +1,366 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Arrays;
+
+/**
+ * CsvReader class reads RFC 4180 CSV data one record at a time
+ * Handles quoted fields, escaped quotes and embedded newlines with a single-pass state machine,
+ * reusing its buffers between records so loaders do no per-line regex or split work
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class CsvReader implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Powers of ten that are exactly representable as double and float
+    private static final double[] DOUBLE_POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final float[] FLOAT_POWERS_OF_TEN = {
+        1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+    };
+    private static final long[] LONG_POWERS_OF_TEN = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+        1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L,
+        100_000_000_000_000L, 1_000_000_000_000_000L
+    };
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    // Characters of the current record and the bounds of each field within it
+    private char[] recordChars = new char[256];
+    private int recordLength;
+    private int[] fieldStarts = new int[16];
+    private int[] fieldEnds = new int[16];
+    private int fieldCount;
+
+    /**
+     * Creates a reader over any character stream.
+     *
+     * @param reader The source of CSV text
+     */
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Opens a UTF-8 CSV file for reading.
+     *
+     * @param file The CSV file
+     * @return A CsvReader positioned before the first record
+     * @throws IOException If the file cannot be opened
+     */
+    public static CsvReader open(Path file) throws IOException {
+        return new CsvReader(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Advances to the next record, skipping blank lines.
+     *
+     * @return true if a record was read, false at the end of the input
+     * @throws IOException If the input cannot be read
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            int end = readRecord();
+            if (end == -1 && fieldCount == 1 && recordLength == 0) {
+                fieldCount = 0;
+                return false;
+            }
+            if (fieldCount > 1 || recordLength > 0) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of fields in the current record.
+     *
+     * @return The field count
+     */
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Gets a field of the current record.
+     *
+     * @param index The zero-based field index
+     * @return The unquoted field value
+     */
+    public String getField(int index) {
+        return new String(recordChars, fieldStarts[index], fieldEnds[index] - fieldStarts[index]);
+    }
+
+    /**
+     * Checks whether a field equals the given text without creating a String.
+     *
+     * @param index The zero-based field index
+     * @param text The text to compare with
+     * @return true if the field matches exactly
+     */
+    public boolean fieldEquals(int index, String text) {
+        int start = fieldStarts[index];
+        int length = fieldEnds[index] - start;
+        if (length != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (recordChars[start + i] != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses a field as a double.
+     * Plain decimals such as "22500.0" or "833.40" are parsed straight from the record
+     * buffer; anything else falls back to Double.parseDouble. Both give identical results.
+     *
+     * @param index The zero-based field index
+     * @return The parsed value
+     * @throws NumberFormatException If the field is not a number
+     */
+    public double getDouble(int index) {
+        long parsed = parseDecimal(index, 1L << 53, DOUBLE_POWERS_OF_TEN.length - 1);
+        if (parsed == Long.MIN_VALUE) {
+            return Double.parseDouble(getField(index).trim());
+        }
+        double value = (parsed >>> 8) / DOUBLE_POWERS_OF_TEN[(int) (parsed & 0x7F)];
+        return (parsed & 0x80) != 0 ? -value : value;
+    }
+
+    /**
+     * Parses a field as a float.
+     * Uses the same fast path as getDouble, within float precision.
+     *
+     * @param index The zero-based field index
+     * @return The parsed value
+     * @throws NumberFormatException If the field is not a number
+     */
+    public float getFloat(int index) {
+        long parsed = parseDecimal(index, 1L << 24, FLOAT_POWERS_OF_TEN.length - 1);
+        if (parsed == Long.MIN_VALUE) {
+            return Float.parseFloat(getField(index).trim());
+        }
+        float value = (parsed >>> 8) / FLOAT_POWERS_OF_TEN[(int) (parsed & 0x7F)];
+        return (parsed & 0x80) != 0 ? -value : value;
+    }
+
+    /**
+     * Parses a peso amount field into whole centavos, exactly.
+     * Plain decimals are scaled straight from the record buffer; anything else falls back to Money.parse.
+     *
+     * @param index The zero-based field index
+     * @return The amount in centavos
+     * @throws NumberFormatException If the field is not a number
+     */
+    public long getCentavos(int index) {
+        long parsed = parseDecimal(index, 1L << 53, LONG_POWERS_OF_TEN.length - 1);
+        if (parsed == Long.MIN_VALUE) {
+            return Money.parse(getField(index));
+        }
+        long digits = parsed >>> 8;
+        int scale = (int) (parsed & 0x7F);
+        long centavos;
+        if (scale <= 2) {
+            centavos = digits * LONG_POWERS_OF_TEN[2 - scale];
+        } else {
+            // Round the digits past the centavo half away from zero
+            long divisor = LONG_POWERS_OF_TEN[scale - 2];
+            centavos = digits / divisor + (digits % divisor * 2 >= divisor ? 1 : 0);
+        }
+        return (parsed & 0x80) != 0 ? -centavos : centavos;
+    }
+
+    /**
+     * Parses a field as an int.
+     *
+     * @param index The zero-based field index
+     * @return The parsed value
+     * @throws NumberFormatException If the field is not an integer
+     */
+    public int getInt(int index) {
+        long parsed = parseDecimal(index, Integer.MAX_VALUE, 0);
+        if (parsed == Long.MIN_VALUE) {
+            return Integer.parseInt(getField(index).trim());
+        }
+        int value = (int) (parsed >>> 8);
+        return (parsed & 0x80) != 0 ? -value : value;
+    }
+
+    /**
+     * Closes the underlying reader.
+     *
+     * @throws IOException If the reader cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Formats a value as a CSV field, quoting it only when it contains a comma,
+     * quote or line break, so that CsvReader reads it back unchanged.
+     *
+     * @param value The value to format
+     * @return The CSV field text
+     */
+    public static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return "\"" + value.replace("\"", "\"\"") + "\"";
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Reads one record into the record buffer.
+     * States: at field start, inside an unquoted field, inside a quoted field,
+     * and just after a quote inside a quoted field.
+     *
+     * @return 0 if the record ended at a line break, -1 if it ended at end of input
+     * @throws IOException If the input cannot be read
+     */
+    private int readRecord() throws IOException {
+        recordLength = 0;
+        fieldCount = 0;
+        startField();
+        boolean quoted = false;
+        boolean quoteSeen = false;
+
+        while (true) {
+            if (position == limit && !fill()) {
+                endField();
+                return -1;
+            }
+            char c = buffer[position++];
+
+            if (quoted) {
+                if (quoteSeen) {
+                    quoteSeen = false;
+                    if (c == '"') {
+                        append(c); // Escaped quote
+                        continue;
+                    }
+                    quoted = false; // Closing quote, fall through to unquoted handling
+                } else if (c == '"') {
+                    quoteSeen = true;
+                    continue;
+                } else {
+                    append(c); // Includes embedded commas and newlines
+                    continue;
+                }
+            }
+
+            if (c == ',') {
+                endField();
+                startField();
+            } else if (c == '\n') {
+                endField();
+                return 0;
+            } else if (c == '\r') {
+                endField();
+                if ((position < limit || fill()) && buffer[position] == '\n') {
+                    position++;
+                }
+                return 0;
+            } else if (c == '"' && recordLength == fieldStarts[fieldCount]) {
+                quoted = true;
+            } else {
+                append(c);
+            }
+        }
+    }
+
+    /**
+     * Parses a plain decimal field directly from the record buffer.
+     * The result packs the digits without the decimal point in the upper bits,
+     * the sign in bit 7 and the number of decimal places in the low 7 bits.
+     *
+     * @param index The field index
+     * @param maxMantissa Largest digit value that can be converted exactly
+     * @param maxScale Largest number of decimal places that can be converted exactly
+     * @return The packed value, or Long.MIN_VALUE if the fast path does not apply
+     */
+    private long parseDecimal(int index, long maxMantissa, int maxScale) {
+        int i = fieldStarts[index];
+        int end = fieldEnds[index];
+        boolean negative = false;
+        if (i < end && (recordChars[i] == '-' || recordChars[i] == '+')) {
+            negative = recordChars[i] == '-';
+            i++;
+        }
+        if (i == end) {
+            return Long.MIN_VALUE;
+        }
+        long mantissa = 0;
+        int scale = -1;
+        for (; i < end; i++) {
+            char c = recordChars[i];
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa > maxMantissa) {
+                    return Long.MIN_VALUE;
+                }
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                return Long.MIN_VALUE;
+            }
+        }
+        if (scale > maxScale) {
+            return Long.MIN_VALUE;
+        }
+        return (mantissa << 8) | (negative ? 0x80 : 0) | Math.max(scale, 0);
+    }
+
+    /**
+     * Refills the character buffer from the reader.
+     *
+     * @return true if more characters are available
+     * @throws IOException If the input cannot be read
+     */
+    private boolean fill() throws IOException {
+        int read = reader.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            position = limit = 0;
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    private void startField() {
+        if (fieldCount == fieldStarts.length) {
+            fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+            fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+        }
+        fieldStarts[fieldCount] = recordLength;
+    }
+
+    private void endField() {
+        fieldEnds[fieldCount++] = recordLength;
+    }
+
+    private void append(char c) {
+        if (recordLength == recordChars.length) {
+            recordChars = Arrays.copyOf(recordChars, recordLength * 2);
+        }
+        recordChars[recordLength++] = c;
+    }
+}
@@ -0,0 +1,486 @@
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * CsvRepositories class handles the CSV file storage backend
+ * Reads and writes employees.csv, payroll_records.csv, user_credentials.csv and the monthly attendance files,
+ * using the binary snapshots for faster startup and version-checked writes so instances sharing the folder do not overwrite each other
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class CsvRepositories {
+    private static final String EMPLOYEES_CSV_FILE = "GEAR.HR/employees.csv";
+    private static final String PAYROLL_CSV_FILE = "GEAR.HR/payroll_records.csv";
+    private static final String CREDENTIALS_CSV_FILE = "GEAR.HR/user_credentials.csv";
+    private static final String DATA_DIRECTORY = "GEAR.HR";
+    private static final String ATTENDANCE_DIRECTORY = "GEAR.HR/attendance";
+    private static final String ATTENDANCE_CSV_FILE = "GEAR.HR/attendance_records.csv";
+    private static final int RESIDENT_MONTHS = 3;
+
+    // Binary copies of the CSV files read at startup while the CSV is unchanged
+    private static final String EMPLOYEES_SNAPSHOT_FILE = "GEAR.HR/employees.snap";
+    private static final String EMPLOYEES_SNAPSHOT_SCHEMA = "SSSSSSSSSSS";
+    private static final String PAYROLL_SNAPSHOT_FILE = "GEAR.HR/payroll_records.snap";
+    private static final String PAYROLL_SNAPSHOT_SCHEMA = "SLLLLLLLL";
+
+    private final CsvEmployeeRepository employeeRepository = new CsvEmployeeRepository();
+    private final CsvPayrollRepository payrollRepository = new CsvPayrollRepository();
+    private final CsvCredentialRepository credentialRepository = new CsvCredentialRepository();
+    private final AttendancePartitions attendanceRepository = new AttendancePartitions(
+        Paths.get(ATTENDANCE_DIRECTORY), Paths.get(ATTENDANCE_CSV_FILE), RESIDENT_MONTHS);
+
+    /**
+     * Gets the employee repository.
+     *
+     * @return The employees.csv repository
+     */
+    public Repositories.EmployeeRepository employees() {
+        return employeeRepository;
+    }
+
+    /**
+     * Gets the payroll repository.
+     *
+     * @return The payroll_records.csv repository
+     */
+    public Repositories.PayrollRepository payroll() {
+        return payrollRepository;
+    }
+
+    /**
+     * Gets the attendance repository.
+     *
+     * @return The month-partitioned attendance repository
+     */
+    public Repositories.AttendanceRepository attendance() {
+        return attendanceRepository;
+    }
+
+    /**
+     * Gets the credential repository.
+     *
+     * @return The user_credentials.csv repository
+     */
+    public Repositories.CredentialRepository credentials() {
+        return credentialRepository;
+    }
+
+    /**
+     * Gets the folders holding the data files, for DataFolderWatcher.
+     *
+     * @return The data folder and the attendance folder
+     */
+    public Path[] getDataDirectories() {
+        return new Path[] {Paths.get(DATA_DIRECTORY), Paths.get(ATTENDANCE_DIRECTORY)};
+    }
+
+    /**
+     * Reads the attributes that identify one version of a data file.
+     *
+     * @param file The data file
+     * @return The attributes, or null if the file does not exist
+     * @throws IOException If the attributes cannot be read
+     */
+    private static BasicFileAttributes readStamp(Path file) throws IOException {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether two attribute reads describe the same version of a file.
+     * Every save renames a new file into place, so the file key changes as well as the size or time.
+     *
+     * @param a The first attributes, or null for a missing file
+     * @param b The second attributes, or null for a missing file
+     * @return true if both describe the same file contents
+     */
+    private static boolean sameStamp(BasicFileAttributes a, BasicFileAttributes b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return a.size() == b.size() && a.lastModifiedTime().equals(b.lastModifiedTime())
+            && Objects.equals(a.fileKey(), b.fileKey());
+    }
+
+    /**
+     * Stores employees in employees.csv.
+     */
+    static class CsvEmployeeRepository implements Repositories.EmployeeRepository {
+        // Version of employees.csv this instance last read or wrote, and the attributes of that file
+        private long loadedVersion;
+        private BasicFileAttributes loadedStamp;
+
+        /**
+         * Loads all employees, from the binary snapshot while it is up to date.
+         * Writes a new snapshot after reading the CSV.
+         *
+         * @return The employees, or an empty list if employees.csv does not exist
+         * @throws IOException If employees.csv cannot be read
+         */
+        @Override
+        public synchronized List<EmployeeProfile.Employee> loadAll() throws IOException {
+            List<EmployeeProfile.Employee> employees = new ArrayList<>();
+            // Taken before reading, so a write that lands while reading shows up as a conflict on the next save
+            loadedVersion = SharedFileLock.readVersion(Paths.get(EMPLOYEES_CSV_FILE));
+            loadedStamp = readStamp(Paths.get(EMPLOYEES_CSV_FILE));
+            if (loadedStamp == null) {
+                return employees;
+            }
+
+            ColumnarSnapshot snapshot = ColumnarSnapshot.read(
+                Paths.get(EMPLOYEES_SNAPSHOT_FILE), Paths.get(EMPLOYEES_CSV_FILE), EMPLOYEES_SNAPSHOT_SCHEMA);
+            if (snapshot != null) {
+                for (int row = 0; row < snapshot.getRowCount(); row++) {
+                    employees.add(new EmployeeProfile.Employee(
+                        snapshot.getStrings(0)[row], snapshot.getStrings(1)[row], snapshot.getStrings(2)[row],
+                        snapshot.getStrings(3)[row], snapshot.getStrings(4)[row], snapshot.getStrings(5)[row],
+                        snapshot.getStrings(6)[row], snapshot.getStrings(7)[row], snapshot.getStrings(8)[row],
+                        snapshot.getStrings(9)[row], snapshot.getStrings(10)[row]
+                    ));
+                }
+                return employees;
+            }
+
+            try (CsvReader reader = CsvReader.open(Paths.get(EMPLOYEES_CSV_FILE))) {
+                // Skip header line
+                reader.next();
+
+                // CsvReader handles quoted commas, escaped quotes and embedded newlines
+                while (reader.next()) {
+                    if (reader.getFieldCount() >= 11) {
+                        employees.add(new EmployeeProfile.Employee(
+                            reader.getField(0), reader.getField(1), reader.getField(2), reader.getField(3), reader.getField(4),
+                            reader.getField(5), reader.getField(6), reader.getField(7), reader.getField(8), reader.getField(9), reader.getField(10)
+                        ));
+                    }
+                }
+            }
+
+            try {
+                writeSnapshot(employees, loadedStamp);
+            } catch (IOException e) {
+                System.err.println("Error writing employee snapshot: " + e.getMessage());
+            }
+            return employees;
+        }
+
+        /**
+         * Writes the employees to employees.csv and refreshes the binary snapshot.
+         * The file is only replaced if no other instance replaced it since this one last read or wrote it.
+         *
+         * @param employees The employees to save
+         * @throws SharedFileLock.StaleDataException If another instance saved employees.csv first
+         * @throws IOException If a file cannot be written
+         */
+        @Override
+        public synchronized void saveAll(List<EmployeeProfile.Employee> employees) throws IOException {
+            Path tempFile = FlushScheduler.writeTempFile(Paths.get(EMPLOYEES_CSV_FILE), writer -> {
+                // Write CSV header
+                writer.write("EmployeeNumber,LastName,FirstName,SSS,PhilHealth,TIN,PagIBIG,Email,Position,Address,Phone");
+                writer.newLine();
+                for (EmployeeProfile.Employee emp : employees) {
+                    writer.write(String.join(",",
+                        CsvReader.escape(emp.getEmployeeNumber()),
+                        CsvReader.escape(emp.getLastName()),
+                        CsvReader.escape(emp.getFirstName()),
+                        CsvReader.escape(emp.getSssNumber()),
+                        CsvReader.escape(emp.getPhilHealthNumber()),
+                        CsvReader.escape(emp.getTin()),
+                        CsvReader.escape(emp.getPagIbigNumber()),
+                        CsvReader.escape(emp.getEmail()),
+                        CsvReader.escape(emp.getPosition()),
+                        CsvReader.escape(emp.getAddress()),
+                        CsvReader.escape(emp.getPhone())
+                    ));
+                    writer.newLine();
+                }
+            });
+            // A rename keeps the size and modified time, so these are the attributes of the saved CSV
+            BasicFileAttributes attributes = Files.readAttributes(tempFile, BasicFileAttributes.class);
+            loadedVersion = SharedFileLock.commit(Paths.get(EMPLOYEES_CSV_FILE), tempFile, loadedVersion);
+            loadedStamp = attributes;
+            writeSnapshot(employees, attributes);
+        }
+
+        /**
+         * Checks whether employees.csv was replaced or edited since this instance last read or wrote it.
+         *
+         * @return true if the file changed
+         * @throws IOException If the file attributes cannot be read
+         */
+        @Override
+        public synchronized boolean hasExternalChanges() throws IOException {
+            return !sameStamp(readStamp(Paths.get(EMPLOYEES_CSV_FILE)), loadedStamp);
+        }
+
+        /**
+         * Writes the binary snapshot of the given employees, one text column per CSV column.
+         * The list must match what was just written to or read from employees.csv.
+         *
+         * @param employees The employees to write
+         * @param csvAttributes The attributes of employees.csv when it was read or written
+         * @throws IOException If the snapshot cannot be written
+         */
+        private void writeSnapshot(List<EmployeeProfile.Employee> employees, BasicFileAttributes csvAttributes) throws IOException {
+            ColumnarSnapshot snapshot = new ColumnarSnapshot(EMPLOYEES_SNAPSHOT_SCHEMA, employees.size());
+            for (int row = 0; row < employees.size(); row++) {
+                EmployeeProfile.Employee emp = employees.get(row);
+                String[] values = {
+                    emp.getEmployeeNumber(), emp.getLastName(), emp.getFirstName(), emp.getSssNumber(),
+                    emp.getPhilHealthNumber(), emp.getTin(), emp.getPagIbigNumber(), emp.getEmail(),
+                    emp.getPosition(), emp.getAddress(), emp.getPhone()
+                };
+                for (int column = 0; column < values.length; column++) {
+                    snapshot.getStrings(column)[row] = values[column];
+                }
+            }
+            snapshot.write(Paths.get(EMPLOYEES_SNAPSHOT_FILE), csvAttributes);
+        }
+    }
+
+    /**
+     * Stores payroll data in payroll_records.csv.
+     */
+    static class CsvPayrollRepository implements Repositories.PayrollRepository {
+        // Version of payroll_records.csv this instance last read or wrote, and the attributes of that file
+        private long loadedVersion;
+        private BasicFileAttributes loadedStamp;
+
+        /**
+         * Loads all payroll records, from the binary snapshot while it is up to date.
+         * Writes a new snapshot after reading the CSV.
+         *
+         * @return Map of employeeId -> PayrollData, empty if payroll_records.csv does not exist
+         * @throws IOException If payroll_records.csv cannot be read
+         */
+        @Override
+        public synchronized Map<String, SalaryComputation.PayrollData> loadAll() throws IOException {
+            Map<String, SalaryComputation.PayrollData> records = new HashMap<>();
+            loadedVersion = SharedFileLock.readVersion(Paths.get(PAYROLL_CSV_FILE));
+            loadedStamp = readStamp(Paths.get(PAYROLL_CSV_FILE));
+            ColumnarSnapshot snapshot = ColumnarSnapshot.read(
+                Paths.get(PAYROLL_SNAPSHOT_FILE), Paths.get(PAYROLL_CSV_FILE), PAYROLL_SNAPSHOT_SCHEMA);
+            if (snapshot != null) {
+                loadFromSnapshot(snapshot, records);
+                return records;
+            }
+            if (loadedStamp == null) {
+                return records;
+            }
+
+            try (CsvReader reader = CsvReader.open(Paths.get(PAYROLL_CSV_FILE))) {
+                reader.next(); // Skip header line
+
+                while (reader.next()) {
+                    if (reader.getFieldCount() >= 9) {
+                        String employeeId = reader.getField(0);
+                        long baseSalary = reader.getCentavos(1);
+                        long sssAmount = reader.getCentavos(2);
+                        long philHealthAmount = reader.getCentavos(3);
+                        long pagIbigAmount = reader.getCentavos(4);
+                        long withholdingTax = reader.getCentavos(5);
+                        long riceSubsidy = reader.getCentavos(6);
+                        long phoneAllowance = reader.getCentavos(7);
+                        long clothingAllowance = reader.getCentavos(8);
+
+                        records.put(employeeId, SalaryComputation.PayrollData.ofCentavos(
+                            baseSalary, sssAmount, philHealthAmount, pagIbigAmount, withholdingTax,
+                            riceSubsidy, phoneAllowance, clothingAllowance
+                        ));
+                    }
+                }
+            }
+
+            if (!records.isEmpty()) {
+                try {
+                    writeSnapshot(records, loadedStamp);
+                } catch (IOException e) {
+                    System.err.println("Error writing payroll snapshot: " + e.getMessage());
+                }
+            }
+            return records;
+        }
+
+        /**
+         * Writes the payroll records to payroll_records.csv and refreshes the binary snapshot.
+         * The file is only replaced if no other instance replaced it since this one last read or wrote it.
+         *
+         * @param records Map of employeeId -> PayrollData
+         * @throws SharedFileLock.StaleDataException If another instance saved payroll_records.csv first
+         * @throws IOException If a file cannot be written
+         */
+        @Override
+        public synchronized void saveAll(Map<String, SalaryComputation.PayrollData> records) throws IOException {
+            Map<String, SalaryComputation.PayrollData> saved = new HashMap<>();
+            Path tempFile = FlushScheduler.writeTempFile(Paths.get(PAYROLL_CSV_FILE), writer -> {
+                // Write CSV header
+                writer.write("EmployeeID,BaseSalary,SSSAmount,PhilHealthAmount,PagIBIGAmount,WithholdingTax,RiceSubsidy,PhoneAllowance,ClothingAllowance");
+                writer.newLine();
+
+                // Write each payroll record
+                for (Map.Entry<String, SalaryComputation.PayrollData> entry : records.entrySet()) {
+                    SalaryComputation.PayrollData data = entry.getValue();
+                    long withholdingTax = data.getTaxDeduction();
+                    writer.write(String.join(",",
+                        CsvReader.escape(entry.getKey()),
+                        Money.format(data.getBaseSalary()),
+                        Money.format(data.getSSSDeduction()),
+                        Money.format(data.getPhilHealthDeduction()),
+                        Money.format(data.getPagIbigDeduction()),
+                        Money.format(withholdingTax),
+                        Money.format(data.getRiceSubsidy()),
+                        Money.format(data.getPhoneAllowance()),
+                        Money.format(data.getClothingAllowance())
+                    ));
+                    writer.newLine();
+
+                    // The snapshot holds the values exactly as a CSV load would read them back
+                    saved.put(entry.getKey(), SalaryComputation.PayrollData.ofCentavos(
+                        data.getBaseSalary(), data.getSSSDeduction(), data.getPhilHealthDeduction(), data.getPagIbigDeduction(),
+                        withholdingTax, data.getRiceSubsidy(), data.getPhoneAllowance(), data.getClothingAllowance()
+                    ));
+                }
+            });
+            BasicFileAttributes attributes = Files.readAttributes(tempFile, BasicFileAttributes.class);
+            loadedVersion = SharedFileLock.commit(Paths.get(PAYROLL_CSV_FILE), tempFile, loadedVersion);
+            loadedStamp = attributes;
+            writeSnapshot(saved, attributes);
+        }
+
+        /**
+         * Checks whether payroll_records.csv was replaced or edited since this instance last read or wrote it.
+         *
+         * @return true if the file changed
+         * @throws IOException If the file attributes cannot be read
+         */
+        @Override
+        public synchronized boolean hasExternalChanges() throws IOException {
+            return !sameStamp(readStamp(Paths.get(PAYROLL_CSV_FILE)), loadedStamp);
+        }
+
+        /**
+         * Fills the payroll map from the columns of a snapshot.
+         *
+         * @param snapshot The snapshot to load
+         * @param records The map to fill
+         */
+        private void loadFromSnapshot(ColumnarSnapshot snapshot, Map<String, SalaryComputation.PayrollData> records) {
+            String[] employeeIds = snapshot.getStrings(0);
+            long[] baseSalary = snapshot.getLongs(1);
+            long[] sssAmount = snapshot.getLongs(2);
+            long[] philHealthAmount = snapshot.getLongs(3);
+            long[] pagIbigAmount = snapshot.getLongs(4);
+            long[] withholdingTax = snapshot.getLongs(5);
+            long[] riceSubsidy = snapshot.getLongs(6);
+            long[] phoneAllowance = snapshot.getLongs(7);
+            long[] clothingAllowance = snapshot.getLongs(8);
+
+            for (int row = 0; row < snapshot.getRowCount(); row++) {
+                records.put(employeeIds[row], SalaryComputation.PayrollData.ofCentavos(
+                    baseSalary[row], sssAmount[row], philHealthAmount[row], pagIbigAmount[row], withholdingTax[row],
+                    riceSubsidy[row], phoneAllowance[row], clothingAllowance[row]
+                ));
+            }
+        }
+
+        /**
+         * Writes the binary snapshot of the given payroll records.
+         * The records must match what was just written to or read from payroll_records.csv.
+         *
+         * @param records Map of employeeId -> PayrollData
+         * @param csvAttributes The attributes of payroll_records.csv when it was read or written
+         * @throws IOException If the snapshot cannot be written
+         */
+        private void writeSnapshot(Map<String, SalaryComputation.PayrollData> records, BasicFileAttributes csvAttributes) throws IOException {
+            ColumnarSnapshot snapshot = new ColumnarSnapshot(PAYROLL_SNAPSHOT_SCHEMA, records.size());
+            int row = 0;
+            for (Map.Entry<String, SalaryComputation.PayrollData> entry : records.entrySet()) {
+                SalaryComputation.PayrollData data = entry.getValue();
+                snapshot.getStrings(0)[row] = entry.getKey();
+                snapshot.getLongs(1)[row] = data.getBaseSalary();
+                snapshot.getLongs(2)[row] = data.getSSSDeduction();
+                snapshot.getLongs(3)[row] = data.getPhilHealthDeduction();
+                snapshot.getLongs(4)[row] = data.getPagIbigDeduction();
+                snapshot.getLongs(5)[row] = data.getWithholdingTax();
+                snapshot.getLongs(6)[row] = data.getRiceSubsidy();
+                snapshot.getLongs(7)[row] = data.getPhoneAllowance();
+                snapshot.getLongs(8)[row] = data.getClothingAllowance();
+                row++;
+            }
+            snapshot.write(Paths.get(PAYROLL_SNAPSHOT_FILE), csvAttributes);
+        }
+    }
+
+    /**
+     * Reads login credentials from user_credentials.csv.
+     */
+    static class CsvCredentialRepository implements Repositories.CredentialRepository {
+        /**
+         * Loads all credentials.
+         *
+         * @return Map of userId -> [password, role, email]
+         * @throws IOException If user_credentials.csv is missing or cannot be read
+         */
+        @Override
+        public Map<String, String[]> loadAll() throws IOException {
+            Map<String, String[]> credentials = new HashMap<>();
+            if (!Files.exists(Paths.get(CREDENTIALS_CSV_FILE))) {
+                throw new NoSuchFileException("user_credentials.csv not found at: " + Paths.get(CREDENTIALS_CSV_FILE).toAbsolutePath());
+            }
+            try (CsvReader reader = CsvReader.open(Paths.get(CREDENTIALS_CSV_FILE))) {
+                reader.next(); // Skip header
+                while (reader.next()) {
+                    if (reader.getFieldCount() >= 2) {
+                        credentials.put(reader.getField(0).trim(), readCredential(reader));
+                    }
+                }
+            }
+            return credentials;
+        }
+
+        /**
+         * Looks up one user by scanning user_credentials.csv.
+         *
+         * @param userId The user ID
+         * @return [password, role, email], or null if the user does not exist
+         * @throws IOException If user_credentials.csv cannot be read
+         */
+        @Override
+        public String[] findById(String userId) throws IOException {
+            if (!Files.exists(Paths.get(CREDENTIALS_CSV_FILE))) {
+                return null;
+            }
+            try (CsvReader reader = CsvReader.open(Paths.get(CREDENTIALS_CSV_FILE))) {
+                reader.next(); // Skip header
+                while (reader.next()) {
+                    if (reader.getFieldCount() >= 2 && reader.getField(0).trim().equals(userId.trim())) {
+                        return readCredential(reader);
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Reads the password, role and email of the current record.
+         *
+         * @param reader The reader positioned on a credentials record
+         * @return [password, role, email], with empty strings for missing fields
+         */
+        private String[] readCredential(CsvReader reader) {
+            String[] credential = {"", "", ""};
+            for (int i = 0; i < credential.length && i + 1 < reader.getFieldCount(); i++) {
+                credential[i] = reader.getField(i + 1).trim();
+            }
+            return credential;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DataFolderWatcher class handles picking up data changes made outside this instance
+ * Watches the data folders with a WatchService on a background thread and, whenever a file changes,
+ * runs the change checks registered by the data stores; the checks also run on a slow timer because
+ * changes made by other computers on a network share do not always raise events
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class DataFolderWatcher {
+    // Events arriving within this window are handled by one round of checks
+    private static final long SETTLE_MS = 150;
+
+    // Checks run at least this often even without events
+    private static final long POLL_INTERVAL_MS = 2000;
+
+    // Change checks registered by the data stores, run in registration order
+    private static final List<Check> checks = new CopyOnWriteArrayList<>();
+
+    private static WatchService watchService;
+    private static Thread watchThread;
+
+    // Watcher statistics
+    private static long eventCount;
+    private static long checkRounds;
+    private static long lastCheckNanos;
+
+    /**
+     * A check that looks for changes to one data store and applies them.
+     */
+    public interface Check {
+        /**
+         * Looks for changes made outside this instance and applies them.
+         * Runs on the watcher thread, so Swing components must be updated through SwingUtilities.invokeLater.
+         *
+         * @throws IOException If the data cannot be read
+         */
+        void run() throws IOException;
+    }
+
+    /**
+     * Starts watching the given folders. Later calls only add folders.
+     * Without folders, for example with database storage, the checks still run on the timer.
+     *
+     * @param directories The data folders to watch
+     */
+    public static synchronized void start(Path... directories) {
+        if (watchThread == null) {
+            watchThread = new Thread(DataFolderWatcher::watchLoop, "data-watcher");
+            watchThread.setDaemon(true);
+            watchThread.start();
+        }
+        for (Path directory : directories) {
+            try {
+                if (watchService == null) {
+                    watchService = directory.getFileSystem().newWatchService();
+                }
+                Files.createDirectories(directory);
+                directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            } catch (IOException | UnsupportedOperationException e) {
+                System.err.println("Cannot watch " + directory + ", checking for changes every "
+                    + POLL_INTERVAL_MS + " ms instead: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Registers a change check.
+     *
+     * @param check The check to run after files change
+     */
+    public static void register(Check check) {
+        checks.add(check);
+    }
+
+    /**
+     * Builds a one-line summary of the watcher statistics.
+     *
+     * @return Summary of file events, check rounds and the duration of the last round
+     */
+    public static synchronized String getStatusSummary() {
+        return String.format("Watcher: %s | Events: %d | Checks: %d | Last check: %.2f ms",
+            watchService != null ? "events + timer" : "timer only", eventCount, checkRounds, lastCheckNanos / 1_000_000.0);
+    }
+
+    /**
+     * Waits for file events or the poll interval, then runs the checks.
+     */
+    private static void watchLoop() {
+        while (true) {
+            try {
+                WatchService service;
+                synchronized (DataFolderWatcher.class) {
+                    service = watchService;
+                }
+                if (service == null) {
+                    Thread.sleep(POLL_INTERVAL_MS);
+                } else {
+                    WatchKey key = service.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                    if (key != null) {
+                        // Let a burst of events settle, such as a temporary file being written and renamed
+                        Thread.sleep(SETTLE_MS);
+                        do {
+                            drain(key);
+                        } while ((key = service.poll()) != null);
+                    }
+                }
+                runChecks();
+            } catch (InterruptedException e) {
+                return;
+            } catch (ClosedWatchServiceException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Counts and discards the pending events of a watch key and re-arms it.
+     *
+     * @param key The signalled key
+     */
+    private static void drain(WatchKey key) {
+        int events = key.pollEvents().size();
+        key.reset();
+        synchronized (DataFolderWatcher.class) {
+            eventCount += events;
+        }
+    }
+
+    /**
+     * Runs every registered check, reporting failures without stopping the others.
+     */
+    private static void runChecks() {
+        long start = System.nanoTime();
+        for (Check check : checks) {
+            try {
+                check.run();
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error reloading changed data: " + e.getMessage());
+            }
+        }
+        synchronized (DataFolderWatcher.class) {
+            checkRounds++;
+            lastCheckNanos = System.nanoTime() - start;
+        }
+    }
+}
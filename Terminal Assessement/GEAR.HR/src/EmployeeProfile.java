@@ -17,17 +17,36 @@ import javax.swing.table.*;
  */
 public class EmployeeProfile {
     
-    // Employee data storage
-    private static final List<Employee> employees = new ArrayList<>();
-    private static final String EMPLOYEES_CSV_FILE = "GEAR.HR/employees.csv";
+    // Employee data storage, synchronized because FlushScheduler copies it on the flush thread
+    private static final List<Employee> employees = Collections.synchronizedList(new ArrayList<>());
+
+    // Signature of each employee as last loaded or saved, used to tell local edits from other instances' edits
+    private static Map<String, String> savedSignatures = new HashMap<>();
+
+    // Saves rejected by a newer version are merged and retried this many times before the flush fails
+    private static final int MAX_SAVE_ATTEMPTS = 3;
+
+    // Keeps a save on the flush thread and a reload on the watcher thread from interleaving
+    private static final Object saveLock = new Object();
+
+    // Write-behind target that saves the employee list through the storage backend
+    private static final FlushScheduler.Store employeeStore = new FlushScheduler.Store() {
+        @Override
+        public String getName() {
+            return "employees";
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writeEmployees();
+        }
+    };
     
     // UI components
     private static JTable employeeTable;
     private static DefaultTableModel tableModel;
     
-    // Payroll data storage
-    private static final Map<String, PayrollRecord> payrollRecords = new HashMap<>();
-    private static final String PAYROLL_CSV_FILE = "GEAR.HR/payroll_records.csv";
+    // Payroll data is shared with SalaryComputation through PayrollStore
 
     // Application color scheme
     private static final Color BACKGROUND_WHITE = Color.WHITE;
@@ -42,83 +61,18 @@ public class EmployeeProfile {
     private static final Color GRADIENT_START = new Color(93, 224, 230);
     private static final Color GRADIENT_END = new Color(0, 74, 173);
 
-    // SSS brackets
-    private static final double[][] SSS_BRACKETS = {
-        {0, 5249.99, 250},
-        {5250, 5749.99, 275},
-        {5750, 6249.99, 300},
-        {6250, 6749.99, 325},
-        {6750, 7249.99, 350},
-        {7250, 7749.99, 375},
-        {7750, 8249.99, 400},
-        {8250, 8749.99, 425},
-        {8750, 9249.99, 450},
-        {9250, 9749.99, 475},
-        {9750, 10249.99, 500},
-        {10250, 10749.99, 525},
-        {10750, 11249.99, 550},
-        {11250, 11749.99, 575},
-        {11750, 12249.99, 600},
-        {12250, 12749.99, 625},
-        {12750, 13249.99, 650},
-        {13250, 13749.99, 675},
-        {13750, 14249.99, 700},
-        {14250, 14749.99, 725},
-        {14750, 15249.99, 750},
-        {15250, 15749.99, 775},
-        {15750, 16249.99, 800},
-        {16250, 16749.99, 825},
-        {16750, 17249.99, 850},
-        {17250, 17749.99, 875},
-        {17750, 18249.99, 900},
-        {18250, 18749.99, 925},
-        {18750, 19249.99, 950},
-        {19250, 19749.99, 975},
-        {19750, 20249.99, 1000},
-        {20250, 20749.99, 1025},
-        {20750, 21249.99, 1050},
-        {21250, 21749.99, 1075},
-        {21750, 22249.99, 1100},
-        {22250, 22749.99, 1125},
-        {22750, 23249.99, 1150},
-        {23250, 23749.99, 1175},
-        {23750, 24249.99, 1200},
-        {24250, 24749.99, 1225},
-        {24750, 25249.99, 1250},
-        {25250, 25749.99, 1275},
-        {25750, 26249.99, 1300},
-        {26250, 26749.99, 1325},
-        {26750, 27249.99, 1350},
-        {27250, 27749.99, 1375},
-        {27750, 28249.99, 1400},
-        {28250, 28749.99, 1425},
-        {28750, 29249.99, 1450},
-        {29250, 29749.99, 1475},
-        {29750, 30249.99, 1500},
-        {30250, 30749.99, 1525},
-        {30750, 31249.99, 1550},
-        {31250, 31749.99, 1575},
-        {31750, 32249.99, 1600},
-        {32250, 32749.99, 1625},
-        {32750, 33249.99, 1650},
-        {33250, 33749.99, 1675},
-        {33750, 34249.99, 1700},
-        {34250, 34749.99, 1725},
-        {34750, 9999999.99, 1750}
-    };
-
     // Initialize employee and payroll data from CSV files
     static {
-        loadEmployeesFromCSV();
-        loadPayrollRecordsFromCSV();
+        loadEmployees();
+        DataFolderWatcher.register(EmployeeProfile::applyExternalChanges);
+        PayrollStore.addRejectionListener(EmployeeProfile::showRejectedPayrollChanges);
         
         if (employees.isEmpty()) {
             addSampleEmployees();
         }
         
-        if (payrollRecords.isEmpty()) {
+        if (PayrollStore.isEmpty()) {
             initializeSamplePayrollData();
-            savePayrollRecordsToCSV();
         }
     }
 
@@ -366,19 +320,63 @@ public class EmployeeProfile {
      */
     private static void updateEmployeeTable() {
         tableModel.setRowCount(0);  // Clear existing rows
-        for (Employee emp : employees) {
-            tableModel.addRow(new Object[]{
-                emp.getEmployeeNumber(),
-                emp.getLastName(),
-                emp.getFirstName(),
-                emp.getSssNumber(),
-                emp.getPhilHealthNumber(),
-                emp.getTin(),
-                emp.getPagIbigNumber()
-            });
+        for (Employee emp : getAllEmployees()) {
+            tableModel.addRow(tableRow(emp));
+        }
+    }
+
+    /**
+     * Updates only the table rows of the given employees.
+     *
+     * @param changed Map of employee number -> employee as it is now, or null if it was removed
+     */
+    private static void updateEmployeeRows(Map<String, Employee> changed) {
+        Map<String, Integer> rows = new HashMap<>();
+        for (int row = 0; row < tableModel.getRowCount(); row++) {
+            rows.put((String) tableModel.getValueAt(row, 0), row);
+        }
+        List<Integer> removedRows = new ArrayList<>();
+        for (Map.Entry<String, Employee> entry : changed.entrySet()) {
+            Integer row = rows.get(entry.getKey());
+            Employee emp = entry.getValue();
+            if (emp == null) {
+                if (row != null) {
+                    removedRows.add(row);
+                }
+            } else if (row == null) {
+                tableModel.addRow(tableRow(emp));
+            } else {
+                Object[] values = tableRow(emp);
+                for (int column = 0; column < values.length; column++) {
+                    tableModel.setValueAt(values[column], row, column);
+                }
+            }
+        }
+        // Remove from the bottom up so the remaining row numbers stay valid
+        removedRows.sort(Collections.reverseOrder());
+        for (int row : removedRows) {
+            tableModel.removeRow(row);
         }
     }
 
+    /**
+     * Builds the table row of an employee.
+     *
+     * @param emp The employee
+     * @return The row values
+     */
+    private static Object[] tableRow(Employee emp) {
+        return new Object[]{
+            emp.getEmployeeNumber(),
+            emp.getLastName(),
+            emp.getFirstName(),
+            emp.getSssNumber(),
+            emp.getPhilHealthNumber(),
+            emp.getTin(),
+            emp.getPagIbigNumber()
+        };
+    }
+
     /**
      * Creates the button panel with action buttons for the profile screen.
      *
@@ -397,7 +395,8 @@ public class EmployeeProfile {
         JButton newButton = createModernButton("New Employee", ACCENT_GREY);
         JButton updateButton = createModernButton("Update Employee", ACCENT_GREY);
         JButton deleteButton = createModernButton("Delete Employee", ACCENT_GREY);
-        JButton refreshButton = createModernButton("Refresh", ACCENT_GREY);
+        JButton runPayrollButton = createModernButton("Run Payroll", ACCENT_GREY);
+        JButton whatIfButton = createModernButton("What-If", ACCENT_GREY);
 
         // Add action listeners
         viewButton.addActionListener(e -> {
@@ -453,23 +452,341 @@ public class EmployeeProfile {
             }
         });
 
-        refreshButton.addActionListener(e -> {
-            loadEmployeesFromCSV();
-            loadPayrollRecordsFromCSV();
-            updateEmployeeTable();
-            showModernMessage(frame, "Data refreshed successfully", "Refresh Complete", JOptionPane.INFORMATION_MESSAGE);
-        });
+        runPayrollButton.addActionListener(e -> showPayrollRunDialog(frame));
+        whatIfButton.addActionListener(e -> showWhatIfDialog(frame));
 
         // Add buttons to panel
         buttonPanel.add(viewButton);
         buttonPanel.add(newButton);
         buttonPanel.add(updateButton);
         buttonPanel.add(deleteButton);
-        buttonPanel.add(refreshButton);
+        buttonPanel.add(runPayrollButton);
+        buttonPanel.add(whatIfButton);
 
         return buttonPanel;
     }
 
+    /**
+     * Shows the payroll run window, which computes the payslips of every employee for a chosen month.
+     * The run happens on background threads while a progress bar follows it.
+     *
+     * @param parentFrame The parent JFrame for positioning
+     */
+    private static void showPayrollRunDialog(JFrame parentFrame) {
+        JFrame runFrame = new JFrame("Run Payroll");
+        runFrame.setSize(600, 300);
+        runFrame.setLocationRelativeTo(parentFrame);
+        runFrame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+
+        JPanel mainPanel = new JPanel(new BorderLayout(0, 15));
+        mainPanel.setBackground(BACKGROUND_WHITE);
+        mainPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+
+        // Pay period selector, newest month first
+        JPanel controlsPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 15, 0));
+        controlsPanel.setOpaque(false);
+        JLabel periodLabel = new JLabel("Pay Period:");
+        periodLabel.setFont(new Font("Garet", Font.BOLD, 14));
+        periodLabel.setForeground(TEXT_BLACK);
+        JComboBox<java.time.YearMonth> periodCombo = new JComboBox<>();
+        java.time.YearMonth currentMonth = java.time.YearMonth.now();
+        for (int i = 0; i < 12; i++) {
+            periodCombo.addItem(currentMonth.minusMonths(i));
+        }
+        periodCombo.setFont(new Font("Garet", Font.PLAIN, 12));
+        periodCombo.setPreferredSize(new Dimension(150, 30));
+        JComboBox<PayslipTemplate> formatCombo = new JComboBox<>(new PayslipTemplate[]{PayslipTemplate.TEXT, PayslipTemplate.HTML});
+        formatCombo.setFont(new Font("Garet", Font.PLAIN, 12));
+        formatCombo.setPreferredSize(new Dimension(80, 30));
+        JButton startButton = createModernButton("Start", BUTTON_ORANGE);
+        startButton.setPreferredSize(new Dimension(120, 35));
+        controlsPanel.add(periodLabel);
+        controlsPanel.add(periodCombo);
+        controlsPanel.add(formatCombo);
+        controlsPanel.add(startButton);
+
+        JProgressBar progressBar = new JProgressBar();
+        progressBar.setStringPainted(true);
+        JLabel statusLabel = new JLabel(getAllEmployees().size() + " employees will be paid", SwingConstants.CENTER);
+        statusLabel.setFont(new Font("Garet", Font.PLAIN, 12));
+        statusLabel.setForeground(TEXT_BLACK);
+
+        startButton.addActionListener(e -> {
+            java.time.YearMonth period = (java.time.YearMonth) periodCombo.getSelectedItem();
+            PayslipTemplate template = (PayslipTemplate) formatCombo.getSelectedItem();
+            startButton.setEnabled(false);
+            periodCombo.setEnabled(false);
+            formatCombo.setEnabled(false);
+            statusLabel.setText("Computing payslips for " + period + "...");
+            new SwingWorker<PayrollRun.Result, int[]>() {
+                @Override
+                protected PayrollRun.Result doInBackground() throws Exception {
+                    return PayrollRun.run(period, template, (done, total) -> publish(new int[]{done, total}));
+                }
+
+                @Override
+                protected void process(List<int[]> chunks) {
+                    int[] latest = chunks.get(chunks.size() - 1);
+                    progressBar.setMaximum(latest[1]);
+                    progressBar.setValue(Math.max(progressBar.getValue(), latest[0]));
+                }
+
+                @Override
+                protected void done() {
+                    startButton.setEnabled(true);
+                    periodCombo.setEnabled(true);
+                    formatCombo.setEnabled(true);
+                    try {
+                        PayrollRun.Result result = get();
+                        progressBar.setMaximum(Math.max(1, result.getPayslips()));
+                        progressBar.setValue(progressBar.getMaximum());
+                        statusLabel.setText(result.getSummary());
+                        showModernMessage(runFrame, result.getSummary() + "\nRegister: " + result.getRegisterFile()
+                            + "\nPayslips: " + result.getPayslipDirectory(), "Payroll Run Complete", JOptionPane.INFORMATION_MESSAGE);
+                    } catch (InterruptedException | java.util.concurrent.ExecutionException ex) {
+                        Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                        statusLabel.setText("Payroll run failed");
+                        showModernMessage(runFrame, "Error running payroll: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                }
+            }.execute();
+        });
+
+        // Closing adds the period's register to the year-to-date totals; the true-up settles the year's income tax.
+        // Both read a whole register or the year's totals and write files, so they run off the event thread
+        JButton closeButton = createModernButton("Close Period", ACCENT_GREY);
+        closeButton.setPreferredSize(new Dimension(150, 35));
+        closeButton.addActionListener(e -> {
+            java.time.YearMonth period = (java.time.YearMonth) periodCombo.getSelectedItem();
+            closeButton.setEnabled(false);
+            statusLabel.setText("Closing " + period + "...");
+            new SwingWorker<Integer, Void>() {
+                private String summary;
+
+                @Override
+                protected Integer doInBackground() throws Exception {
+                    int employees = YearToDate.closePeriod(period);
+                    summary = YearToDate.getStatusSummary();
+                    return employees;
+                }
+
+                @Override
+                protected void done() {
+                    closeButton.setEnabled(true);
+                    try {
+                        int employees = get();
+                        statusLabel.setText(summary);
+                        showModernMessage(runFrame, period + " closed: " + employees + " employees added to the year-to-date totals",
+                            "Period Closed", JOptionPane.INFORMATION_MESSAGE);
+                    } catch (InterruptedException | java.util.concurrent.ExecutionException ex) {
+                        Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                        statusLabel.setText("Closing " + period + " failed");
+                        showModernMessage(runFrame, "Error closing " + period + ": " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                }
+            }.execute();
+        });
+        JButton trueUpButton = createModernButton("Year-End True-Up", ACCENT_GREY);
+        trueUpButton.setPreferredSize(new Dimension(170, 35));
+        trueUpButton.addActionListener(e -> {
+            java.time.Year year = java.time.Year.of(((java.time.YearMonth) periodCombo.getSelectedItem()).getYear());
+            trueUpButton.setEnabled(false);
+            statusLabel.setText("Running the true-up for " + year + "...");
+            new SwingWorker<YearToDate.TrueUp, Void>() {
+                @Override
+                protected YearToDate.TrueUp doInBackground() throws Exception {
+                    return YearToDate.trueUp(year);
+                }
+
+                @Override
+                protected void done() {
+                    trueUpButton.setEnabled(true);
+                    try {
+                        YearToDate.TrueUp trueUp = get();
+                        statusLabel.setText(trueUp.getSummary());
+                        showModernMessage(runFrame, trueUp.getSummary() + "\nAdjustments: " + trueUp.getFile(),
+                            "Year-End True-Up", JOptionPane.INFORMATION_MESSAGE);
+                    } catch (InterruptedException | java.util.concurrent.ExecutionException ex) {
+                        Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                        statusLabel.setText("True-up for " + year + " failed");
+                        showModernMessage(runFrame, "Error running the true-up for " + year + ": " + cause.getMessage(), "Error",
+                            JOptionPane.ERROR_MESSAGE);
+                    }
+                }
+            }.execute();
+        });
+        JPanel yearPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 15, 0));
+        yearPanel.setOpaque(false);
+        yearPanel.add(closeButton);
+        yearPanel.add(trueUpButton);
+        JPanel southPanel = new JPanel(new BorderLayout(0, 10));
+        southPanel.setOpaque(false);
+        southPanel.add(statusLabel, BorderLayout.NORTH);
+        southPanel.add(yearPanel, BorderLayout.SOUTH);
+
+        mainPanel.add(controlsPanel, BorderLayout.NORTH);
+        mainPanel.add(progressBar, BorderLayout.CENTER);
+        mainPanel.add(southPanel, BorderLayout.SOUTH);
+        runFrame.add(mainPanel);
+        runFrame.setVisible(true);
+    }
+
+    /**
+     * Shows the what-if window, which simulates a raise or cut for every employee or one position
+     * and shows what it costs in total and for each employee, without changing any payroll data.
+     * The simulator copies the payroll data when the window opens; simulations run on background threads.
+     *
+     * @param parentFrame The parent JFrame for positioning
+     */
+    private static void showWhatIfDialog(JFrame parentFrame) {
+        JFrame whatIfFrame = new JFrame("What-If Simulation");
+        whatIfFrame.setSize(1000, 650);
+        whatIfFrame.setLocationRelativeTo(parentFrame);
+        whatIfFrame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+
+        JPanel mainPanel = new JPanel(new BorderLayout(0, 15));
+        mainPanel.setBackground(BACKGROUND_WHITE);
+        mainPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+
+        // Scenario: who, which component, and by how much
+        JPanel controlsPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 0));
+        controlsPanel.setOpaque(false);
+        String allPositions = "All Positions";
+        JComboBox<String> positionCombo = new JComboBox<>(new String[]{allPositions});
+        positionCombo.setFont(new Font("Garet", Font.PLAIN, 12));
+        positionCombo.setPreferredSize(new Dimension(220, 30));
+        JComboBox<WhatIfSimulator.Component> componentCombo = new JComboBox<>(WhatIfSimulator.Component.values());
+        componentCombo.setFont(new Font("Garet", Font.PLAIN, 12));
+        componentCombo.setPreferredSize(new Dimension(150, 30));
+        JTextField changeField = new JTextField("5", 6);
+        changeField.setFont(new Font("Garet", Font.PLAIN, 12));
+        JComboBox<String> unitCombo = new JComboBox<>(new String[]{"%", "₱"});
+        unitCombo.setFont(new Font("Garet", Font.PLAIN, 12));
+        JButton simulateButton = createModernButton("Simulate", BUTTON_ORANGE);
+        simulateButton.setPreferredSize(new Dimension(120, 35));
+        simulateButton.setEnabled(false);
+        controlsPanel.add(positionCombo);
+        controlsPanel.add(componentCombo);
+        controlsPanel.add(changeField);
+        controlsPanel.add(unitCombo);
+        controlsPanel.add(simulateButton);
+
+        JTextArea summaryArea = new JTextArea(7, 60);
+        summaryArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        summaryArea.setEditable(false);
+        summaryArea.setText("Copying payroll data...");
+
+        // Per-employee differences, read straight from the latest result
+        String[] columnNames = {"Employee Number", "Position", "Base Salary", "New Base Salary", "Contributions",
+            "Withholding Tax", "Net Pay", "Payroll Cost"};
+        WhatIfSimulator.Measure[] deltaColumns = {WhatIfSimulator.Measure.CONTRIBUTIONS,
+            WhatIfSimulator.Measure.WITHHOLDING_TAX, WhatIfSimulator.Measure.NET_PAY, WhatIfSimulator.Measure.PAYROLL_COST};
+        WhatIfSimulator.Result[] shown = new WhatIfSimulator.Result[1];
+        javax.swing.table.AbstractTableModel deltaModel = new javax.swing.table.AbstractTableModel() {
+            @Override
+            public int getRowCount() {
+                return shown[0] == null ? 0 : shown[0].getChangedCount();
+            }
+
+            @Override
+            public int getColumnCount() {
+                return columnNames.length;
+            }
+
+            @Override
+            public String getColumnName(int column) {
+                return column < 4 ? columnNames[column] : "Δ " + columnNames[column];
+            }
+
+            @Override
+            public Object getValueAt(int row, int column) {
+                WhatIfSimulator.Result result = shown[0];
+                switch (column) {
+                    case 0: return result.getEmployeeId(row);
+                    case 1: return result.getPosition(row);
+                    case 2: return Money.appendGroupedTo(new StringBuilder(), result.getBaseSalary(row, false)).toString();
+                    case 3: return Money.appendGroupedTo(new StringBuilder(), result.getBaseSalary(row, true)).toString();
+                    default:
+                        long delta = result.getDelta(row, deltaColumns[column - 4]);
+                        return Money.appendGroupedTo(new StringBuilder(delta > 0 ? "+" : ""), delta).toString();
+                }
+            }
+        };
+        JTable deltaTable = new JTable(deltaModel);
+        deltaTable.setFont(new Font("Garet", Font.PLAIN, 12));
+        deltaTable.setRowHeight(24);
+        deltaTable.getTableHeader().setFont(new Font("Garet", Font.BOLD, 12));
+        deltaTable.getTableHeader().setBackground(BUTTON_ORANGE);
+        deltaTable.getTableHeader().setForeground(TEXT_WHITE);
+
+        WhatIfSimulator[] simulator = new WhatIfSimulator[1];
+        new SwingWorker<WhatIfSimulator, Void>() {
+            @Override
+            protected WhatIfSimulator doInBackground() {
+                return WhatIfSimulator.ofCurrentPayroll();
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    simulator[0] = get();
+                    for (String position : simulator[0].getPositions()) {
+                        positionCombo.addItem(position);
+                    }
+                    summaryArea.setText(simulator[0].getEmployeeCount() + " employees ready to simulate");
+                    simulateButton.setEnabled(true);
+                } catch (InterruptedException | java.util.concurrent.ExecutionException ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    summaryArea.setText("Cannot copy payroll data: " + cause.getMessage());
+                }
+            }
+        }.execute();
+
+        simulateButton.addActionListener(e -> {
+            String position = allPositions.equals(positionCombo.getSelectedItem()) ? null : (String) positionCombo.getSelectedItem();
+            WhatIfSimulator.Component component = (WhatIfSimulator.Component) componentCombo.getSelectedItem();
+            WhatIfSimulator.Adjustment adjustment;
+            try {
+                adjustment = "%".equals(unitCombo.getSelectedItem())
+                    ? WhatIfSimulator.Adjustment.percent(position, component, changeField.getText().trim())
+                    : WhatIfSimulator.Adjustment.amount(position, component, changeField.getText().trim());
+            } catch (NumberFormatException ex) {
+                showModernMessage(whatIfFrame, "Please enter a valid number", "Invalid Change", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            simulateButton.setEnabled(false);
+            summaryArea.setText("Simulating " + adjustment + "...");
+            new SwingWorker<WhatIfSimulator.Result, Void>() {
+                @Override
+                protected WhatIfSimulator.Result doInBackground() {
+                    return simulator[0].simulate(adjustment);
+                }
+
+                @Override
+                protected void done() {
+                    simulateButton.setEnabled(true);
+                    try {
+                        shown[0] = get();
+                        summaryArea.setText(adjustment + "\n" + shown[0].getSummary());
+                        deltaModel.fireTableDataChanged();
+                    } catch (InterruptedException | java.util.concurrent.ExecutionException ex) {
+                        Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                        summaryArea.setText("Simulation failed: " + cause.getMessage());
+                    }
+                }
+            }.execute();
+        });
+
+        mainPanel.add(controlsPanel, BorderLayout.NORTH);
+        JPanel resultsPanel = new JPanel(new BorderLayout(0, 10));
+        resultsPanel.setOpaque(false);
+        resultsPanel.add(new JScrollPane(summaryArea), BorderLayout.NORTH);
+        resultsPanel.add(new JScrollPane(deltaTable), BorderLayout.CENTER);
+        mainPanel.add(resultsPanel, BorderLayout.CENTER);
+        whatIfFrame.add(mainPanel);
+        whatIfFrame.setVisible(true);
+    }
+
     /**
      * Creates a modern styled button with custom background color.
      *
@@ -561,10 +878,7 @@ public class EmployeeProfile {
         // Remove employee from the employees list
         employees.removeIf(e -> e.getEmployeeNumber().equals(empNumber));
         
-        // Remove payroll record from EmployeeProfile
-        payrollRecords.remove(empNumber);
-        
-        // Remove payroll record from SalaryComputation class
+        // Remove payroll record from the shared payroll store
         SalaryComputation.removePayrollData(empNumber);
         
         // Remove attendance records from Attendance class
@@ -572,7 +886,6 @@ public class EmployeeProfile {
         
         // Save updated data to CSV files
         saveEmployeesToCSV();
-        savePayrollRecordsToCSV();
         
         // Update the employee table display
         updateEmployeeTable();
@@ -836,17 +1149,17 @@ public class EmployeeProfile {
         gbc.anchor = GridBagConstraints.WEST;
 
         // Get or create payroll record for this employee
-        PayrollRecord record = payrollRecords.get(employee.getEmployeeNumber());
+        PayrollRecord record = getPayrollRecord(employee.getEmployeeNumber());
         if (record == null) {
             // Initialize payroll record if it doesn't exist
             initializePayrollRecord(employee.getEmployeeNumber(), employee.getPosition(), 35000.0);
-            record = payrollRecords.get(employee.getEmployeeNumber());
+            record = getPayrollRecord(employee.getEmployeeNumber());
         }
         final PayrollRecord finalRecord = record;
 
         // Base Salary field
         JLabel salaryLabel = new JLabel("Base Salary:");
-        JTextField salaryField = new JTextField(String.valueOf(record.baseSalary), 15);
+        JTextField salaryField = new JTextField(Money.format(record.baseSalary), 15);
         gbc.gridx = 0;
         gbc.gridy = 0;
         mainPanel.add(salaryLabel, gbc);
@@ -863,7 +1176,7 @@ public class EmployeeProfile {
 
         // SSS rate field
         JLabel sssLabel = new JLabel("SSS Amount:");
-        JTextField sssField = new JTextField(String.format("₱%.2f", record.getSSSDeduction()), 15);
+        JTextField sssField = new JTextField("₱" + Money.format(record.getSSSDeduction()), 15);
         sssField.setEditable(false);
         gbc.gridx = 0;
         gbc.gridy++;
@@ -874,7 +1187,7 @@ public class EmployeeProfile {
 
         // PhilHealth rate field
         JLabel philHealthLabel = new JLabel("PhilHealth Amount:");
-        JTextField philHealthField = new JTextField(String.format("₱%.2f", record.getPhilHealthDeduction()), 15);
+        JTextField philHealthField = new JTextField("₱" + Money.format(record.getPhilHealthDeduction()), 15);
         philHealthField.setEditable(false);
         gbc.gridx = 0;
         gbc.gridy++;
@@ -884,7 +1197,7 @@ public class EmployeeProfile {
 
         // Pag-IBIG rate field
         JLabel pagIbigLabel = new JLabel("Pag-IBIG Amount:");
-        JTextField pagIbigField = new JTextField(String.format("₱%.2f", record.getPagIbigDeduction()), 15);
+        JTextField pagIbigField = new JTextField("₱" + Money.format(record.getPagIbigDeduction()), 15);
         pagIbigField.setEditable(false);
         gbc.gridx = 0;
         gbc.gridy++;
@@ -894,8 +1207,8 @@ public class EmployeeProfile {
 
         // Withholding tax field
         JLabel taxLabel = new JLabel("Withholding Tax (₱):");
-        double computedTax = calculateWithholdingTax(record.baseSalary, record.riceSubsidy, record.phoneAllowance, record.clothingAllowance);
-        JTextField taxField = new JTextField(String.format("%.2f", computedTax), 15);
+        long computedTax = calculateWithholdingTax(record.baseSalary, record.riceSubsidy, record.phoneAllowance, record.clothingAllowance);
+        JTextField taxField = new JTextField(Money.format(computedTax), 15);
         taxField.setEditable(false);
         gbc.gridx = 0;
         gbc.gridy++;
@@ -913,7 +1226,7 @@ public class EmployeeProfile {
 
         // Rice subsidy field
         JLabel riceLabel = new JLabel("Rice Subsidy:");
-        JTextField riceField = new JTextField(String.valueOf(record.riceSubsidy), 15);
+        JTextField riceField = new JTextField(Money.format(record.riceSubsidy), 15);
         gbc.gridx = 0;
         gbc.gridy++;
         gbc.gridwidth = 1;
@@ -923,7 +1236,7 @@ public class EmployeeProfile {
 
         // Phone allowance field
         JLabel phoneLabel = new JLabel("Phone Allowance:");
-        JTextField phoneField = new JTextField(String.valueOf(record.phoneAllowance), 15);
+        JTextField phoneField = new JTextField(Money.format(record.phoneAllowance), 15);
         gbc.gridx = 0;
         gbc.gridy++;
         mainPanel.add(phoneLabel, gbc);
@@ -932,7 +1245,7 @@ public class EmployeeProfile {
 
         // Clothing allowance field
         JLabel clothingLabel = new JLabel("Clothing Allowance:");
-        JTextField clothingField = new JTextField(String.valueOf(record.clothingAllowance), 15);
+        JTextField clothingField = new JTextField(Money.format(record.clothingAllowance), 15);
         gbc.gridx = 0;
         gbc.gridy++;
         mainPanel.add(clothingLabel, gbc);
@@ -963,27 +1276,23 @@ public class EmployeeProfile {
         saveButton.addActionListener(e -> {
             try {
                 // Update payroll record with new values
-                double baseSalary = Double.parseDouble(salaryField.getText());
-                double sssAmount = calculateSSSAmount(baseSalary);
-                double philHealthAmount = calculatePhilHealthAmount(baseSalary);
-                double pagIbigAmount = calculatePagIbigAmount(baseSalary);
-                float riceSubsidy = Float.parseFloat(riceField.getText());
-                float phoneAllowance = Float.parseFloat(phoneField.getText());
-                float clothingAllowance = Float.parseFloat(clothingField.getText());
-                double withHoldingTax = calculateWithholdingTax(baseSalary, riceSubsidy, phoneAllowance, clothingAllowance);
+                long baseSalary = Money.parse(salaryField.getText());
+                long sssAmount = calculateSSSAmount(baseSalary);
+                long philHealthAmount = calculatePhilHealthAmount(baseSalary);
+                long pagIbigAmount = calculatePagIbigAmount(baseSalary);
+                long riceSubsidy = Money.parse(riceField.getText());
+                long phoneAllowance = Money.parse(phoneField.getText());
+                long clothingAllowance = Money.parse(clothingField.getText());
+                long withHoldingTax = calculateWithholdingTax(baseSalary, riceSubsidy, phoneAllowance, clothingAllowance);
 
                 PayrollRecord newRecord = new PayrollRecord(
-                    baseSalary, sssAmount, philHealthAmount, pagIbigAmount, (float)withHoldingTax,
+                    baseSalary, sssAmount, philHealthAmount, pagIbigAmount, withHoldingTax,
                     riceSubsidy, phoneAllowance, clothingAllowance
                 );
-
-                payrollRecords.put(employee.getEmployeeNumber(), newRecord);
-                savePayrollRecordsToCSV();
-                loadPayrollRecordsFromCSV();
                 
-                // Update SalaryComputation class with the new data
-                SalaryComputation.PayrollData salaryData = new SalaryComputation.PayrollData(
-                    baseSalary, sssAmount, philHealthAmount, pagIbigAmount, (float)withHoldingTax,
+                // Update the shared payroll store with the new data
+                SalaryComputation.PayrollData salaryData = SalaryComputation.PayrollData.ofCentavos(
+                    baseSalary, sssAmount, philHealthAmount, pagIbigAmount, withHoldingTax,
                     riceSubsidy, phoneAllowance, clothingAllowance
                 );
                 SalaryComputation.updatePayrollData(employee.getEmployeeNumber(), salaryData);
@@ -1014,57 +1323,49 @@ public class EmployeeProfile {
      */
     private static void updateSummaryArea(JTextArea summaryArea, PayrollRecord record) {
         StringBuilder summary = new StringBuilder();
-        summary.append("Base Salary: ₱").append(String.format("%.2f", record.baseSalary)).append("\n");
-        summary.append("Total Deductions: ₱").append(String.format("%.2f", record.calculateTotalDeductions())).append("\n");
-        summary.append("  - SSS: ₱").append(String.format("%.2f", record.getSSSDeduction())).append("\n");
-        summary.append("  - PhilHealth: ₱").append(String.format("%.2f", record.getPhilHealthDeduction())).append("\n");
-        summary.append("  - Pag-IBIG: ₱").append(String.format("%.2f", record.getPagIbigDeduction())).append("\n");
-        summary.append("  - Tax: ₱").append(String.format("%.2f", record.getTaxDeduction())).append("\n");
-        summary.append("Total Allowances: ₱").append(String.format("%.2f", record.calculateTotalAllowances())).append("\n");
-        summary.append("  - Rice: ₱").append(String.format("%.2f", record.riceSubsidy)).append("\n");
-        summary.append("  - Phone: ₱").append(String.format("%.2f", record.phoneAllowance)).append("\n");
-        summary.append("  - Clothing: ₱").append(String.format("%.2f", record.clothingAllowance)).append("\n");
-        summary.append("Net Salary: ₱").append(String.format("%.2f", record.calculateNetSalary()));
+        summary.append("Base Salary: ₱").append(Money.format(record.baseSalary)).append("\n");
+        summary.append("Total Deductions: ₱").append(Money.format(record.calculateTotalDeductions())).append("\n");
+        summary.append("  - SSS: ₱").append(Money.format(record.getSSSDeduction())).append("\n");
+        summary.append("  - PhilHealth: ₱").append(Money.format(record.getPhilHealthDeduction())).append("\n");
+        summary.append("  - Pag-IBIG: ₱").append(Money.format(record.getPagIbigDeduction())).append("\n");
+        summary.append("  - Tax: ₱").append(Money.format(record.getTaxDeduction())).append("\n");
+        summary.append("Total Allowances: ₱").append(Money.format(record.calculateTotalAllowances())).append("\n");
+        summary.append("  - Rice: ₱").append(Money.format(record.riceSubsidy)).append("\n");
+        summary.append("  - Phone: ₱").append(Money.format(record.phoneAllowance)).append("\n");
+        summary.append("  - Clothing: ₱").append(Money.format(record.clothingAllowance)).append("\n");
+        summary.append("Net Salary: ₱").append(Money.format(record.calculateNetSalary()));
         
         summaryArea.setText(summary.toString());
     }
 
     /**
-     * Calculates SSS amount based on salary brackets.
+     * Calculates SSS amount with the contribution table in force today.
      *
-     * @param baseSalary The base salary
-     * @return The SSS contribution amount
+     * @param baseSalary The base salary in centavos
+     * @return The SSS contribution amount in centavos
      */
-    private static double calculateSSSAmount(double baseSalary) {
-        for (double[] bracket : SSS_BRACKETS) {
-            if (baseSalary >= bracket[0] && baseSalary <= bracket[1]) {
-                return bracket[2];
-            }
-        }
-        // If above the highest bracket, use the highest rate
-        return 1675;
+    private static long calculateSSSAmount(long baseSalary) {
+        return ContributionRules.current().sss(baseSalary);
     }
 
     /**
-     * Calculates PhilHealth amount with 5% rate, min ₱500, max ₱5000.
+     * Calculates PhilHealth amount with the table in force today (5% rate, min ₱500, max ₱5000).
      *
-     * @param baseSalary The base salary
-     * @return The PhilHealth contribution amount
+     * @param baseSalary The base salary in centavos
+     * @return The PhilHealth contribution amount in centavos
      */
-    private static double calculatePhilHealthAmount(double baseSalary) {
-        double philHealthAmount = baseSalary * 0.05; // 5% rate
-        return Math.max(500.0, Math.min(philHealthAmount, 5000.0)); // Min ₱500, Max ₱5000
+    private static long calculatePhilHealthAmount(long baseSalary) {
+        return ContributionRules.current().philHealth(baseSalary);
     }
 
     /**
-     * Calculates Pag-IBIG amount with 2% rate, capped at ₱200.
+     * Calculates Pag-IBIG amount with the table in force today (2% rate, capped at ₱200).
      *
-     * @param baseSalary The base salary
-     * @return The Pag-IBIG contribution amount
+     * @param baseSalary The base salary in centavos
+     * @return The Pag-IBIG contribution amount in centavos
      */
-    private static double calculatePagIbigAmount(double baseSalary) {
-        double pagIbigAmount = baseSalary * 0.02; // 2% rate
-        return Math.min(pagIbigAmount, 200.0); // Cap at ₱200
+    private static long calculatePagIbigAmount(long baseSalary) {
+        return ContributionRules.current().pagIbig(baseSalary);
     }
 
     /**
@@ -1077,39 +1378,28 @@ public class EmployeeProfile {
      */
     private static void initializePayrollRecord(String employeeId, String position, double baseSalary) {
         // Only create record if it doesn't exist
-        if (!payrollRecords.containsKey(employeeId)) {
+        if (!PayrollStore.contains(employeeId)) {
             // Calculate amounts using new rules
-            double sssAmount = calculateSSSAmount(baseSalary);
-            double philHealthAmount = calculatePhilHealthAmount(baseSalary);
-            double pagIbigAmount = calculatePagIbigAmount(baseSalary);
-            float withHoldingTax = 0.15f; // 15% (default)
+            long baseCentavos = Money.ofPesos(baseSalary);
+            long sssAmount = calculateSSSAmount(baseCentavos);
+            long philHealthAmount = calculatePhilHealthAmount(baseCentavos);
+            long pagIbigAmount = calculatePagIbigAmount(baseCentavos);
             
             // Default allowances
-            float riceSubsidy = 1500;
-            float phoneAllowance = 1000;
-            float clothingAllowance = 800;
+            long riceSubsidy = Money.ofPesos(1500);
+            long phoneAllowance = Money.ofPesos(1000);
+            long clothingAllowance = Money.ofPesos(800);
 
-            // Adjust rates based on position
+            // Adjust allowances based on position
             if (position.equalsIgnoreCase("Manager")) {
-                withHoldingTax = 0.12f;
-                phoneAllowance = 800;
-                clothingAllowance = 600;
-            } else if (position.equalsIgnoreCase("HR")) {
-                withHoldingTax = 0.12f;
+                phoneAllowance = Money.ofPesos(800);
+                clothingAllowance = Money.ofPesos(600);
             }
+            long withHoldingTax = calculateWithholdingTax(baseCentavos, riceSubsidy, phoneAllowance, clothingAllowance);
 
             // Create and store new payroll record
-            PayrollRecord record = new PayrollRecord(
-                baseSalary, 
-                sssAmount, philHealthAmount, pagIbigAmount, withHoldingTax,
-                riceSubsidy, phoneAllowance, clothingAllowance
-            );
-            
-            payrollRecords.put(employeeId, record);
-            
-            // Also update SalaryComputation class
-            SalaryComputation.PayrollData salaryData = new SalaryComputation.PayrollData(
-                baseSalary, sssAmount, philHealthAmount, pagIbigAmount, withHoldingTax,
+            SalaryComputation.PayrollData salaryData = SalaryComputation.PayrollData.ofCentavos(
+                baseCentavos, sssAmount, philHealthAmount, pagIbigAmount, withHoldingTax,
                 riceSubsidy, phoneAllowance, clothingAllowance
             );
             SalaryComputation.updatePayrollData(employeeId, salaryData);
@@ -1118,99 +1408,56 @@ public class EmployeeProfile {
 
     /**
      * Initializes sample payroll data for demonstration purposes.
+     * All sample records are stored with a single save.
      */
     private static void initializeSamplePayrollData() {
-        payrollRecords.put("1001", new PayrollRecord(35000, 
-            1575.0, 1750.0, 200.0, 0.15f, 1500, 1000, 800));
-        
-        payrollRecords.put("1002", new PayrollRecord(60000, 
-            1575.0, 3000.0, 200.0, 0.12f, 1500, 800, 600));
-            
-        // Also update SalaryComputation class with the same data
-        SalaryComputation.PayrollData data1 = new SalaryComputation.PayrollData(
-            35000, 1575.0, 1750.0, 200.0, 0.15f, 1500, 1000, 800
-        );
-        SalaryComputation.updatePayrollData("1001", data1);
-        
-        SalaryComputation.PayrollData data2 = new SalaryComputation.PayrollData(
-            60000, 1575.0, 3000.0, 200.0, 0.12f, 1500, 800, 600
-        );
-        SalaryComputation.updatePayrollData("1002", data2);
+        Map<String, SalaryComputation.PayrollData> samples = new HashMap<>();
+        samples.put("1001", samplePayrollData(35000, 1575, 1750, 200, 1500, 1000, 800));
+        samples.put("1002", samplePayrollData(60000, 1575, 3000, 200, 1500, 800, 600));
+        PayrollStore.putAll(samples);
     }
 
     /**
-     * Loads payroll records from the payroll_records.csv file into memory.
-     * Ensures that all payroll data is loaded into the payrollRecords map.
-     * Handles missing or malformed files gracefully.
+     * Creates a sample payroll record whose withholding tax is computed from its amounts.
+     *
+     * @param baseSalary The base salary in pesos
+     * @param sssAmount The SSS contribution in pesos
+     * @param philHealthAmount The PhilHealth contribution in pesos
+     * @param pagIbigAmount The Pag-IBIG contribution in pesos
+     * @param riceSubsidy The rice subsidy in pesos
+     * @param phoneAllowance The phone allowance in pesos
+     * @param clothingAllowance The clothing allowance in pesos
+     * @return The payroll data in centavos
      */
-    private static void loadPayrollRecordsFromCSV() {
-        if (!Files.exists(Paths.get(PAYROLL_CSV_FILE))) {
-            return;
-        }
-
-        try (BufferedReader reader = Files.newBufferedReader(Paths.get(PAYROLL_CSV_FILE))) {
-            reader.readLine(); // Skip header line
-
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",");
-                if (data.length >= 8) {
-                    String employeeId = data[0];
-                    double baseSalary = Double.parseDouble(data[1]);
-                    double sssAmount = Double.parseDouble(data[2]);
-                    double philHealthAmount = Double.parseDouble(data[3]);
-                    double pagIbigAmount = Double.parseDouble(data[4]);
-                    float withHoldingTax = Float.parseFloat(data[5]);
-                    float riceSubsidy = Float.parseFloat(data[6]);
-                    float phoneAllowance = Float.parseFloat(data[7]);
-                    float clothingAllowance = Float.parseFloat(data[8]);
-                    
-                    payrollRecords.put(employeeId, new PayrollRecord(
-                        baseSalary, sssAmount, philHealthAmount, pagIbigAmount, withHoldingTax,
-                        riceSubsidy, phoneAllowance, clothingAllowance
-                    ));
-                    
-                    // Also update SalaryComputation class
-                    SalaryComputation.PayrollData salaryData = new SalaryComputation.PayrollData(
-                        baseSalary, sssAmount, philHealthAmount, pagIbigAmount, withHoldingTax,
-                        riceSubsidy, phoneAllowance, clothingAllowance
-                    );
-                    SalaryComputation.updatePayrollData(employeeId, salaryData);
-                }
-            }
-        } catch (IOException e) {
-            JOptionPane.showMessageDialog(null, "Error loading payroll records: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+    private static SalaryComputation.PayrollData samplePayrollData(long baseSalary, long sssAmount, long philHealthAmount,
+                                                                   long pagIbigAmount, long riceSubsidy, long phoneAllowance,
+                                                                   long clothingAllowance) {
+        long base = Money.ofPesos(baseSalary);
+        long rice = Money.ofPesos(riceSubsidy);
+        long phone = Money.ofPesos(phoneAllowance);
+        long clothing = Money.ofPesos(clothingAllowance);
+        return SalaryComputation.PayrollData.ofCentavos(
+            base, Money.ofPesos(sssAmount), Money.ofPesos(philHealthAmount), Money.ofPesos(pagIbigAmount),
+            calculateWithholdingTax(base, rice, phone, clothing), rice, phone, clothing
+        );
     }
 
     /**
-     * Saves all payroll records to the payroll_records.csv file.
-     * Writes the current state of payrollRecords map to disk.
-     * Handles file I/O errors gracefully.
+     * Gets the payroll record for an employee from the shared payroll store.
+     *
+     * @param employeeId The employee's ID
+     * @return The PayrollRecord for the employee, or null if none exists
      */
-    private static void savePayrollRecordsToCSV() {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(PAYROLL_CSV_FILE))) {
-            // Write CSV header
-            writer.println("EmployeeID,BaseSalary,SSSAmount,PhilHealthAmount,PagIBIGAmount,WithholdingTax,RiceSubsidy,PhoneAllowance,ClothingAllowance");
-            // Write each record
-            for (Map.Entry<String, PayrollRecord> entry : payrollRecords.entrySet()) {
-                PayrollRecord record = entry.getValue();
-                double computedTax = calculateWithholdingTax(record.baseSalary, record.riceSubsidy, record.phoneAllowance, record.clothingAllowance);
-                writer.println(String.join(",",
-                    entry.getKey(),
-                    String.valueOf(record.baseSalary),
-                    String.valueOf(record.getSSSDeduction()),
-                    String.valueOf(record.getPhilHealthDeduction()),
-                    String.valueOf(record.getPagIbigDeduction()),
-                    String.format("%.2f", computedTax),
-                    String.valueOf(record.riceSubsidy),
-                    String.valueOf(record.phoneAllowance),
-                    String.valueOf(record.clothingAllowance)
-                ));
-            }
-        } catch (IOException e) {
-            JOptionPane.showMessageDialog(null, "Error saving payroll records: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+    private static PayrollRecord getPayrollRecord(String employeeId) {
+        SalaryComputation.PayrollData data = PayrollStore.get(employeeId);
+        if (data == null) {
+            return null;
         }
+        return new PayrollRecord(
+            data.getBaseSalary(),
+            data.getSSSDeduction(), data.getPhilHealthDeduction(), data.getPagIbigDeduction(), data.getWithholdingTax(),
+            data.getRiceSubsidy(), data.getPhoneAllowance(), data.getClothingAllowance()
+        );
     }
 
     /**
@@ -1359,27 +1606,19 @@ public class EmployeeProfile {
                 saveEmployeesToCSV();
 
                 // Initialize payroll record for new employee with custom allowances
-                double baseSalary = Double.parseDouble(salaryField.getText());
-                float riceSubsidy = Float.parseFloat(riceSubsidyField.getText());
-                float phoneAllowance = Float.parseFloat(phoneAllowanceField.getText());
-                float clothingAllowance = Float.parseFloat(clothingAllowanceField.getText());
-                double sssAmount = calculateSSSAmount(baseSalary);
-                double philHealthAmount = calculatePhilHealthAmount(baseSalary);
-                double pagIbigAmount = calculatePagIbigAmount(baseSalary);
-                float withHoldingTax = 0.15f;
-                String position = positionField.getText();
-                if (position.equalsIgnoreCase("Manager")) {
-                    withHoldingTax = 0.12f;
-                } else if (position.equalsIgnoreCase("HR")) {
-                    withHoldingTax = 0.12f;
-                }
-                PayrollRecord record = new PayrollRecord(
-                    baseSalary, sssAmount, philHealthAmount, pagIbigAmount, (float)withHoldingTax,
+                long baseSalary = Money.parse(salaryField.getText());
+                long riceSubsidy = Money.parse(riceSubsidyField.getText());
+                long phoneAllowance = Money.parse(phoneAllowanceField.getText());
+                long clothingAllowance = Money.parse(clothingAllowanceField.getText());
+                long sssAmount = calculateSSSAmount(baseSalary);
+                long philHealthAmount = calculatePhilHealthAmount(baseSalary);
+                long pagIbigAmount = calculatePagIbigAmount(baseSalary);
+                long withHoldingTax = calculateWithholdingTax(baseSalary, riceSubsidy, phoneAllowance, clothingAllowance);
+                SalaryComputation.PayrollData salaryData = SalaryComputation.PayrollData.ofCentavos(
+                    baseSalary, sssAmount, philHealthAmount, pagIbigAmount, withHoldingTax,
                     riceSubsidy, phoneAllowance, clothingAllowance
                 );
-                payrollRecords.put(newEmployee.getEmployeeNumber(), record);
-                savePayrollRecordsToCSV();
-                loadPayrollRecordsFromCSV();
+                SalaryComputation.updatePayrollData(newEmployee.getEmployeeNumber(), salaryData);
                 
                 updateEmployeeTable();
                 newEmpFrame.dispose();
@@ -1442,65 +1681,158 @@ public class EmployeeProfile {
     }
 
     /**
-     * Loads employee data from the employees.csv file into memory.
+     * Loads employee data from the selected storage backend into memory.
      * Ensures that all employee data is loaded into the employees list.
-     * Handles missing or malformed files gracefully.
+     * Handles missing or malformed data gracefully.
      */
-    private static void loadEmployeesFromCSV() {
+    private static void loadEmployees() {
         employees.clear();
-        if (!Files.exists(Paths.get(EMPLOYEES_CSV_FILE))) {
-            return;
+        try {
+            employees.addAll(Repositories.employees().loadAll());
+            savedSignatures = RecordMerge.signatures(byEmployeeNumber(employees), EmployeeProfile::signature);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(null, "Error loading employees: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
+    }
 
-        try (BufferedReader reader = Files.newBufferedReader(Paths.get(EMPLOYEES_CSV_FILE))) {
-            // Skip header line
-            reader.readLine();
-
-            String line;
-            while ((line = reader.readLine()) != null) {
-                // Split line while handling quoted commas
-                String[] data = line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)", -1);
-                if (data.length >= 11) {
-                    employees.add(new Employee(
-                        data[0], data[1], data[2], data[3], data[4], 
-                        data[5], data[6], data[7], data[8], data[9], data[10]
-                    ));
+    /**
+     * Saves all employee data through the storage backend.
+     * The write is deferred to FlushScheduler, so several edits in a row cost one write.
+     */
+    private static void saveEmployeesToCSV() {
+        FlushScheduler.markDirty(employeeStore);
+    }
+
+    /**
+     * Writes the current state of the employees list through the storage backend.
+     * If another instance saved first, its changes are merged in and the save is retried.
+     * Called on the flush thread by FlushScheduler.
+     *
+     * @throws IOException If the employees cannot be written
+     */
+    private static void writeEmployees() throws IOException {
+        synchronized (saveLock) {
+            for (int attempt = 1; ; attempt++) {
+                List<Employee> snapshot = getAllEmployees();
+                Map<String, String> saved = RecordMerge.signatures(byEmployeeNumber(snapshot), EmployeeProfile::signature);
+                try {
+                    Repositories.employees().saveAll(snapshot);
+                    synchronized (employees) {
+                        savedSignatures = saved;
+                    }
+                    return;
+                } catch (SharedFileLock.StaleDataException e) {
+                    if (attempt == MAX_SAVE_ATTEMPTS) {
+                        throw e;
+                    }
+                    mergeSavedChanges(Repositories.employees().loadAll());
                 }
             }
-        } catch (IOException e) {
-            JOptionPane.showMessageDialog(null, "Error loading employees: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
     /**
-     * Saves all employee data to the employees.csv file.
-     * Writes the current state of employees list to disk.
-     * Handles file I/O errors gracefully.
+     * Merges employees saved by other instances sharing the data, if any were saved since
+     * this instance last loaded or saved them. Runs on the watcher thread; unsaved local edits are kept.
+     *
+     * @throws IOException If the employees cannot be read
      */
-    private static void saveEmployeesToCSV() {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(EMPLOYEES_CSV_FILE))) {
-            // Write CSV header
-            writer.println("EmployeeNumber,LastName,FirstName,SSS,PhilHealth,TIN,PagIBIG,Email,Position,Address,Phone");
-            for (Employee emp : employees) {
-                writer.println(String.join(",",
-                    emp.getEmployeeNumber(),
-                    emp.getLastName(),
-                    emp.getFirstName(),
-                    emp.getSssNumber(),
-                    emp.getPhilHealthNumber(),
-                    emp.getTin(),
-                    emp.getPagIbigNumber(),
-                    emp.getEmail(),
-                    emp.getPosition(),
-                    emp.getAddress(),
-                    emp.getPhone()
-                ));
+    private static void applyExternalChanges() throws IOException {
+        synchronized (saveLock) {
+            if (Repositories.employees().hasExternalChanges()) {
+                mergeSavedChanges(Repositories.employees().loadAll());
             }
-        } catch (IOException e) {
-            JOptionPane.showMessageDialog(null, "Error saving employees: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
+    /**
+     * Merges employees saved by another instance into the employees list and updates their table rows.
+     * Employees changed both here and there keep the saved version, and the user is told so.
+     *
+     * @param diskEmployees The employees now in storage
+     */
+    private static void mergeSavedChanges(List<Employee> diskEmployees) {
+        Map<String, Employee> disk = byEmployeeNumber(diskEmployees);
+        List<String> rejected;
+        Map<String, Employee> changed = new LinkedHashMap<>();
+        synchronized (employees) {
+            Map<String, Employee> before = byEmployeeNumber(employees);
+            Map<String, Employee> merged = new LinkedHashMap<>(before);
+            rejected = RecordMerge.merge(merged, savedSignatures, disk, EmployeeProfile::signature);
+            employees.clear();
+            employees.addAll(merged.values());
+            savedSignatures = RecordMerge.signatures(disk, EmployeeProfile::signature);
+
+            Set<String> ids = new LinkedHashSet<>(before.keySet());
+            ids.addAll(merged.keySet());
+            for (String id : ids) {
+                Employee old = before.get(id);
+                Employee now = merged.get(id);
+                if (old == null || now == null || !signature(old).equals(signature(now))) {
+                    changed.put(id, now);
+                }
+            }
+        }
+        if (changed.isEmpty() && rejected.isEmpty()) {
+            return;
+        }
+
+        SwingUtilities.invokeLater(() -> {
+            if (tableModel != null) {
+                updateEmployeeRows(changed);
+            }
+            if (!rejected.isEmpty()) {
+                JOptionPane.showMessageDialog(null,
+                    "Another user saved changes to employees " + rejected + " first.\nYour changes to them were not saved.",
+                    "Employees Changed", JOptionPane.WARNING_MESSAGE);
+            }
+        });
+    }
+
+    /**
+     * Tells the user that their payroll changes to some employees were discarded because another user
+     * saved those records first. Called by PayrollStore on the flush or watcher thread.
+     *
+     * @param rejected The employee IDs whose payroll changes were not saved
+     */
+    private static void showRejectedPayrollChanges(List<String> rejected) {
+        SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null,
+            "Another user saved payroll changes to employees " + rejected + " first.\nYour changes to them were not saved.",
+            "Payroll Changed", JOptionPane.WARNING_MESSAGE));
+    }
+
+    /**
+     * Keys employees by employee number, keeping their order.
+     *
+     * @param list The employees
+     * @return Map of employee number -> employee
+     */
+    private static Map<String, Employee> byEmployeeNumber(List<Employee> list) {
+        Map<String, Employee> map = new LinkedHashMap<>();
+        synchronized (list) {
+            for (Employee emp : list) {
+                map.put(emp.getEmployeeNumber(), emp);
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Builds the text compared when merging an employee, holding every saved field.
+     *
+     * @param emp The employee
+     * @return The signature
+     */
+    private static String signature(Employee emp) {
+        return String.join(",",
+            CsvReader.escape(emp.getEmployeeNumber()), CsvReader.escape(emp.getLastName()),
+            CsvReader.escape(emp.getFirstName()), CsvReader.escape(emp.getSssNumber()),
+            CsvReader.escape(emp.getPhilHealthNumber()), CsvReader.escape(emp.getTin()),
+            CsvReader.escape(emp.getPagIbigNumber()), CsvReader.escape(emp.getEmail()),
+            CsvReader.escape(emp.getPosition()), CsvReader.escape(emp.getAddress()),
+            CsvReader.escape(emp.getPhone()));
+    }
+
     /**
      * Adds sample employee data if the system is empty.
      */
@@ -1526,48 +1858,33 @@ public class EmployeeProfile {
     }
 
     /**
-     * Calculates withholding tax based on the latest government table.
+     * Checks whether an employee number belongs to a current employee, without copying the list.
      *
-     * @param baseSalary The base salary
-     * @param riceSubsidy The rice subsidy
-     * @param phoneAllowance The phone allowance
-     * @param clothingAllowance The clothing allowance
-     * @return The computed withholding tax
+     * @param employeeNumber The employee number
+     * @return true if an employee has that number
      */
-    private static double calculateWithholdingTax(double baseSalary, double riceSubsidy, double phoneAllowance, double clothingAllowance) {
-        double netTaxableComp = baseSalary + phoneAllowance + riceSubsidy + clothingAllowance;
-        double subtrahend = 0;
-        double percent = 0;
-        double addend = 0;
-
-        if (netTaxableComp <= 20833) {
-            subtrahend = 0;
-            percent = 0;
-            addend = 0;
-        } else if (netTaxableComp <= 33332) {
-            subtrahend = 20833;
-            percent = 0.20;
-            addend = 0;
-        } else if (netTaxableComp <= 66666) {
-            subtrahend = 33333;
-            percent = 0.25;
-            addend = 2500.00;
-        } else if (netTaxableComp <= 166666) {
-            subtrahend = 66667;
-            percent = 0.30;
-            addend = 10833.33;
-        } else if (netTaxableComp <= 666666) {
-            subtrahend = 166667;
-            percent = 0.32;
-            addend = 40833.33;
-        } else {
-            subtrahend = 666667;
-            percent = 0.35;
-            addend = 200833.33;
+    public static boolean isEmployee(String employeeNumber) {
+        synchronized (employees) {
+            for (Employee employee : employees) {
+                if (employee.getEmployeeNumber().equals(employeeNumber)) {
+                    return true;
+                }
+            }
         }
-        double taxExcess = netTaxableComp - subtrahend;
-        if (taxExcess < 0) taxExcess = 0;
-        return (taxExcess * percent) + addend;
+        return false;
+    }
+
+    /**
+     * Calculates withholding tax with the tax table in force today.
+     *
+     * @param baseSalary The base salary in centavos
+     * @param riceSubsidy The rice subsidy in centavos
+     * @param phoneAllowance The phone allowance in centavos
+     * @param clothingAllowance The clothing allowance in centavos
+     * @return The computed withholding tax in centavos
+     */
+    private static long calculateWithholdingTax(long baseSalary, long riceSubsidy, long phoneAllowance, long clothingAllowance) {
+        return ContributionRules.current().withholdingTax(baseSalary + phoneAllowance + riceSubsidy + clothingAllowance);
     }
 
     /**
@@ -1630,31 +1947,32 @@ public class EmployeeProfile {
 
     /**
      * Inner class representing a payroll record with all salary components.
+     * Every amount is held in whole centavos (see Money).
      */
     static class PayrollRecord {
-        private double baseSalary;
-        private double sssAmount;
-        private double philHealthAmount;
-        private double pagIbigAmount;
-        private float withHoldingTax;
-        private float riceSubsidy;
-        private float phoneAllowance;
-        private float clothingAllowance;
+        private long baseSalary;
+        private long sssAmount;
+        private long philHealthAmount;
+        private long pagIbigAmount;
+        private long withHoldingTax;
+        private long riceSubsidy;
+        private long phoneAllowance;
+        private long clothingAllowance;
 
         /**
          * Creates a new payroll record
-         * @param baseSalary The base salary amount
-         * @param sssAmount SSS contribution amount (computed)
-         * @param philHealthAmount PhilHealth contribution amount (computed)
-         * @param pagIbigAmount Pag-IBIG contribution amount (computed)
-         * @param withHoldingTax Tax withholding rate
-         * @param riceSubsidy Rice allowance amount
-         * @param phoneAllowance Phone allowance amount
-         * @param clothingAllowance Clothing allowance amount
+         * @param baseSalary The base salary amount in centavos
+         * @param sssAmount SSS contribution amount (computed) in centavos
+         * @param philHealthAmount PhilHealth contribution amount (computed) in centavos
+         * @param pagIbigAmount Pag-IBIG contribution amount (computed) in centavos
+         * @param withHoldingTax Withholding tax as stored with the record, in centavos
+         * @param riceSubsidy Rice allowance amount in centavos
+         * @param phoneAllowance Phone allowance amount in centavos
+         * @param clothingAllowance Clothing allowance amount in centavos
          */
-        public PayrollRecord(double baseSalary, 
-                           double sssAmount, double philHealthAmount, double pagIbigAmount, float withHoldingTax,
-                           float riceSubsidy, float phoneAllowance, float clothingAllowance) {
+        public PayrollRecord(long baseSalary, 
+                           long sssAmount, long philHealthAmount, long pagIbigAmount, long withHoldingTax,
+                           long riceSubsidy, long phoneAllowance, long clothingAllowance) {
             this.baseSalary = baseSalary;
             this.sssAmount = sssAmount;
             this.philHealthAmount = philHealthAmount;
@@ -1666,33 +1984,26 @@ public class EmployeeProfile {
         }
 
         // Deduction calculation methods with new rules
-        public double getSSSDeduction() { 
-            for (double[] bracket : SSS_BRACKETS) {
-                if (baseSalary >= bracket[0] && baseSalary <= bracket[1]) {
-                    return bracket[2];
-                }
-            }
-            return 1675;
+        public long getSSSDeduction() { 
+            return calculateSSSAmount(baseSalary);
         }
-        public double getPhilHealthDeduction() { 
-            double philHealthAmount = baseSalary * 0.05; // 5% rate
-            return Math.max(500.0, Math.min(philHealthAmount, 5000.0)); // Min ₱500, Max ₱5000
+        public long getPhilHealthDeduction() { 
+            return calculatePhilHealthAmount(baseSalary);
         }
-        public double getPagIbigDeduction() { 
-            double pagIbigAmount = baseSalary * 0.02; // 2% rate
-            return Math.min(pagIbigAmount, 200.0); // Cap at ₱200
+        public long getPagIbigDeduction() { 
+            return calculatePagIbigAmount(baseSalary);
         }
-        public double getTaxDeduction() { 
+        public long getTaxDeduction() { 
             return calculateWithholdingTax(baseSalary, riceSubsidy, phoneAllowance, clothingAllowance);
         }
-        public double calculateTotalDeductions() {
+        public long calculateTotalDeductions() {
             return getSSSDeduction() + getPhilHealthDeduction() + 
                    getPagIbigDeduction() + getTaxDeduction();
         }
-        public double calculateTotalAllowances() {
+        public long calculateTotalAllowances() {
             return riceSubsidy + phoneAllowance + clothingAllowance;
         }
-        public double calculateNetSalary() {
+        public long calculateNetSalary() {
             return baseSalary - calculateTotalDeductions() + calculateTotalAllowances();
         }
     }
@@ -0,0 +1,345 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FlushScheduler class handles write-behind saving for all CSV-backed data stores
+ * Collects stores marked dirty, writes each one at most once per flush interval on a
+ * background thread, and flushes whatever is still pending when the application exits
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class FlushScheduler {
+    // Changes made within this window are written together by one flush
+    private static final long FLUSH_INTERVAL_MS = 500;
+
+    // A store that keeps failing is retried after twice the previous wait, up to this long
+    private static final long MAX_RETRY_DELAY_MS = 60_000;
+
+    // Stores waiting to be written, in the order they were first marked dirty
+    private static final Set<Store> dirtyStores = new LinkedHashSet<>();
+    private static boolean flushScheduled;
+
+    // Stores whose last write failed, with their failure count and next attempt time
+    private static final Map<Store, Retry> retries = new HashMap<>();
+
+    // Tags temporary files so instances sharing the data folder never write the same one
+    private static final String INSTANCE_ID = UUID.randomUUID().toString().substring(0, 8);
+
+    // Held while stores are being written so a shutdown flush waits for a running one
+    private static final Object flushLock = new Object();
+
+    private static final ScheduledExecutorService flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "csv-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Flush statistics
+    private static long flushCount;
+    private static long totalFlushNanos;
+    private static long lastFlushNanos;
+    private static long maxFlushNanos;
+    private static int failedFlushes;
+
+    // Write any pending changes before the JVM exits
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(FlushScheduler::flushAll, "csv-flush-shutdown"));
+    }
+
+    /**
+     * A data store that can write its full contents to disk.
+     */
+    public interface Store {
+        /**
+         * Gets a short name for the store, used in status reports and error messages.
+         *
+         * @return The store name
+         */
+        String getName();
+
+        /**
+         * Writes the current contents of the store to disk.
+         * Called on the flush thread, so implementations must take their own snapshot
+         * of any data that the Swing thread may be changing.
+         *
+         * @throws IOException If the store cannot be written
+         */
+        void flush() throws IOException;
+    }
+
+    /**
+     * Writes the contents of a file through a BufferedWriter.
+     */
+    public interface ContentWriter {
+        /**
+         * Writes the file contents.
+         *
+         * @param writer The writer for the file
+         * @throws IOException If the contents cannot be written
+         */
+        void write(BufferedWriter writer) throws IOException;
+    }
+
+    /**
+     * The consecutive failures of a store and when it is next written.
+     */
+    private static class Retry {
+        int failures;
+        long dueNanos;
+    }
+
+    /**
+     * Marks a store as changed.
+     * The store is written once when the current flush interval ends, no matter how
+     * many times it is marked dirty before then.
+     *
+     * @param store The store that changed
+     */
+    public static synchronized void markDirty(Store store) {
+        dirtyStores.add(store);
+        if (!flushScheduled) {
+            flushScheduled = true;
+            flushExecutor.schedule(FlushScheduler::flushDueStores, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes every dirty store immediately on the calling thread, including stores waiting to retry a failed write.
+     * Used on shutdown and whenever data must be on disk before continuing.
+     */
+    public static void flushAll() {
+        flushDirtyStores(true);
+    }
+
+    /**
+     * Gets the number of stores waiting to be written.
+     *
+     * @return The flush queue depth
+     */
+    public static synchronized int getQueueDepth() {
+        return dirtyStores.size();
+    }
+
+    /**
+     * Gets the number of store writes completed so far.
+     *
+     * @return The flush count
+     */
+    public static synchronized long getFlushCount() {
+        return flushCount;
+    }
+
+    /**
+     * Gets the duration of the most recent store write.
+     *
+     * @return The latency in milliseconds
+     */
+    public static synchronized double getLastFlushMillis() {
+        return lastFlushNanos / 1_000_000.0;
+    }
+
+    /**
+     * Gets the average duration of a store write.
+     *
+     * @return The average latency in milliseconds
+     */
+    public static synchronized double getAverageFlushMillis() {
+        return flushCount == 0 ? 0 : totalFlushNanos / 1_000_000.0 / flushCount;
+    }
+
+    /**
+     * Gets the longest duration of a store write.
+     *
+     * @return The maximum latency in milliseconds
+     */
+    public static synchronized double getMaxFlushMillis() {
+        return maxFlushNanos / 1_000_000.0;
+    }
+
+    /**
+     * Builds a one-line summary of the flush statistics.
+     *
+     * @return Summary of queue depth, flush count, failures and latency
+     */
+    public static synchronized String getStatusSummary() {
+        return String.format("Pending: %d | Flushes: %d | Failed: %d (%d stores retrying) | Last: %.1f ms | Avg: %.1f ms | Max: %.1f ms",
+            dirtyStores.size(), flushCount, failedFlushes, retries.size(),
+            getLastFlushMillis(), getAverageFlushMillis(), getMaxFlushMillis());
+    }
+
+    /**
+     * Writes a file by writing a temporary file next to it and renaming it over the original.
+     * Readers therefore see either the old or the new file, never a partially written one.
+     *
+     * @param file The file to replace
+     * @param content Callback that writes the new contents
+     * @throws IOException If the file cannot be written
+     */
+    public static void writeAtomically(Path file, ContentWriter content) throws IOException {
+        moveIntoPlace(writeTempFile(file, content), file);
+    }
+
+    /**
+     * Writes the new contents of a file to a temporary file next to it.
+     * The temporary file name is unique to this instance.
+     *
+     * @param file The file the contents are meant for
+     * @param content Callback that writes the new contents
+     * @return The temporary file, to be moved into place with moveIntoPlace or SharedFileLock.commit
+     * @throws IOException If the temporary file cannot be written
+     */
+    public static Path writeTempFile(Path file, ContentWriter content) throws IOException {
+        Path tempFile = tempFileFor(file);
+        try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+            content.write(writer);
+        }
+        return tempFile;
+    }
+
+    /**
+     * Writes a binary file through a temporary file, like the text version of writeAtomically.
+     *
+     * @param file The file to replace
+     * @param content The new file contents
+     * @throws IOException If the file cannot be written
+     */
+    public static void writeAtomically(Path file, byte[] content) throws IOException {
+        Path tempFile = tempFileFor(file);
+        Files.write(tempFile, content);
+        moveIntoPlace(tempFile, file);
+    }
+
+    /**
+     * Gets the temporary file this instance writes before replacing a file.
+     *
+     * @param file The file to replace
+     * @return The temporary file next to it
+     */
+    private static Path tempFileFor(Path file) {
+        return file.resolveSibling(file.getFileName() + "." + INSTANCE_ID + ".tmp");
+    }
+
+    /**
+     * Renames a fully written temporary file over the target file.
+     *
+     * @param tempFile The temporary file
+     * @param file The file to replace
+     * @throws IOException If the file cannot be moved
+     */
+    static void moveIntoPlace(Path tempFile, Path file) throws IOException {
+        try {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Writes the dirty stores that are due.
+     * Runs on the flush thread when the flush interval ends.
+     */
+    private static void flushDueStores() {
+        flushDirtyStores(false);
+    }
+
+    /**
+     * Takes the dirty stores that are due and writes each of them once.
+     * A store that fails to write, with an IOException or any other exception, stays dirty and is retried
+     * after a wait that doubles with each failure, so the other stores are still written and a store that
+     * keeps failing does not report an error every flush interval.
+     *
+     * @param includeRetries true to also write stores whose retry wait has not ended
+     */
+    private static void flushDirtyStores(boolean includeRetries) {
+        synchronized (flushLock) {
+            List<Store> stores = new ArrayList<>();
+            synchronized (FlushScheduler.class) {
+                long now = System.nanoTime();
+                Iterator<Store> dirty = dirtyStores.iterator();
+                while (dirty.hasNext()) {
+                    Store store = dirty.next();
+                    Retry retry = retries.get(store);
+                    if (includeRetries || retry == null || now - retry.dueNanos >= 0) {
+                        stores.add(store);
+                        dirty.remove();
+                    }
+                }
+                flushScheduled = false;
+            }
+
+            for (Store store : stores) {
+                long start = System.nanoTime();
+                try {
+                    store.flush();
+                    recordFlush(store, System.nanoTime() - start);
+                } catch (IOException e) {
+                    recordFailure(store, e.getMessage());
+                } catch (RuntimeException e) {
+                    recordFailure(store, e.toString());
+                }
+            }
+            scheduleRetries();
+        }
+    }
+
+    /**
+     * Records the duration of a completed store write.
+     *
+     * @param store The store that was written
+     * @param nanos The write duration in nanoseconds
+     */
+    private static synchronized void recordFlush(Store store, long nanos) {
+        flushCount++;
+        totalFlushNanos += nanos;
+        lastFlushNanos = nanos;
+        maxFlushNanos = Math.max(maxFlushNanos, nanos);
+        retries.remove(store);
+    }
+
+    /**
+     * Records a failed store write and marks the store dirty again, to be retried after its wait.
+     *
+     * @param store The store that failed to write
+     * @param error The error message
+     */
+    private static synchronized void recordFailure(Store store, String error) {
+        failedFlushes++;
+        Retry retry = retries.computeIfAbsent(store, s -> new Retry());
+        retry.failures++;
+        long delayMs = Math.min(MAX_RETRY_DELAY_MS, FLUSH_INTERVAL_MS << Math.min(retry.failures - 1, 16));
+        retry.dueNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+        dirtyStores.add(store);
+        System.err.println("Error saving " + store.getName() + ": " + error
+            + " (failed " + retry.failures + " times, retrying in " + delayMs / 1000.0 + " s)");
+    }
+
+    /**
+     * Schedules a flush for the stores still dirty after a flush, when the first of them is due.
+     */
+    private static synchronized void scheduleRetries() {
+        if (flushScheduled || dirtyStores.isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        long delayNanos = Long.MAX_VALUE;
+        for (Store store : dirtyStores) {
+            Retry retry = retries.get(store);
+            delayNanos = Math.min(delayNanos, retry == null ? 0 : retry.dueNanos - now);
+        }
+        flushScheduled = true;
+        flushExecutor.schedule(FlushScheduler::flushDueStores,
+            Math.max(TimeUnit.NANOSECONDS.toMillis(delayNanos), FLUSH_INTERVAL_MS), TimeUnit.MILLISECONDS);
+    }
+}
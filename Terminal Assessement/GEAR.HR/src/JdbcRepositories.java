@@ -0,0 +1,741 @@
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JdbcRepositories class handles the embedded database storage backend
+ * Stores all data in a file-based SQL database such as H2 or SQLite, whose JDBC driver must be on the classpath,
+ * with indexes on employee ID and attendance date so lookups and range queries do not scan whole tables
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class JdbcRepositories {
+    // Portable schema: CREATE ... IF NOT EXISTS and these column types work on H2 and SQLite
+    private static final String[] SCHEMA = {
+        "CREATE TABLE IF NOT EXISTS employees (row_order INT PRIMARY KEY, employee_number VARCHAR(64) NOT NULL,"
+            + " last_name VARCHAR(255), first_name VARCHAR(255), sss_number VARCHAR(64), philhealth_number VARCHAR(64),"
+            + " tin VARCHAR(64), pagibig_number VARCHAR(64), email VARCHAR(255), job_position VARCHAR(255),"
+            + " address VARCHAR(1024), phone VARCHAR(64))",
+        "CREATE INDEX IF NOT EXISTS employees_number ON employees (employee_number)",
+        // Amounts are held in centavos, as Money does, so they read back exactly
+        "CREATE TABLE IF NOT EXISTS payroll (employee_id VARCHAR(64) PRIMARY KEY, base_salary BIGINT,"
+            + " sss_amount BIGINT, philhealth_amount BIGINT, pagibig_amount BIGINT, withholding_tax BIGINT,"
+            + " rice_subsidy BIGINT, phone_allowance BIGINT, clothing_allowance BIGINT)",
+        "CREATE TABLE IF NOT EXISTS attendance (employee_id VARCHAR(64) NOT NULL, work_date VARCHAR(64) NOT NULL,"
+            + " work_month VARCHAR(16) NOT NULL, status VARCHAR(64), time_in VARCHAR(16), time_out VARCHAR(16),"
+            + " PRIMARY KEY (employee_id, work_date))",
+        "CREATE INDEX IF NOT EXISTS attendance_date ON attendance (work_date)",
+        "CREATE INDEX IF NOT EXISTS attendance_month ON attendance (work_month)",
+        "CREATE TABLE IF NOT EXISTS credentials (user_id VARCHAR(64) PRIMARY KEY, password VARCHAR(255),"
+            + " role VARCHAR(64), email VARCHAR(255))",
+        "CREATE TABLE IF NOT EXISTS data_versions (table_name VARCHAR(64) PRIMARY KEY, version BIGINT NOT NULL)",
+        "INSERT INTO data_versions (table_name, version) SELECT 'employees', 0"
+            + " WHERE NOT EXISTS (SELECT 1 FROM data_versions WHERE table_name = 'employees')",
+        "INSERT INTO data_versions (table_name, version) SELECT 'payroll', 0"
+            + " WHERE NOT EXISTS (SELECT 1 FROM data_versions WHERE table_name = 'payroll')"
+    };
+
+    private static final String ATTENDANCE_COLUMNS = "employee_id, work_date, status, time_in, time_out";
+    private static final String INSERT_ATTENDANCE = "INSERT INTO attendance"
+        + " (employee_id, work_date, work_month, status, time_in, time_out) VALUES (?, ?, ?, ?, ?, ?)";
+
+    // One connection shared by the Swing and flush threads; every use is synchronized on this object
+    private final Connection connection;
+
+    private final Repositories.EmployeeRepository employeeRepository = new JdbcEmployeeRepository();
+    private final Repositories.PayrollRepository payrollRepository = new JdbcPayrollRepository();
+    private final Repositories.AttendanceRepository attendanceRepository = new JdbcAttendanceRepository();
+    private final Repositories.CredentialRepository credentialRepository = new JdbcCredentialRepository();
+
+    /**
+     * Opens the database and creates any missing tables and indexes.
+     *
+     * @param url The JDBC URL, for example jdbc:h2:./GEAR.HR/gearhr
+     * @throws SQLException If no driver accepts the URL or the database cannot be opened
+     */
+    public JdbcRepositories(String url) throws SQLException {
+        connection = DriverManager.getConnection(url);
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : SCHEMA) {
+                statement.execute(sql);
+            }
+        } catch (SQLException e) {
+            // Release the database file, which an embedded database keeps locked while it is open
+            try {
+                connection.close();
+            } catch (SQLException closeError) {
+                e.addSuppressed(closeError);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Closes the database connection, releasing the database file.
+     * The repositories of this backend cannot be used afterwards.
+     */
+    public synchronized void close() {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing database: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the employee repository.
+     *
+     * @return The employees table repository
+     */
+    public Repositories.EmployeeRepository employees() {
+        return employeeRepository;
+    }
+
+    /**
+     * Gets the payroll repository.
+     *
+     * @return The payroll table repository
+     */
+    public Repositories.PayrollRepository payroll() {
+        return payrollRepository;
+    }
+
+    /**
+     * Gets the attendance repository.
+     *
+     * @return The attendance table repository
+     */
+    public Repositories.AttendanceRepository attendance() {
+        return attendanceRepository;
+    }
+
+    /**
+     * Gets the credential repository.
+     *
+     * @return The credentials table repository
+     */
+    public Repositories.CredentialRepository credentials() {
+        return credentialRepository;
+    }
+
+    /**
+     * Copies the CSV data into every table that is still empty.
+     * Run each time the database backend is selected so no data is left behind; tables with nothing
+     * to copy are left untouched, and a table another instance copied first is not copied again.
+     *
+     * @param csv The CSV repositories to copy from
+     * @throws IOException If the CSV files cannot be read or the database cannot be written
+     */
+    public void importIfEmpty(CsvRepositories csv) throws IOException {
+        if (isEmpty("employees")) {
+            List<EmployeeProfile.Employee> employees = csv.employees().loadAll();
+            if (!employees.isEmpty()) {
+                try {
+                    // Loading takes the table's current version, which the copy is checked against
+                    employeeRepository.loadAll();
+                    employeeRepository.saveAll(employees);
+                } catch (SharedFileLock.StaleDataException e) {
+                    // Another instance copied the employees first
+                }
+            }
+        }
+        if (isEmpty("payroll")) {
+            Map<String, SalaryComputation.PayrollData> records = csv.payroll().loadAll();
+            if (!records.isEmpty()) {
+                try {
+                    payrollRepository.loadAll();
+                    payrollRepository.saveAll(records);
+                } catch (SharedFileLock.StaleDataException e) {
+                    // Another instance copied the payroll data first
+                }
+            }
+        }
+        if (isEmpty("credentials")) {
+            try {
+                saveCredentials(csv.credentials().loadAll());
+            } catch (NoSuchFileException e) {
+                // No credentials file to copy
+            }
+        }
+        if (isEmpty("attendance")) {
+            csv.attendance().open();
+            List<Attendance.AttendanceRecord> records = new ArrayList<>();
+            for (String month : csv.attendance().getMonths()) {
+                records.addAll(csv.attendance().getRecords(month));
+            }
+            if (!records.isEmpty()) {
+                insertAttendance(records);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a table has no rows.
+     *
+     * @param table The table name
+     * @return true if the table is empty
+     * @throws IOException If the table cannot be read
+     */
+    private synchronized boolean isEmpty(String table) throws IOException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            return rows.next() && rows.getLong(1) == 0;
+        } catch (SQLException e) {
+            throw new IOException("Error reading " + table + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Inserts attendance records in one transaction.
+     *
+     * @param records The records to insert; the table must not already hold them
+     * @throws IOException If the records cannot be written
+     */
+    private synchronized void insertAttendance(List<Attendance.AttendanceRecord> records) throws IOException {
+        inTransaction("attendance records", () -> {
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_ATTENDANCE)) {
+                for (Attendance.AttendanceRecord record : records) {
+                    setAttendance(insert, record);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        });
+    }
+
+    /**
+     * Replaces all credentials in one transaction.
+     *
+     * @param credentials Map of userId -> [password, role, email]
+     * @throws IOException If the credentials cannot be written
+     */
+    private synchronized void saveCredentials(Map<String, String[]> credentials) throws IOException {
+        inTransaction("credentials", () -> {
+            try (Statement delete = connection.createStatement();
+                 PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO credentials (user_id, password, role, email) VALUES (?, ?, ?, ?)")) {
+                delete.executeUpdate("DELETE FROM credentials");
+                for (Map.Entry<String, String[]> entry : credentials.entrySet()) {
+                    String[] credential = entry.getValue();
+                    insert.setString(1, entry.getKey());
+                    insert.setString(2, credential.length > 0 ? credential[0] : "");
+                    insert.setString(3, credential.length > 1 ? credential[1] : "");
+                    insert.setString(4, credential.length > 2 ? credential[2] : "");
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        });
+    }
+
+    /**
+     * A unit of database work that may throw SQLException.
+     */
+    private interface SqlWork {
+        void run() throws SQLException;
+    }
+
+    /**
+     * Runs work in a transaction, rolling back if it fails.
+     * Callers must hold the lock on this object.
+     *
+     * @param what Description used in the error message
+     * @param work The work to run
+     * @throws IOException If the work fails
+     */
+    private void inTransaction(String what, SqlWork work) throws IOException {
+        try {
+            connection.setAutoCommit(false);
+            try {
+                work.run();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new IOException("Error saving " + what + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads the version of a table that is saved as a whole.
+     * Callers must hold the lock on this object.
+     *
+     * @param table The table name
+     * @return The version, bumped on every save
+     * @throws SQLException If the version cannot be read
+     */
+    private long readVersion(String table) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement("SELECT version FROM data_versions WHERE table_name = ?")) {
+            select.setString(1, table);
+            try (ResultSet rows = select.executeQuery()) {
+                return rows.next() ? rows.getLong(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Bumps the version of a table if it is still at the expected version.
+     * Run inside the transaction that saves the table, so another instance saving at the
+     * same time either waits for this one or is rejected.
+     *
+     * @param table The table name
+     * @param expectedVersion The version this instance last read or wrote
+     * @return true if the version was bumped, false if another instance saved the table first
+     * @throws SQLException If the version cannot be updated
+     */
+    private boolean bumpVersion(String table, long expectedVersion) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement(
+                 "UPDATE data_versions SET version = version + 1 WHERE table_name = ? AND version = ?")) {
+            update.setString(1, table);
+            update.setLong(2, expectedVersion);
+            return update.executeUpdate() == 1;
+        }
+    }
+
+    /**
+     * Checks whether another instance saved a table since this instance last read or wrote it.
+     *
+     * @param table The table name
+     * @param loadedVersion The version this instance last read or wrote
+     * @return true if the table is at another version
+     * @throws IOException If the version cannot be read
+     */
+    private synchronized boolean hasNewVersion(String table, long loadedVersion) throws IOException {
+        try {
+            return readVersion(table) != loadedVersion;
+        } catch (SQLException e) {
+            throw new IOException("Error reading " + table + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Builds the error for a save rejected because another instance saved the table first.
+     * Callers must hold the lock on this object.
+     *
+     * @param table The table name
+     * @param expectedVersion The version this instance last read or wrote
+     * @return The exception to throw
+     */
+    private IOException staleTable(String table, long expectedVersion) {
+        try {
+            return SharedFileLock.conflict(table + " table", expectedVersion, readVersion(table));
+        } catch (SQLException e) {
+            return new IOException("Error saving " + table + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads an attendance record from the current row.
+     *
+     * @param rows The result set positioned on a row selected with ATTENDANCE_COLUMNS
+     * @return The attendance record
+     * @throws SQLException If the row cannot be read
+     */
+    private static Attendance.AttendanceRecord readAttendance(ResultSet rows) throws SQLException {
+        return new Attendance.AttendanceRecord(rows.getString(1), rows.getString(2),
+            rows.getString(3), rows.getString(4), rows.getString(5));
+    }
+
+    /**
+     * Sets the parameters of INSERT_ATTENDANCE from a record.
+     *
+     * @param insert The prepared insert statement
+     * @param record The attendance record
+     * @throws SQLException If a parameter cannot be set
+     */
+    private static void setAttendance(PreparedStatement insert, Attendance.AttendanceRecord record) throws SQLException {
+        insert.setString(1, record.getEmployeeId());
+        insert.setString(2, record.getDate());
+        insert.setString(3, AttendancePartitions.monthOf(record.getDate()));
+        insert.setString(4, record.getStatus());
+        insert.setString(5, record.getTimeIn());
+        insert.setString(6, record.getTimeOut());
+    }
+
+    /**
+     * Stores employees in the employees table.
+     */
+    private class JdbcEmployeeRepository implements Repositories.EmployeeRepository {
+        // Version of the employees table this instance last read or wrote
+        private long loadedVersion;
+
+        @Override
+        public List<EmployeeProfile.Employee> loadAll() throws IOException {
+            synchronized (JdbcRepositories.this) {
+                List<EmployeeProfile.Employee> employees = new ArrayList<>();
+                try {
+                    loadedVersion = readVersion("employees");
+                } catch (SQLException e) {
+                    throw new IOException("Error loading employees: " + e.getMessage(), e);
+                }
+                try (Statement statement = connection.createStatement();
+                     ResultSet rows = statement.executeQuery("SELECT employee_number, last_name, first_name, sss_number,"
+                         + " philhealth_number, tin, pagibig_number, email, job_position, address, phone"
+                         + " FROM employees ORDER BY row_order")) {
+                    while (rows.next()) {
+                        employees.add(new EmployeeProfile.Employee(
+                            rows.getString(1), rows.getString(2), rows.getString(3), rows.getString(4),
+                            rows.getString(5), rows.getString(6), rows.getString(7), rows.getString(8),
+                            rows.getString(9), rows.getString(10), rows.getString(11)
+                        ));
+                    }
+                } catch (SQLException e) {
+                    throw new IOException("Error loading employees: " + e.getMessage(), e);
+                }
+                return employees;
+            }
+        }
+
+        @Override
+        public void saveAll(List<EmployeeProfile.Employee> employees) throws IOException {
+            synchronized (JdbcRepositories.this) {
+                boolean[] saved = {false};
+                inTransaction("employees", () -> {
+                    if (!bumpVersion("employees", loadedVersion)) {
+                        return;
+                    }
+                    saved[0] = true;
+                    try (Statement delete = connection.createStatement();
+                         PreparedStatement insert = connection.prepareStatement("INSERT INTO employees (row_order,"
+                             + " employee_number, last_name, first_name, sss_number, philhealth_number, tin,"
+                             + " pagibig_number, email, job_position, address, phone) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                        delete.executeUpdate("DELETE FROM employees");
+                        for (int i = 0; i < employees.size(); i++) {
+                            EmployeeProfile.Employee emp = employees.get(i);
+                            insert.setInt(1, i);
+                            insert.setString(2, emp.getEmployeeNumber());
+                            insert.setString(3, emp.getLastName());
+                            insert.setString(4, emp.getFirstName());
+                            insert.setString(5, emp.getSssNumber());
+                            insert.setString(6, emp.getPhilHealthNumber());
+                            insert.setString(7, emp.getTin());
+                            insert.setString(8, emp.getPagIbigNumber());
+                            insert.setString(9, emp.getEmail());
+                            insert.setString(10, emp.getPosition());
+                            insert.setString(11, emp.getAddress());
+                            insert.setString(12, emp.getPhone());
+                            insert.addBatch();
+                        }
+                        insert.executeBatch();
+                    }
+                });
+                if (!saved[0]) {
+                    throw staleTable("employees", loadedVersion);
+                }
+                loadedVersion++;
+            }
+        }
+
+        @Override
+        public boolean hasExternalChanges() throws IOException {
+            return hasNewVersion("employees", loadedVersion);
+        }
+    }
+
+    /**
+     * Stores payroll data in the payroll table.
+     */
+    private class JdbcPayrollRepository implements Repositories.PayrollRepository {
+        // Version of the payroll table this instance last read or wrote
+        private long loadedVersion;
+
+        @Override
+        public Map<String, SalaryComputation.PayrollData> loadAll() throws IOException {
+            synchronized (JdbcRepositories.this) {
+                Map<String, SalaryComputation.PayrollData> records = new HashMap<>();
+                try {
+                    loadedVersion = readVersion("payroll");
+                } catch (SQLException e) {
+                    throw new IOException("Error loading payroll data: " + e.getMessage(), e);
+                }
+                try (Statement statement = connection.createStatement();
+                     ResultSet rows = statement.executeQuery("SELECT employee_id, base_salary, sss_amount,"
+                         + " philhealth_amount, pagibig_amount, withholding_tax, rice_subsidy, phone_allowance,"
+                         + " clothing_allowance FROM payroll")) {
+                    while (rows.next()) {
+                        records.put(rows.getString(1), SalaryComputation.PayrollData.ofCentavos(
+                            rows.getLong(2), rows.getLong(3), rows.getLong(4), rows.getLong(5),
+                            rows.getLong(6), rows.getLong(7), rows.getLong(8), rows.getLong(9)
+                        ));
+                    }
+                } catch (SQLException e) {
+                    throw new IOException("Error loading payroll data: " + e.getMessage(), e);
+                }
+                return records;
+            }
+        }
+
+        @Override
+        public void saveAll(Map<String, SalaryComputation.PayrollData> records) throws IOException {
+            synchronized (JdbcRepositories.this) {
+                boolean[] saved = {false};
+                inTransaction("payroll data", () -> {
+                    if (!bumpVersion("payroll", loadedVersion)) {
+                        return;
+                    }
+                    saved[0] = true;
+                    try (Statement delete = connection.createStatement();
+                         PreparedStatement insert = connection.prepareStatement("INSERT INTO payroll (employee_id,"
+                             + " base_salary, sss_amount, philhealth_amount, pagibig_amount, withholding_tax,"
+                             + " rice_subsidy, phone_allowance, clothing_allowance) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                        delete.executeUpdate("DELETE FROM payroll");
+                        for (Map.Entry<String, SalaryComputation.PayrollData> entry : records.entrySet()) {
+                            SalaryComputation.PayrollData data = entry.getValue();
+                            insert.setString(1, entry.getKey());
+                            insert.setLong(2, data.getBaseSalary());
+                            insert.setLong(3, data.getSSSDeduction());
+                            insert.setLong(4, data.getPhilHealthDeduction());
+                            insert.setLong(5, data.getPagIbigDeduction());
+                            insert.setLong(6, data.getTaxDeduction());
+                            insert.setLong(7, data.getRiceSubsidy());
+                            insert.setLong(8, data.getPhoneAllowance());
+                            insert.setLong(9, data.getClothingAllowance());
+                            insert.addBatch();
+                        }
+                        insert.executeBatch();
+                    }
+                });
+                if (!saved[0]) {
+                    throw staleTable("payroll", loadedVersion);
+                }
+                loadedVersion++;
+            }
+        }
+
+        @Override
+        public boolean hasExternalChanges() throws IOException {
+            return hasNewVersion("payroll", loadedVersion);
+        }
+    }
+
+    /**
+     * Stores attendance records in the attendance table.
+     */
+    private class JdbcAttendanceRepository implements Repositories.AttendanceRepository {
+        @Override
+        public void open() {
+            // Every query reads the table directly, so there is nothing to reload
+        }
+
+        @Override
+        public List<String> getMonths() throws IOException {
+            synchronized (JdbcRepositories.this) {
+                List<String> months = new ArrayList<>();
+                try (Statement statement = connection.createStatement();
+                     ResultSet rows = statement.executeQuery("SELECT DISTINCT work_month FROM attendance ORDER BY work_month")) {
+                    while (rows.next()) {
+                        months.add(rows.getString(1));
+                    }
+                } catch (SQLException e) {
+                    throw new IOException("Error loading attendance months: " + e.getMessage(), e);
+                }
+                return months;
+            }
+        }
+
+        @Override
+        public boolean contains(String employeeId, String date) throws IOException {
+            synchronized (JdbcRepositories.this) {
+                try (PreparedStatement query = connection.prepareStatement(
+                         "SELECT 1 FROM attendance WHERE employee_id = ? AND work_date = ?")) {
+                    query.setString(1, employeeId);
+                    query.setString(2, date);
+                    try (ResultSet rows = query.executeQuery()) {
+                        return rows.next();
+                    }
+                } catch (SQLException e) {
+                    throw new IOException("Error loading attendance records: " + e.getMessage(), e);
+                }
+            }
+        }
+
+        @Override
+        public List<Attendance.AttendanceRecord> getRecords(String month) throws IOException {
+            return query("SELECT " + ATTENDANCE_COLUMNS + " FROM attendance WHERE work_month = ?", month);
+        }
+
+        @Override
+        public List<Attendance.AttendanceRecord> getRecordsBetween(LocalDate from, LocalDate to) throws IOException {
+            // ISO dates sort as text, so the date index serves the range directly
+            return query("SELECT " + ATTENDANCE_COLUMNS + " FROM attendance WHERE work_date BETWEEN ? AND ?",
+                from.toString(), to.toString());
+        }
+
+        @Override
+        public List<Attendance.AttendanceRecord> getEmployeeRecords(String employeeId, LocalDate from, LocalDate to)
+                throws IOException {
+            // The primary key on employee ID and date serves one employee's range
+            return query("SELECT " + ATTENDANCE_COLUMNS + " FROM attendance WHERE employee_id = ?"
+                + " AND work_date BETWEEN ? AND ? ORDER BY work_date", employeeId, from.toString(), to.toString());
+        }
+
+        @Override
+        public List<Attendance.AttendanceRecord> getRecordsOn(LocalDate date) throws IOException {
+            return query("SELECT " + ATTENDANCE_COLUMNS + " FROM attendance WHERE work_date = ?", date.toString());
+        }
+
+        @Override
+        public Attendance.AttendanceRecord put(Attendance.AttendanceRecord record) throws IOException {
+            synchronized (JdbcRepositories.this) {
+                List<Attendance.AttendanceRecord> previous = query("SELECT " + ATTENDANCE_COLUMNS
+                    + " FROM attendance WHERE employee_id = ? AND work_date = ?", record.getEmployeeId(), record.getDate());
+                inTransaction("attendance record", () -> {
+                    try (PreparedStatement delete = connection.prepareStatement(
+                             "DELETE FROM attendance WHERE employee_id = ? AND work_date = ?");
+                         PreparedStatement insert = connection.prepareStatement(INSERT_ATTENDANCE)) {
+                        delete.setString(1, record.getEmployeeId());
+                        delete.setString(2, record.getDate());
+                        delete.executeUpdate();
+                        setAttendance(insert, record);
+                        insert.executeUpdate();
+                    }
+                });
+                return previous.isEmpty() ? null : previous.get(0);
+            }
+        }
+
+        @Override
+        public List<Attendance.AttendanceRecord> putAll(List<Attendance.AttendanceRecord> records) throws IOException {
+            synchronized (JdbcRepositories.this) {
+                List<Attendance.AttendanceRecord> previous = new ArrayList<>(records.size());
+                inTransaction("attendance records", () -> {
+                    try (PreparedStatement select = connection.prepareStatement("SELECT " + ATTENDANCE_COLUMNS
+                             + " FROM attendance WHERE employee_id = ? AND work_date = ?");
+                         PreparedStatement delete = connection.prepareStatement(
+                             "DELETE FROM attendance WHERE employee_id = ? AND work_date = ?");
+                         PreparedStatement insert = connection.prepareStatement(INSERT_ATTENDANCE)) {
+                        for (Attendance.AttendanceRecord record : records) {
+                            select.setString(1, record.getEmployeeId());
+                            select.setString(2, record.getDate());
+                            try (ResultSet rows = select.executeQuery()) {
+                                previous.add(rows.next() ? readAttendance(rows) : null);
+                            }
+                            delete.setString(1, record.getEmployeeId());
+                            delete.setString(2, record.getDate());
+                            delete.executeUpdate();
+                            setAttendance(insert, record);
+                            insert.executeUpdate();
+                        }
+                    }
+                });
+                return previous;
+            }
+        }
+
+        @Override
+        public void removeEmployee(String employeeId) throws IOException {
+            update("DELETE FROM attendance WHERE employee_id = ?", employeeId);
+        }
+
+        @Override
+        public void clear() throws IOException {
+            update("DELETE FROM attendance");
+        }
+
+        @Override
+        public List<Attendance.RecordChange> reloadChanges() {
+            // No records are held in memory; the table shows the database on its next query
+            return new ArrayList<>();
+        }
+
+        @Override
+        public String getStatusSummary() {
+            try {
+                return "Attendance months: " + getMonths().size() + " stored | database";
+            } catch (IOException e) {
+                return "Attendance: " + e.getMessage();
+            }
+        }
+
+        /**
+         * Runs a query that selects ATTENDANCE_COLUMNS.
+         *
+         * @param sql The query
+         * @param parameters The query parameters
+         * @return The matching records
+         * @throws IOException If the query fails
+         */
+        private List<Attendance.AttendanceRecord> query(String sql, String... parameters) throws IOException {
+            synchronized (JdbcRepositories.this) {
+                List<Attendance.AttendanceRecord> records = new ArrayList<>();
+                try (PreparedStatement query = connection.prepareStatement(sql)) {
+                    for (int i = 0; i < parameters.length; i++) {
+                        query.setString(i + 1, parameters[i]);
+                    }
+                    try (ResultSet rows = query.executeQuery()) {
+                        while (rows.next()) {
+                            records.add(readAttendance(rows));
+                        }
+                    }
+                } catch (SQLException e) {
+                    throw new IOException("Error loading attendance records: " + e.getMessage(), e);
+                }
+                return records;
+            }
+        }
+
+        /**
+         * Runs a data-changing statement.
+         *
+         * @param sql The statement
+         * @param parameters The statement parameters
+         * @throws IOException If the statement fails
+         */
+        private void update(String sql, String... parameters) throws IOException {
+            synchronized (JdbcRepositories.this) {
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    for (int i = 0; i < parameters.length; i++) {
+                        statement.setString(i + 1, parameters[i]);
+                    }
+                    statement.executeUpdate();
+                } catch (SQLException e) {
+                    throw new IOException("Error saving attendance records: " + e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads login credentials from the credentials table.
+     */
+    private class JdbcCredentialRepository implements Repositories.CredentialRepository {
+        @Override
+        public Map<String, String[]> loadAll() throws IOException {
+            synchronized (JdbcRepositories.this) {
+                Map<String, String[]> credentials = new HashMap<>();
+                try (Statement statement = connection.createStatement();
+                     ResultSet rows = statement.executeQuery("SELECT user_id, password, role, email FROM credentials")) {
+                    while (rows.next()) {
+                        credentials.put(rows.getString(1), new String[]{rows.getString(2), rows.getString(3), rows.getString(4)});
+                    }
+                } catch (SQLException e) {
+                    throw new IOException("Error loading user credentials: " + e.getMessage(), e);
+                }
+                return credentials;
+            }
+        }
+
+        @Override
+        public String[] findById(String userId) throws IOException {
+            synchronized (JdbcRepositories.this) {
+                try (PreparedStatement query = connection.prepareStatement(
+                         "SELECT password, role, email FROM credentials WHERE user_id = ?")) {
+                    query.setString(1, userId.trim());
+                    try (ResultSet rows = query.executeQuery()) {
+                        return rows.next() ? new String[]{rows.getString(1), rows.getString(2), rows.getString(3)} : null;
+                    }
+                } catch (SQLException e) {
+                    throw new IOException("Error loading user credentials: " + e.getMessage(), e);
+                }
+            }
+        }
+    }
+}
@@ -108,7 +108,7 @@ public class Main {
 
     /**
      * Creates a menu bar with logout functionality.
-     * Provides File menu with logout option.
+     * Provides File menu with storage status and logout options.
      *
      * @param mainFrame The parent frame for logout handling
      * @return JMenuBar with logout functionality
@@ -125,7 +125,22 @@ public class Main {
         JMenuItem logoutItem = new JMenuItem("Logout");
         logoutItem.setFont(new Font("Garet", Font.PLAIN, 12));
         logoutItem.addActionListener(e -> handleLogout(mainFrame));
+
+        JMenuItem storageStatusItem = new JMenuItem("Storage Status");
+        storageStatusItem.setFont(new Font("Garet", Font.PLAIN, 12));
+        storageStatusItem.addActionListener(e -> JOptionPane.showMessageDialog(
+            mainFrame,
+            "Backend: " + Repositories.getBackendName() + "\n" + FlushScheduler.getStatusSummary()
+                + "\n" + SharedFileLock.getStatusSummary() + "\n" + DataFolderWatcher.getStatusSummary()
+                + "\n" + Attendance.getStorageSummary() + "\n" + PayslipCache.getStatusSummary()
+                + "\n" + AttendancePay.getStatusSummary() + "\n" + PayrollGraph.getStatusSummary()
+                + "\n" + YearToDate.getStatusSummary() + "\n" + ClockServer.getStatusSummary()
+                + "\n" + AttendanceAnalytics.getStatusSummary(),
+            "Storage Status",
+            JOptionPane.INFORMATION_MESSAGE
+        ));
         
+        fileMenu.add(storageStatusItem);
         fileMenu.add(logoutItem);
         menuBar.add(fileMenu);
 
@@ -500,11 +515,13 @@ public class Main {
 
     /**
      * Main entry point for the application.
-     * Displays splash screen and then login screen.
+     * Starts the clock server if it is configured, then displays splash screen and then login screen.
      *
      * @param args Command line arguments (not used)
      */
     public static void main(String[] args) {
+        ClockServer.startIfConfigured();
+
         // Show splash screen first, then launch login
         SplashScreen.showSplash(() -> User.showLoginScreen(null));
     }
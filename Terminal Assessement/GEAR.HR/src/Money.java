@@ -0,0 +1,178 @@
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money class handles peso amounts as whole centavos held in a long
+ * Provides exact parsing, multiplication by a rate with the government rounding rule
+ * (half a centavo or more rounds away from zero) and formatting, without creating objects,
+ * so payroll amounts add up exactly and the saved CSV matches the payslip to the centavo
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public final class Money {
+    public static final long CENTAVOS_PER_PESO = 100;
+
+    // Rates are held in millionths, e.g. 5% is 50,000
+    public static final long RATE_SCALE = 1_000_000;
+    private static final int RATE_DECIMALS = 6;
+
+    /**
+     * Money only has static methods.
+     */
+    private Money() {
+    }
+
+    /**
+     * Converts a peso amount to centavos, rounding half a centavo away from zero.
+     * Used where amounts still arrive as floating point numbers, such as older database columns.
+     *
+     * @param pesos The amount in pesos
+     * @return The amount in centavos
+     */
+    public static long ofPesos(double pesos) {
+        double centavos = pesos * CENTAVOS_PER_PESO;
+        return (long) (centavos < 0 ? centavos - 0.5 : centavos + 0.5);
+    }
+
+    /**
+     * Converts centavos to pesos for display or for storage that holds floating point numbers.
+     *
+     * @param centavos The amount in centavos
+     * @return The amount in pesos
+     */
+    public static double toPesos(long centavos) {
+        return centavos / (double) CENTAVOS_PER_PESO;
+    }
+
+    /**
+     * Parses a peso amount such as "22500", "833.4" or "-1,250.50" exactly.
+     * Digits past the centavo are rounded half away from zero.
+     *
+     * @param text The amount in pesos
+     * @return The amount in centavos
+     * @throws NumberFormatException If the text is not a number or does not fit
+     */
+    public static long parse(String text) {
+        return parseScaled(text, 2);
+    }
+
+    /**
+     * Parses a rate such as "0.05" or "0.325" into millionths.
+     *
+     * @param text The rate as a fraction
+     * @return The rate in millionths
+     * @throws NumberFormatException If the text is not a number or does not fit
+     */
+    public static long parseRate(String text) {
+        return parseScaled(text, RATE_DECIMALS);
+    }
+
+    /**
+     * Multiplies an amount by a rate, rounding the result to the centavo half away from zero.
+     *
+     * @param centavos The amount in centavos
+     * @param rate The rate in millionths
+     * @return The product in centavos
+     * @throws ArithmeticException If the product does not fit in a long
+     */
+    public static long multiply(long centavos, long rate) {
+        long product = Math.multiplyExact(centavos, rate);
+        long quotient = product / RATE_SCALE;
+        long remainder = product % RATE_SCALE;
+        if (Math.abs(remainder) * 2 >= RATE_SCALE) {
+            quotient += product < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    /**
+     * Formats an amount with two decimals and no grouping, e.g. "22500.00", as stored in the CSV files.
+     *
+     * @param centavos The amount in centavos
+     * @return The formatted amount
+     */
+    public static String format(long centavos) {
+        return appendTo(new StringBuilder(24), centavos).toString();
+    }
+
+    /**
+     * Appends an amount with two decimals and no grouping.
+     *
+     * @param builder The builder to append to
+     * @param centavos The amount in centavos
+     * @return The builder
+     */
+    public static StringBuilder appendTo(StringBuilder builder, long centavos) {
+        if (centavos < 0) {
+            builder.append('-');
+        }
+        // Long.MIN_VALUE has no positive counterpart, so split before negating
+        long pesos = Math.abs(centavos / CENTAVOS_PER_PESO);
+        int fraction = (int) Math.abs(centavos % CENTAVOS_PER_PESO);
+        builder.append(pesos).append('.');
+        if (fraction < 10) {
+            builder.append('0');
+        }
+        return builder.append(fraction);
+    }
+
+    /**
+     * Appends an amount with thousands separators and two decimals, e.g. "1,234,567.89", as printed on payslips.
+     * Gives the same text as String.format("%,.2f") in an English locale without creating any objects.
+     *
+     * @param builder The builder to append to
+     * @param centavos The amount in centavos
+     * @return The builder
+     */
+    public static StringBuilder appendGroupedTo(StringBuilder builder, long centavos) {
+        if (centavos < 0) {
+            builder.append('-');
+        }
+        appendGroups(builder, Math.abs(centavos / CENTAVOS_PER_PESO));
+        int fraction = (int) Math.abs(centavos % CENTAVOS_PER_PESO);
+        builder.append('.');
+        if (fraction < 10) {
+            builder.append('0');
+        }
+        return builder.append(fraction);
+    }
+
+    /**
+     * Appends whole pesos in groups of three digits separated by commas.
+     *
+     * @param builder The builder to append to
+     * @param pesos The amount in whole pesos, not negative
+     */
+    private static void appendGroups(StringBuilder builder, long pesos) {
+        if (pesos < 1000) {
+            builder.append(pesos);
+            return;
+        }
+        appendGroups(builder, pesos / 1000);
+        int group = (int) (pesos % 1000);
+        builder.append(',');
+        if (group < 100) {
+            builder.append('0');
+        }
+        if (group < 10) {
+            builder.append('0');
+        }
+        builder.append(group);
+    }
+
+    /**
+     * Parses a decimal number into a whole number of the given decimal places.
+     *
+     * @param text The number
+     * @param decimals The number of decimal places kept
+     * @return The scaled value
+     * @throws NumberFormatException If the text is not a number or does not fit
+     */
+    private static long parseScaled(String text, int decimals) {
+        try {
+            return new BigDecimal(text.trim().replace(",", "")).setScale(decimals, RoundingMode.HALF_UP)
+                .unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount out of range: " + text);
+        }
+    }
+}
@@ -0,0 +1,867 @@
+import java.time.LocalDate;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * PackedAttendance class handles attendance records held in memory without one object per record
+ * Keys each record by its employee number and epoch day packed in a long, and packs its status code,
+ * time in and time out into an int, in an open-addressing table of two primitive arrays: 12 bytes per slot,
+ * about 15 bytes per record. AttendanceRecord objects are created only when a record is read.
+ * Records whose text cannot be rebuilt from those values, such as an employee ID with letters, are kept as
+ * they are in a small overflow map, so every record reads back exactly as it was stored.
+ * The first query by employee or by date builds two indexes, the sorted days of each employee and the sorted
+ * employees of each day, which every later insert and delete keeps up to date; one employee's month, a daily
+ * roster and removing an employee then read only the records they return.
+ * It is a Map keyed by Attendance.recordKey, so the journal and loaders fill it like any other map
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class PackedAttendance extends AbstractMap<String, Attendance.AttendanceRecord> {
+    private static final int MIN_CAPACITY = 8;
+
+    // The table grows by half when more than 80% of its slots are used
+    private static final double MAX_LOAD = 0.8;
+    private static final double GROWTH = 1.5;
+
+    // Value layout: used flag, 3-bit status code, then time in and time out as minutes + 1 in 11 bits each (0 = none)
+    private static final int USED = 1 << 31;
+    private static final int STATUS_SHIFT = 22;
+    private static final int TIME_IN_SHIFT = 11;
+    private static final int TIME_MASK = 0x7FF;
+
+    // Packed key of a record key that does not name a plain employee number and yyyy-MM-dd date
+    private static final long NO_KEY = -1;
+
+    private long[] keys;
+    private int[] values;
+    private int packedCount;
+    private int growAt;
+
+    // Records that cannot be packed, keyed by Attendance.recordKey; null while there are none
+    private Map<String, Attendance.AttendanceRecord> overflow;
+
+    // Days of each employee and employees of each day, over the packed records; null until first queried
+    private GroupIndex daysByEmployee;
+    private GroupIndex employeesByDay;
+
+    /**
+     * Creates an empty store.
+     */
+    public PackedAttendance() {
+        this(0);
+    }
+
+    /**
+     * Creates an empty store with room for a number of records before it grows.
+     *
+     * @param expectedRecords The number of records expected
+     */
+    public PackedAttendance(int expectedRecords) {
+        allocate(capacityFor(expectedRecords));
+    }
+
+    /**
+     * Gets the record of an employee on a day.
+     *
+     * @param employeeNumber The employee number
+     * @param epochDay The date as days since 1970-01-01
+     * @return The record, or null if there is none
+     */
+    public Attendance.AttendanceRecord get(int employeeNumber, int epochDay) {
+        long key = keyOf(employeeNumber, epochDay);
+        int slot = slotOf(key);
+        if (slot >= 0) {
+            return decode(key, values[slot]);
+        }
+        return overflow == null ? null : overflow.get(Attendance.recordKey(Integer.toString(employeeNumber),
+            java.time.LocalDate.ofEpochDay(epochDay).toString()));
+    }
+
+    /**
+     * Gets a record by its key.
+     *
+     * @param key The key, see Attendance.recordKey
+     * @return The record, or null if there is none
+     */
+    @Override
+    public Attendance.AttendanceRecord get(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        long packedKey = keyOf((String) key);
+        if (packedKey != NO_KEY) {
+            int slot = slotOf(packedKey);
+            if (slot >= 0) {
+                return decode(packedKey, values[slot]);
+            }
+        }
+        return overflow == null ? null : overflow.get(key);
+    }
+
+    /**
+     * Checks whether a record exists.
+     *
+     * @param key The key, see Attendance.recordKey
+     * @return true if there is a record with that key
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Checks whether an employee has a record on a day, without creating a record or key text.
+     *
+     * @param employeeNumber The employee number
+     * @param epochDay The date as days since 1970-01-01
+     * @return true if there is a record
+     */
+    public boolean contains(int employeeNumber, int epochDay) {
+        return slotOf(keyOf(employeeNumber, epochDay)) >= 0
+            || overflow != null && get(employeeNumber, epochDay) != null;
+    }
+
+    /**
+     * Gets the records of an employee, in date order.
+     *
+     * @param employeeId The employee ID
+     * @return The records
+     */
+    public List<Attendance.AttendanceRecord> getEmployeeRecords(String employeeId) {
+        return getEmployeeRecords(employeeId, null, null);
+    }
+
+    /**
+     * Gets the records of an employee dated within a range, in date order.
+     *
+     * @param employeeId The employee ID
+     * @param from The first date, inclusive, or null for no limit
+     * @param to The last date, inclusive, or null for no limit
+     * @return The records
+     */
+    public List<Attendance.AttendanceRecord> getEmployeeRecords(String employeeId, LocalDate from, LocalDate to) {
+        List<Attendance.AttendanceRecord> result = new ArrayList<>();
+        int employeeNumber = Attendance.AttendanceRecord.parseEmployeeNumber(employeeId);
+        if (employeeNumber != Attendance.AttendanceRecord.NO_EMPLOYEE_NUMBER) {
+            int[] days = index().daysByEmployee.get(employeeNumber);
+            if (days != null) {
+                int first = from == null ? Integer.MIN_VALUE : epochDayOf(from);
+                int last = to == null ? Integer.MAX_VALUE : epochDayOf(to);
+                for (int i = GroupIndex.lowerBound(days, first); i <= days[0] && days[i] <= last; i++) {
+                    long key = keyOf(employeeNumber, days[i]);
+                    result.add(decode(key, values[slotOf(key)]));
+                }
+            }
+        }
+        if (overflow != null) {
+            int packed = result.size();
+            for (Attendance.AttendanceRecord record : overflow.values()) {
+                // Dates not written as yyyy-MM-dd are compared as text, as ISO dates sort as text
+                if (record.getEmployeeId().equals(employeeId)
+                        && (from == null || record.getDate().compareTo(from.toString()) >= 0)
+                        && (to == null || record.getDate().compareTo(to.toString()) <= 0)) {
+                    result.add(record);
+                }
+            }
+            if (result.size() > packed) {
+                result.sort(Comparator.comparing(Attendance.AttendanceRecord::getDate));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the records of one day, in employee number order, followed by any records whose text could not be packed.
+     *
+     * @param date The date
+     * @return The records
+     */
+    public List<Attendance.AttendanceRecord> getRecordsOn(LocalDate date) {
+        List<Attendance.AttendanceRecord> result = new ArrayList<>();
+        int epochDay = epochDayOf(date);
+        int[] employees = index().employeesByDay.get(epochDay);
+        if (employees != null) {
+            for (int i = 1; i <= employees[0]; i++) {
+                long key = keyOf(employees[i], epochDay);
+                result.add(decode(key, values[slotOf(key)]));
+            }
+        }
+        if (overflow != null) {
+            String text = date.toString();
+            for (Attendance.AttendanceRecord record : overflow.values()) {
+                if (record.getDate().equals(text)) {
+                    result.add(record);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds or replaces a record.
+     *
+     * @param record The record
+     * @return The record replaced, or null if the employee had no record on that date
+     */
+    public Attendance.AttendanceRecord put(Attendance.AttendanceRecord record) {
+        if (!record.isPackable()) {
+            String key = Attendance.recordKey(record.getEmployeeId(), record.getDate());
+            Attendance.AttendanceRecord replaced = removePacked(keyOf(key));
+            if (overflow == null) {
+                overflow = new HashMap<>();
+            }
+            Attendance.AttendanceRecord previous = overflow.put(key, record);
+            return previous != null ? previous : replaced;
+        }
+
+        Attendance.AttendanceRecord replaced = null;
+        if (overflow != null && !overflow.isEmpty()) {
+            replaced = overflow.remove(Attendance.recordKey(record.getEmployeeId(), record.getDate()));
+        }
+        long key = keyOf(record.getEmployeeNumber(), record.getEpochDay());
+        int value = encode(record.getStatusCode(), record.getTimeInMinutes(), record.getTimeOutMinutes());
+        int slot = slotOf(key);
+        if (slot >= 0) {
+            replaced = decode(key, values[slot]);
+            values[slot] = value;
+            return replaced;
+        }
+        insert(key, value, ~slot);
+        return replaced;
+    }
+
+    /**
+     * Adds or replaces a record. The key must be Attendance.recordKey of the record's employee ID and date;
+     * the record is stored under its own employee and date.
+     *
+     * @param key The key
+     * @param record The record
+     * @return The record replaced, or null if there was none
+     */
+    @Override
+    public Attendance.AttendanceRecord put(String key, Attendance.AttendanceRecord record) {
+        return put(record);
+    }
+
+    /**
+     * Adds or replaces every record of a map. Records of another PackedAttendance are copied without
+     * creating record objects.
+     *
+     * @param records The records to add
+     */
+    @Override
+    public void putAll(Map<? extends String, ? extends Attendance.AttendanceRecord> records) {
+        if (!(records instanceof PackedAttendance)) {
+            super.putAll(records);
+            return;
+        }
+        PackedAttendance other = (PackedAttendance) records;
+        // Sized first: the other table's slots come in hash order, and a table that grows while filled
+        // in that order piles its keys into one long probe run
+        int capacity = capacityFor(packedCount + other.packedCount);
+        if (capacity > keys.length) {
+            rehash(capacity);
+        }
+        for (int i = 0; i < other.keys.length; i++) {
+            if (other.values[i] != 0) {
+                long key = other.keys[i];
+                if (overflow != null && !overflow.isEmpty()) {
+                    overflow.remove(keyText(key));
+                }
+                int slot = slotOf(key);
+                if (slot >= 0) {
+                    values[slot] = other.values[i];
+                } else {
+                    insert(key, other.values[i], ~slot);
+                }
+            }
+        }
+        if (other.overflow != null) {
+            for (Attendance.AttendanceRecord record : other.overflow.values()) {
+                put(record);
+            }
+        }
+    }
+
+    /**
+     * Removes a record.
+     *
+     * @param key The key, see Attendance.recordKey
+     * @return The record removed, or null if there was none
+     */
+    @Override
+    public Attendance.AttendanceRecord remove(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        Attendance.AttendanceRecord removed = removePacked(keyOf((String) key));
+        if (removed == null && overflow != null) {
+            removed = overflow.remove(key);
+        }
+        return removed;
+    }
+
+    /**
+     * Removes every record of an employee.
+     *
+     * @param employeeId The employee ID
+     * @return The number of records removed
+     */
+    public int removeEmployee(String employeeId) {
+        int removed = 0;
+        int employeeNumber = Attendance.AttendanceRecord.parseEmployeeNumber(employeeId);
+        if (employeeNumber != Attendance.AttendanceRecord.NO_EMPLOYEE_NUMBER) {
+            int[] days = index().daysByEmployee.get(employeeNumber);
+            if (days != null) {
+                // Copied first: each removal also removes the day from this group
+                days = Arrays.copyOfRange(days, 1, days[0] + 1);
+                for (int day : days) {
+                    removeSlot(slotOf(keyOf(employeeNumber, day)));
+                }
+                removed += days.length;
+            }
+        }
+        if (overflow != null) {
+            String prefix = employeeId + "|";
+            int before = overflow.size();
+            overflow.keySet().removeIf(key -> key.startsWith(prefix));
+            removed += before - overflow.size();
+        }
+        return removed;
+    }
+
+    /**
+     * Removes every record. The table keeps its size; the indexes are built again when next queried.
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, 0);
+        packedCount = 0;
+        overflow = null;
+        daysByEmployee = null;
+        employeesByDay = null;
+    }
+
+    /**
+     * Gets the number of records.
+     *
+     * @return The record count
+     */
+    @Override
+    public int size() {
+        return packedCount + (overflow == null ? 0 : overflow.size());
+    }
+
+    /**
+     * Shrinks the table to the records it holds, e.g. after a month was loaded.
+     */
+    public void trimToSize() {
+        int capacity = capacityFor(packedCount);
+        if (capacity < keys.length) {
+            rehash(capacity);
+        }
+    }
+
+    /**
+     * Gets the memory held by the table.
+     *
+     * @return The size of the key and value arrays in bytes, not counting the overflow map
+     */
+    public long getTableBytes() {
+        return keys.length * (long) (Long.BYTES + Integer.BYTES);
+    }
+
+    /**
+     * Gets the memory held by the employee and date indexes.
+     *
+     * @return The estimated size of the indexes in bytes, 0 if they have not been built
+     */
+    public long getIndexBytes() {
+        return daysByEmployee == null ? 0 : daysByEmployee.getBytes() + employeesByDay.getBytes();
+    }
+
+    /**
+     * Gets the number of records kept in the overflow map because their text cannot be packed.
+     *
+     * @return The overflow record count
+     */
+    public int getOverflowCount() {
+        return overflow == null ? 0 : overflow.size();
+    }
+
+    /**
+     * Gets the records as map entries. Iteration works on a copy of the table taken when it starts,
+     * so records can be removed through the iterator; each entry's record is created as it is reached.
+     *
+     * @return The entries
+     */
+    @Override
+    public Set<Map.Entry<String, Attendance.AttendanceRecord>> entrySet() {
+        return new AbstractSet<Map.Entry<String, Attendance.AttendanceRecord>>() {
+            @Override
+            public int size() {
+                return PackedAttendance.this.size();
+            }
+
+            @Override
+            public Iterator<Map.Entry<String, Attendance.AttendanceRecord>> iterator() {
+                return new EntryIterator();
+            }
+        };
+    }
+
+    /**
+     * Iterates over a copy of the packed records, then over the overflow records.
+     */
+    private class EntryIterator implements Iterator<Map.Entry<String, Attendance.AttendanceRecord>> {
+        private final long[] entryKeys = new long[packedCount];
+        private final int[] entryValues = new int[packedCount];
+        private final List<Map.Entry<String, Attendance.AttendanceRecord>> overflowEntries =
+            overflow == null ? new ArrayList<>() : new ArrayList<>(overflow.entrySet());
+        private int next;
+        private String lastKey;
+
+        EntryIterator() {
+            int count = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (values[i] != 0) {
+                    entryKeys[count] = keys[i];
+                    entryValues[count++] = values[i];
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < entryKeys.length + overflowEntries.size();
+        }
+
+        @Override
+        public Map.Entry<String, Attendance.AttendanceRecord> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<String, Attendance.AttendanceRecord> entry;
+            if (next < entryKeys.length) {
+                entry = new SimpleImmutableEntry<>(keyText(entryKeys[next]), decode(entryKeys[next], entryValues[next]));
+            } else {
+                Map.Entry<String, Attendance.AttendanceRecord> overflowEntry = overflowEntries.get(next - entryKeys.length);
+                entry = new SimpleImmutableEntry<>(overflowEntry.getKey(), overflowEntry.getValue());
+            }
+            next++;
+            lastKey = entry.getKey();
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            if (lastKey == null) {
+                throw new IllegalStateException();
+            }
+            PackedAttendance.this.remove(lastKey);
+            lastKey = null;
+        }
+    }
+
+    /**
+     * Builds the employee and date indexes if they have not been built yet.
+     * Every key is written as an (employee, day) and a (day, employee) pair, and each list is sorted once,
+     * which is much faster than sorted inserts and gives every group an array of exactly its size.
+     *
+     * @return This store
+     */
+    private PackedAttendance index() {
+        if (daysByEmployee == null) {
+            long[] employeeDays = new long[packedCount];
+            long[] dayEmployees = new long[packedCount];
+            int count = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (values[i] != 0) {
+                    int employeeNumber = (int) (keys[i] >>> 32);
+                    int epochDay = (int) keys[i];
+                    // The day's sign bit is flipped so days before 1970 sort first
+                    employeeDays[count] = (long) employeeNumber << 32 | (epochDay ^ Integer.MIN_VALUE) & 0xFFFFFFFFL;
+                    dayEmployees[count++] = (long) epochDay << 32 | employeeNumber;
+                }
+            }
+            Arrays.sort(employeeDays);
+            Arrays.sort(dayEmployees);
+            daysByEmployee = GroupIndex.of(employeeDays, new HashMap<>(), Integer.MIN_VALUE);
+            employeesByDay = GroupIndex.of(dayEmployees, new TreeMap<>(), 0);
+        }
+        return this;
+    }
+
+    /**
+     * Converts a date to the epoch day of a packed key.
+     *
+     * @param date The date
+     * @return Days since 1970-01-01, clamped to the int range
+     */
+    private static int epochDayOf(LocalDate date) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, date.toEpochDay()));
+    }
+
+    /**
+     * Packs an employee number and epoch day into a key.
+     *
+     * @param employeeNumber The employee number, not negative
+     * @param epochDay The epoch day
+     * @return The key
+     */
+    private static long keyOf(int employeeNumber, int epochDay) {
+        return ((long) employeeNumber << 32) | (epochDay & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Packs a record key such as "10001|2025-07-01".
+     *
+     * @param key The record key
+     * @return The packed key, or NO_KEY if the key does not name a plain employee number and a yyyy-MM-dd date
+     */
+    private static long keyOf(String key) {
+        int separator = key.lastIndexOf('|');
+        if (separator < 0) {
+            return NO_KEY;
+        }
+        int employeeNumber = Attendance.AttendanceRecord.parseEmployeeNumber(key.substring(0, separator));
+        int epochDay = Attendance.AttendanceRecord.parseEpochDay(key.substring(separator + 1));
+        if (employeeNumber == Attendance.AttendanceRecord.NO_EMPLOYEE_NUMBER
+                || epochDay == Attendance.AttendanceRecord.NO_EPOCH_DAY) {
+            return NO_KEY;
+        }
+        return keyOf(employeeNumber, epochDay);
+    }
+
+    /**
+     * Writes a packed key as a record key.
+     *
+     * @param key The packed key
+     * @return The record key
+     */
+    private static String keyText(long key) {
+        return Attendance.recordKey(Integer.toString((int) (key >>> 32)), java.time.LocalDate.ofEpochDay((int) key).toString());
+    }
+
+    /**
+     * Packs a record's status and times.
+     *
+     * @param status The status code
+     * @param timeIn Minutes of the day checked in, or NO_TIME
+     * @param timeOut Minutes of the day checked out, or NO_TIME
+     * @return The value
+     */
+    private static int encode(byte status, int timeIn, int timeOut) {
+        return USED | status << STATUS_SHIFT | (timeIn + 1) << TIME_IN_SHIFT | (timeOut + 1);
+    }
+
+    /**
+     * Creates the record of a packed key and value.
+     *
+     * @param key The packed key
+     * @param value The packed value
+     * @return The record
+     */
+    private static Attendance.AttendanceRecord decode(long key, int value) {
+        return new Attendance.AttendanceRecord((int) (key >>> 32), (int) key, (byte) (value >>> STATUS_SHIFT & 0x7),
+            (short) ((value >>> TIME_IN_SHIFT & TIME_MASK) - 1), (short) ((value & TIME_MASK) - 1));
+    }
+
+    /**
+     * Removes a packed record.
+     *
+     * @param key The packed key, or NO_KEY
+     * @return The record removed, or null if there was none
+     */
+    private Attendance.AttendanceRecord removePacked(long key) {
+        if (key == NO_KEY) {
+            return null;
+        }
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return null;
+        }
+        Attendance.AttendanceRecord removed = decode(key, values[slot]);
+        removeSlot(slot);
+        return removed;
+    }
+
+    /**
+     * Finds the slot of a key.
+     *
+     * @param key The packed key
+     * @return The slot holding the key, or the bitwise complement of the free slot where it would go
+     */
+    private int slotOf(long key) {
+        int slot = home(key);
+        while (values[slot] != 0) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            if (++slot == keys.length) {
+                slot = 0;
+            }
+        }
+        return ~slot;
+    }
+
+    /**
+     * Gets the slot where probing for a key starts.
+     * The key is mixed so employees and days next to each other spread over the table.
+     *
+     * @param key The packed key
+     * @return The slot
+     */
+    private int home(long key) {
+        long hash = key;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        // Maps the high 32 bits onto the table without needing a power-of-two size
+        return (int) (((hash >>> 32) * keys.length) >>> 32);
+    }
+
+    /**
+     * Stores a new key in a free slot, growing the table first if it is full.
+     *
+     * @param key The packed key
+     * @param value The packed value
+     * @param slot The free slot found for the key
+     */
+    private void insert(long key, int value, int slot) {
+        if (packedCount >= growAt) {
+            rehash((int) Math.min(Integer.MAX_VALUE - 8, (long) (keys.length * GROWTH) + 1));
+            slot = ~slotOf(key);
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        packedCount++;
+        if (daysByEmployee != null) {
+            daysByEmployee.add((int) (key >>> 32), (int) key);
+            employeesByDay.add((int) key, (int) (key >>> 32));
+        }
+    }
+
+    /**
+     * Empties a slot, moving later entries of the same probe run back so every key stays reachable.
+     *
+     * @param hole The slot to empty
+     */
+    private void removeSlot(int hole) {
+        if (daysByEmployee != null) {
+            daysByEmployee.remove((int) (keys[hole] >>> 32), (int) keys[hole]);
+            employeesByDay.remove((int) keys[hole], (int) (keys[hole] >>> 32));
+        }
+        int slot = hole;
+        while (true) {
+            if (++slot == keys.length) {
+                slot = 0;
+            }
+            if (values[slot] == 0) {
+                break;
+            }
+            int home = home(keys[slot]);
+            // An entry moves back unless its probe starts after the hole
+            boolean movable = hole <= slot ? home <= hole || home > slot : home <= hole && home > slot;
+            if (movable) {
+                keys[hole] = keys[slot];
+                values[hole] = values[slot];
+                hole = slot;
+            }
+        }
+        keys[hole] = 0;
+        values[hole] = 0;
+        packedCount--;
+    }
+
+    /**
+     * Moves every packed record to a table of another size.
+     *
+     * @param capacity The new number of slots
+     */
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != 0) {
+                int slot = ~slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Creates empty arrays.
+     *
+     * @param capacity The number of slots
+     */
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        growAt = (int) (capacity * MAX_LOAD);
+    }
+
+    /**
+     * Gets the table size that holds a number of records at the maximum load.
+     *
+     * @param records The number of records
+     * @return The number of slots
+     */
+    private static int capacityFor(int records) {
+        return (int) Math.max(MIN_CAPACITY, Math.min(Integer.MAX_VALUE - 8, (long) Math.ceil(records / MAX_LOAD) + 1));
+    }
+
+    /**
+     * Sorted sets of ints grouped by an int, such as the days of each employee.
+     * Each group is an int array holding its member count, then its members in ascending order,
+     * so a group costs 4 bytes per member plus one map entry.
+     */
+    private static final class GroupIndex {
+        // Map entry, boxed key and array header of a group
+        private static final int GROUP_OVERHEAD_BYTES = 64;
+
+        private final Map<Integer, int[]> groups;
+
+        /**
+         * Creates an empty index.
+         *
+         * @param groups The map to hold the groups, a TreeMap when groups are read in order
+         */
+        GroupIndex(Map<Integer, int[]> groups) {
+            this.groups = groups;
+        }
+
+        /**
+         * Gets a group.
+         *
+         * @param group The group
+         * @return The count followed by the sorted members, or null if the group is empty; not to be changed
+         */
+        int[] get(int group) {
+            return groups.get(group);
+        }
+
+        /**
+         * Adds a member to its place in a group.
+         *
+         * @param group The group
+         * @param member The member, not already in the group
+         */
+        void add(int group, int member) {
+            int[] members = groups.get(group);
+            if (members == null) {
+                members = new int[4];
+                groups.put(group, members);
+            }
+            int count = members[0];
+            int position = lowerBound(members, member);
+            if (count + 1 == members.length) {
+                members = Arrays.copyOf(members, members.length + (members.length >> 1));
+                groups.put(group, members);
+            }
+            System.arraycopy(members, position, members, position + 1, count + 1 - position);
+            members[position] = member;
+            members[0] = count + 1;
+        }
+
+        /**
+         * Creates an index from sorted pairs.
+         *
+         * @param pairs The group in the high 32 bits and the member in the low 32 bits, in ascending order
+         * @param groups The map to hold the groups
+         * @param memberFlip Bits to flip in each low word to get the member back
+         * @return The index
+         */
+        static GroupIndex of(long[] pairs, Map<Integer, int[]> groups, int memberFlip) {
+            GroupIndex index = new GroupIndex(groups);
+            int start = 0;
+            while (start < pairs.length) {
+                int group = (int) (pairs[start] >>> 32);
+                int end = start + 1;
+                while (end < pairs.length && (int) (pairs[end] >>> 32) == group) {
+                    end++;
+                }
+                int[] members = new int[end - start + 1];
+                members[0] = end - start;
+                for (int i = start; i < end; i++) {
+                    members[i - start + 1] = (int) pairs[i] ^ memberFlip;
+                }
+                groups.put(group, members);
+                start = end;
+            }
+            return index;
+        }
+
+        /**
+         * Removes a member from a group, and the group once it is empty.
+         *
+         * @param group The group
+         * @param member The member
+         */
+        void remove(int group, int member) {
+            int[] members = groups.get(group);
+            if (members == null) {
+                return;
+            }
+            int count = members[0];
+            int position = Arrays.binarySearch(members, 1, count + 1, member);
+            if (position < 0) {
+                return;
+            }
+            if (count == 1) {
+                groups.remove(group);
+                return;
+            }
+            System.arraycopy(members, position + 1, members, position, count - position);
+            members[0] = count - 1;
+        }
+
+        /**
+         * Finds the first member not less than a value.
+         *
+         * @param members A group
+         * @param value The value
+         * @return The position of that member, or count + 1 if every member is less
+         */
+        static int lowerBound(int[] members, int value) {
+            int low = 1;
+            int high = members[0];
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (members[middle] < value) {
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Estimates the memory held by the index.
+         *
+         * @return The size in bytes
+         */
+        long getBytes() {
+            long bytes = 0;
+            for (int[] members : groups.values()) {
+                bytes += (long) members.length * Integer.BYTES + GROUP_OVERHEAD_BYTES;
+            }
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * ParallelAttendanceLoader class loads very large attendance CSV files in parallel
+ * Splits the file into chunks at line boundaries and parses the chunks on all cores, each read with positional
+ * reads into its own heap buffer; the file is not memory-mapped, as on Windows a mapping that is still live
+ * keeps the journal's compaction from renaming a new base file over it
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class ParallelAttendanceLoader {
+    // Files smaller than this are read faster by a single CsvReader
+    private static final long PARALLEL_THRESHOLD_BYTES = 8L * 1024 * 1024;
+
+    // Upper bound for one chunk, so very large files are split into more chunks than cores
+    private static final long MAX_CHUNK_BYTES = 256L * 1024 * 1024;
+
+    // Bytes read at a time while parsing a chunk; grown for a line longer than this
+    private static final int READ_BUFFER_BYTES = 1024 * 1024;
+
+    // Chunks per core, so uneven chunks still keep every core busy
+    private static final int CHUNKS_PER_CORE = 4;
+
+    /**
+     * Checks whether a file is large enough to benefit from the parallel loader.
+     *
+     * @param file The attendance CSV file
+     * @return true if the file should be loaded with this loader
+     * @throws IOException If the file size cannot be read
+     */
+    public static boolean isLargeFile(Path file) throws IOException {
+        return Files.exists(file) && Files.size(file) >= PARALLEL_THRESHOLD_BYTES;
+    }
+
+    /**
+     * Loads an attendance CSV file (with header) into the map.
+     * Chunks are parsed in parallel and then added to the map in file order, so a
+     * later row for the same employee and date still replaces an earlier one.
+     * Fields may be quoted, but must not contain line breaks.
+     *
+     * @param file The attendance CSV file
+     * @param records The map to fill, keyed by "employeeID|date"
+     * @throws IOException If the file cannot be read
+     */
+    public static void load(Path file, Map<String, Attendance.AttendanceRecord> records) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] boundaries = findChunkBoundaries(channel);
+
+            List<PackedAttendance> chunks = IntStream.range(0, boundaries.length - 1)
+                .parallel()
+                .mapToObj(i -> parseChunk(channel, boundaries[i], boundaries[i + 1], i == 0))
+                .collect(Collectors.toList());
+
+            for (PackedAttendance chunk : chunks) {
+                records.putAll(chunk);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // Read failure inside a parallel task
+        }
+    }
+
+    /**
+     * Splits the file into chunks that each start at the beginning of a line.
+     *
+     * @param channel The open file channel
+     * @return Chunk start offsets followed by the file size
+     * @throws IOException If the file cannot be read
+     */
+    private static long[] findChunkBoundaries(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int cores = Runtime.getRuntime().availableProcessors();
+        int chunkCount = (int) Math.max((long) cores * CHUNKS_PER_CORE, (size + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES);
+        chunkCount = (int) Math.max(1, Math.min(chunkCount, size / 1024 + 1));
+
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        for (int i = 1; i < chunkCount; i++) {
+            long start = nextLineStart(channel, size * i / chunkCount, probe);
+            if (start > boundaries.get(boundaries.size() - 1) && start < size) {
+                boundaries.add(start);
+            }
+        }
+        boundaries.add(size);
+        return boundaries.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Finds the offset just after the first line break at or after a position.
+     *
+     * @param channel The open file channel
+     * @param position The position to search from
+     * @param probe Scratch buffer for reading
+     * @return The start offset of the next line, or the file size if there is none
+     * @throws IOException If the file cannot be read
+     */
+    private static long nextLineStart(FileChannel channel, long position, ByteBuffer probe) throws IOException {
+        long size = channel.size();
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Reads and parses one chunk of the file, a buffer at a time, carrying an unfinished last line to the next read.
+     *
+     * @param channel The open file channel
+     * @param start The chunk start offset
+     * @param end The chunk end offset
+     * @param skipHeader true for the first chunk, whose first line is the header
+     * @return The records in the chunk, a later row for the same employee and date replacing an earlier one
+     */
+    private static PackedAttendance parseChunk(FileChannel channel, long start, long end, boolean skipHeader) {
+        PackedAttendance records = new PackedAttendance();
+        if (end <= start) {
+            return records;
+        }
+
+        // Status and time values repeat on almost every row, so share one String per value
+        Map<String, String> sharedValues = new HashMap<>();
+        byte[] bytes = new byte[(int) Math.min(READ_BUFFER_BYTES, end - start)];
+        byte[] line = new byte[256];
+        String[] fields = new String[5];
+        boolean header = skipHeader;
+        long position = start;
+        int filled = 0;
+        boolean more = true;
+
+        while (more) {
+            if (filled == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            int read;
+            try {
+                read = channel.read(ByteBuffer.wrap(bytes, filled, (int) Math.min(bytes.length - filled, end - position)), position);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (read > 0) {
+                position += read;
+                filled += read;
+            }
+            more = read > 0 && position < end;
+
+            int lineStart = 0;
+            for (int i = 0; i <= filled; i++) {
+                if (i < filled ? bytes[i] != '\n' : more) {
+                    continue;
+                }
+                int length = i - lineStart;
+                if (length > 0 && bytes[lineStart + length - 1] == '\r') {
+                    length--;
+                }
+                if (length > 0 && !header) {
+                    if (length > line.length) {
+                        line = new byte[length * 2];
+                    }
+                    System.arraycopy(bytes, lineStart, line, 0, length);
+                    if (splitLine(line, length, fields, sharedValues) >= 5) {
+                        records.put(new Attendance.AttendanceRecord(fields[0], fields[1], fields[2], fields[3], fields[4]));
+                    }
+                }
+                header = false;
+                lineStart = i + 1;
+            }
+            if (more) {
+                filled -= lineStart;
+                System.arraycopy(bytes, lineStart, bytes, 0, filled);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Splits one line into at most five fields, removing CSV quoting.
+     *
+     * @param line The line bytes
+     * @param length The number of bytes in the line
+     * @param fields Array that receives the fields
+     * @param sharedValues Cache used to share repeated field values
+     * @return The number of fields found
+     */
+    private static int splitLine(byte[] line, int length, String[] fields, Map<String, String> sharedValues) {
+        int count = 0;
+        int i = 0;
+        while (count < fields.length && i <= length) {
+            String value;
+            if (i < length && line[i] == '"') {
+                StringBuilder quoted = new StringBuilder();
+                int j = i + 1;
+                while (j < length) {
+                    if (line[j] == '"' && j + 1 < length && line[j + 1] == '"') {
+                        quoted.append('"');
+                        j += 2;
+                    } else if (line[j] == '"') {
+                        j++;
+                        break;
+                    } else {
+                        int runStart = j;
+                        while (j < length && line[j] != '"') {
+                            j++;
+                        }
+                        quoted.append(new String(line, runStart, j - runStart, StandardCharsets.UTF_8));
+                    }
+                }
+                value = quoted.toString();
+                while (j < length && line[j] != ',') {
+                    j++;
+                }
+                i = j + 1;
+            } else {
+                int j = i;
+                while (j < length && line[j] != ',') {
+                    j++;
+                }
+                value = new String(line, i, j - i, StandardCharsets.UTF_8);
+                i = j + 1;
+            }
+            String shared = sharedValues.putIfAbsent(value, value);
+            fields[count++] = shared != null ? shared : value;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,735 @@
+import java.io.IOException;
+import java.time.YearMonth;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PayrollGraph class handles keeping the payroll of one pay period computed while its inputs change
+ * Models each employee's pay as a graph of components, where the base salary feeds the contributions and gross pay,
+ * which feed the taxable income, withholding tax and net salary, and recomputes only the components downstream of
+ * a changed input for only the employees it belongs to; a reloaded contribution or tax table marks just the employees
+ * whose salary or taxable income falls where the old and new tables differ. Changed employees are recomputed when
+ * read or in a background batch shortly after the change
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class PayrollGraph {
+    // Pay periods kept up to date at once; the least recently used graph is dropped past the limit
+    public static final int MAX_PERIODS = 3;
+
+    // Changes made within this window are recomputed together by one background batch
+    private static final long RECOMPUTE_DELAY_MS = 250;
+
+    // Graphs by pay period, least recently used first; guarded by PayrollGraph.class
+    private static final LinkedHashMap<YearMonth, PayrollGraph> graphs = new LinkedHashMap<YearMonth, PayrollGraph>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<YearMonth, PayrollGraph> eldest) {
+            return size() > MAX_PERIODS;
+        }
+    };
+
+    private static final ScheduledExecutorService recomputeExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "payroll-graph");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Graphs built since start-up
+    private static long graphsBuilt;
+
+    // Follow payroll records, attendance totals and rule files from the moment the first graph exists
+    static {
+        Updater updater = new Updater();
+        PayrollStore.addChangeListener(updater);
+        AttendancePay.addRollupListener(updater);
+        ContributionRules.addChangeListener(updater);
+    }
+
+    /**
+     * The components of an employee's pay, inputs first and every component after the components it is computed from.
+     */
+    public enum Node {
+        BASE_SALARY,
+        RICE_SUBSIDY,
+        PHONE_ALLOWANCE,
+        CLOTHING_ALLOWANCE,
+        ATTENDANCE,
+        SSS(BASE_SALARY),
+        PHILHEALTH(BASE_SALARY),
+        PAGIBIG(BASE_SALARY),
+        ATTENDANCE_DEDUCTION(BASE_SALARY, ATTENDANCE),
+        GROSS_PAY(BASE_SALARY, ATTENDANCE_DEDUCTION),
+        TOTAL_ALLOWANCES(RICE_SUBSIDY, PHONE_ALLOWANCE, CLOTHING_ALLOWANCE),
+        TAXABLE_INCOME(GROSS_PAY, TOTAL_ALLOWANCES),
+        WITHHOLDING_TAX(TAXABLE_INCOME),
+        TOTAL_DEDUCTIONS(SSS, PHILHEALTH, PAGIBIG, WITHHOLDING_TAX),
+        NET_SALARY(GROSS_PAY, TOTAL_DEDUCTIONS, TOTAL_ALLOWANCES);
+
+        // Every component that is not an input
+        private static final int COMPUTED;
+
+        private final Node[] inputs;
+        private final int bit;
+
+        // Components computed directly from this one, set once below
+        private int dependents;
+
+        static {
+            int computed = 0;
+            for (Node node : values()) {
+                for (Node input : node.inputs) {
+                    input.dependents |= node.bit;
+                }
+                if (!node.isInput()) {
+                    computed |= node.bit;
+                }
+            }
+            COMPUTED = computed;
+        }
+
+        /**
+         * Creates a component.
+         *
+         * @param inputs The components it is computed from, none for an input
+         */
+        Node(Node... inputs) {
+            this.inputs = inputs;
+            this.bit = 1 << ordinal();
+        }
+
+        /**
+         * Checks whether the component is an input taken from the payroll record or attendance.
+         *
+         * @return true for an input, false for a computed component
+         */
+        public boolean isInput() {
+            return inputs.length == 0;
+        }
+    }
+
+    // Components in computation order
+    private static final Node[] NODES = Node.values();
+
+    private final YearMonth period;
+
+    // Rules in force for the period
+    private ContributionRules.RuleSet rules;
+
+    // Row of each employee with a payroll record; rows of removed employees are reused
+    private final Map<String, Integer> rows = new HashMap<>();
+    private final ArrayDeque<Integer> freeRows = new ArrayDeque<>();
+    private String[] employeeIds;
+
+    // Amount of every component in centavos, by component then row; ATTENDANCE has no amount
+    private long[][] values;
+
+    // Attendance totals of every employee with records in the period
+    private Map<String, AttendancePay.Rollup> attendance;
+
+    // Set when the attendance totals were dropped and must be read again
+    private volatile boolean attendanceStale;
+
+    // Components waiting to be recomputed, per row, and the rows with any
+    private int[] dirtyNodes;
+    private final BitSet dirtyRows = new BitSet();
+
+    // Payroll data of each row, built on first read after the row changes
+    private SalaryComputation.PayrollData[] results;
+
+    // Rows by base salary and by taxable income, to find the employees a table change affects
+    private final AmountIndex salaryIndex = new AmountIndex();
+    private final AmountIndex taxableIndex = new AmountIndex();
+
+    private boolean recomputeScheduled;
+
+    // Statistics since the graph was built
+    private long rowsRecomputed;
+    private long nodesRecomputed;
+    private long rulesChanges;
+    private long rowsMarkedByRules;
+
+    /**
+     * Builds the graph of a period with every row waiting to be computed.
+     *
+     * @param period The pay period
+     * @param rules The rules in force for the period
+     * @param payroll Map of employeeId -> PayrollData
+     * @param attendance Map of employeeId -> attendance totals for the period
+     */
+    private PayrollGraph(YearMonth period, ContributionRules.RuleSet rules, Map<String, SalaryComputation.PayrollData> payroll,
+                         Map<String, AttendancePay.Rollup> attendance) {
+        this.period = period;
+        this.rules = rules;
+        this.attendance = attendance;
+        int capacity = Math.max(16, payroll.size());
+        employeeIds = new String[capacity];
+        values = new long[NODES.length][capacity];
+        dirtyNodes = new int[capacity];
+        results = new SalaryComputation.PayrollData[capacity];
+        for (Map.Entry<String, SalaryComputation.PayrollData> record : payroll.entrySet()) {
+            addRow(record.getKey(), record.getValue());
+        }
+    }
+
+    /**
+     * Gets the graph of a pay period, building it from the payroll records and attendance on first use.
+     * Afterwards it follows every change to them, so getting it again costs nothing.
+     *
+     * @param period The pay period
+     * @return The graph
+     * @throws IOException If the period's attendance cannot be read
+     */
+    public static PayrollGraph forPeriod(YearMonth period) throws IOException {
+        PayrollGraph graph;
+        // Lock in the order the change listeners are called, so no change is missed while the graph is built
+        synchronized (Attendance.CHANGE_LOCK) {
+            synchronized (PayrollGraph.class) {
+                graph = graphs.get(period);
+            }
+            if (graph == null) {
+                Map<String, AttendancePay.Rollup> attendance = AttendancePay.getRollups(period);
+                synchronized (PayrollStore.class) {
+                    synchronized (PayrollGraph.class) {
+                        graph = new PayrollGraph(period, ContributionRules.forPeriod(period), PayrollStore.getAll(), attendance);
+                        graphs.put(period, graph);
+                        graphsBuilt++;
+                    }
+                }
+            }
+        }
+        graph.refreshAttendance();
+        return graph;
+    }
+
+    /**
+     * Gets the amount of one component of an employee's pay, recomputing the employee first if needed.
+     *
+     * @param employeeId The employee ID
+     * @param node The component
+     * @return The amount in centavos
+     * @throws IllegalArgumentException If the employee has no payroll record or the component has no amount
+     */
+    public synchronized long get(String employeeId, Node node) {
+        if (node == Node.ATTENDANCE) {
+            throw new IllegalArgumentException("ATTENDANCE has no amount");
+        }
+        Integer row = rows.get(employeeId);
+        if (row == null) {
+            throw new IllegalArgumentException("No payroll record for employee " + employeeId);
+        }
+        if (dirtyRows.get(row)) {
+            recompute(row);
+        }
+        return values[node.ordinal()][row];
+    }
+
+    /**
+     * Gets an employee's payroll data for the period, recomputing the employee first if needed.
+     * The same object is returned until one of the employee's amounts changes.
+     *
+     * @param employeeId The employee ID
+     * @return The payroll data with the period's rules and attendance deduction, or null if there is no payroll record
+     */
+    public synchronized SalaryComputation.PayrollData getPayrollData(String employeeId) {
+        Integer row = rows.get(employeeId);
+        if (row == null) {
+            return null;
+        }
+        if (dirtyRows.get(row)) {
+            recompute(row);
+        }
+        if (results[row] == null) {
+            results[row] = SalaryComputation.PayrollData.ofComputed(value(Node.BASE_SALARY, row), value(Node.SSS, row),
+                value(Node.PHILHEALTH, row), value(Node.PAGIBIG, row), value(Node.WITHHOLDING_TAX, row),
+                value(Node.RICE_SUBSIDY, row), value(Node.PHONE_ALLOWANCE, row), value(Node.CLOTHING_ALLOWANCE, row),
+                rules, value(Node.ATTENDANCE_DEDUCTION, row));
+        }
+        return results[row];
+    }
+
+    /**
+     * Recomputes every employee with changed inputs.
+     *
+     * @return The number of employees recomputed
+     */
+    public synchronized int recomputeDirty() {
+        int count = 0;
+        for (int row = dirtyRows.nextSetBit(0); row >= 0; row = dirtyRows.nextSetBit(row + 1)) {
+            recompute(row);
+            count++;
+        }
+        return count;
+    }
+
+    // Getter methods
+    public YearMonth getPeriod() { return period; }
+    public synchronized ContributionRules.RuleSet getRules() { return rules; }
+    public synchronized int getEmployeeCount() { return rows.size(); }
+    public synchronized int getDirtyCount() { return dirtyRows.cardinality(); }
+
+    /**
+     * Builds a one-line summary of the graphs held.
+     *
+     * @return Summary of periods, employees, pending and recomputed work and rule changes
+     */
+    public static synchronized String getStatusSummary() {
+        int employees = 0, dirty = 0;
+        long recomputedRows = 0, recomputedNodes = 0, changes = 0, marked = 0;
+        for (PayrollGraph graph : graphs.values()) {
+            synchronized (graph) {
+                employees += graph.rows.size();
+                dirty += graph.dirtyRows.cardinality();
+                recomputedRows += graph.rowsRecomputed;
+                recomputedNodes += graph.nodesRecomputed;
+                changes += graph.rulesChanges;
+                marked += graph.rowsMarkedByRules;
+            }
+        }
+        return String.format("Payroll graph: %d periods (%d built) | Employees: %d | Dirty: %d | Recomputed: %d employees, "
+                + "%d components | Rule changes: %d, %d employees marked",
+            graphs.size(), graphsBuilt, employees, dirty, recomputedRows, recomputedNodes, changes, marked);
+    }
+
+    /**
+     * Recomputes the dirty components of one row in computation order.
+     * A component whose amount does not change leaves the components computed from it alone.
+     *
+     * @param row The row
+     */
+    private void recompute(int row) {
+        int dirty = dirtyNodes[row];
+        boolean changed = false;
+        for (Node node : NODES) {
+            if ((dirty & node.bit) == 0) {
+                continue;
+            }
+            long value = compute(node, row);
+            long[] column = values[node.ordinal()];
+            if (column[row] != value) {
+                if (node == Node.TAXABLE_INCOME) {
+                    taxableIndex.move(column[row], value, row);
+                }
+                column[row] = value;
+                dirty |= node.dependents;
+                changed = true;
+            }
+            nodesRecomputed++;
+        }
+        dirtyNodes[row] = 0;
+        dirtyRows.clear(row);
+        if (changed) {
+            results[row] = null;
+        }
+        rowsRecomputed++;
+    }
+
+    /**
+     * Computes one component from the current amounts of its inputs.
+     *
+     * @param node The component
+     * @param row The row
+     * @return The amount in centavos
+     */
+    private long compute(Node node, int row) {
+        switch (node) {
+            case SSS:
+                return rules.sss(value(Node.BASE_SALARY, row));
+            case PHILHEALTH:
+                return rules.philHealth(value(Node.BASE_SALARY, row));
+            case PAGIBIG:
+                return rules.pagIbig(value(Node.BASE_SALARY, row));
+            case ATTENDANCE_DEDUCTION:
+                AttendancePay.Rollup rollup = attendance.get(employeeIds[row]);
+                return rollup == null ? 0 : AttendancePay.calculateDeduction(value(Node.BASE_SALARY, row), rollup);
+            case GROSS_PAY:
+                return value(Node.BASE_SALARY, row) - value(Node.ATTENDANCE_DEDUCTION, row);
+            case TOTAL_ALLOWANCES:
+                return value(Node.RICE_SUBSIDY, row) + value(Node.PHONE_ALLOWANCE, row) + value(Node.CLOTHING_ALLOWANCE, row);
+            case TAXABLE_INCOME:
+                return value(Node.GROSS_PAY, row) + value(Node.TOTAL_ALLOWANCES, row);
+            case WITHHOLDING_TAX:
+                return rules.withholdingTax(value(Node.TAXABLE_INCOME, row));
+            case TOTAL_DEDUCTIONS:
+                return value(Node.SSS, row) + value(Node.PHILHEALTH, row) + value(Node.PAGIBIG, row)
+                    + value(Node.WITHHOLDING_TAX, row);
+            case NET_SALARY:
+                return value(Node.GROSS_PAY, row) - value(Node.TOTAL_DEDUCTIONS, row) + value(Node.TOTAL_ALLOWANCES, row);
+            default:
+                throw new IllegalStateException(node + " is an input");
+        }
+    }
+
+    /**
+     * Gets the current amount of a component.
+     *
+     * @param node The component
+     * @param row The row
+     * @return The amount in centavos
+     */
+    private long value(Node node, int row) {
+        return values[node.ordinal()][row];
+    }
+
+    /**
+     * Adds a row for an employee, waiting to be computed.
+     *
+     * @param employeeId The employee ID
+     * @param data The employee's payroll record
+     */
+    private void addRow(String employeeId, SalaryComputation.PayrollData data) {
+        Integer free = freeRows.poll();
+        int row = free != null ? free : rows.size();
+        if (row == employeeIds.length) {
+            int capacity = row * 2;
+            employeeIds = Arrays.copyOf(employeeIds, capacity);
+            for (int i = 0; i < values.length; i++) {
+                values[i] = Arrays.copyOf(values[i], capacity);
+            }
+            dirtyNodes = Arrays.copyOf(dirtyNodes, capacity);
+            results = Arrays.copyOf(results, capacity);
+        }
+        rows.put(employeeId, row);
+        employeeIds[row] = employeeId;
+        for (long[] column : values) {
+            column[row] = 0;
+        }
+        values[Node.BASE_SALARY.ordinal()][row] = data.getBaseSalary();
+        values[Node.RICE_SUBSIDY.ordinal()][row] = data.getRiceSubsidy();
+        values[Node.PHONE_ALLOWANCE.ordinal()][row] = data.getPhoneAllowance();
+        values[Node.CLOTHING_ALLOWANCE.ordinal()][row] = data.getClothingAllowance();
+        salaryIndex.add(data.getBaseSalary(), row);
+        taxableIndex.add(0, row);
+        results[row] = null;
+        markDirty(row, Node.COMPUTED);
+    }
+
+    /**
+     * Removes an employee's row.
+     *
+     * @param row The row
+     */
+    private void removeRow(int row) {
+        salaryIndex.remove(value(Node.BASE_SALARY, row), row);
+        taxableIndex.remove(value(Node.TAXABLE_INCOME, row), row);
+        rows.remove(employeeIds[row]);
+        employeeIds[row] = null;
+        results[row] = null;
+        dirtyNodes[row] = 0;
+        dirtyRows.clear(row);
+        freeRows.push(row);
+    }
+
+    /**
+     * Applies a changed, new or removed payroll record.
+     *
+     * @param employeeId The employee ID
+     * @param data The new payroll record, or null if it was removed
+     */
+    private synchronized void setPayroll(String employeeId, SalaryComputation.PayrollData data) {
+        Integer row = rows.get(employeeId);
+        if (data == null) {
+            if (row != null) {
+                removeRow(row);
+            }
+        } else if (row == null) {
+            addRow(employeeId, data);
+        } else {
+            setInput(row, Node.BASE_SALARY, data.getBaseSalary());
+            setInput(row, Node.RICE_SUBSIDY, data.getRiceSubsidy());
+            setInput(row, Node.PHONE_ALLOWANCE, data.getPhoneAllowance());
+            setInput(row, Node.CLOTHING_ALLOWANCE, data.getClothingAllowance());
+        }
+    }
+
+    /**
+     * Sets an input amount and marks the components computed from it, if it changed.
+     *
+     * @param row The row
+     * @param node The input
+     * @param value The new amount in centavos
+     */
+    private void setInput(int row, Node node, long value) {
+        long[] column = values[node.ordinal()];
+        if (column[row] == value) {
+            return;
+        }
+        if (node == Node.BASE_SALARY) {
+            salaryIndex.move(column[row], value, row);
+        }
+        column[row] = value;
+        results[row] = null;
+        markDirty(row, node.dependents);
+    }
+
+    /**
+     * Applies new attendance totals of an employee.
+     *
+     * @param employeeId The employee ID
+     * @param rollup The new totals, Rollup.EMPTY if the employee has no records left
+     */
+    private synchronized void setAttendance(String employeeId, AttendancePay.Rollup rollup) {
+        AttendancePay.Rollup previous = rollup.isEmpty() ? attendance.remove(employeeId) : attendance.put(employeeId, rollup);
+        Integer row = rows.get(employeeId);
+        if (row != null && !rollup.equals(previous != null ? previous : AttendancePay.Rollup.EMPTY)) {
+            markDirty(row, Node.ATTENDANCE.dependents);
+        }
+    }
+
+    /**
+     * Reads the attendance totals again after they were dropped, marking the employees whose totals changed.
+     * Takes Attendance.CHANGE_LOCK before the graph, as the change listeners do.
+     *
+     * @throws IOException If the period's attendance cannot be read
+     */
+    private void refreshAttendance() throws IOException {
+        if (!attendanceStale) {
+            return;
+        }
+        synchronized (Attendance.CHANGE_LOCK) {
+            Map<String, AttendancePay.Rollup> current = AttendancePay.getRollups(period);
+            synchronized (this) {
+                for (Map.Entry<String, Integer> row : rows.entrySet()) {
+                    if (!Objects.equals(current.get(row.getKey()), attendance.get(row.getKey()))) {
+                        markDirty(row.getValue(), Node.ATTENDANCE.dependents);
+                    }
+                }
+                attendance = current;
+                attendanceStale = false;
+            }
+        }
+    }
+
+    /**
+     * Switches to new rules, marking only the employees whose contributions or tax the new tables change.
+     *
+     * @param newRules The rules now in force for the period
+     */
+    private synchronized void setRules(ContributionRules.RuleSet newRules) {
+        ContributionRules.RuleSet oldRules = rules;
+        if (oldRules == newRules) {
+            return;
+        }
+        rules = newRules;
+        rulesChanges++;
+        rowsMarkedByRules += markRanges(salaryIndex, oldRules.getSSSTable().differingRanges(newRules.getSSSTable()), Node.SSS)
+            + markRanges(salaryIndex, oldRules.getPhilHealthTable().differingRanges(newRules.getPhilHealthTable()), Node.PHILHEALTH)
+            + markRanges(salaryIndex, oldRules.getPagIbigTable().differingRanges(newRules.getPagIbigTable()), Node.PAGIBIG)
+            + markRanges(taxableIndex, oldRules.getTaxTable().differingRanges(newRules.getTaxTable()), Node.WITHHOLDING_TAX);
+    }
+
+    /**
+     * Marks a component of every row whose indexed amount falls in one of the ranges.
+     * Rows whose taxable income is not computed yet already have their withholding tax marked.
+     *
+     * @param index The rows by amount
+     * @param ranges The ranges as {from, to} pairs in centavos, to exclusive
+     * @param node The component to mark
+     * @return The number of rows marked
+     */
+    private int markRanges(AmountIndex index, long[] ranges, Node node) {
+        int marked = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            for (RowList list : index.lists.subMap(ranges[i], true, ranges[i + 1], false).values()) {
+                for (int j = 0; j < list.size; j++) {
+                    markDirty(list.rows[j], node.bit);
+                    marked++;
+                }
+            }
+        }
+        return marked;
+    }
+
+    /**
+     * Marks components of a row for recomputation and schedules a background batch.
+     *
+     * @param row The row
+     * @param nodes The components, as Node bits
+     */
+    private void markDirty(int row, int nodes) {
+        dirtyNodes[row] |= nodes;
+        dirtyRows.set(row);
+        scheduleRecompute();
+    }
+
+    /**
+     * Schedules a background batch unless one is already waiting.
+     */
+    private void scheduleRecompute() {
+        if (!recomputeScheduled) {
+            recomputeScheduled = true;
+            recomputeExecutor.schedule(this::recomputeInBackground, RECOMPUTE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Background batch: reads dropped attendance again and recomputes every dirty row.
+     */
+    private void recomputeInBackground() {
+        synchronized (this) {
+            recomputeScheduled = false;
+        }
+        try {
+            refreshAttendance();
+        } catch (IOException e) {
+            System.err.println("Error reading attendance for payroll " + period + ": " + e.getMessage());
+        }
+        recomputeDirty();
+    }
+
+    /**
+     * Gets the graphs held, for the change listeners.
+     *
+     * @return A copy of the graphs
+     */
+    private static synchronized List<PayrollGraph> heldGraphs() {
+        return new ArrayList<>(graphs.values());
+    }
+
+    /**
+     * Gets the graph of a period if it is held.
+     *
+     * @param period The pay period
+     * @return The graph, or null
+     */
+    private static synchronized PayrollGraph heldGraph(YearMonth period) {
+        return graphs.get(period);
+    }
+
+    /**
+     * Applies payroll record, attendance and rule changes to the graphs held.
+     */
+    private static class Updater implements PayrollStore.ChangeListener, AttendancePay.RollupListener,
+            ContributionRules.ChangeListener {
+        @Override
+        public void payrollChanged(String employeeId, SalaryComputation.PayrollData data) {
+            for (PayrollGraph graph : heldGraphs()) {
+                graph.setPayroll(employeeId, data);
+            }
+        }
+
+        @Override
+        public void rollupChanged(YearMonth period, String employeeId, AttendancePay.Rollup rollup) {
+            PayrollGraph graph = heldGraph(period);
+            if (graph != null) {
+                graph.setAttendance(employeeId, rollup);
+            }
+        }
+
+        @Override
+        public void periodDropped(YearMonth period) {
+            PayrollGraph graph = heldGraph(period);
+            if (graph != null) {
+                synchronized (graph) {
+                    graph.attendanceStale = true;
+                    graph.scheduleRecompute();
+                }
+            }
+        }
+
+        @Override
+        public void rulesChanged() {
+            for (PayrollGraph graph : heldGraphs()) {
+                graph.setRules(ContributionRules.forPeriod(graph.period));
+            }
+        }
+    }
+
+    /**
+     * Rows by amount, for finding the employees whose salary or taxable income falls in a range.
+     */
+    private static final class AmountIndex {
+        private final TreeMap<Long, RowList> lists = new TreeMap<>();
+
+        // Position of each row in its list, so a row is removed without searching
+        private int[] positions = new int[16];
+
+        /**
+         * Adds a row.
+         *
+         * @param amount The row's amount in centavos
+         * @param row The row
+         */
+        void add(long amount, int row) {
+            if (row >= positions.length) {
+                positions = Arrays.copyOf(positions, Math.max(row + 1, positions.length * 2));
+            }
+            RowList list = lists.computeIfAbsent(amount, key -> new RowList());
+            positions[row] = list.size;
+            list.add(row);
+        }
+
+        /**
+         * Removes a row.
+         *
+         * @param amount The row's amount in centavos
+         * @param row The row
+         */
+        void remove(long amount, int row) {
+            RowList list = lists.get(amount);
+            int moved = list.removeAt(positions[row]);
+            if (moved >= 0) {
+                positions[moved] = positions[row];
+            }
+            if (list.size == 0) {
+                lists.remove(amount);
+            }
+        }
+
+        /**
+         * Moves a row to a new amount.
+         *
+         * @param from The old amount in centavos
+         * @param to The new amount in centavos
+         * @param row The row
+         */
+        void move(long from, long to, int row) {
+            remove(from, row);
+            add(to, row);
+        }
+    }
+
+    /**
+     * The rows sharing one amount, in no particular order.
+     */
+    private static final class RowList {
+        private int[] rows = new int[2];
+        private int size;
+
+        /**
+         * Appends a row.
+         *
+         * @param row The row
+         */
+        void add(int row) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            rows[size++] = row;
+        }
+
+        /**
+         * Removes the row at a position by moving the last row into its place.
+         *
+         * @param position The position
+         * @return The row moved into the position, or -1 if the last row was removed
+         */
+        int removeAt(int position) {
+            int last = rows[--size];
+            if (position == size) {
+                return -1;
+            }
+            rows[position] = last;
+            return last;
+        }
+    }
+}
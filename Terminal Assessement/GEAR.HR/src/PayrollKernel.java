@@ -0,0 +1,206 @@
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * PayrollKernel class handles payroll arithmetic for many employees at once
+ * Keeps salaries, allowances, contributions and results in one array of centavos per field instead of one
+ * PayrollData object per employee, and computes them in tight loops over each column; every result
+ * equals the PayrollData computation exactly because both use the same centavo arithmetic
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class PayrollKernel {
+    // Rows computed per parallel block
+    private static final int BLOCK_SIZE = 4096;
+
+    private final int size;
+    private final String[] employeeIds;
+
+    // Contribution and tax tables the rows are computed with
+    private ContributionRules.RuleSet rules = ContributionRules.current();
+
+    // Inputs in centavos, as held by PayrollData
+    private final long[] baseSalary;
+    private final long[] riceSubsidy;
+    private final long[] phoneAllowance;
+    private final long[] clothingAllowance;
+    private final long[] sssAmount;
+    private final long[] philHealthAmount;
+    private final long[] pagIbigAmount;
+    private final long[] attendanceDeduction;
+
+    // Results of computePay in centavos
+    private final long[] withholdingTax;
+    private final long[] totalDeductions;
+    private final long[] totalAllowances;
+    private final long[] netSalary;
+
+    /**
+     * Creates an empty kernel with room for a fixed number of rows.
+     *
+     * @param size The number of rows
+     */
+    public PayrollKernel(int size) {
+        this.size = size;
+        this.employeeIds = new String[size];
+        this.baseSalary = new long[size];
+        this.riceSubsidy = new long[size];
+        this.phoneAllowance = new long[size];
+        this.clothingAllowance = new long[size];
+        this.sssAmount = new long[size];
+        this.philHealthAmount = new long[size];
+        this.pagIbigAmount = new long[size];
+        this.attendanceDeduction = new long[size];
+        this.withholdingTax = new long[size];
+        this.totalDeductions = new long[size];
+        this.totalAllowances = new long[size];
+        this.netSalary = new long[size];
+    }
+
+    /**
+     * Creates a kernel holding every record of a map, in the map's iteration order.
+     *
+     * @param records Map of employeeId -> PayrollData
+     * @return The kernel, not yet computed
+     */
+    public static PayrollKernel of(Map<String, SalaryComputation.PayrollData> records) {
+        PayrollKernel kernel = new PayrollKernel(records.size());
+        int row = 0;
+        for (Map.Entry<String, SalaryComputation.PayrollData> entry : records.entrySet()) {
+            kernel.set(row++, entry.getKey(), entry.getValue());
+        }
+        return kernel;
+    }
+
+    /**
+     * Sets the rules used by computeContributions and computePay, e.g. those of a past pay period.
+     * A new kernel uses the rules in force today.
+     *
+     * @param rules The contribution and tax rules
+     */
+    public void setRules(ContributionRules.RuleSet rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Fills one row from a PayrollData object, including its stored contributions and attendance deduction.
+     *
+     * @param row The row
+     * @param employeeId The employee ID
+     * @param data The payroll data
+     */
+    public void set(int row, String employeeId, SalaryComputation.PayrollData data) {
+        employeeIds[row] = employeeId;
+        baseSalary[row] = data.getBaseSalary();
+        riceSubsidy[row] = data.getRiceSubsidy();
+        phoneAllowance[row] = data.getPhoneAllowance();
+        clothingAllowance[row] = data.getClothingAllowance();
+        sssAmount[row] = data.getSSSDeduction();
+        philHealthAmount[row] = data.getPhilHealthDeduction();
+        pagIbigAmount[row] = data.getPagIbigDeduction();
+        attendanceDeduction[row] = data.getAttendanceDeduction();
+    }
+
+    /**
+     * Fills one row with a salary and allowances and no attendance deduction; the contributions are set by computeContributions.
+     *
+     * @param row The row
+     * @param employeeId The employee ID
+     * @param base The base salary in centavos
+     * @param rice The rice subsidy in centavos
+     * @param phone The phone allowance in centavos
+     * @param clothing The clothing allowance in centavos
+     */
+    public void set(int row, String employeeId, long base, long rice, long phone, long clothing) {
+        employeeIds[row] = employeeId;
+        baseSalary[row] = base;
+        riceSubsidy[row] = rice;
+        phoneAllowance[row] = phone;
+        clothingAllowance[row] = clothing;
+        attendanceDeduction[row] = 0;
+    }
+
+    /**
+     * Computes the SSS, PhilHealth and Pag-IBIG contributions of every row from its base salary,
+     * as SalaryComputation does for new payroll records.
+     * Each contribution is a separate pass, so one compiled table is used at a time.
+     */
+    public void computeContributions() {
+        computeContributions(0, size);
+    }
+
+    /**
+     * Computes the contributions of a range of rows.
+     *
+     * @param from The first row
+     * @param to The row after the last
+     */
+    public void computeContributions(int from, int to) {
+        for (int i = from; i < to; i++) {
+            sssAmount[i] = rules.sss(baseSalary[i]);
+        }
+        for (int i = from; i < to; i++) {
+            philHealthAmount[i] = rules.philHealth(baseSalary[i]);
+        }
+        for (int i = from; i < to; i++) {
+            pagIbigAmount[i] = rules.pagIbig(baseSalary[i]);
+        }
+    }
+
+    /**
+     * Computes withholding tax, total deductions, total allowances and net salary of every row,
+     * splitting the rows into blocks computed on all cores.
+     */
+    public void computePay() {
+        int blocks = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        IntStream.range(0, blocks).parallel()
+            .forEach(block -> computePay(block * BLOCK_SIZE, Math.min(size, (block + 1) * BLOCK_SIZE)));
+    }
+
+    /**
+     * Computes the pay results of a range of rows.
+     * Each result is a separate loop over the columns it reads, so the loops stay simple enough for the JIT to unroll.
+     *
+     * @param from The first row
+     * @param to The row after the last
+     */
+    public void computePay(int from, int to) {
+        for (int i = from; i < to; i++) {
+            withholdingTax[i] = rules.withholdingTax(baseSalary[i] - attendanceDeduction[i] + phoneAllowance[i] + riceSubsidy[i]
+                + clothingAllowance[i]);
+        }
+        for (int i = from; i < to; i++) {
+            totalDeductions[i] = sssAmount[i] + philHealthAmount[i] + pagIbigAmount[i] + withholdingTax[i];
+        }
+        for (int i = from; i < to; i++) {
+            totalAllowances[i] = riceSubsidy[i] + phoneAllowance[i] + clothingAllowance[i];
+        }
+        for (int i = from; i < to; i++) {
+            netSalary[i] = baseSalary[i] - attendanceDeduction[i] - totalDeductions[i] + totalAllowances[i];
+        }
+    }
+
+    /**
+     * Gets the number of rows.
+     *
+     * @return The row count
+     */
+    public int size() {
+        return size;
+    }
+
+    // Getter methods for one row; amounts are in centavos
+    public String getEmployeeId(int row) { return employeeIds[row]; }
+    public long getBaseSalary(int row) { return baseSalary[row]; }
+    public long getRiceSubsidy(int row) { return riceSubsidy[row]; }
+    public long getPhoneAllowance(int row) { return phoneAllowance[row]; }
+    public long getClothingAllowance(int row) { return clothingAllowance[row]; }
+    public long getSSSDeduction(int row) { return sssAmount[row]; }
+    public long getPhilHealthDeduction(int row) { return philHealthAmount[row]; }
+    public long getPagIbigDeduction(int row) { return pagIbigAmount[row]; }
+    public long getAttendanceDeduction(int row) { return attendanceDeduction[row]; }
+    public long getGrossPay(int row) { return baseSalary[row] - attendanceDeduction[row]; }
+    public long getTaxDeduction(int row) { return withholdingTax[row]; }
+    public long getTotalDeductions(int row) { return totalDeductions[row]; }
+    public long getTotalAllowances(int row) { return totalAllowances[row]; }
+    public long getNetSalary(int row) { return netSalary[row]; }
+}
@@ -0,0 +1,520 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * PayrollRun class handles computing the payslips of the whole workforce for one pay period
+ * Computes the register amounts of all employees at once with PayrollKernel, then splits the employees into
+ * batches that are written on all cores with fork/join: one text or HTML payslip file per employee, rendered with
+ * PayslipTemplate into buffers reused across the batch, and a payroll register CSV, reporting progress and throughput while it runs;
+ * a rerun of the same period rewrites only the payslips whose amounts or employee details changed since the last run
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class PayrollRun {
+    // Folder holding one sub-folder per pay period
+    public static final String RUNS_DIRECTORY = "GEAR.HR/payroll_runs";
+
+    private static final String REGISTER_FILE_NAME = "register.csv";
+    private static final String PAYSLIP_DIRECTORY_NAME = "payslips";
+    private static final String REGISTER_HEADER = "EmployeeID,LastName,FirstName,Position,BaseSalary,AttendanceDeduction,GrossPay,"
+        + "SSSAmount,PhilHealthAmount,PagIBIGAmount,WithholdingTax,TotalDeductions,TotalAllowances,NetSalary";
+
+    // Employees per fork/join leaf: large enough to outweigh task overhead, small enough to keep every core busy
+    private static final int BATCH_SIZE = 256;
+
+    // Characters replaced in payslip file names
+    private static final Pattern UNSAFE_FILE_NAME_CHARACTERS = Pattern.compile("[^A-Za-z0-9_-]");
+
+    // Period label printed on the payslips, e.g. "July 2025"
+    private static final DateTimeFormatter PERIOD_LABEL = DateTimeFormatter.ofPattern("MMMM yyyy", Locale.ENGLISH);
+
+    // Payslips written by the last run into each payslip folder in this session; guarded by itself
+    private static final Map<Path, IssuedPayslips> issuedPayslips = new HashMap<>();
+
+    /**
+     * Receives progress reports from a running payroll run.
+     * Called from the worker threads, so Swing components must be updated through SwingUtilities.invokeLater.
+     */
+    public interface ProgressListener {
+        /**
+         * Reports that more payslips were written.
+         *
+         * @param done The number of payslips written so far
+         * @param total The number of payslips in the run
+         */
+        void progress(int done, int total);
+    }
+
+    /**
+     * Outcome of a finished payroll run.
+     */
+    public static class Result {
+        private final YearMonth period;
+        private final int payslips;
+        private final int rewritten;
+        private final long elapsedNanos;
+        private final Path registerFile;
+        private final Path payslipDirectory;
+
+        /**
+         * Creates a result.
+         *
+         * @param period The pay period
+         * @param payslips The number of payslips written
+         * @param elapsedNanos The duration of the run
+         * @param registerFile The payroll register written
+         * @param payslipDirectory The folder holding the payslips
+         */
+        public Result(YearMonth period, int payslips, long elapsedNanos, Path registerFile, Path payslipDirectory) {
+            this(period, payslips, payslips, elapsedNanos, registerFile, payslipDirectory);
+        }
+
+        /**
+         * Creates a result of a run that kept unchanged payslips of an earlier run.
+         *
+         * @param period The pay period
+         * @param payslips The number of employees paid
+         * @param rewritten The number of payslip files written; the others were unchanged
+         * @param elapsedNanos The duration of the run
+         * @param registerFile The payroll register written
+         * @param payslipDirectory The folder holding the payslips
+         */
+        public Result(YearMonth period, int payslips, int rewritten, long elapsedNanos, Path registerFile,
+                      Path payslipDirectory) {
+            this.period = period;
+            this.payslips = payslips;
+            this.rewritten = rewritten;
+            this.elapsedNanos = elapsedNanos;
+            this.registerFile = registerFile;
+            this.payslipDirectory = payslipDirectory;
+        }
+
+        // Getter methods
+        public YearMonth getPeriod() { return period; }
+        public int getPayslips() { return payslips; }
+        public int getRewritten() { return rewritten; }
+        public long getElapsedNanos() { return elapsedNanos; }
+        public Path getRegisterFile() { return registerFile; }
+        public Path getPayslipDirectory() { return payslipDirectory; }
+
+        /**
+         * Gets the number of payslips computed and written per second.
+         *
+         * @return The throughput, 0 for an empty run
+         */
+        public double getThroughput() {
+            return elapsedNanos == 0 ? 0 : payslips * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        /**
+         * Builds a one-line summary of the run.
+         *
+         * @return Summary of period, payslip count, duration and throughput
+         */
+        public String getSummary() {
+            if (rewritten < payslips) {
+                return String.format("Payroll run %s: %,d payslips, %,d changed and rewritten, in %,d ms (%,.0f payslips/s)",
+                    period, payslips, rewritten, elapsedNanos / 1_000_000, getThroughput());
+            }
+            return String.format("Payroll run %s: %,d payslips in %,d ms (%,.0f payslips/s)",
+                period, payslips, elapsedNanos / 1_000_000, getThroughput());
+        }
+    }
+
+    /**
+     * Gets the payroll register written by the last run of a pay period.
+     *
+     * @param period The pay period
+     * @return The register file path, which does not exist if payroll was not run for the period
+     */
+    public static Path getRegisterFile(YearMonth period) {
+        return Paths.get(RUNS_DIRECTORY).resolve(period.toString()).resolve(REGISTER_FILE_NAME);
+    }
+
+    /**
+     * Runs payroll for every employee with the payroll data currently held in memory.
+     *
+     * @param period The pay period
+     * @param listener Receives progress reports, or null
+     * @return The result of the run
+     * @throws IOException If the payslips or register cannot be written
+     */
+    public static Result run(YearMonth period, ProgressListener listener) throws IOException {
+        return run(period, PayslipTemplate.TEXT, listener);
+    }
+
+    /**
+     * Runs payroll for every employee with the payroll data currently held in memory,
+     * deducting the absences and tardiness recorded in the period.
+     * The amounts come from the period's PayrollGraph, which after the first run recomputes only the employees
+     * whose payroll record, attendance or rules changed.
+     *
+     * @param period The pay period
+     * @param template The payslip template, e.g. PayslipTemplate.TEXT or PayslipTemplate.HTML
+     * @param listener Receives progress reports, or null
+     * @return The result of the run
+     * @throws IOException If the attendance cannot be read or the payslips or register cannot be written
+     */
+    public static Result run(YearMonth period, PayslipTemplate template, ProgressListener listener) throws IOException {
+        long start = System.nanoTime();
+        PayrollGraph graph = PayrollGraph.forPeriod(period);
+        graph.recomputeDirty();
+        List<EmployeeProfile.Employee> employees = EmployeeProfile.getAllEmployees();
+        SalaryComputation.PayrollData[] payrollRows = new SalaryComputation.PayrollData[employees.size()];
+        for (int i = 0; i < payrollRows.length; i++) {
+            String employeeId = employees.get(i).getEmployeeNumber();
+            payrollRows[i] = graph.getPayrollData(employeeId);
+            if (payrollRows[i] == null) {
+                // Employees without a payroll record are not in the graph
+                payrollRows[i] = forPeriod(SalaryComputation.getPayrollData(employeeId), graph.getRules(),
+                    AttendancePay.getRollup(employeeId, period));
+            }
+        }
+        return write(employees, payrollRows, period, Paths.get(RUNS_DIRECTORY), template, listener, start);
+    }
+
+    /**
+     * Runs payroll for the given employees, paying the full base salary without attendance deductions.
+     * Employees without a payroll record are paid with the default payroll data.
+     * Contributions and withholding tax are computed with the rules in force on the last day of the period.
+     * Payslips of an earlier run for the same period are overwritten.
+     *
+     * @param employees The employees to pay
+     * @param payroll Map of employeeId -> PayrollData
+     * @param period The pay period
+     * @param runsDirectory The folder that receives a sub-folder for the period
+     * @param listener Receives progress reports, or null
+     * @return The result of the run
+     * @throws IOException If the payslips or register cannot be written
+     */
+    public static Result run(List<EmployeeProfile.Employee> employees, Map<String, SalaryComputation.PayrollData> payroll,
+                             YearMonth period, Path runsDirectory, ProgressListener listener) throws IOException {
+        return run(employees, payroll, period, runsDirectory, PayslipTemplate.TEXT, Collections.emptyMap(), listener);
+    }
+
+    /**
+     * Runs payroll for the given employees, writing the payslips with a template.
+     * Employees without a payroll record are paid with the default payroll data.
+     * Each base salary is reduced by the absences and tardiness in the employee's attendance totals.
+     * Contributions and withholding tax are computed with the rules in force on the last day of the period.
+     * Payslips of an earlier run in this session for the same period and template are rewritten only if the
+     * employee's amounts or details changed; the register is always rewritten.
+     *
+     * @param employees The employees to pay
+     * @param payroll Map of employeeId -> PayrollData
+     * @param period The pay period
+     * @param runsDirectory The folder that receives a sub-folder for the period
+     * @param template The payslip template
+     * @param attendance Map of employeeId -> attendance totals for the period; employees not in it have no deduction
+     * @param listener Receives progress reports, or null
+     * @return The result of the run
+     * @throws IOException If the payslips or register cannot be written
+     */
+    public static Result run(List<EmployeeProfile.Employee> employees, Map<String, SalaryComputation.PayrollData> payroll,
+                             YearMonth period, Path runsDirectory, PayslipTemplate template,
+                             Map<String, AttendancePay.Rollup> attendance, ProgressListener listener) throws IOException {
+        long start = System.nanoTime();
+
+        // Resolve each employee's payroll data once, with the contribution and tax tables in force for the period
+        // and the attendance deduction
+        ContributionRules.RuleSet rules = ContributionRules.forPeriod(period);
+        SalaryComputation.PayrollData[] payrollRows = new SalaryComputation.PayrollData[employees.size()];
+        for (int i = 0; i < payrollRows.length; i++) {
+            String employeeId = employees.get(i).getEmployeeNumber();
+            SalaryComputation.PayrollData data = payroll.get(employeeId);
+            payrollRows[i] = forPeriod(data != null ? data : SalaryComputation.getPayrollData(employeeId), rules,
+                attendance.get(employeeId));
+        }
+        return write(employees, payrollRows, period, runsDirectory, template, listener, start);
+    }
+
+    /**
+     * Gets an employee's payroll data for a period.
+     *
+     * @param data The employee's payroll record
+     * @param rules The rules in force for the period
+     * @param rollup The employee's attendance totals for the period, or null if there are none
+     * @return The payroll data with the period's rules and attendance deduction
+     */
+    private static SalaryComputation.PayrollData forPeriod(SalaryComputation.PayrollData data,
+                                                           ContributionRules.RuleSet rules, AttendancePay.Rollup rollup) {
+        data = data.withRules(rules);
+        if (rollup != null && !rollup.isEmpty()) {
+            data = data.withAttendance(AttendancePay.calculateDeduction(data.getBaseSalary(), rollup));
+        }
+        return data;
+    }
+
+    /**
+     * Writes the payslips and register of a run.
+     * Payslips that the last run into the same folder wrote with the same template, amounts and employee details
+     * are kept; the others are rewritten. The register amounts are computed column by column with PayrollKernel.
+     *
+     * @param employees The employees to pay
+     * @param payrollRows The payroll data of each employee for the period, by employee index
+     * @param period The pay period
+     * @param runsDirectory The folder that receives a sub-folder for the period
+     * @param template The payslip template
+     * @param listener Receives progress reports, or null
+     * @param start The System.nanoTime() the run started at
+     * @return The result of the run
+     * @throws IOException If the payslips or register cannot be written
+     */
+    private static Result write(List<EmployeeProfile.Employee> employees, SalaryComputation.PayrollData[] payrollRows,
+                                YearMonth period, Path runsDirectory, PayslipTemplate template, ProgressListener listener,
+                                long start) throws IOException {
+        Path runDirectory = runsDirectory.resolve(period.toString());
+        Path payslipDirectory = runDirectory.resolve(PAYSLIP_DIRECTORY_NAME);
+        Path issuedKey = payslipDirectory.toAbsolutePath().normalize();
+        IssuedPayslips previous;
+        synchronized (issuedPayslips) {
+            // Forgotten until this run succeeds, so a failed run is redone in full
+            previous = issuedPayslips.remove(issuedKey);
+        }
+        if (previous != null && (previous.template != template || !Files.isDirectory(payslipDirectory))) {
+            previous = null;
+        }
+        Files.createDirectories(payslipDirectory);
+
+        PayrollKernel kernel = new PayrollKernel(employees.size());
+        kernel.setRules(ContributionRules.forPeriod(period));
+        IssuedPayslips issued = new IssuedPayslips(template, employees.size());
+        boolean[] rewrite = previous != null ? new boolean[employees.size()] : null;
+        int rewritten = 0;
+        for (int i = 0; i < payrollRows.length; i++) {
+            EmployeeProfile.Employee employee = employees.get(i);
+            kernel.set(i, employee.getEmployeeNumber(), payrollRows[i]);
+            IssuedPayslip payslip = previous != null ? previous.payslips.get(employee.getEmployeeNumber()) : null;
+            if (payslip == null || !payslip.matches(employee, payrollRows[i])) {
+                payslip = new IssuedPayslip(employee, payrollRows[i]);
+                if (rewrite != null) {
+                    rewrite[i] = true;
+                }
+                rewritten++;
+            }
+            issued.payslips.put(employee.getEmployeeNumber(), payslip);
+        }
+        kernel.computePay();
+
+        // Each batch keeps its register lines in its own slot, so they are written in employee order without joining
+        String[] registerChunks = new String[(employees.size() + BATCH_SIZE - 1) / BATCH_SIZE];
+        BatchTask task = new BatchTask(employees, payrollRows, rewrite, kernel, template, period.format(PERIOD_LABEL),
+            payslipDirectory, registerChunks, new AtomicInteger(), listener, 0, employees.size());
+        try {
+            if (!employees.isEmpty()) {
+                ForkJoinPool.commonPool().invoke(task);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        Path registerFile = runDirectory.resolve(REGISTER_FILE_NAME);
+        FlushScheduler.writeAtomically(registerFile, writer -> {
+            writer.write(REGISTER_HEADER);
+            writer.newLine();
+            for (String chunk : registerChunks) {
+                writer.write(chunk);
+            }
+        });
+        synchronized (issuedPayslips) {
+            issuedPayslips.put(issuedKey, issued);
+        }
+        return new Result(period, employees.size(), rewritten, System.nanoTime() - start, registerFile, payslipDirectory);
+    }
+
+    /**
+     * The payslips written into one folder by the last run.
+     */
+    private static final class IssuedPayslips {
+        private final PayslipTemplate template;
+        private final Map<String, IssuedPayslip> payslips;
+
+        IssuedPayslips(PayslipTemplate template, int employees) {
+            this.template = template;
+            this.payslips = new HashMap<>(employees * 4 / 3 + 1);
+        }
+    }
+
+    /**
+     * The payroll data and employee details one payslip was written with.
+     */
+    private static final class IssuedPayslip {
+        private final SalaryComputation.PayrollData data;
+        private final String firstName;
+        private final String lastName;
+        private final String position;
+
+        IssuedPayslip(EmployeeProfile.Employee employee, SalaryComputation.PayrollData data) {
+            this.data = data;
+            this.firstName = employee.getFirstName();
+            this.lastName = employee.getLastName();
+            this.position = employee.getPosition();
+        }
+
+        /**
+         * Checks that the payslip still shows the employee's details and payroll data.
+         *
+         * @param employee The employee
+         * @param current The employee's payroll data for this run
+         * @return true if the payslip need not be written again
+         */
+        boolean matches(EmployeeProfile.Employee employee, SalaryComputation.PayrollData current) {
+            return (data == current || data.hasSameAmounts(current)) && firstName.equals(employee.getFirstName())
+                && lastName.equals(employee.getLastName()) && position.equals(employee.getPosition());
+        }
+    }
+
+    /**
+     * Fork/join task that pays a range of employees, splitting it in half until it fits one batch.
+     */
+    private static class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<EmployeeProfile.Employee> employees;
+        private final SalaryComputation.PayrollData[] payrollRows;
+        private final boolean[] rewrite;
+        private final PayrollKernel kernel;
+        private final PayslipTemplate template;
+        private final String periodLabel;
+        private final Path payslipDirectory;
+        private final String[] registerChunks;
+        private final AtomicInteger done;
+        private final ProgressListener listener;
+        private final int from;
+        private final int to;
+
+        /**
+         * Creates a task for the employees from index "from" up to, not including, index "to".
+         *
+         * @param employees All employees of the run
+         * @param payrollRows The payroll data of each employee, by employee index
+         * @param rewrite Whether each employee's payslip must be written, by employee index, or null to write all
+         * @param kernel The computed register amounts, by employee index
+         * @param template The payslip template
+         * @param periodLabel The period printed on the payslips
+         * @param payslipDirectory The folder receiving the payslips
+         * @param registerChunks The register lines of each batch, filled in by the leaves
+         * @param done The number of payslips written so far, shared by all tasks
+         * @param listener Receives progress reports, or null
+         * @param from The first employee index
+         * @param to The index after the last employee
+         */
+        BatchTask(List<EmployeeProfile.Employee> employees, SalaryComputation.PayrollData[] payrollRows, boolean[] rewrite,
+                  PayrollKernel kernel, PayslipTemplate template, String periodLabel, Path payslipDirectory,
+                  String[] registerChunks, AtomicInteger done, ProgressListener listener, int from, int to) {
+            this.employees = employees;
+            this.payrollRows = payrollRows;
+            this.rewrite = rewrite;
+            this.kernel = kernel;
+            this.template = template;
+            this.periodLabel = periodLabel;
+            this.payslipDirectory = payslipDirectory;
+            this.registerChunks = registerChunks;
+            this.done = done;
+            this.listener = listener;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Pays the range directly if it fits one batch, otherwise splits it at a batch boundary.
+         */
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_SIZE) {
+                payBatch();
+                return;
+            }
+            int middle = from + ((to - from) / 2 + BATCH_SIZE - 1) / BATCH_SIZE * BATCH_SIZE;
+            invokeAll(subtask(from, middle), subtask(middle, to));
+        }
+
+        /**
+         * Creates the task for part of this range.
+         *
+         * @param subFrom The first employee index
+         * @param subTo The index after the last employee
+         * @return The task
+         */
+        private BatchTask subtask(int subFrom, int subTo) {
+            return new BatchTask(employees, payrollRows, rewrite, kernel, template, periodLabel, payslipDirectory, registerChunks, done,
+                listener, subFrom, subTo);
+        }
+
+        /**
+         * Writes the changed payslips of one batch and stores its register lines.
+         */
+        private void payBatch() {
+            StringBuilder register = new StringBuilder((to - from) * 128);
+            PayslipTemplate.Renderer renderer = template.newRenderer();
+            for (int i = from; i < to; i++) {
+                EmployeeProfile.Employee employee = employees.get(i);
+                if (rewrite == null || rewrite[i]) {
+                    Path payslipFile = payslipDirectory.resolve(payslipFileName(employee.getEmployeeNumber(), template));
+                    try {
+                        renderer.write(payslipFile, employee, periodLabel, payrollRows[i]);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                appendRegisterLine(register, employee, kernel, i);
+            }
+            registerChunks[from / BATCH_SIZE] = register.toString();
+
+            int written = done.addAndGet(to - from);
+            if (listener != null) {
+                listener.progress(written, employees.size());
+            }
+        }
+    }
+
+    /**
+     * Appends the payroll register line of one employee.
+     *
+     * @param register The register being built
+     * @param employee The employee
+     * @param kernel The computed register amounts
+     * @param row The employee's row in the kernel
+     */
+    private static void appendRegisterLine(StringBuilder register, EmployeeProfile.Employee employee,
+                                           PayrollKernel kernel, int row) {
+        register.append(String.join(",",
+            CsvReader.escape(employee.getEmployeeNumber()),
+            CsvReader.escape(employee.getLastName()),
+            CsvReader.escape(employee.getFirstName()),
+            CsvReader.escape(employee.getPosition()),
+            Money.format(kernel.getBaseSalary(row)),
+            Money.format(kernel.getAttendanceDeduction(row)),
+            Money.format(kernel.getGrossPay(row)),
+            Money.format(kernel.getSSSDeduction(row)),
+            Money.format(kernel.getPhilHealthDeduction(row)),
+            Money.format(kernel.getPagIbigDeduction(row)),
+            Money.format(kernel.getTaxDeduction(row)),
+            Money.format(kernel.getTotalDeductions(row)),
+            Money.format(kernel.getTotalAllowances(row)),
+            Money.format(kernel.getNetSalary(row))
+        )).append(System.lineSeparator());
+    }
+
+    /**
+     * Builds the payslip file name of an employee, replacing characters that are not safe in file names.
+     *
+     * @param employeeId The employee ID
+     * @param template The payslip template, which gives the file extension
+     * @return The file name
+     */
+    private static String payslipFileName(String employeeId, PayslipTemplate template) {
+        return UNSAFE_FILE_NAME_CHARACTERS.matcher(employeeId).replaceAll("_") + "." + template.getFileExtension();
+    }
+}
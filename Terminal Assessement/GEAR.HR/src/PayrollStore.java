@@ -0,0 +1,285 @@
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.io.IOException;
+
+/**
+ * PayrollStore class holds the single shared copy of every employee's payroll data
+ * Provides bulk loading from the storage backend and write-behind saving through FlushScheduler,
+ * merging with changes saved by other instances sharing the same data
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class PayrollStore {
+    // Payroll data storage: employeeId -> PayrollData
+    private static final Map<String, SalaryComputation.PayrollData> payrollData = new HashMap<>();
+
+    // Signature of each record as last loaded or saved, used to tell local edits from other instances' edits
+    private static Map<String, String> savedSignatures = new HashMap<>();
+
+    // Saves rejected by a newer version are merged and retried this many times before the flush fails
+    private static final int MAX_SAVE_ATTEMPTS = 3;
+
+    // Keeps a save on the flush thread and a reload on the watcher thread from interleaving
+    private static final Object saveLock = new Object();
+
+    // Notified of every record stored, replaced or removed, whether edited here or merged from another instance
+    private static final List<ChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+
+    // Told which employees' unsaved payroll changes were discarded because another instance saved them first
+    private static final List<RejectionListener> rejectionListeners = new CopyOnWriteArrayList<>();
+
+    // Write-behind target that saves the payroll data through the storage backend
+    private static final FlushScheduler.Store csvStore = new FlushScheduler.Store() {
+        @Override
+        public String getName() {
+            return "payroll data";
+        }
+
+        @Override
+        public void flush() throws IOException {
+            savePayrollData();
+        }
+    };
+
+    // Bulk load payroll data once when the store is first used, then follow changes made by other instances
+    static {
+        loadPayrollData();
+        DataFolderWatcher.register(PayrollStore::applyExternalChanges);
+    }
+
+    /**
+     * Receives the payroll records that change, one at a time.
+     */
+    public interface ChangeListener {
+        /**
+         * Called while the store is locked, so the listener must not call back into PayrollStore
+         * and should only record the change.
+         *
+         * @param employeeId The employee ID
+         * @param data The new payroll data, or null if the record was removed
+         */
+        void payrollChanged(String employeeId, SalaryComputation.PayrollData data);
+    }
+
+    /**
+     * Receives the employees whose payroll changes were discarded by a merge.
+     */
+    public interface RejectionListener {
+        /**
+         * Called while the store is locked, on the flush or watcher thread, so the listener must not call
+         * back into PayrollStore; a UI listener should show the message with SwingUtilities.invokeLater.
+         *
+         * @param employeeIds The employee IDs whose changes here were replaced by the saved version
+         */
+        void changesRejected(List<String> employeeIds);
+    }
+
+    /**
+     * Registers a listener notified of every payroll record change.
+     *
+     * @param listener The listener
+     */
+    public static void addChangeListener(ChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Registers a listener told when payroll changes made here are discarded because another instance
+     * saved the same records first.
+     *
+     * @param listener The listener
+     */
+    public static void addRejectionListener(RejectionListener listener) {
+        rejectionListeners.add(listener);
+    }
+
+    /**
+     * Gets the payroll data for an employee.
+     *
+     * @param employeeId The employee ID
+     * @return The PayrollData object, or null if the employee has no payroll record
+     */
+    public static synchronized SalaryComputation.PayrollData get(String employeeId) {
+        return payrollData.get(employeeId);
+    }
+
+    /**
+     * Checks whether an employee has a payroll record.
+     *
+     * @param employeeId The employee ID
+     * @return true if a payroll record exists
+     */
+    public static synchronized boolean contains(String employeeId) {
+        return payrollData.containsKey(employeeId);
+    }
+
+    /**
+     * Checks whether the store holds any payroll records.
+     *
+     * @return true if there are no payroll records
+     */
+    public static synchronized boolean isEmpty() {
+        return payrollData.isEmpty();
+    }
+
+    /**
+     * Returns a copy of all payroll records.
+     *
+     * @return A new map of employeeId -> PayrollData
+     */
+    public static synchronized Map<String, SalaryComputation.PayrollData> getAll() {
+        return new HashMap<>(payrollData);
+    }
+
+    /**
+     * Stores payroll data for an employee and schedules a deferred save.
+     *
+     * @param employeeId The employee ID
+     * @param data The new payroll data
+     */
+    public static synchronized void put(String employeeId, SalaryComputation.PayrollData data) {
+        payrollData.put(employeeId, data);
+        FlushScheduler.markDirty(csvStore);
+        fireChanged(employeeId, data);
+    }
+
+    /**
+     * Stores many payroll records at once with a single deferred save.
+     *
+     * @param records Map of employeeId -> PayrollData to store
+     */
+    public static synchronized void putAll(Map<String, SalaryComputation.PayrollData> records) {
+        payrollData.putAll(records);
+        FlushScheduler.markDirty(csvStore);
+        for (Map.Entry<String, SalaryComputation.PayrollData> record : records.entrySet()) {
+            fireChanged(record.getKey(), record.getValue());
+        }
+    }
+
+    /**
+     * Removes payroll data for an employee and schedules a deferred save.
+     *
+     * @param employeeId The employee ID to remove
+     */
+    public static synchronized void remove(String employeeId) {
+        if (payrollData.remove(employeeId) != null) {
+            FlushScheduler.markDirty(csvStore);
+            fireChanged(employeeId, null);
+        }
+    }
+
+    /**
+     * Merges payroll records saved by other instances sharing the data, if any were saved since
+     * this instance last loaded or saved them. Runs on the watcher thread; unsaved local edits are kept.
+     *
+     * @throws IOException If the data cannot be read
+     */
+    private static void applyExternalChanges() throws IOException {
+        synchronized (saveLock) {
+            if (Repositories.payroll().hasExternalChanges()) {
+                mergeSavedChanges(Repositories.payroll().loadAll());
+            }
+        }
+    }
+
+    /**
+     * Loads payroll data from the selected storage backend into memory.
+     * Reads every record in one bulk load without writing anything back.
+     * Handles missing or malformed data gracefully.
+     */
+    private static void loadPayrollData() {
+        try {
+            payrollData.putAll(Repositories.payroll().loadAll());
+            savedSignatures = RecordMerge.signatures(payrollData, PayrollStore::signature);
+        } catch (IOException e) {
+            System.err.println("Error loading payroll data: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Saves all payroll data to the selected storage backend.
+     * Takes a snapshot of the payrollData map so the Swing thread can keep editing.
+     * If another instance saved first, its changes are merged in and the save is retried.
+     * Called on the flush thread by FlushScheduler.
+     *
+     * @throws IOException If the data cannot be written
+     */
+    private static void savePayrollData() throws IOException {
+        synchronized (saveLock) {
+            for (int attempt = 1; ; attempt++) {
+                Map<String, SalaryComputation.PayrollData> records = getAll();
+                try {
+                    Repositories.payroll().saveAll(records);
+                    Map<String, String> saved = RecordMerge.signatures(records, PayrollStore::signature);
+                    synchronized (PayrollStore.class) {
+                        savedSignatures = saved;
+                    }
+                    return;
+                } catch (SharedFileLock.StaleDataException e) {
+                    if (attempt == MAX_SAVE_ATTEMPTS) {
+                        throw e;
+                    }
+                    mergeSavedChanges(Repositories.payroll().loadAll());
+                }
+            }
+        }
+    }
+
+    /**
+     * Merges payroll records saved by another instance into memory.
+     * Records changed both here and there keep the saved version; those are reported on System.err
+     * and to the rejection listeners.
+     *
+     * @param diskRecords The payroll records now in storage
+     */
+    private static synchronized void mergeSavedChanges(Map<String, SalaryComputation.PayrollData> diskRecords) {
+        Map<String, SalaryComputation.PayrollData> before = changeListeners.isEmpty() ? null : new HashMap<>(payrollData);
+        List<String> rejected = RecordMerge.merge(payrollData, savedSignatures, diskRecords, PayrollStore::signature);
+        savedSignatures = RecordMerge.signatures(diskRecords, PayrollStore::signature);
+        if (!rejected.isEmpty()) {
+            System.err.println("Payroll changes for employees " + rejected
+                + " were discarded because another user saved them first");
+            for (RejectionListener listener : rejectionListeners) {
+                listener.changesRejected(rejected);
+            }
+        }
+        if (before != null) {
+            // Report only the records the merge replaced, added or removed
+            for (Map.Entry<String, SalaryComputation.PayrollData> record : payrollData.entrySet()) {
+                if (before.remove(record.getKey()) != record.getValue()) {
+                    fireChanged(record.getKey(), record.getValue());
+                }
+            }
+            for (String removed : before.keySet()) {
+                fireChanged(removed, null);
+            }
+        }
+    }
+
+    /**
+     * Notifies the listeners of one record change. Called with the store locked.
+     *
+     * @param employeeId The employee ID
+     * @param data The new payroll data, or null if the record was removed
+     */
+    private static void fireChanged(String employeeId, SalaryComputation.PayrollData data) {
+        for (ChangeListener listener : changeListeners) {
+            listener.payrollChanged(employeeId, data);
+        }
+    }
+
+    /**
+     * Builds the text compared when merging a payroll record.
+     * Holds the saved fields in centavos; the withholding tax
+     * is left out because it is computed from the other fields.
+     *
+     * @param data The payroll data
+     * @return The signature
+     */
+    private static String signature(SalaryComputation.PayrollData data) {
+        return data.getBaseSalary() + "," + data.getSSSDeduction() + "," + data.getPhilHealthDeduction() + ","
+            + data.getPagIbigDeduction() + "," + data.getRiceSubsidy() + ","
+            + data.getPhoneAllowance() + "," + data.getClothingAllowance();
+    }
+}
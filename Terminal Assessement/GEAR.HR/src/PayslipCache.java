@@ -0,0 +1,216 @@
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * PayslipCache class handles keeping recently computed payslips in memory
+ * Holds a bounded number of payslips keyed by employee ID, pay period and contribution rules version,
+ * drops the least recently used one past the limit, and counts hits, misses, evictions and invalidations
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class PayslipCache {
+    // Payslips kept in memory; a payslip is about 1 KB of text
+    public static final int MAX_ENTRIES = 1024;
+
+    // Cached payslips, least recently used first; the eldest is dropped past the limit.
+    // Inside the subclass a bare Entry would mean the inherited Map.Entry, so the cache's Entry is qualified
+    private static final LinkedHashMap<Key, PayslipCache.Entry> entries = new LinkedHashMap<Key, PayslipCache.Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, PayslipCache.Entry> eldest) {
+            if (size() > MAX_ENTRIES) {
+                evictions++;
+                return true;
+            }
+            return false;
+        }
+    };
+
+    // Statistics since start-up
+    private static long hits;
+    private static long misses;
+    private static long evictions;
+    private static long invalidations;
+
+    // Payslips are keyed by the rules' effective date, which an edited table file keeps
+    static {
+        ContributionRules.addChangeListener(PayslipCache::clear);
+    }
+
+    /**
+     * Identifies one payslip: an employee, a pay period and the rules it was computed with.
+     */
+    private static final class Key {
+        private final String employeeId;
+        private final String period;
+        private final LocalDate rulesVersion;
+
+        /**
+         * Creates a key.
+         *
+         * @param employeeId The employee ID
+         * @param period The pay period as printed on the payslip
+         * @param rulesVersion The effective date of the contribution and tax rules
+         */
+        Key(String employeeId, String period, LocalDate rulesVersion) {
+            this.employeeId = employeeId;
+            this.period = period;
+            this.rulesVersion = rulesVersion;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return employeeId.equals(key.employeeId) && period.equals(key.period) && rulesVersion.equals(key.rulesVersion);
+        }
+
+        @Override
+        public int hashCode() {
+            return (employeeId.hashCode() * 31 + period.hashCode()) * 31 + rulesVersion.hashCode();
+        }
+    }
+
+    /**
+     * A cached payslip with the payroll data and employee details it was built from.
+     */
+    private static final class Entry {
+        private final SalaryComputation.PayrollData data;
+        private final String firstName;
+        private final String lastName;
+        private final String position;
+        private final String payslip;
+
+        /**
+         * Creates an entry.
+         *
+         * @param employee The employee
+         * @param data The payroll data the payslip was computed from
+         * @param payslip The payslip text
+         */
+        Entry(EmployeeProfile.Employee employee, SalaryComputation.PayrollData data, String payslip) {
+            this.data = data;
+            this.firstName = employee.getFirstName();
+            this.lastName = employee.getLastName();
+            this.position = employee.getPosition();
+            this.payslip = payslip;
+        }
+
+        /**
+         * Checks that the payslip still shows the employee's current details and payroll data.
+         * Catches changes that do not pass through SalaryComputation, such as records reloaded from disk
+         * or an edited name.
+         *
+         * @param employee The employee
+         * @param current The employee's current payroll data
+         * @return true if the payslip is still correct
+         */
+        boolean matches(EmployeeProfile.Employee employee, SalaryComputation.PayrollData current) {
+            return data.equals(current) && firstName.equals(employee.getFirstName())
+                && lastName.equals(employee.getLastName()) && position.equals(employee.getPosition());
+        }
+    }
+
+    /**
+     * Gets a cached payslip.
+     * A payslip built from other payroll data or employee details than the current ones is dropped and counted as a miss.
+     *
+     * @param employee The employee
+     * @param period The pay period as printed on the payslip
+     * @param rules The contribution and tax rules the payslip is computed with
+     * @param data The employee's current payroll data
+     * @return The payslip text, or null if it must be computed
+     */
+    public static synchronized String get(EmployeeProfile.Employee employee, String period,
+                                          ContributionRules.RuleSet rules, SalaryComputation.PayrollData data) {
+        Key key = new Key(employee.getEmployeeNumber(), period, rules.getEffectiveDate());
+        Entry entry = entries.get(key);
+        if (entry != null && entry.matches(employee, data)) {
+            hits++;
+            return entry.payslip;
+        }
+        if (entry != null) {
+            entries.remove(key);
+            invalidations++;
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * Stores a computed payslip.
+     *
+     * @param employee The employee
+     * @param period The pay period as printed on the payslip
+     * @param rules The contribution and tax rules the payslip was computed with
+     * @param data The payroll data the payslip was computed from
+     * @param payslip The payslip text
+     */
+    public static synchronized void put(EmployeeProfile.Employee employee, String period,
+                                        ContributionRules.RuleSet rules, SalaryComputation.PayrollData data, String payslip) {
+        entries.put(new Key(employee.getEmployeeNumber(), period, rules.getEffectiveDate()), new Entry(employee, data, payslip));
+    }
+
+    /**
+     * Drops every cached payslip of an employee, for all periods and rules versions.
+     *
+     * @param employeeId The employee ID
+     */
+    public static synchronized void invalidate(String employeeId) {
+        Iterator<Key> keys = entries.keySet().iterator();
+        while (keys.hasNext()) {
+            if (keys.next().employeeId.equals(employeeId)) {
+                keys.remove();
+                invalidations++;
+            }
+        }
+    }
+
+    /**
+     * Drops every cached payslip.
+     */
+    public static synchronized void clear() {
+        invalidations += entries.size();
+        entries.clear();
+    }
+
+    /**
+     * Gets the number of payslips served from the cache.
+     *
+     * @return The hit count
+     */
+    public static synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of payslips that had to be computed.
+     *
+     * @return The miss count
+     */
+    public static synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Gets the share of lookups served from the cache.
+     *
+     * @return The hit rate from 0 to 1, 0 before the first lookup
+     */
+    public static synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * Builds a one-line summary of the cache statistics.
+     *
+     * @return Summary of size, hits, misses, evictions and invalidations
+     */
+    public static synchronized String getStatusSummary() {
+        return String.format("Payslip cache: %d/%d | Hits: %d | Misses: %d | Hit rate: %.0f%% | Evictions: %d | Invalidations: %d",
+            entries.size(), MAX_ENTRIES, hits, misses, getHitRate() * 100, evictions, invalidations);
+    }
+}
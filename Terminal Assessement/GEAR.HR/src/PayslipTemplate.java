@@ -0,0 +1,351 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PayslipTemplate class handles turning payroll data into payslip text or HTML
+ * Compiles a template with ${field} placeholders once into its literal text and field list,
+ * then renders payslips by appending each part to a reusable buffer, formatting pesos with Money
+ * instead of String.format, so bulk runs render tens of thousands of payslips per second
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public final class PayslipTemplate {
+    /**
+     * Values a template can show, with the name used in its placeholder, e.g. ${netSalary}.
+     */
+    private enum Field {
+        PERIOD("period"), PERIOD_TITLE("periodTitle"), FIRST_NAME("firstName"), LAST_NAME("lastName"),
+        EMPLOYEE_ID("employeeId"), POSITION("position"), BASE_SALARY("baseSalary"),
+        ATTENDANCE_DEDUCTION("attendanceDeduction"), GROSS_PAY("grossPay"), SSS("sss"),
+        PHILHEALTH("philHealth"), PAGIBIG("pagIbig"), WITHHOLDING_TAX("withholdingTax"),
+        TOTAL_DEDUCTIONS("totalDeductions"), RICE_SUBSIDY("riceSubsidy"), PHONE_ALLOWANCE("phoneAllowance"),
+        CLOTHING_ALLOWANCE("clothingAllowance"), TOTAL_ALLOWANCES("totalAllowances"), NET_SALARY("netSalary");
+
+        private final String placeholder;
+
+        Field(String placeholder) {
+            this.placeholder = placeholder;
+        }
+
+        /**
+         * Finds the field of a placeholder name.
+         *
+         * @param placeholder The name between ${ and }
+         * @return The field, or null if there is none
+         */
+        static Field of(String placeholder) {
+            for (Field field : values()) {
+                if (field.placeholder.equals(placeholder)) {
+                    return field;
+                }
+            }
+            return null;
+        }
+    }
+
+    // Plain text payslip shown by Compute Salary and written by payroll runs
+    public static final PayslipTemplate TEXT = compile("Text", "txt", false,
+        "SALARY COMPUTATION FOR ${periodTitle}\n"
+        + "=====================================\n\n"
+        + "Employee: ${firstName} ${lastName}\n"
+        + "Employee ID: ${employeeId}\n"
+        + "Position: ${position}\n\n"
+        + "GROSS SALARY:\n"
+        + "Base Salary: ₱${baseSalary}\n"
+        + "Absences/Tardiness: ₱${attendanceDeduction}\n"
+        + "Gross Pay: ₱${grossPay}\n\n"
+        + "DEDUCTIONS:\n"
+        + "SSS: ₱${sss}\n"
+        + "PhilHealth: ₱${philHealth}\n"
+        + "Pag-IBIG: ₱${pagIbig}\n"
+        + "Withholding Tax: ₱${withholdingTax}\n"
+        + "Total Deductions: ₱${totalDeductions}\n\n"
+        + "ALLOWANCES:\n"
+        + "Rice Subsidy: ₱${riceSubsidy}\n"
+        + "Phone Allowance: ₱${phoneAllowance}\n"
+        + "Clothing Allowance: ₱${clothingAllowance}\n"
+        + "Total Allowances: ₱${totalAllowances}\n\n"
+        + "NET SALARY: ₱${netSalary}\n");
+
+    // HTML payslip in the application's navy and orange colors, for printing or e-mail
+    public static final PayslipTemplate HTML = compile("HTML", "html", true,
+        "<!DOCTYPE html>\n"
+        + "<html><head><meta charset=\"UTF-8\"><title>Payslip ${employeeId} ${period}</title></head>\n"
+        + "<body style=\"font-family:Arial,sans-serif;color:#1e3a8a\">\n"
+        + "<h2 style=\"border-bottom:3px solid #f97316\">SALARY COMPUTATION FOR ${periodTitle}</h2>\n"
+        + "<p>Employee: ${firstName} ${lastName}<br>Employee ID: ${employeeId}<br>Position: ${position}</p>\n"
+        + "<table style=\"border-collapse:collapse\">\n"
+        + "<tr><th colspan=\"2\" align=\"left\">GROSS SALARY</th></tr>\n"
+        + "<tr><td>Base Salary</td><td align=\"right\">&#8369;${baseSalary}</td></tr>\n"
+        + "<tr><td>Absences/Tardiness</td><td align=\"right\">&#8369;${attendanceDeduction}</td></tr>\n"
+        + "<tr><td>Gross Pay</td><td align=\"right\">&#8369;${grossPay}</td></tr>\n"
+        + "<tr><th colspan=\"2\" align=\"left\">DEDUCTIONS</th></tr>\n"
+        + "<tr><td>SSS</td><td align=\"right\">&#8369;${sss}</td></tr>\n"
+        + "<tr><td>PhilHealth</td><td align=\"right\">&#8369;${philHealth}</td></tr>\n"
+        + "<tr><td>Pag-IBIG</td><td align=\"right\">&#8369;${pagIbig}</td></tr>\n"
+        + "<tr><td>Withholding Tax</td><td align=\"right\">&#8369;${withholdingTax}</td></tr>\n"
+        + "<tr><td>Total Deductions</td><td align=\"right\">&#8369;${totalDeductions}</td></tr>\n"
+        + "<tr><th colspan=\"2\" align=\"left\">ALLOWANCES</th></tr>\n"
+        + "<tr><td>Rice Subsidy</td><td align=\"right\">&#8369;${riceSubsidy}</td></tr>\n"
+        + "<tr><td>Phone Allowance</td><td align=\"right\">&#8369;${phoneAllowance}</td></tr>\n"
+        + "<tr><td>Clothing Allowance</td><td align=\"right\">&#8369;${clothingAllowance}</td></tr>\n"
+        + "<tr><td>Total Allowances</td><td align=\"right\">&#8369;${totalAllowances}</td></tr>\n"
+        + "<tr><th align=\"left\" style=\"color:#f97316\">NET SALARY</th>"
+        + "<th align=\"right\" style=\"color:#f97316\">&#8369;${netSalary}</th></tr>\n"
+        + "</table>\n</body></html>\n");
+
+    private final String name;
+    private final String fileExtension;
+    private final boolean html;
+
+    // literals[i] is written before fields[i]; the last literal follows the last field
+    private final String[] literals;
+    private final Field[] fields;
+
+    /**
+     * Creates a compiled template.
+     *
+     * @param name The name shown to users
+     * @param fileExtension The extension of payslip files, without the dot
+     * @param html Whether employee details are escaped for HTML
+     * @param literals The literal text around the fields
+     * @param fields The fields, in order
+     */
+    private PayslipTemplate(String name, String fileExtension, boolean html, String[] literals, Field[] fields) {
+        this.name = name;
+        this.fileExtension = fileExtension;
+        this.html = html;
+        this.literals = literals;
+        this.fields = fields;
+    }
+
+    /**
+     * Compiles a template.
+     * Placeholders are written ${field}, e.g. ${firstName} or ${netSalary}; amounts are printed like "35,000.00".
+     *
+     * @param name The name shown to users
+     * @param fileExtension The extension of payslip files, without the dot
+     * @param html Whether employee details are escaped for HTML
+     * @param source The template text
+     * @return The compiled template
+     * @throws IllegalArgumentException If a placeholder is not closed or names an unknown field
+     */
+    public static PayslipTemplate compile(String name, String fileExtension, boolean html, String source) {
+        List<String> literals = new ArrayList<>();
+        List<Field> fields = new ArrayList<>();
+        int position = 0;
+        int start;
+        while ((start = source.indexOf("${", position)) >= 0) {
+            int end = source.indexOf('}', start);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at offset " + start + " of template " + name);
+            }
+            String fieldName = source.substring(start + 2, end);
+            Field field = Field.of(fieldName);
+            if (field == null) {
+                throw new IllegalArgumentException("Unknown payslip field ${" + fieldName + "} in template " + name);
+            }
+            fields.add(field);
+            literals.add(source.substring(position, start));
+            position = end + 1;
+        }
+        literals.add(source.substring(position));
+        return new PayslipTemplate(name, fileExtension, html, literals.toArray(new String[0]), fields.toArray(new Field[0]));
+    }
+
+    /**
+     * Renders one payslip.
+     *
+     * @param employee The employee
+     * @param period The pay period as printed on the payslip, e.g. "July 2025"
+     * @param data The employee's payroll data
+     * @return The payslip
+     */
+    public String render(EmployeeProfile.Employee employee, String period, SalaryComputation.PayrollData data) {
+        StringBuilder builder = new StringBuilder(html ? 2048 : 640);
+        appendTo(builder, employee, period, period.toUpperCase(), data);
+        return builder.toString();
+    }
+
+    /**
+     * Appends one payslip to a builder.
+     *
+     * @param builder The builder to append to
+     * @param employee The employee
+     * @param period The pay period as printed on the payslip
+     * @param periodTitle The pay period in capitals
+     * @param data The employee's payroll data
+     */
+    private void appendTo(StringBuilder builder, EmployeeProfile.Employee employee, String period, String periodTitle,
+                          SalaryComputation.PayrollData data) {
+        for (int i = 0; i < fields.length; i++) {
+            builder.append(literals[i]);
+            switch (fields[i]) {
+                case PERIOD: appendText(builder, period); break;
+                case PERIOD_TITLE: appendText(builder, periodTitle); break;
+                case FIRST_NAME: appendText(builder, employee.getFirstName()); break;
+                case LAST_NAME: appendText(builder, employee.getLastName()); break;
+                case EMPLOYEE_ID: appendText(builder, employee.getEmployeeNumber()); break;
+                case POSITION: appendText(builder, employee.getPosition()); break;
+                case BASE_SALARY: Money.appendGroupedTo(builder, data.getBaseSalary()); break;
+                case ATTENDANCE_DEDUCTION: Money.appendGroupedTo(builder, data.getAttendanceDeduction()); break;
+                case GROSS_PAY: Money.appendGroupedTo(builder, data.calculateGrossPay()); break;
+                case SSS: Money.appendGroupedTo(builder, data.getSSSDeduction()); break;
+                case PHILHEALTH: Money.appendGroupedTo(builder, data.getPhilHealthDeduction()); break;
+                case PAGIBIG: Money.appendGroupedTo(builder, data.getPagIbigDeduction()); break;
+                case WITHHOLDING_TAX: Money.appendGroupedTo(builder, data.getTaxDeduction()); break;
+                case TOTAL_DEDUCTIONS: Money.appendGroupedTo(builder, data.calculateTotalDeductions()); break;
+                case RICE_SUBSIDY: Money.appendGroupedTo(builder, data.getRiceSubsidy()); break;
+                case PHONE_ALLOWANCE: Money.appendGroupedTo(builder, data.getPhoneAllowance()); break;
+                case CLOTHING_ALLOWANCE: Money.appendGroupedTo(builder, data.getClothingAllowance()); break;
+                case TOTAL_ALLOWANCES: Money.appendGroupedTo(builder, data.calculateTotalAllowances()); break;
+                case NET_SALARY: Money.appendGroupedTo(builder, data.calculateNetSalary()); break;
+            }
+        }
+        builder.append(literals[fields.length]);
+    }
+
+    /**
+     * Appends an employee detail, escaping it for HTML templates.
+     *
+     * @param builder The builder to append to
+     * @param text The text
+     */
+    private void appendText(StringBuilder builder, String text) {
+        if (!html || text == null) {
+            builder.append(text);
+            return;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&': builder.append("&amp;"); break;
+                case '<': builder.append("&lt;"); break;
+                case '>': builder.append("&gt;"); break;
+                case '"': builder.append("&quot;"); break;
+                case '\'': builder.append("&#39;"); break;
+                default: builder.append(c); break;
+            }
+        }
+    }
+
+    /**
+     * Creates a renderer for one thread.
+     *
+     * @return A new renderer
+     */
+    public Renderer newRenderer() {
+        return new Renderer(this);
+    }
+
+    // Getter methods
+    public String getName() { return name; }
+    public String getFileExtension() { return fileExtension; }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * Renders payslips of one template into buffers that are reused for every payslip, and writes them to files.
+     * A renderer is not thread-safe; each worker thread uses its own.
+     */
+    public static final class Renderer {
+        private final PayslipTemplate template;
+        private final StringBuilder text = new StringBuilder(2048);
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private char[] chars = new char[0];
+        private CharBuffer charBuffer = CharBuffer.wrap(chars);
+        private ByteBuffer bytes = ByteBuffer.allocate(0);
+
+        // Capitals of the last period rendered; a run renders one period, so it is computed once
+        private String period;
+        private String periodTitle;
+
+        /**
+         * Creates a renderer.
+         *
+         * @param template The template
+         */
+        private Renderer(PayslipTemplate template) {
+            this.template = template;
+        }
+
+        /**
+         * Renders one payslip into the renderer's buffer.
+         * The result is overwritten by the next call, so copy it with toString() to keep it.
+         *
+         * @param employee The employee
+         * @param period The pay period as printed on the payslip
+         * @param data The employee's payroll data
+         * @return The payslip
+         */
+        public CharSequence render(EmployeeProfile.Employee employee, String period, SalaryComputation.PayrollData data) {
+            if (!period.equals(this.period)) {
+                this.period = period;
+                this.periodTitle = period.toUpperCase();
+            }
+            text.setLength(0);
+            template.appendTo(text, employee, period, periodTitle, data);
+            return text;
+        }
+
+        /**
+         * Renders one payslip and writes it to a file as UTF-8, replacing any existing file.
+         *
+         * @param file The payslip file
+         * @param employee The employee
+         * @param period The pay period as printed on the payslip
+         * @param data The employee's payroll data
+         * @throws IOException If the file cannot be written
+         */
+        public void write(Path file, EmployeeProfile.Employee employee, String period,
+                          SalaryComputation.PayrollData data) throws IOException {
+            render(employee, period, data);
+            encode();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+            }
+        }
+
+        /**
+         * Encodes the rendered payslip into the byte buffer, growing the buffers when a payslip is larger than any before.
+         *
+         * @throws IOException If the text cannot be encoded
+         */
+        private void encode() throws IOException {
+            int length = text.length();
+            if (chars.length < length) {
+                chars = new char[length * 2];
+                charBuffer = CharBuffer.wrap(chars);
+                bytes = ByteBuffer.allocate((int) (chars.length * encoder.maxBytesPerChar()));
+            }
+            text.getChars(0, length, chars, 0);
+            charBuffer.clear();
+            charBuffer.limit(length);
+            bytes.clear();
+            encoder.reset();
+            CoderResult result = encoder.encode(charBuffer, bytes, true);
+            if (!result.isUnderflow()) {
+                result.throwException();
+            }
+            encoder.flush(bytes);
+            bytes.flip();
+        }
+    }
+}
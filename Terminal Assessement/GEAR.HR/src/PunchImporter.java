@@ -0,0 +1,682 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * PunchImporter class handles importing the raw punch logs exported by the time clocks
+ * Streams a log of "EmployeeID,Timestamp" lines in bounded memory: only each employee's open day is held, as its
+ * first and last punch, and once the employee punches on a later day or the log ends the day is merged with the
+ * stored record of that day, as ClockServer merges a punch, so earlier exports and kiosk punches are kept. Days are
+ * committed in batches, each written to the journal in one append per month. Punches that cannot become a record
+ * (a lone punch that leaves its day without a time out, an unknown employee, a punch for a day already closed,
+ * an unreadable line) are written to an exceptions file for a clerk
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class PunchImporter {
+    // Records committed together
+    public static final int DEFAULT_BATCH_SIZE = 10_000;
+
+    // A day whose last punch is this close to its first is one punch repeated, not a time in and a time out
+    static final int DOUBLE_PUNCH_MINUTES = 5;
+
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    // Timestamps the byte parser does not read, such as "7/1/2025 8:05" or "2025-07-01 8:05:09"; dates that do not exist are rejected
+    private static final DateTimeFormatter OTHER_TIMESTAMPS =
+        DateTimeFormatter.ofPattern("[uuuu-MM-dd][M/d/uuuu][ ]['T']H:mm[:ss][.SSS]").withResolverStyle(ResolverStyle.STRICT);
+
+    private static final String EXCEPTIONS_HEADER = "Line,EmployeeID,Punch,Reason";
+
+    private final BatchSink sink;
+    private final BitSet knownEmployees;
+    private final int batchSize;
+
+    /**
+     * Receives each batch of punched days to merge with the stored records and commit.
+     */
+    public interface BatchSink {
+        /**
+         * Merges a batch of punched days with the stored records of those days and writes the records that changed.
+         *
+         * @param days One record per employee day, with the first punch as time in and the last as time out,
+         *             or no time out if the punches were a few minutes apart; the sink may keep the list
+         * @return The merged record of each day, in the same order
+         * @throws IOException If the records cannot be read or written
+         */
+        List<Attendance.AttendanceRecord> commit(List<Attendance.AttendanceRecord> days) throws IOException;
+    }
+
+    /**
+     * Counts of one import.
+     */
+    public static final class Result {
+        private final long lines;
+        private final long punches;
+        private final long recordedDays;
+        private final long batches;
+        private final long unmatchedDays;
+        private final long unknownEmployeePunches;
+        private final long outOfOrderPunches;
+        private final long unreadableLines;
+        private final long elapsedNanos;
+
+        private Result(Import run, long elapsedNanos) {
+            this.lines = run.lineNumber;
+            this.punches = run.punches;
+            this.recordedDays = run.recordedDays;
+            this.batches = run.batches;
+            this.unmatchedDays = run.unmatchedDays;
+            this.unknownEmployeePunches = run.unknownEmployeePunches;
+            this.outOfOrderPunches = run.outOfOrderPunches;
+            this.unreadableLines = run.unreadableLines;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        // Getter methods
+        public long getLines() { return lines; }
+        public long getPunches() { return punches; }
+        public long getRecordedDays() { return recordedDays; }
+        public long getBatches() { return batches; }
+        public long getUnmatchedDays() { return unmatchedDays; }
+        public long getUnknownEmployeePunches() { return unknownEmployeePunches; }
+        public long getOutOfOrderPunches() { return outOfOrderPunches; }
+        public long getUnreadableLines() { return unreadableLines; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        /**
+         * Gets the number of lines written to the exceptions file.
+         *
+         * @return Unmatched days, punches of unknown employees, out-of-order punches and unreadable lines
+         */
+        public long getExceptionCount() {
+            return unmatchedDays + unknownEmployeePunches + outOfOrderPunches + unreadableLines;
+        }
+
+        /**
+         * Builds a one-line summary of the import.
+         *
+         * @return The summary
+         */
+        public String getSummary() {
+            return String.format("%,d punches in %,d ms (%,.0f punches/s) | %,d days recorded in %,d batches"
+                    + " | Unmatched: %,d | Unknown employee: %,d | Out of order: %,d | Unreadable lines: %,d",
+                punches, elapsedNanos / 1_000_000, punches * 1_000_000_000.0 / Math.max(1, elapsedNanos), recordedDays,
+                batches, unmatchedDays, unknownEmployeePunches, outOfOrderPunches, unreadableLines);
+        }
+    }
+
+    /**
+     * Creates an importer.
+     *
+     * @param sink Receives the batches of records
+     * @param knownEmployeeIds The employees whose punches are accepted, or null to accept every employee number
+     * @param batchSize The number of records per batch
+     */
+    public PunchImporter(BatchSink sink, Collection<String> knownEmployeeIds, int batchSize) {
+        this.sink = sink;
+        this.batchSize = batchSize;
+        if (knownEmployeeIds == null) {
+            this.knownEmployees = null;
+        } else {
+            this.knownEmployees = new BitSet();
+            for (String employeeId : knownEmployeeIds) {
+                int employeeNumber = Attendance.AttendanceRecord.parseEmployeeNumber(employeeId);
+                if (employeeNumber != Attendance.AttendanceRecord.NO_EMPLOYEE_NUMBER) {
+                    knownEmployees.set(employeeNumber);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates an importer that merges the days into the attendance store and accepts the employees in EmployeeProfile.
+     * Each batch is read and written under CHANGE_LOCK, so a clerk's edit or a kiosk punch is not overwritten.
+     *
+     * @return The importer
+     */
+    public static PunchImporter forAttendance() {
+        List<String> employeeIds = new ArrayList<>();
+        for (EmployeeProfile.Employee employee : EmployeeProfile.getAllEmployees()) {
+            employeeIds.add(employee.getEmployeeNumber());
+        }
+        return new PunchImporter(days -> {
+            synchronized (Attendance.CHANGE_LOCK) {
+                List<Attendance.AttendanceRecord> changed = new ArrayList<>();
+                List<Attendance.AttendanceRecord> merged = mergeDays(Repositories.attendance(), days, changed);
+                if (!changed.isEmpty()) {
+                    Attendance.putRecords(changed);
+                }
+                return merged;
+            }
+        }, employeeIds, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates a sink that merges the days into an attendance repository, for imports outside the application.
+     *
+     * @param repository The attendance repository
+     * @return The sink
+     */
+    public static BatchSink mergingInto(Repositories.AttendanceRepository repository) {
+        return days -> {
+            List<Attendance.AttendanceRecord> changed = new ArrayList<>();
+            List<Attendance.AttendanceRecord> merged = mergeDays(repository, days, changed);
+            repository.putAll(changed);
+            return merged;
+        };
+    }
+
+    /**
+     * Merges punched days with the stored records of those days.
+     * Days that end without a time out are only written when they change a stored record; on their own they
+     * are reported as unmatched punches instead.
+     *
+     * @param repository The attendance repository holding the stored records
+     * @param days The punched days
+     * @param changed Receives the merged records to write
+     * @return The merged record of each day, in the same order
+     * @throws IOException If the stored records cannot be read
+     */
+    private static List<Attendance.AttendanceRecord> mergeDays(Repositories.AttendanceRepository repository,
+                                                               List<Attendance.AttendanceRecord> days,
+                                                               List<Attendance.AttendanceRecord> changed) throws IOException {
+        List<Attendance.AttendanceRecord> merged = new ArrayList<>(days.size());
+        for (Attendance.AttendanceRecord day : days) {
+            LocalDate date = day.getLocalDate();
+            List<Attendance.AttendanceRecord> stored = repository.getEmployeeRecords(day.getEmployeeId(), date, date);
+            Attendance.AttendanceRecord current = stored.isEmpty() ? null : stored.get(0);
+            Attendance.AttendanceRecord record = merge(current, day);
+            merged.add(record);
+            boolean complete = record.getTimeOutMinutes() != Attendance.AttendanceRecord.NO_TIME;
+            if ((complete || current != null) && !Attendance.sameRecord(current, record)) {
+                changed.add(record);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Merges a punched day with the stored record of that day, applying its first and last punch as
+     * ClockServer applies a punch.
+     *
+     * @param current The stored record, or null
+     * @param day The punched day
+     * @return The merged record
+     */
+    static Attendance.AttendanceRecord merge(Attendance.AttendanceRecord current, Attendance.AttendanceRecord day) {
+        LocalDate date = day.getLocalDate();
+        Attendance.AttendanceRecord record = ClockServer.applyPunch(current, day.getEmployeeNumber(), date, day.getTimeInMinutes());
+        if (day.getTimeOutMinutes() != Attendance.AttendanceRecord.NO_TIME) {
+            record = ClockServer.applyPunch(record, day.getEmployeeNumber(), date, day.getTimeOutMinutes());
+        }
+        return record;
+    }
+
+    /**
+     * Gets the exceptions file written for a punch log.
+     *
+     * @param log The punch log
+     * @return The log's path with ".exceptions.csv" appended
+     */
+    public static Path getExceptionsFile(Path log) {
+        return log.resolveSibling(log.getFileName() + ".exceptions.csv");
+    }
+
+    /**
+     * Imports a punch log, writing its exceptions next to it; the exceptions file is removed when there are none.
+     * If the import fails part way, the batches already committed stay. Importing the log again is safe,
+     * as merging the same punches again leaves each day unchanged.
+     *
+     * @param log The punch log
+     * @return The counts of the import
+     * @throws IOException If the log cannot be read or a batch cannot be committed
+     */
+    public Result importLog(Path log) throws IOException {
+        Path exceptionsFile = getExceptionsFile(log);
+        Result[] result = new Result[1];
+        try (InputStream in = Files.newInputStream(log)) {
+            FlushScheduler.writeAtomically(exceptionsFile, writer -> result[0] = importLog(in, writer));
+        }
+        if (result[0].getExceptionCount() == 0) {
+            Files.deleteIfExists(exceptionsFile);
+        }
+        return result[0];
+    }
+
+    /**
+     * Imports a punch log from a stream. Lines may end in CRLF or LF, and a first line that is not a punch is
+     * taken as a header. A timestamp may follow the employee ID as one field or as a date and a time field;
+     * fields after the timestamp, such as a clock ID, are ignored.
+     *
+     * @param in The punch log
+     * @param exceptions Receives the exceptions as CSV, or null
+     * @return The counts of the import
+     * @throws IOException If the log cannot be read or a batch cannot be committed
+     */
+    public Result importLog(InputStream in, BufferedWriter exceptions) throws IOException {
+        long start = System.nanoTime();
+        Import run = new Import(exceptions);
+        run.read(in);
+        return new Result(run, System.nanoTime() - start);
+    }
+
+    /**
+     * The state of one import.
+     */
+    private final class Import {
+        private final BufferedWriter exceptions;
+        private final OpenDays openDays = new OpenDays();
+        private List<Attendance.AttendanceRecord> batch = new ArrayList<>();
+
+        // Line number of the first punch of each day in the batch, to report the days left unmatched
+        private long[] batchLines = new long[16];
+
+        // Epoch day of the first of the month last read, so most dates need no calendar arithmetic
+        private int cachedYearMonth = -1;
+        private int cachedMonthStart;
+        private int cachedMonthLength;
+
+        private long lineNumber;
+        private long punches;
+        private long recordedDays;
+        private long batches;
+        private long unmatchedDays;
+        private long unknownEmployeePunches;
+        private long outOfOrderPunches;
+        private long unreadableLines;
+
+        Import(BufferedWriter exceptions) throws IOException {
+            this.exceptions = exceptions;
+            if (exceptions != null) {
+                exceptions.write(EXCEPTIONS_HEADER);
+                exceptions.newLine();
+            }
+        }
+
+        /**
+         * Reads the log through one buffer, parses every line, then closes the open days and commits the last batch.
+         *
+         * @param in The punch log
+         * @throws IOException If the log cannot be read or a batch cannot be committed
+         */
+        void read(InputStream in) throws IOException {
+            byte[] buffer = new byte[BUFFER_BYTES];
+            int filled = 0;
+            boolean skipping = false;
+            int read;
+            while ((read = in.read(buffer, filled, buffer.length - filled)) >= 0) {
+                filled += read;
+                int lineStart = 0;
+                for (int i = 0; i < filled; i++) {
+                    if (buffer[i] == '\n') {
+                        if (!skipping) {
+                            line(buffer, lineStart, i);
+                        }
+                        skipping = false;
+                        lineStart = i + 1;
+                    }
+                }
+                if (lineStart == 0 && filled == buffer.length) {
+                    // A line longer than the buffer is not a punch; skip to its end
+                    if (!skipping) {
+                        lineNumber++;
+                        unreadable(new String(buffer, 0, 80, StandardCharsets.UTF_8) + "...");
+                    }
+                    skipping = true;
+                    filled = 0;
+                } else {
+                    System.arraycopy(buffer, lineStart, buffer, 0, filled - lineStart);
+                    filled -= lineStart;
+                }
+            }
+            if (filled > 0 && !skipping) {
+                line(buffer, 0, filled);
+            }
+            for (int slot = 0; slot < openDays.employees.length; slot++) {
+                if (openDays.employees[slot] != 0 && openDays.days[slot] != OpenDays.NO_DAY) {
+                    close(slot);
+                }
+            }
+            commit();
+        }
+
+        /**
+         * Parses one line, reading the common "10001,2025-07-01 08:00:00" form straight from the bytes.
+         *
+         * @param bytes The buffer
+         * @param from The first byte of the line
+         * @param to The end of the line, excluding the line break
+         * @throws IOException If a batch cannot be committed or an exception cannot be written
+         */
+        private void line(byte[] bytes, int from, int to) throws IOException {
+            lineNumber++;
+            if (to > from && bytes[to - 1] == '\r') {
+                to--;
+            }
+            if (to == from) {
+                return;
+            }
+            int p = from;
+            long employeeNumber = 0;
+            while (p < to && p - from < 10 && bytes[p] >= '0' && bytes[p] <= '9') {
+                employeeNumber = employeeNumber * 10 + (bytes[p++] - '0');
+            }
+            // Anything unusual, such as quotes, spaces, leading zeros or another date format, takes the slow path
+            if (p == from || p + 17 > to || bytes[p] != ',' || (bytes[from] == '0' && p - from > 1)
+                    || employeeNumber > Integer.MAX_VALUE || bytes[p + 5] != '-' || bytes[p + 8] != '-'
+                    || bytes[p + 14] != ':' || !(bytes[p + 11] == ' ' || bytes[p + 11] == 'T' || bytes[p + 11] == ',')) {
+                slowLine(bytes, from, to);
+                return;
+            }
+            int year = digits(bytes, p + 1, 4);
+            int month = digits(bytes, p + 6, 2);
+            int day = digits(bytes, p + 9, 2);
+            int hour = digits(bytes, p + 12, 2);
+            int minute = digits(bytes, p + 15, 2);
+            if ((year | month | day | hour | minute) < 0 || hour > 23 || minute > 59 || (p + 17 < to && bytes[p + 17] >= '0'
+                    && bytes[p + 17] <= '9')) {
+                slowLine(bytes, from, to);
+                return;
+            }
+            int epochDay = epochDay(year, month, day);
+            if (epochDay == Attendance.AttendanceRecord.NO_EPOCH_DAY) {
+                slowLine(bytes, from, to);
+                return;
+            }
+            punch((int) employeeNumber, epochDay, hour * 60 + minute, lineNumber);
+        }
+
+        /**
+         * Parses a line the byte parser could not read, with CSV quoting and other timestamp formats.
+         *
+         * @param bytes The buffer
+         * @param from The first byte of the line
+         * @param to The end of the line
+         * @throws IOException If a batch cannot be committed or an exception cannot be written
+         */
+        private void slowLine(byte[] bytes, int from, int to) throws IOException {
+            String text = new String(bytes, from, to - from, StandardCharsets.UTF_8);
+            try (CsvReader reader = new CsvReader(new StringReader(text))) {
+                if (reader.next() && reader.getFieldCount() >= 2) {
+                    int employeeNumber = Attendance.AttendanceRecord.parseEmployeeNumber(reader.getField(0).trim());
+                    String timestamp = reader.getField(1).trim();
+                    if (timestamp.indexOf(':') < 0 && reader.getFieldCount() >= 3) {
+                        timestamp += " " + reader.getField(2).trim();
+                    }
+                    if (employeeNumber != Attendance.AttendanceRecord.NO_EMPLOYEE_NUMBER) {
+                        LocalDateTime time = LocalDateTime.parse(timestamp, OTHER_TIMESTAMPS);
+                        punch(employeeNumber, (int) time.toLocalDate().toEpochDay(), time.getHour() * 60 + time.getMinute(),
+                            lineNumber);
+                        return;
+                    }
+                }
+            } catch (DateTimeParseException e) {
+                // Falls through to the unreadable line below
+            }
+            if (lineNumber > 1) {
+                unreadable(text);
+            }
+        }
+
+        /**
+         * Adds a punch to its employee's open day, closing the day first if the punch is on a later day.
+         *
+         * @param employeeNumber The employee number
+         * @param epochDay The day of the punch
+         * @param minute The minute of the day
+         * @param line The line number of the punch
+         * @throws IOException If a batch cannot be committed or an exception cannot be written
+         */
+        private void punch(int employeeNumber, int epochDay, int minute, long line) throws IOException {
+            punches++;
+            if (knownEmployees != null && !knownEmployees.get(employeeNumber)) {
+                unknownEmployeePunches++;
+                exception(line, employeeNumber, epochDay, minute, "Unknown employee");
+                return;
+            }
+            int slot = openDays.slotOf(employeeNumber);
+            int openDay = openDays.days[slot];
+            if (openDay == epochDay) {
+                if (minute < openDays.firstPunches[slot]) {
+                    openDays.firstPunches[slot] = (short) minute;
+                    openDays.firstLines[slot] = line;
+                }
+                if (minute > openDays.lastPunches[slot]) {
+                    openDays.lastPunches[slot] = (short) minute;
+                }
+                return;
+            }
+            if (openDay != OpenDays.NO_DAY && epochDay < openDay) {
+                outOfOrderPunches++;
+                exception(line, employeeNumber, epochDay, minute, "Punch for a day before the employee's last punch");
+                return;
+            }
+            if (openDay != OpenDays.NO_DAY) {
+                close(slot);
+            }
+            openDays.days[slot] = epochDay;
+            openDays.firstPunches[slot] = (short) minute;
+            openDays.lastPunches[slot] = (short) minute;
+            openDays.firstLines[slot] = line;
+        }
+
+        /**
+         * Adds an employee's open day to the batch, with no time out if its punches were a few minutes apart.
+         * Days that start after the shift start are recorded as Late.
+         *
+         * @param slot The employee's slot
+         * @throws IOException If a batch cannot be committed or an exception cannot be written
+         */
+        private void close(int slot) throws IOException {
+            int employeeNumber = openDays.employees[slot] - 1;
+            int epochDay = openDays.days[slot];
+            short first = openDays.firstPunches[slot];
+            short last = openDays.lastPunches[slot];
+            openDays.days[slot] = OpenDays.NO_DAY;
+            Attendance.Status status = first > AttendancePay.SHIFT_START ? Attendance.Status.LATE : Attendance.Status.PRESENT;
+            short timeOut = last - first < DOUBLE_PUNCH_MINUTES ? Attendance.AttendanceRecord.NO_TIME : last;
+            if (batch.size() == batchLines.length) {
+                batchLines = Arrays.copyOf(batchLines, batchLines.length * 2);
+            }
+            batchLines[batch.size()] = openDays.firstLines[slot];
+            batch.add(new Attendance.AttendanceRecord(employeeNumber, epochDay, status.getCode(), first, timeOut));
+            if (batch.size() >= batchSize) {
+                commit();
+            }
+        }
+
+        /**
+         * Commits the current batch and starts a new one.
+         * Days the stored records did not complete with a time out are written to the exceptions.
+         *
+         * @throws IOException If the batch cannot be committed or an exception cannot be written
+         */
+        private void commit() throws IOException {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<Attendance.AttendanceRecord> merged = sink.commit(batch);
+            for (int i = 0; i < merged.size(); i++) {
+                Attendance.AttendanceRecord record = merged.get(i);
+                if (record.getTimeOutMinutes() != Attendance.AttendanceRecord.NO_TIME) {
+                    recordedDays++;
+                } else {
+                    Attendance.AttendanceRecord day = batch.get(i);
+                    unmatchedDays++;
+                    exception(batchLines[i], day.getEmployeeNumber(), day.getEpochDay(), day.getTimeInMinutes(), "Unmatched punch");
+                }
+            }
+            batch = new ArrayList<>(batchSize);
+            batches++;
+        }
+
+        /**
+         * Writes a punch that did not become a record to the exceptions.
+         *
+         * @param line The line number of the punch
+         * @param employeeNumber The employee number
+         * @param epochDay The day of the punch
+         * @param minute The minute of the day
+         * @param reason Why the punch was not recorded
+         * @throws IOException If the exception cannot be written
+         */
+        private void exception(long line, int employeeNumber, int epochDay, int minute, String reason) throws IOException {
+            if (exceptions != null) {
+                exceptions.write(line + "," + employeeNumber + "," + LocalDate.ofEpochDay(epochDay) + " "
+                    + Attendance.AttendanceRecord.formatMinutes(minute) + "," + CsvReader.escape(reason));
+                exceptions.newLine();
+            }
+        }
+
+        /**
+         * Writes an unreadable line to the exceptions.
+         *
+         * @param text The line
+         * @throws IOException If the exception cannot be written
+         */
+        private void unreadable(String text) throws IOException {
+            unreadableLines++;
+            if (exceptions != null) {
+                exceptions.write(lineNumber + ",," + CsvReader.escape(text) + ",Unreadable line");
+                exceptions.newLine();
+            }
+        }
+
+        /**
+         * Converts a date to its epoch day.
+         *
+         * @param year The year
+         * @param month The month, 1 to 12
+         * @param day The day of the month
+         * @return Days since 1970-01-01, or NO_EPOCH_DAY if the date does not exist
+         */
+        private int epochDay(int year, int month, int day) {
+            int yearMonth = year * 12 + month;
+            if (yearMonth != cachedYearMonth) {
+                if (month < 1 || month > 12) {
+                    return Attendance.AttendanceRecord.NO_EPOCH_DAY;
+                }
+                LocalDate first = LocalDate.of(year, month, 1);
+                cachedYearMonth = yearMonth;
+                cachedMonthStart = (int) first.toEpochDay();
+                cachedMonthLength = first.lengthOfMonth();
+            }
+            return day >= 1 && day <= cachedMonthLength ? cachedMonthStart + day - 1 : Attendance.AttendanceRecord.NO_EPOCH_DAY;
+        }
+    }
+
+    /**
+     * Reads a fixed number of decimal digits.
+     *
+     * @param bytes The buffer
+     * @param from The first digit
+     * @param count The number of digits
+     * @return The value, or -1 if a byte is not a digit
+     */
+    private static int digits(byte[] bytes, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * The open day of every employee seen, in an open-addressing table keyed by employee number.
+     */
+    private static final class OpenDays {
+        static final int NO_DAY = Integer.MIN_VALUE;
+
+        // Employee number + 1 per slot, 0 for a free slot
+        int[] employees = new int[1024];
+        int[] days = new int[1024];
+        short[] firstPunches = new short[1024];
+        short[] lastPunches = new short[1024];
+        long[] firstLines = new long[1024];
+        private int size;
+
+        /**
+         * Finds an employee's slot, adding the employee without an open day if they have none.
+         *
+         * @param employeeNumber The employee number
+         * @return The slot
+         */
+        int slotOf(int employeeNumber) {
+            int mask = employees.length - 1;
+            int slot = mix(employeeNumber) & mask;
+            while (employees[slot] != 0) {
+                if (employees[slot] == employeeNumber + 1) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (size * 2 >= employees.length) {
+                grow();
+                return slotOf(employeeNumber);
+            }
+            employees[slot] = employeeNumber + 1;
+            days[slot] = NO_DAY;
+            size++;
+            return slot;
+        }
+
+        /**
+         * Doubles the table.
+         */
+        private void grow() {
+            int[] oldEmployees = employees;
+            int[] oldDays = days;
+            short[] oldFirst = firstPunches;
+            short[] oldLast = lastPunches;
+            long[] oldLines = firstLines;
+            int capacity = oldEmployees.length * 2;
+            employees = new int[capacity];
+            days = new int[capacity];
+            firstPunches = new short[capacity];
+            lastPunches = new short[capacity];
+            firstLines = new long[capacity];
+            for (int i = 0; i < oldEmployees.length; i++) {
+                if (oldEmployees[i] != 0) {
+                    int slot = mix(oldEmployees[i] - 1) & (capacity - 1);
+                    while (employees[slot] != 0) {
+                        slot = (slot + 1) & (capacity - 1);
+                    }
+                    employees[slot] = oldEmployees[i];
+                    days[slot] = oldDays[i];
+                    firstPunches[slot] = oldFirst[i];
+                    lastPunches[slot] = oldLast[i];
+                    firstLines[slot] = oldLines[i];
+                }
+            }
+        }
+
+        /**
+         * Spreads consecutive employee numbers over the table.
+         *
+         * @param employeeNumber The employee number
+         * @return The mixed value
+         */
+        private static int mix(int employeeNumber) {
+            int hash = employeeNumber * 0x9E3779B9;
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * RecordMerge class handles merging local edits with records saved by another GEAR.HR instance
+ * Compares each record with the version both instances started from, keeps changes made on only one side,
+ * and rejects the local change when both sides changed the same record
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class RecordMerge {
+    /**
+     * Computes the signature of every record.
+     *
+     * @param <V> The record type
+     * @param records Map of record ID -> record
+     * @param signature Function that turns a record into text holding every saved field
+     * @return Map of record ID -> signature
+     */
+    public static <V> Map<String, String> signatures(Map<String, V> records, Function<V, String> signature) {
+        Map<String, String> signatures = new HashMap<>();
+        for (Map.Entry<String, V> entry : records.entrySet()) {
+            signatures.put(entry.getKey(), signature.apply(entry.getValue()));
+        }
+        return signatures;
+    }
+
+    /**
+     * Merges the records on disk into the local records.
+     * For each record: if only the other instance changed it, its version is taken; if only this
+     * instance changed it, the local version is kept; if both changed it differently, the version
+     * on disk wins and the record ID is returned as rejected.
+     *
+     * @param <V> The record type
+     * @param local Map of record ID -> record as edited here; updated in place to the merged result
+     * @param base Map of record ID -> signature as last read from or written to disk by this instance
+     * @param disk Map of record ID -> record as now on disk
+     * @param signature Function that turns a record into text holding every saved field
+     * @return IDs of the records whose local change was rejected, sorted
+     */
+    public static <V> List<String> merge(Map<String, V> local, Map<String, String> base, Map<String, V> disk,
+                                         Function<V, String> signature) {
+        Set<String> ids = new LinkedHashSet<>(local.keySet());
+        ids.addAll(disk.keySet());
+        ids.addAll(base.keySet());
+
+        List<String> rejected = new ArrayList<>();
+        for (String id : ids) {
+            String localSignature = local.containsKey(id) ? signature.apply(local.get(id)) : null;
+            String diskSignature = disk.containsKey(id) ? signature.apply(disk.get(id)) : null;
+            String baseSignature = base.get(id);
+
+            boolean changedHere = !Objects.equals(localSignature, baseSignature);
+            boolean changedThere = !Objects.equals(diskSignature, baseSignature);
+            if (!changedThere || Objects.equals(localSignature, diskSignature)) {
+                continue; // Only changed here, or the same change on both sides
+            }
+            take(local, disk, id);
+            if (changedHere) {
+                rejected.add(id); // Changed on both sides: the first save wins
+            }
+        }
+        Collections.sort(rejected);
+        return rejected;
+    }
+
+    /**
+     * Replaces the local version of a record with the version on disk.
+     *
+     * @param <V> The record type
+     * @param local The local records
+     * @param disk The records on disk
+     * @param id The record ID
+     */
+    private static <V> void take(Map<String, V> local, Map<String, V> disk, String id) {
+        if (disk.containsKey(id)) {
+            local.put(id, disk.get(id));
+        } else {
+            local.remove(id);
+        }
+    }
+}
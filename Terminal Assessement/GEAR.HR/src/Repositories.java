@@ -0,0 +1,370 @@
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repositories class handles the choice of storage backend for all persisted data
+ * Defines one repository per kind of data and creates either the CSV or the embedded database implementation
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class Repositories {
+    // Backend selection: -Dgearhr.storage=csv (default), h2, sqlite or jdbc (with -Dgearhr.jdbc.url)
+    private static final String STORAGE_PROPERTY = "gearhr.storage";
+    private static final String JDBC_URL_PROPERTY = "gearhr.jdbc.url";
+    private static final String H2_URL = "jdbc:h2:./GEAR.HR/gearhr";
+    private static final String SQLITE_URL = "jdbc:sqlite:GEAR.HR/gearhr.db";
+
+    private static EmployeeRepository employeeRepository;
+    private static PayrollRepository payrollRepository;
+    private static AttendanceRepository attendanceRepository;
+    private static CredentialRepository credentialRepository;
+    private static String backendName;
+
+    // Pick the backend once, before any data is loaded
+    static {
+        selectBackend();
+    }
+
+    /**
+     * Stores the employee list.
+     */
+    public interface EmployeeRepository {
+        /**
+         * Loads all employees in their saved order.
+         *
+         * @return The employees
+         * @throws IOException If the employees cannot be read
+         */
+        List<EmployeeProfile.Employee> loadAll() throws IOException;
+
+        /**
+         * Replaces the saved employees with the given list.
+         *
+         * @param employees The employees to save
+         * @throws IOException If the employees cannot be written
+         */
+        void saveAll(List<EmployeeProfile.Employee> employees) throws IOException;
+
+        /**
+         * Checks whether the saved employees were changed outside this instance since it last loaded or saved them.
+         * Cheap enough to call every few seconds.
+         *
+         * @return true if loadAll would return different data
+         * @throws IOException If the storage cannot be checked
+         */
+        boolean hasExternalChanges() throws IOException;
+    }
+
+    /**
+     * Stores the payroll data of every employee.
+     */
+    public interface PayrollRepository {
+        /**
+         * Loads all payroll records.
+         *
+         * @return Map of employeeId -> PayrollData
+         * @throws IOException If the records cannot be read
+         */
+        Map<String, SalaryComputation.PayrollData> loadAll() throws IOException;
+
+        /**
+         * Replaces the saved payroll records with the given ones.
+         * The withholding tax is saved rounded to centavos, as computed at save time.
+         *
+         * @param records Map of employeeId -> PayrollData
+         * @throws IOException If the records cannot be written
+         */
+        void saveAll(Map<String, SalaryComputation.PayrollData> records) throws IOException;
+
+        /**
+         * Checks whether the saved payroll records were changed outside this instance since it last loaded or saved them.
+         * Cheap enough to call every few seconds.
+         *
+         * @return true if loadAll would return different data
+         * @throws IOException If the storage cannot be checked
+         */
+        boolean hasExternalChanges() throws IOException;
+    }
+
+    /**
+     * Stores attendance records, queried by month or date range.
+     */
+    public interface AttendanceRepository {
+        /**
+         * Opens the repository, or reopens it to pick up changes made outside this instance.
+         *
+         * @throws IOException If the repository cannot be opened
+         */
+        void open() throws IOException;
+
+        /**
+         * Gets the months that hold attendance data.
+         *
+         * @return Months in yyyy-MM format, in calendar order
+         * @throws IOException If the months cannot be read
+         */
+        List<String> getMonths() throws IOException;
+
+        /**
+         * Checks whether a record exists for an employee on a date.
+         *
+         * @param employeeId The employee ID
+         * @param date The attendance date
+         * @return true if a record exists
+         * @throws IOException If the records cannot be read
+         */
+        boolean contains(String employeeId, String date) throws IOException;
+
+        /**
+         * Gets the records of one month.
+         *
+         * @param month The month in yyyy-MM format
+         * @return The records of that month
+         * @throws IOException If the records cannot be read
+         */
+        List<Attendance.AttendanceRecord> getRecords(String month) throws IOException;
+
+        /**
+         * Gets the records dated within a range.
+         *
+         * @param from The first date, inclusive
+         * @param to The last date, inclusive
+         * @return The matching records
+         * @throws IOException If the records cannot be read
+         */
+        List<Attendance.AttendanceRecord> getRecordsBetween(LocalDate from, LocalDate to) throws IOException;
+
+        /**
+         * Gets the records of one employee dated within a range, such as one pay period.
+         *
+         * @param employeeId The employee ID
+         * @param from The first date, inclusive
+         * @param to The last date, inclusive
+         * @return The matching records, in date order
+         * @throws IOException If the records cannot be read
+         */
+        List<Attendance.AttendanceRecord> getEmployeeRecords(String employeeId, LocalDate from, LocalDate to) throws IOException;
+
+        /**
+         * Gets the records of one day, the daily roster.
+         *
+         * @param date The date
+         * @return The records of that day
+         * @throws IOException If the records cannot be read
+         */
+        List<Attendance.AttendanceRecord> getRecordsOn(LocalDate date) throws IOException;
+
+        /**
+         * Adds or replaces a record.
+         *
+         * @param record The attendance record
+         * @return The record replaced, or null if the employee had no record on that date
+         * @throws IOException If the record cannot be written
+         */
+        Attendance.AttendanceRecord put(Attendance.AttendanceRecord record) throws IOException;
+
+        /**
+         * Adds or replaces a batch of records, written together where the storage allows.
+         *
+         * @param records The attendance records
+         * @return The record each one replaced, or null where there was none, in the same order
+         * @throws IOException If the records cannot be written
+         */
+        default List<Attendance.AttendanceRecord> putAll(List<Attendance.AttendanceRecord> records) throws IOException {
+            List<Attendance.AttendanceRecord> previous = new ArrayList<>(records.size());
+            for (Attendance.AttendanceRecord record : records) {
+                previous.add(put(record));
+            }
+            return previous;
+        }
+
+        /**
+         * Adds or replaces a batch of records like putAll, returning only once they are on disk, so a punch that
+         * has been acknowledged survives a power failure. Storage whose writes are durable on return, such as a
+         * committed database transaction, need not override this.
+         *
+         * @param records The attendance records
+         * @return The record each one replaced, or null where there was none, in the same order
+         * @throws IOException If the records cannot be written
+         */
+        default List<Attendance.AttendanceRecord> putAllDurably(List<Attendance.AttendanceRecord> records) throws IOException {
+            return putAll(records);
+        }
+
+        /**
+         * Removes every record of an employee.
+         *
+         * @param employeeId The employee ID
+         * @throws IOException If the records cannot be removed
+         */
+        void removeEmployee(String employeeId) throws IOException;
+
+        /**
+         * Removes all attendance records.
+         *
+         * @throws IOException If the records cannot be removed
+         */
+        void clear() throws IOException;
+
+        /**
+         * Applies changes made outside this instance to the records held in memory.
+         *
+         * @return The records that changed, or an empty list if nothing is held in memory
+         * @throws IOException If the changes cannot be read
+         */
+        List<Attendance.RecordChange> reloadChanges() throws IOException;
+
+        /**
+         * Checks whether a month's records are held in memory, so reloadChanges reports changes to them.
+         *
+         * @param month The month in yyyy-MM format
+         * @return true if the month is held in memory
+         */
+        default boolean isHeldInMemory(String month) {
+            return false;
+        }
+
+        /**
+         * Checks whether other instances may have changed a month since this instance last read or wrote it.
+         * Changes to months held in memory are reported by reloadChanges instead.
+         *
+         * @param month The month in yyyy-MM format
+         * @return true if the month is not held in memory and may have changed
+         * @throws IOException If the month's state cannot be read
+         */
+        default boolean mayHaveUnreadChanges(String month) throws IOException {
+            return !isHeldInMemory(month);
+        }
+
+        /**
+         * Builds a one-line summary of the repository state.
+         *
+         * @return The summary
+         */
+        String getStatusSummary();
+    }
+
+    /**
+     * Stores login credentials.
+     */
+    public interface CredentialRepository {
+        /**
+         * Loads all credentials.
+         *
+         * @return Map of userId -> [password, role, email]
+         * @throws IOException If the credentials cannot be read
+         */
+        Map<String, String[]> loadAll() throws IOException;
+
+        /**
+         * Looks up the credentials of one user.
+         *
+         * @param userId The user ID
+         * @return [password, role, email], or null if the user does not exist
+         * @throws IOException If the credentials cannot be read
+         */
+        String[] findById(String userId) throws IOException;
+    }
+
+    /**
+     * Gets the employee repository of the selected backend.
+     *
+     * @return The employee repository
+     */
+    public static EmployeeRepository employees() {
+        return employeeRepository;
+    }
+
+    /**
+     * Gets the payroll repository of the selected backend.
+     *
+     * @return The payroll repository
+     */
+    public static PayrollRepository payroll() {
+        return payrollRepository;
+    }
+
+    /**
+     * Gets the attendance repository of the selected backend.
+     *
+     * @return The attendance repository
+     */
+    public static AttendanceRepository attendance() {
+        return attendanceRepository;
+    }
+
+    /**
+     * Gets the credential repository of the selected backend.
+     *
+     * @return The credential repository
+     */
+    public static CredentialRepository credentials() {
+        return credentialRepository;
+    }
+
+    /**
+     * Gets a short description of the selected backend.
+     *
+     * @return "CSV files" or the database URL
+     */
+    public static String getBackendName() {
+        return backendName;
+    }
+
+    /**
+     * Creates the repositories of the backend named by the gearhr.storage system property.
+     * Falls back to CSV files when the database driver is not on the classpath or the
+     * database cannot be opened. Once the database repositories are in use, a failed CSV
+     * import stops the application instead, as data may already have been read from them.
+     *
+     * @throws IllegalStateException If the CSV data cannot be copied into the database
+     */
+    private static void selectBackend() {
+        String storage = System.getProperty(STORAGE_PROPERTY, "csv").trim().toLowerCase();
+        String url = System.getProperty(JDBC_URL_PROPERTY);
+        if (url == null && storage.equals("h2")) {
+            url = H2_URL;
+        } else if (url == null && storage.equals("sqlite")) {
+            url = SQLITE_URL;
+        }
+
+        CsvRepositories csv = new CsvRepositories();
+        if (!storage.equals("csv") && url != null) {
+            JdbcRepositories jdbc = null;
+            try {
+                jdbc = new JdbcRepositories(url);
+            } catch (SQLException e) {
+                System.err.println("Cannot open database " + url + ", using CSV files: " + e.getMessage());
+            }
+            if (jdbc != null) {
+                // Selected before the import: reading the attendance files initializes Attendance, which uses these
+                employeeRepository = jdbc.employees();
+                payrollRepository = jdbc.payroll();
+                attendanceRepository = jdbc.attendance();
+                credentialRepository = jdbc.credentials();
+                try {
+                    jdbc.importIfEmpty(csv);
+                } catch (IOException | RuntimeException e) {
+                    // Too late to fall back: Attendance may already hold records read from the database
+                    jdbc.close();
+                    throw new IllegalStateException("Cannot copy the CSV files into database " + url + ": " + e.getMessage(), e);
+                }
+                backendName = url;
+                DataFolderWatcher.start();
+                return;
+            }
+        } else if (!storage.equals("csv")) {
+            System.err.println("Unknown storage '" + storage + "' or missing " + JDBC_URL_PROPERTY + ", using CSV files");
+        }
+
+        employeeRepository = csv.employees();
+        payrollRepository = csv.payroll();
+        attendanceRepository = csv.attendance();
+        credentialRepository = csv.credentials();
+        backendName = "CSV files";
+        DataFolderWatcher.start(csv.getDataDirectories());
+    }
+}
@@ -0,0 +1,261 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SharedFileLock class handles locking and version stamps for data files shared by several GEAR.HR instances
+ * Keeps a ".lock" file next to each data file that is locked with a FileChannel lock while the file is replaced
+ * and that holds a version number bumped on every replacement, so an instance can tell when its copy is stale,
+ * followed by tags the owner of the data file may use to describe the replacement
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class SharedFileLock {
+    private static final String LOCK_SUFFIX = ".lock";
+
+    // FileChannel locks belong to the whole JVM, so threads of this instance also queue on one monitor per file
+    private static final Map<Path, Object> monitors = new ConcurrentHashMap<>();
+
+    // Lock files already held by the current thread, so nested locking of the same file does not deadlock
+    private static final ThreadLocal<Map<Path, FileChannel>> heldLocks = ThreadLocal.withInitial(HashMap::new);
+
+    // Lock statistics
+    private static long lockCount;
+    private static long totalHoldNanos;
+    private static long maxHoldNanos;
+    private static long maxWaitNanos;
+    private static long conflictCount;
+
+    /**
+     * Thrown when saved data was replaced by another instance since this instance last read or wrote it.
+     */
+    public static class StaleDataException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Creates the exception.
+         *
+         * @param name The name of the data file or table
+         * @param expectedVersion The version this instance last saw
+         * @param actualVersion The version found in storage
+         */
+        public StaleDataException(String name, long expectedVersion, long actualVersion) {
+            super(name + " was changed by another user (version " + actualVersion
+                + ", expected " + expectedVersion + ")");
+        }
+    }
+
+    /**
+     * Work done while a file is locked.
+     *
+     * @param <T> The result type
+     */
+    public interface LockedWork<T> {
+        /**
+         * Runs the work.
+         *
+         * @param version The version stamp of the locked file
+         * @return The result
+         * @throws IOException If the work fails
+         */
+        T run(Version version) throws IOException;
+    }
+
+    /**
+     * The version stamp of a locked file, stored in its lock file.
+     * Only valid inside the LockedWork it was passed to.
+     */
+    public static class Version {
+        private final FileChannel channel;
+
+        private Version(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Reads the current version.
+         *
+         * @return The version, 0 if the file was never written through a lock
+         * @throws IOException If the lock file cannot be read
+         */
+        public long get() throws IOException {
+            return read(0);
+        }
+
+        /**
+         * Increments the version.
+         *
+         * @return The new version
+         * @throws IOException If the lock file cannot be written
+         */
+        public long increment() throws IOException {
+            long next = get() + 1;
+            write(0, next);
+            return next;
+        }
+
+        /**
+         * Reads a tag, one of the numbers kept after the version for the owner of the data file,
+         * e.g. to tell which journal a compaction moved aside.
+         *
+         * @param index The tag number, from 0
+         * @return The tag, 0 if it was never set
+         * @throws IOException If the lock file cannot be read
+         */
+        public long getTag(int index) throws IOException {
+            return read((index + 1L) * Long.BYTES);
+        }
+
+        /**
+         * Sets a tag.
+         *
+         * @param index The tag number, from 0
+         * @param tag The new tag
+         * @throws IOException If the lock file cannot be written
+         */
+        public void setTag(int index, long tag) throws IOException {
+            write((index + 1L) * Long.BYTES, tag);
+        }
+
+        /**
+         * Reads a number from the lock file.
+         *
+         * @param position The position of the number
+         * @return The number, 0 if the file ends before it
+         * @throws IOException If the lock file cannot be read
+         */
+        private long read(long position) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+            while (buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) > 0) {
+                // Keep reading until the number is complete or the file ends
+            }
+            return buffer.hasRemaining() ? 0 : buffer.getLong(0);
+        }
+
+        /**
+         * Writes a number to the lock file.
+         *
+         * @param position The position of the number
+         * @param value The number
+         * @throws IOException If the lock file cannot be written
+         */
+        private void write(long position, long value) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+            buffer.putLong(0, value);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, position + buffer.position());
+            }
+        }
+    }
+
+    /**
+     * Runs work while holding the lock of a data file.
+     * Blocks until other instances release the lock, so the work must be short; anything slow,
+     * such as writing the new contents to a temporary file, belongs before the call.
+     *
+     * @param <T> The result type
+     * @param file The data file to lock
+     * @param work The work to run
+     * @return The result of the work
+     * @throws IOException If the lock cannot be taken or the work fails
+     */
+    public static <T> T withLock(Path file, LockedWork<T> work) throws IOException {
+        Path lockFile = file.toAbsolutePath().normalize().resolveSibling(file.getFileName() + LOCK_SUFFIX);
+        FileChannel held = heldLocks.get().get(lockFile);
+        if (held != null) {
+            return work.run(new Version(held));
+        }
+
+        long requested = System.nanoTime();
+        synchronized (monitors.computeIfAbsent(lockFile, path -> new Object())) {
+            try (FileChannel channel = FileChannel.open(lockFile,
+                     StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                channel.lock(); // Released when the channel is closed
+                long acquired = System.nanoTime();
+                heldLocks.get().put(lockFile, channel);
+                try {
+                    return work.run(new Version(channel));
+                } finally {
+                    heldLocks.get().remove(lockFile);
+                    recordLock(acquired - requested, System.nanoTime() - acquired);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the version of a data file.
+     *
+     * @param file The data file
+     * @return The current version
+     * @throws IOException If the lock file cannot be read
+     */
+    public static long readVersion(Path file) throws IOException {
+        return withLock(file, Version::get);
+    }
+
+    /**
+     * Replaces a data file with a fully written temporary file if nobody else replaced it first.
+     * Only the version check, the rename and the version bump run under the lock.
+     *
+     * @param file The data file to replace
+     * @param tempFile The temporary file holding the new contents
+     * @param expectedVersion The version this instance last read or wrote
+     * @return The new version
+     * @throws StaleDataException If the file is at another version; the temporary file is deleted
+     * @throws IOException If the file cannot be replaced
+     */
+    public static long commit(Path file, Path tempFile, long expectedVersion) throws IOException {
+        return withLock(file, version -> {
+            long actualVersion = version.get();
+            if (actualVersion != expectedVersion) {
+                Files.deleteIfExists(tempFile);
+                throw conflict(file.getFileName().toString(), expectedVersion, actualVersion);
+            }
+            FlushScheduler.moveIntoPlace(tempFile, file);
+            return version.increment();
+        });
+    }
+
+    /**
+     * Creates and counts a version conflict.
+     *
+     * @param name The name of the data file or table
+     * @param expectedVersion The version this instance last saw
+     * @param actualVersion The version found in storage
+     * @return The exception to throw
+     */
+    public static StaleDataException conflict(String name, long expectedVersion, long actualVersion) {
+        synchronized (SharedFileLock.class) {
+            conflictCount++;
+        }
+        return new StaleDataException(name, expectedVersion, actualVersion);
+    }
+
+    /**
+     * Builds a one-line summary of the lock statistics.
+     *
+     * @return Summary of lock count, hold times, wait time and conflicts
+     */
+    public static synchronized String getStatusSummary() {
+        return String.format("File locks: %d | Avg hold: %.2f ms | Max hold: %.2f ms | Max wait: %.2f ms | Conflicts: %d",
+            lockCount, lockCount == 0 ? 0 : totalHoldNanos / 1_000_000.0 / lockCount,
+            maxHoldNanos / 1_000_000.0, maxWaitNanos / 1_000_000.0, conflictCount);
+    }
+
+    /**
+     * Records the wait and hold time of a released lock.
+     *
+     * @param waitNanos Time spent waiting for the lock
+     * @param holdNanos Time the lock was held
+     */
+    private static synchronized void recordLock(long waitNanos, long holdNanos) {
+        lockCount++;
+        totalHoldNanos += holdNanos;
+        maxHoldNanos = Math.max(maxHoldNanos, holdNanos);
+        maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+    }
+}
@@ -5,11 +5,9 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.geom.RoundRectangle2D;
 import java.util.HashMap;
-import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.file.NoSuchFileException;
 
 /**
  * User class handles user authentication and login functionality
@@ -31,34 +29,22 @@ public class User {
     private static final Color GRADIENT_START = new Color(93, 224, 230);
     private static final Color GRADIENT_END = new Color(0, 74, 173);
 
-    // Initialize user data from CSV
+    // Initialize user data from the storage backend
     static {
-        loadUserCredentialsFromCSV();
+        loadUserCredentials();
     }
 
     /**
-     * Loads user credentials from the user_credentials.csv file.
+     * Loads user credentials from the selected storage backend.
      * Ensures that all user data is loaded into the userCredentials map.
-     * Handles missing or malformed files gracefully.
+     * Handles missing or malformed data gracefully.
      */
-    private static void loadUserCredentialsFromCSV() {
+    private static void loadUserCredentials() {
         userCredentials.clear();
-        String csvFile = "GEAR.HR/user_credentials.csv";
-        if (!Files.exists(Paths.get(csvFile))) {
-            JOptionPane.showMessageDialog(null, "user_credentials.csv not found at: " + Paths.get(csvFile).toAbsolutePath(), "File Not Found", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-        try (BufferedReader reader = Files.newBufferedReader(Paths.get(csvFile))) {
-            reader.readLine(); // Skip header
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",", -1);
-                if (data.length >= 2) {
-                    String userId = data[0].trim();
-                    String password = data[1].trim();
-                    userCredentials.put(userId, new String[]{password});
-                }
-            }
+        try {
+            userCredentials.putAll(Repositories.credentials().loadAll());
+        } catch (NoSuchFileException e) {
+            JOptionPane.showMessageDialog(null, e.getMessage(), "File Not Found", JOptionPane.ERROR_MESSAGE);
         } catch (IOException e) {
             JOptionPane.showMessageDialog(null, "Error loading user credentials: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
@@ -458,20 +444,12 @@ public class User {
      * @return String array containing [role, email] or ["Unknown", ""] if not found
      */
     public static String[] getRoleAndEmail(String userId) {
-        String csvFile = "GEAR.HR/user_credentials.csv";
-        if (!java.nio.file.Files.exists(java.nio.file.Paths.get(csvFile))) {
-            return new String[]{"", ""};
-        }
-        try (java.io.BufferedReader reader = java.nio.file.Files.newBufferedReader(java.nio.file.Paths.get(csvFile))) {
-            reader.readLine(); // Skip header
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",", -1);
-                if (data.length >= 4 && data[0].trim().equals(userId.trim())) {
-                    return new String[]{data[2].trim(), data[3].trim()}; // role, email
-                }
+        try {
+            String[] credential = Repositories.credentials().findById(userId);
+            if (credential != null) {
+                return new String[]{credential[1], credential[2]}; // role, email
             }
-        } catch (java.io.IOException e) {
+        } catch (IOException e) {
             // Ignore and return empty
         }
         return new String[]{"", ""};
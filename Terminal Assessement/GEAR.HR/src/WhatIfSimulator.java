@@ -0,0 +1,579 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * WhatIfSimulator class handles compensation scenarios such as "a 5% raise for all Developers"
+ * Keeps a copy of every employee's position, salary and allowances, applies a scenario's adjustments to the copy,
+ * recomputes contributions, withholding tax and net pay of all employees in parallel with PayrollKernel,
+ * and reports the total and per-employee change in payroll cost without touching the payroll data
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class WhatIfSimulator {
+    // Rows adjusted and computed per parallel block
+    private static final int BLOCK_SIZE = 4096;
+
+    /**
+     * A pay component a scenario can change.
+     */
+    public enum Component {
+        BASE_SALARY("Base Salary"),
+        RICE_SUBSIDY("Rice Subsidy"),
+        PHONE_ALLOWANCE("Phone Allowance"),
+        CLOTHING_ALLOWANCE("Clothing Allowance");
+
+        private final String label;
+
+        Component(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    /**
+     * A payroll total a scenario is measured by. Payroll cost is what the company pays out, gross pay plus
+     * allowances; it is split between net pay and the contributions and tax withheld from it.
+     */
+    public enum Measure {
+        PAYROLL_COST("Payroll Cost"),
+        GROSS_PAY("Gross Pay"),
+        ALLOWANCES("Allowances"),
+        CONTRIBUTIONS("Contributions"),
+        WITHHOLDING_TAX("Withholding Tax"),
+        NET_PAY("Net Pay");
+
+        private final String label;
+
+        Measure(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Gets this total for one computed kernel row.
+         *
+         * @param kernel The computed kernel
+         * @param row The row
+         * @return The amount in centavos
+         */
+        long of(PayrollKernel kernel, int row) {
+            switch (this) {
+                case PAYROLL_COST: return kernel.getGrossPay(row) + kernel.getTotalAllowances(row);
+                case GROSS_PAY: return kernel.getGrossPay(row);
+                case ALLOWANCES: return kernel.getTotalAllowances(row);
+                case CONTRIBUTIONS:
+                    return kernel.getSSSDeduction(row) + kernel.getPhilHealthDeduction(row) + kernel.getPagIbigDeduction(row);
+                case WITHHOLDING_TAX: return kernel.getTaxDeduction(row);
+                default: return kernel.getNetSalary(row);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    /**
+     * One change of a scenario: a pay component raised by a rate, a fixed amount or both,
+     * for every employee or for the employees holding one position. Amounts never fall below zero.
+     */
+    public static final class Adjustment {
+        private final String position;
+        private final Component component;
+        private final long rate;
+        private final long amount;
+
+        /**
+         * Creates an adjustment.
+         *
+         * @param position The position it applies to, or null for every employee
+         * @param component The pay component changed
+         * @param rate The raise as a rate in millionths (see Money.RATE_SCALE), negative for a cut
+         * @param amount The raise in centavos, negative for a cut
+         */
+        public Adjustment(String position, Component component, long rate, long amount) {
+            this.position = position;
+            this.component = component;
+            this.rate = rate;
+            this.amount = amount;
+        }
+
+        /**
+         * Creates an adjustment raising a component by a percentage.
+         *
+         * @param position The position it applies to, or null for every employee
+         * @param component The pay component changed
+         * @param percent The raise in percent, e.g. "5" or "-2.5"
+         * @return The adjustment
+         * @throws NumberFormatException If the percentage is not a number
+         */
+        public static Adjustment percent(String position, Component component, String percent) {
+            return new Adjustment(position, component, Money.parseRate(percent) / 100, 0);
+        }
+
+        /**
+         * Creates an adjustment raising a component by a fixed amount.
+         *
+         * @param position The position it applies to, or null for every employee
+         * @param component The pay component changed
+         * @param pesos The raise in pesos, e.g. "1500" or "-500.50"
+         * @return The adjustment
+         * @throws NumberFormatException If the amount is not a number
+         */
+        public static Adjustment amount(String position, Component component, String pesos) {
+            return new Adjustment(position, component, 0, Money.parse(pesos));
+        }
+
+        /**
+         * Applies this adjustment to an amount.
+         *
+         * @param centavos The current amount in centavos
+         * @return The adjusted amount in centavos
+         */
+        long apply(long centavos) {
+            return Math.max(0, centavos + Money.multiply(centavos, rate) + amount);
+        }
+
+        // Getter methods
+        public String getPosition() { return position; }
+        public Component getComponent() { return component; }
+        public long getRate() { return rate; }
+        public long getAmount() { return amount; }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(component.toString());
+            if (rate != 0) {
+                text.append(rate > 0 ? " +" : " ").append(rate * 100.0 / Money.RATE_SCALE).append('%');
+            }
+            if (amount != 0) {
+                text.append(amount > 0 ? " +₱" : " -₱");
+                Money.appendGroupedTo(text, Math.abs(amount));
+            }
+            return text.append(" for ").append(position == null ? "all employees" : position).toString();
+        }
+    }
+
+    /**
+     * Outcome of a simulation: payroll totals before and after the scenario,
+     * and the employees whose pay changed with their differences.
+     */
+    public static class Result {
+        private final List<Adjustment> adjustments;
+        private final PayrollKernel baseline;
+        private final PayrollKernel scenario;
+        private final String[] positions;
+        private final int[] positionCodes;
+        private final int[] changedRows;
+        private final long[] baselineTotals;
+        private final long[] scenarioTotals;
+        private final long elapsedNanos;
+
+        /**
+         * Creates a simulation result.
+         *
+         * @param adjustments The scenario
+         * @param baseline The kernel computed with the current pay
+         * @param scenario The kernel computed with the adjusted pay
+         * @param positions The position names by code
+         * @param positionCodes The position code of each row
+         * @param changedRows The rows whose pay changed, in row order
+         * @param baselineTotals The current totals, indexed by Measure ordinal
+         * @param scenarioTotals The totals under the scenario, indexed by Measure ordinal
+         * @param elapsedNanos The time the simulation took
+         */
+        Result(List<Adjustment> adjustments, PayrollKernel baseline, PayrollKernel scenario, String[] positions,
+               int[] positionCodes, int[] changedRows, long[] baselineTotals, long[] scenarioTotals, long elapsedNanos) {
+            this.adjustments = adjustments;
+            this.baseline = baseline;
+            this.scenario = scenario;
+            this.positions = positions;
+            this.positionCodes = positionCodes;
+            this.changedRows = changedRows;
+            this.baselineTotals = baselineTotals;
+            this.scenarioTotals = scenarioTotals;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        // Getter methods
+        public List<Adjustment> getAdjustments() { return adjustments; }
+        public int getEmployeeCount() { return baseline.size(); }
+        public int getChangedCount() { return changedRows.length; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        /**
+         * Gets a monthly total of all employees with their current pay.
+         *
+         * @param measure The total
+         * @return The amount in centavos
+         */
+        public long getBaselineTotal(Measure measure) {
+            return baselineTotals[measure.ordinal()];
+        }
+
+        /**
+         * Gets a monthly total of all employees under the scenario.
+         *
+         * @param measure The total
+         * @return The amount in centavos
+         */
+        public long getScenarioTotal(Measure measure) {
+            return scenarioTotals[measure.ordinal()];
+        }
+
+        /**
+         * Gets the monthly change of a total under the scenario.
+         *
+         * @param measure The total
+         * @return The change in centavos, negative for a saving
+         */
+        public long getDelta(Measure measure) {
+            return scenarioTotals[measure.ordinal()] - baselineTotals[measure.ordinal()];
+        }
+
+        /**
+         * Gets the ID of a changed employee.
+         *
+         * @param index The index among the changed employees, 0 to getChangedCount() - 1
+         * @return The employee ID
+         */
+        public String getEmployeeId(int index) {
+            return baseline.getEmployeeId(changedRows[index]);
+        }
+
+        /**
+         * Gets the position of a changed employee.
+         *
+         * @param index The index among the changed employees
+         * @return The position
+         */
+        public String getPosition(int index) {
+            return positions[positionCodes[changedRows[index]]];
+        }
+
+        /**
+         * Gets a changed employee's current amount of a total.
+         *
+         * @param index The index among the changed employees
+         * @param measure The total
+         * @return The amount in centavos
+         */
+        public long getBaseline(int index, Measure measure) {
+            return measure.of(baseline, changedRows[index]);
+        }
+
+        /**
+         * Gets a changed employee's amount of a total under the scenario.
+         *
+         * @param index The index among the changed employees
+         * @param measure The total
+         * @return The amount in centavos
+         */
+        public long getScenario(int index, Measure measure) {
+            return measure.of(scenario, changedRows[index]);
+        }
+
+        /**
+         * Gets the change of a changed employee's total under the scenario.
+         *
+         * @param index The index among the changed employees
+         * @param measure The total
+         * @return The change in centavos
+         */
+        public long getDelta(int index, Measure measure) {
+            return measure.of(scenario, changedRows[index]) - measure.of(baseline, changedRows[index]);
+        }
+
+        /**
+         * Gets the base salary of a changed employee before and after the scenario.
+         *
+         * @param index The index among the changed employees
+         * @param adjusted true for the salary under the scenario
+         * @return The base salary in centavos
+         */
+        public long getBaseSalary(int index, boolean adjusted) {
+            return (adjusted ? scenario : baseline).getBaseSalary(changedRows[index]);
+        }
+
+        /**
+         * Builds a summary of the scenario's cost.
+         *
+         * @return One line per total with its change, after a line counting the employees affected
+         */
+        public String getSummary() {
+            StringBuilder summary = new StringBuilder();
+            summary.append(String.format("%,d of %,d employees affected (simulated in %,d ms)",
+                changedRows.length, baseline.size(), elapsedNanos / 1_000_000));
+            for (Measure measure : Measure.values()) {
+                long delta = getDelta(measure);
+                summary.append('\n').append(measure).append(": ₱");
+                Money.appendGroupedTo(summary, getBaselineTotal(measure)).append(" → ₱");
+                Money.appendGroupedTo(summary, getScenarioTotal(measure)).append(delta < 0 ? " (-₱" : " (+₱");
+                Money.appendGroupedTo(summary, Math.abs(delta)).append(" per month)");
+            }
+            return summary.toString();
+        }
+    }
+
+    private final int size;
+    private final String[] employeeIds;
+    private final ContributionRules.RuleSet rules;
+
+    // Distinct positions, their codes, and the code of each row's position
+    private final String[] positions;
+    private final Map<String, Integer> positionIndex = new HashMap<>();
+    private final int[] positionCodes;
+
+    // Current pay of every row in centavos, indexed by Component ordinal then row
+    private final long[][] amounts;
+
+    // The current pay computed once, compared against by every simulation
+    private final PayrollKernel baseline;
+    private final long[] baselineTotals;
+
+    /**
+     * Creates a simulator over a copy of the given employees' pay.
+     * Employees without a payroll record are simulated with the default payroll data.
+     * Attendance deductions are left out, so each employee is simulated with a full month's pay.
+     *
+     * @param employees The employees
+     * @param payroll Map of employeeId -> PayrollData
+     * @param rules The contribution and tax rules to compute with
+     */
+    public WhatIfSimulator(List<EmployeeProfile.Employee> employees, Map<String, SalaryComputation.PayrollData> payroll,
+                           ContributionRules.RuleSet rules) {
+        this.size = employees.size();
+        this.rules = rules;
+        this.employeeIds = new String[size];
+        this.positionCodes = new int[size];
+        this.amounts = new long[Component.values().length][size];
+        List<String> names = new ArrayList<>();
+        for (int row = 0; row < size; row++) {
+            EmployeeProfile.Employee employee = employees.get(row);
+            employeeIds[row] = employee.getEmployeeNumber();
+            String position = employee.getPosition() == null ? "" : employee.getPosition();
+            Integer code = positionIndex.get(position);
+            if (code == null) {
+                code = names.size();
+                positionIndex.put(position, code);
+                names.add(position);
+            }
+            positionCodes[row] = code;
+            SalaryComputation.PayrollData data = payroll.get(employeeIds[row]);
+            if (data == null) {
+                data = SalaryComputation.getPayrollData(employeeIds[row]);
+            }
+            amounts[Component.BASE_SALARY.ordinal()][row] = data.getBaseSalary();
+            amounts[Component.RICE_SUBSIDY.ordinal()][row] = data.getRiceSubsidy();
+            amounts[Component.PHONE_ALLOWANCE.ordinal()][row] = data.getPhoneAllowance();
+            amounts[Component.CLOTHING_ALLOWANCE.ordinal()][row] = data.getClothingAllowance();
+        }
+        this.positions = names.toArray(new String[0]);
+
+        this.baseline = new PayrollKernel(size);
+        this.baselineTotals = new long[Measure.values().length];
+        long[][] blockTotals = new long[blockCount()][];
+        IntStream.range(0, blockTotals.length).parallel().forEach(block -> {
+            int from = block * BLOCK_SIZE;
+            int to = Math.min(size, from + BLOCK_SIZE);
+            fill(baseline, from, to, null, null);
+            blockTotals[block] = totals(baseline, from, to);
+        });
+        addAll(blockTotals, baselineTotals);
+    }
+
+    /**
+     * Creates a simulator over the current employees and payroll data, with the rules in force today.
+     *
+     * @return The simulator
+     */
+    public static WhatIfSimulator ofCurrentPayroll() {
+        return new WhatIfSimulator(EmployeeProfile.getAllEmployees(), PayrollStore.getAll(), ContributionRules.current());
+    }
+
+    /**
+     * Simulates a scenario: applies its adjustments in order to a copy of every employee's pay,
+     * recomputes every employee in parallel and compares the result with the current pay.
+     * The simulator's copy is not changed, so scenarios can be simulated one after another or at the same time.
+     *
+     * @param adjustments The scenario
+     * @return The result
+     */
+    public Result simulate(Adjustment... adjustments) {
+        return simulate(Arrays.asList(adjustments));
+    }
+
+    /**
+     * Simulates a scenario.
+     *
+     * @param adjustments The scenario, applied in order
+     * @return The result
+     */
+    public Result simulate(List<Adjustment> adjustments) {
+        long start = System.nanoTime();
+        Adjustment[] scenarioAdjustments = adjustments.toArray(new Adjustment[0]);
+        // Positions are matched by code in the loop; an unknown position matches nobody
+        int[] adjustmentCodes = new int[scenarioAdjustments.length];
+        for (int i = 0; i < adjustmentCodes.length; i++) {
+            String position = scenarioAdjustments[i].getPosition();
+            adjustmentCodes[i] = position == null ? -1 : positionIndex.getOrDefault(position, -2);
+        }
+
+        PayrollKernel scenario = new PayrollKernel(size);
+        int blocks = blockCount();
+        long[][] blockTotals = new long[blocks][];
+        int[][] blockChanged = new int[blocks][];
+        IntStream.range(0, blocks).parallel().forEach(block -> {
+            int from = block * BLOCK_SIZE;
+            int to = Math.min(size, from + BLOCK_SIZE);
+            fill(scenario, from, to, scenarioAdjustments, adjustmentCodes);
+            blockTotals[block] = totals(scenario, from, to);
+            blockChanged[block] = changedRows(scenario, from, to);
+        });
+
+        long[] scenarioTotals = new long[Measure.values().length];
+        addAll(blockTotals, scenarioTotals);
+        int changedCount = 0;
+        for (int[] rows : blockChanged) {
+            changedCount += rows.length;
+        }
+        int[] changed = new int[changedCount];
+        int offset = 0;
+        for (int[] rows : blockChanged) {
+            System.arraycopy(rows, 0, changed, offset, rows.length);
+            offset += rows.length;
+        }
+        return new Result(Arrays.asList(scenarioAdjustments), baseline, scenario, positions, positionCodes, changed,
+            baselineTotals, scenarioTotals, System.nanoTime() - start);
+    }
+
+    /**
+     * Gets the distinct positions of the simulated employees, for choosing who a scenario applies to.
+     *
+     * @return The positions, in order of first appearance
+     */
+    public List<String> getPositions() {
+        return Arrays.asList(positions.clone());
+    }
+
+    /**
+     * Gets the number of simulated employees.
+     *
+     * @return The employee count
+     */
+    public int getEmployeeCount() {
+        return size;
+    }
+
+    /**
+     * Gets the rules the simulator computes with.
+     *
+     * @return The contribution and tax rules
+     */
+    public ContributionRules.RuleSet getRules() {
+        return rules;
+    }
+
+    /**
+     * Fills and computes a range of kernel rows from the current pay, adjusted by a scenario.
+     *
+     * @param kernel The kernel
+     * @param from The first row
+     * @param to The row after the last
+     * @param adjustments The scenario, or null for the current pay
+     * @param adjustmentCodes The position code each adjustment applies to, -1 for all and -2 for none
+     */
+    private void fill(PayrollKernel kernel, int from, int to, Adjustment[] adjustments, int[] adjustmentCodes) {
+        kernel.setRules(rules);
+        long[] pay = new long[amounts.length];
+        for (int row = from; row < to; row++) {
+            for (int component = 0; component < pay.length; component++) {
+                pay[component] = amounts[component][row];
+            }
+            if (adjustments != null) {
+                for (int i = 0; i < adjustments.length; i++) {
+                    if (adjustmentCodes[i] == -1 || adjustmentCodes[i] == positionCodes[row]) {
+                        int component = adjustments[i].getComponent().ordinal();
+                        pay[component] = adjustments[i].apply(pay[component]);
+                    }
+                }
+            }
+            kernel.set(row, employeeIds[row], pay[Component.BASE_SALARY.ordinal()], pay[Component.RICE_SUBSIDY.ordinal()],
+                pay[Component.PHONE_ALLOWANCE.ordinal()], pay[Component.CLOTHING_ALLOWANCE.ordinal()]);
+        }
+        kernel.computeContributions(from, to);
+        kernel.computePay(from, to);
+    }
+
+    /**
+     * Adds up the totals of a range of computed kernel rows.
+     *
+     * @param kernel The computed kernel
+     * @param from The first row
+     * @param to The row after the last
+     * @return The totals, indexed by Measure ordinal
+     */
+    private static long[] totals(PayrollKernel kernel, int from, int to) {
+        Measure[] measures = Measure.values();
+        long[] totals = new long[measures.length];
+        for (int m = 0; m < measures.length; m++) {
+            long total = 0;
+            for (int row = from; row < to; row++) {
+                total += measures[m].of(kernel, row);
+            }
+            totals[m] = total;
+        }
+        return totals;
+    }
+
+    /**
+     * Finds the rows of a range whose pay differs from the current pay.
+     *
+     * @param scenario The kernel computed with the scenario
+     * @param from The first row
+     * @param to The row after the last
+     * @return The changed rows in order
+     */
+    private int[] changedRows(PayrollKernel scenario, int from, int to) {
+        int[] changed = new int[to - from];
+        int count = 0;
+        for (int row = from; row < to; row++) {
+            if (scenario.getBaseSalary(row) != baseline.getBaseSalary(row)
+                || scenario.getTotalAllowances(row) != baseline.getTotalAllowances(row)
+                || scenario.getNetSalary(row) != baseline.getNetSalary(row)) {
+                changed[count++] = row;
+            }
+        }
+        return Arrays.copyOf(changed, count);
+    }
+
+    /**
+     * Adds the totals of every block.
+     *
+     * @param blockTotals The totals of each block
+     * @param totals Receives the sums
+     */
+    private static void addAll(long[][] blockTotals, long[] totals) {
+        for (long[] block : blockTotals) {
+            for (int m = 0; m < totals.length; m++) {
+                totals[m] += block[m];
+            }
+        }
+    }
+
+    /**
+     * Gets the number of parallel blocks.
+     *
+     * @return The block count
+     */
+    private int blockCount() {
+        return (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    }
+}
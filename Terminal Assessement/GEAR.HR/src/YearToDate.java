@@ -0,0 +1,576 @@
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.Month;
+import java.time.Year;
+import java.time.YearMonth;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * YearToDate class handles every employee's running payroll totals for the calendar year
+ * Adds a pay period's payroll register to per-employee accumulators of gross pay, allowances, taxable pay,
+ * each contribution, tax withheld and net pay when the period is closed, keeps them in one file per year,
+ * and runs the year-end income tax true-up over the accumulators in one pass instead of replaying every period
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class YearToDate {
+    // Folder holding one accumulator file and one true-up file per year
+    public static final String YTD_DIRECTORY = "GEAR.HR/ytd";
+
+    private static final String HEADER = "EmployeeID,Months,GrossPay,TotalAllowances,TaxableIncome,"
+        + "SSSAmount,PhilHealthAmount,PagIBIGAmount,WithholdingTax,NetSalary";
+    private static final String TRUE_UP_HEADER = "EmployeeID,Months,GrossPay,TotalAllowances,TaxableIncome,"
+        + "SSSAmount,PhilHealthAmount,PagIBIGAmount,TaxWithheld,AnnualTax,Adjustment";
+
+    // Marks of a closed and an open month in the Months column, January first
+    private static final char CLOSED = 'X';
+    private static final char OPEN = '-';
+
+    // Accumulators by year, then employee ID, as last read or written; guarded by YearToDate.class
+    private static final Map<Year, Map<String, Totals>> years = new HashMap<>();
+
+    /**
+     * One employee's totals for the closed months of a year.
+     * Totals are immutable; closing a month creates new totals.
+     */
+    public static final class Totals {
+        // Totals of an employee not paid yet this year
+        public static final Totals EMPTY = new Totals(0, 0, 0, 0, 0, 0, 0, 0, 0);
+
+        // Closed months included, bit 0 for January
+        private final int months;
+        private final long grossPay;
+        private final long allowances;
+        private final long taxableIncome;
+        private final long sss;
+        private final long philHealth;
+        private final long pagIbig;
+        private final long withholdingTax;
+        private final long netSalary;
+
+        /**
+         * Creates totals. Amounts are in centavos.
+         *
+         * @param months The months included, bit 0 for January
+         * @param grossPay Base salary less attendance deductions
+         * @param allowances Rice subsidy, phone and clothing allowances
+         * @param taxableIncome Gross pay plus allowances
+         * @param sss SSS contributions
+         * @param philHealth PhilHealth contributions
+         * @param pagIbig Pag-IBIG contributions
+         * @param withholdingTax Tax withheld
+         * @param netSalary Net pay
+         */
+        Totals(int months, long grossPay, long allowances, long taxableIncome, long sss, long philHealth, long pagIbig,
+               long withholdingTax, long netSalary) {
+            this.months = months;
+            this.grossPay = grossPay;
+            this.allowances = allowances;
+            this.taxableIncome = taxableIncome;
+            this.sss = sss;
+            this.philHealth = philHealth;
+            this.pagIbig = pagIbig;
+            this.withholdingTax = withholdingTax;
+            this.netSalary = netSalary;
+        }
+
+        /**
+         * Adds one month's pay to these totals.
+         *
+         * @param month The month
+         * @param pay The month's totals
+         * @return The new totals
+         */
+        Totals plus(Month month, Totals pay) {
+            return new Totals(months | monthBit(month), grossPay + pay.grossPay, allowances + pay.allowances,
+                taxableIncome + pay.taxableIncome, sss + pay.sss, philHealth + pay.philHealth, pagIbig + pay.pagIbig,
+                withholdingTax + pay.withholdingTax, netSalary + pay.netSalary);
+        }
+
+        /**
+         * Checks whether a month's pay is included.
+         *
+         * @param month The month
+         * @return true if the month was closed with this employee in its register
+         */
+        public boolean includes(Month month) {
+            return (months & monthBit(month)) != 0;
+        }
+
+        /**
+         * Gets the number of months included.
+         *
+         * @return The month count
+         */
+        public int getMonthCount() {
+            return Integer.bitCount(months);
+        }
+
+        /**
+         * Gets the employee's SSS, PhilHealth and Pag-IBIG contributions together.
+         *
+         * @return The contributions in centavos
+         */
+        public long getContributions() {
+            return sss + philHealth + pagIbig;
+        }
+
+        // Getter methods, amounts in centavos
+        public long getGrossPay() { return grossPay; }
+        public long getAllowances() { return allowances; }
+        public long getTaxableIncome() { return taxableIncome; }
+        public long getSSS() { return sss; }
+        public long getPhilHealth() { return philHealth; }
+        public long getPagIbig() { return pagIbig; }
+        public long getWithholdingTax() { return withholdingTax; }
+        public long getNetSalary() { return netSalary; }
+    }
+
+    /**
+     * Outcome of a year-end true-up.
+     */
+    public static class TrueUp {
+        private final Year year;
+        private final int employees;
+        private final int closedMonths;
+        private final long taxWithheld;
+        private final long annualTax;
+        private final long toCollect;
+        private final long toRefund;
+        private final Path file;
+
+        /**
+         * Creates a true-up result. Amounts are in centavos.
+         *
+         * @param year The year
+         * @param employees The number of employees
+         * @param closedMonths The number of closed months
+         * @param taxWithheld Tax withheld from all employees
+         * @param annualTax Income tax due from all employees
+         * @param toCollect Tax still to withhold from employees who paid too little
+         * @param toRefund Tax to return to employees who paid too much
+         * @param file The true-up file written
+         */
+        public TrueUp(Year year, int employees, int closedMonths, long taxWithheld, long annualTax, long toCollect,
+                      long toRefund, Path file) {
+            this.year = year;
+            this.employees = employees;
+            this.closedMonths = closedMonths;
+            this.taxWithheld = taxWithheld;
+            this.annualTax = annualTax;
+            this.toCollect = toCollect;
+            this.toRefund = toRefund;
+            this.file = file;
+        }
+
+        // Getter methods
+        public Year getYear() { return year; }
+        public int getEmployees() { return employees; }
+        public int getClosedMonths() { return closedMonths; }
+        public long getTaxWithheld() { return taxWithheld; }
+        public long getAnnualTax() { return annualTax; }
+        public long getToCollect() { return toCollect; }
+        public long getToRefund() { return toRefund; }
+        public Path getFile() { return file; }
+
+        /**
+         * Builds a one-line summary of the true-up.
+         *
+         * @return Summary of employees, months and tax totals
+         */
+        public String getSummary() {
+            StringBuilder summary = new StringBuilder();
+            summary.append("True-up ").append(year).append(": ").append(employees).append(" employees, ")
+                .append(closedMonths).append(" closed months | Withheld ₱");
+            Money.appendGroupedTo(summary, taxWithheld).append(" | Annual tax ₱");
+            Money.appendGroupedTo(summary, annualTax).append(" | To collect ₱");
+            Money.appendGroupedTo(summary, toCollect).append(" | To refund ₱");
+            return Money.appendGroupedTo(summary, toRefund).toString();
+        }
+    }
+
+    /**
+     * Closes a pay period: adds every employee's amounts from the period's payroll register to their totals
+     * and saves them. A period can be closed once; run payroll again before closing to correct it.
+     *
+     * @param period The pay period
+     * @return The number of employees added
+     * @throws IOException If the register cannot be read or the totals cannot be saved
+     * @throws IllegalStateException If payroll was not run for the period or the period is already closed
+     */
+    public static int closePeriod(YearMonth period) throws IOException {
+        return closePeriod(period, PayrollRun.getRegisterFile(period));
+    }
+
+    /**
+     * Closes a pay period from a payroll register.
+     * The register is read first; the totals are then read with their version, merged and saved only if no
+     * other instance sharing the data saved them in between, otherwise read and merged again. So two instances
+     * closing different months keep both, and of two closing the same month only the first counts it.
+     *
+     * @param period The pay period
+     * @param registerFile The payroll register of the period
+     * @return The number of employees added
+     * @throws IOException If the register cannot be read or the totals cannot be saved
+     * @throws IllegalStateException If the register does not exist or the period is already closed
+     */
+    public static synchronized int closePeriod(YearMonth period, Path registerFile) throws IOException {
+        if (!Files.exists(registerFile)) {
+            throw new IllegalStateException("Payroll has not been run for " + period);
+        }
+        Year year = Year.of(period.getYear());
+        Map<String, Totals> pay = new HashMap<>();
+        int employees = 0;
+        try (CsvReader reader = CsvReader.open(registerFile)) {
+            if (!reader.next()) {
+                throw new IOException("Payroll register " + registerFile + " is empty");
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < reader.getFieldCount(); i++) {
+                columns.put(reader.getField(i), i);
+            }
+            // Registers written before attendance deductions have no GrossPay column
+            int grossColumn = column(columns, columns.containsKey("GrossPay") ? "GrossPay" : "BaseSalary");
+            int allowancesColumn = column(columns, "TotalAllowances");
+            int sssColumn = column(columns, "SSSAmount");
+            int philHealthColumn = column(columns, "PhilHealthAmount");
+            int pagIbigColumn = column(columns, "PagIBIGAmount");
+            int taxColumn = column(columns, "WithholdingTax");
+            int netColumn = column(columns, "NetSalary");
+            while (reader.next()) {
+                long gross = reader.getCentavos(grossColumn);
+                long allowances = reader.getCentavos(allowancesColumn);
+                Totals row = new Totals(0, gross, allowances, gross + allowances, reader.getCentavos(sssColumn),
+                    reader.getCentavos(philHealthColumn), reader.getCentavos(pagIbigColumn), reader.getCentavos(taxColumn),
+                    reader.getCentavos(netColumn));
+                pay.merge(reader.getField(0), Totals.EMPTY.plus(period.getMonth(), row),
+                    (current, added) -> current.plus(period.getMonth(), added));
+                employees++;
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid amount in payroll register " + registerFile + ": " + e.getMessage(), e);
+        }
+
+        Path file = fileOf(year);
+        Files.createDirectories(file.getParent());
+        while (true) {
+            // Read the version before the file, so a save by another instance in between fails the commit
+            long version = SharedFileLock.readVersion(file);
+            Map<String, Totals> totals = read(year);
+            if (getClosedMonths(totals).contains(period.getMonth())) {
+                years.put(year, totals);
+                throw new IllegalStateException(period + " is already closed");
+            }
+            for (Map.Entry<String, Totals> employee : pay.entrySet()) {
+                totals.merge(employee.getKey(), employee.getValue(), (current, added) -> current.plus(period.getMonth(), added));
+            }
+            try {
+                SharedFileLock.commit(file, writeTempFile(year, totals), version);
+            } catch (SharedFileLock.StaleDataException e) {
+                continue; // Another instance saved the totals meanwhile; merge into its totals
+            }
+            years.put(year, totals);
+            return employees;
+        }
+    }
+
+    /**
+     * Gets an employee's totals for a year.
+     *
+     * @param employeeId The employee ID
+     * @param year The year
+     * @return The totals, Totals.EMPTY if no closed month of the year paid the employee
+     * @throws IOException If the totals cannot be read
+     */
+    public static synchronized Totals get(String employeeId, Year year) throws IOException {
+        return held(year).getOrDefault(employeeId, Totals.EMPTY);
+    }
+
+    /**
+     * Gets the closed months of a year.
+     *
+     * @param year The year
+     * @return The months closed so far
+     * @throws IOException If the totals cannot be read
+     */
+    public static synchronized Set<Month> getClosedMonths(Year year) throws IOException {
+        return getClosedMonths(held(year));
+    }
+
+    /**
+     * Calculates an employee's year-end adjustment: the income tax due on the year's taxable pay
+     * under the annual table, less the tax already withheld.
+     *
+     * @param totals The employee's totals for the year
+     * @param rules The rules in force at the end of the year
+     * @return The tax still to withhold in centavos, negative for a refund
+     */
+    public static long calculateAdjustment(Totals totals, ContributionRules.RuleSet rules) {
+        return rules.annualIncomeTax(totals.getTaxableIncome()) - totals.getWithholdingTax();
+    }
+
+    /**
+     * Runs the year-end true-up: computes every employee's annual income tax from their totals in one pass
+     * and writes each employee's adjustment to "<year>_trueup.csv".
+     * Meant for after December is closed; run earlier, the months closed so far are treated as the whole year.
+     * The true-up file is only put in place while the totals are still at the version it was computed from,
+     * so a month closed by another instance meanwhile is never left out of it.
+     *
+     * @param year The year
+     * @return The result of the true-up
+     * @throws IOException If the totals cannot be read or the true-up file cannot be written
+     */
+    public static synchronized TrueUp trueUp(Year year) throws IOException {
+        Files.createDirectories(fileOf(year).getParent());
+        while (true) {
+            long version = SharedFileLock.readVersion(fileOf(year));
+            Map<String, Totals> totals = read(year);
+            years.put(year, totals);
+            TrueUp result = trueUp(year, totals, version);
+            if (result != null) {
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Computes and writes the true-up of a year from its totals as read at a version.
+     *
+     * @param year The year
+     * @param totals Map of employeeId -> totals
+     * @param version The version of the totals file the totals were read at
+     * @return The result of the true-up, or null if the totals were saved by another instance meanwhile
+     * @throws IOException If the true-up file cannot be written
+     */
+    private static TrueUp trueUp(Year year, Map<String, Totals> totals, long version) throws IOException {
+        ContributionRules.RuleSet rules = ContributionRules.forDate(year.atMonth(Month.DECEMBER).atEndOfMonth());
+
+        long withheld = 0, due = 0, toCollect = 0, toRefund = 0;
+        StringBuilder lines = new StringBuilder(totals.size() * 128);
+        for (Map.Entry<String, Totals> entry : new TreeMap<>(totals).entrySet()) {
+            Totals employee = entry.getValue();
+            long annualTax = rules.annualIncomeTax(employee.getTaxableIncome());
+            long adjustment = annualTax - employee.getWithholdingTax();
+            withheld += employee.getWithholdingTax();
+            due += annualTax;
+            if (adjustment > 0) {
+                toCollect += adjustment;
+            } else {
+                toRefund -= adjustment;
+            }
+            lines.append(String.join(",",
+                CsvReader.escape(entry.getKey()),
+                monthsText(employee.months),
+                Money.format(employee.getGrossPay()),
+                Money.format(employee.getAllowances()),
+                Money.format(employee.getTaxableIncome()),
+                Money.format(employee.getSSS()),
+                Money.format(employee.getPhilHealth()),
+                Money.format(employee.getPagIbig()),
+                Money.format(employee.getWithholdingTax()),
+                Money.format(annualTax),
+                Money.format(adjustment)
+            )).append(System.lineSeparator());
+        }
+
+        Path file = Paths.get(YTD_DIRECTORY).resolve(year + "_trueup.csv");
+        Files.createDirectories(file.getParent());
+        Path tempFile = FlushScheduler.writeTempFile(file, writer -> {
+            writer.write(TRUE_UP_HEADER);
+            writer.newLine();
+            writer.write(lines.toString());
+        });
+        boolean current = SharedFileLock.withLock(fileOf(year), totalsVersion -> {
+            if (totalsVersion.get() != version) {
+                Files.deleteIfExists(tempFile);
+                return false;
+            }
+            FlushScheduler.moveIntoPlace(tempFile, file);
+            return true;
+        });
+        if (!current) {
+            return null;
+        }
+        return new TrueUp(year, totals.size(), getClosedMonths(totals).size(), withheld, due, toCollect, toRefund, file);
+    }
+
+    /**
+     * Builds a one-line summary of this year's totals.
+     *
+     * @return Summary of the closed months and employees paid this year
+     */
+    public static synchronized String getStatusSummary() {
+        Year year = Year.now();
+        try {
+            Map<String, Totals> totals = held(year);
+            return String.format("Year to date %s: %d months closed %s | Employees: %d",
+                year, getClosedMonths(totals).size(), getClosedMonths(totals), totals.size());
+        } catch (IOException e) {
+            return "Year to date " + year + ": cannot read totals (" + e.getMessage() + ")";
+        }
+    }
+
+    /**
+     * Gets the totals of a year, reading them on first use.
+     *
+     * @param year The year
+     * @return Map of employeeId -> totals
+     * @throws IOException If the totals cannot be read
+     */
+    private static Map<String, Totals> held(Year year) throws IOException {
+        Map<String, Totals> totals = years.get(year);
+        if (totals == null) {
+            totals = read(year);
+            years.put(year, totals);
+        }
+        return totals;
+    }
+
+    /**
+     * Gets the months included in any employee's totals.
+     *
+     * @param totals Map of employeeId -> totals
+     * @return The closed months
+     */
+    private static Set<Month> getClosedMonths(Map<String, Totals> totals) {
+        int months = 0;
+        for (Totals employee : totals.values()) {
+            months |= employee.months;
+        }
+        Set<Month> closed = EnumSet.noneOf(Month.class);
+        for (Month month : Month.values()) {
+            if ((months & monthBit(month)) != 0) {
+                closed.add(month);
+            }
+        }
+        return closed;
+    }
+
+    /**
+     * Reads the totals file of a year.
+     *
+     * @param year The year
+     * @return Map of employeeId -> totals, empty if the file does not exist
+     * @throws IOException If the file cannot be read or holds an invalid line
+     */
+    private static Map<String, Totals> read(Year year) throws IOException {
+        Map<String, Totals> totals = new HashMap<>();
+        Path file = fileOf(year);
+        if (!Files.exists(file)) {
+            return totals;
+        }
+        try (CsvReader reader = CsvReader.open(file)) {
+            reader.next();
+            while (reader.next()) {
+                totals.put(reader.getField(0), new Totals(parseMonths(reader.getField(1)), reader.getCentavos(2),
+                    reader.getCentavos(3), reader.getCentavos(4), reader.getCentavos(5), reader.getCentavos(6),
+                    reader.getCentavos(7), reader.getCentavos(8), reader.getCentavos(9)));
+            }
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            throw new IOException("Invalid line in " + file + ": " + e.getMessage(), e);
+        }
+        return totals;
+    }
+
+    /**
+     * Writes the totals of a year, in employee ID order, to a temporary file next to the year's totals file.
+     *
+     * @param year The year
+     * @param totals Map of employeeId -> totals
+     * @return The temporary file, to be put in place with SharedFileLock.commit
+     * @throws IOException If the file cannot be written
+     */
+    private static Path writeTempFile(Year year, Map<String, Totals> totals) throws IOException {
+        Path file = fileOf(year);
+        Files.createDirectories(file.getParent());
+        Map<String, Totals> sorted = new TreeMap<>(totals);
+        return FlushScheduler.writeTempFile(file, writer -> {
+            writer.write(HEADER);
+            writer.newLine();
+            for (Map.Entry<String, Totals> entry : sorted.entrySet()) {
+                Totals employee = entry.getValue();
+                writer.write(String.join(",",
+                    CsvReader.escape(entry.getKey()),
+                    monthsText(employee.months),
+                    Money.format(employee.grossPay),
+                    Money.format(employee.allowances),
+                    Money.format(employee.taxableIncome),
+                    Money.format(employee.sss),
+                    Money.format(employee.philHealth),
+                    Money.format(employee.pagIbig),
+                    Money.format(employee.withholdingTax),
+                    Money.format(employee.netSalary)));
+                writer.newLine();
+            }
+        });
+    }
+
+    /**
+     * Gets the totals file of a year.
+     *
+     * @param year The year
+     * @return The file path
+     */
+    private static Path fileOf(Year year) {
+        return Paths.get(YTD_DIRECTORY).resolve(year + ".csv");
+    }
+
+    /**
+     * Finds a register column by name.
+     *
+     * @param columns Map of column name -> index
+     * @param name The column name
+     * @return The column index
+     * @throws IOException If the register has no such column
+     */
+    private static int column(Map<String, Integer> columns, String name) throws IOException {
+        Integer index = columns.get(name);
+        if (index == null) {
+            throw new IOException("Payroll register has no " + name + " column");
+        }
+        return index;
+    }
+
+    /**
+     * Gets the bit of a month in a month set.
+     *
+     * @param month The month
+     * @return The bit, 1 for January
+     */
+    private static int monthBit(Month month) {
+        return 1 << (month.getValue() - 1);
+    }
+
+    /**
+     * Writes a month set as twelve marks, January first, e.g. "XXXXXXX-----".
+     *
+     * @param months The month set
+     * @return The marks
+     */
+    private static String monthsText(int months) {
+        char[] marks = new char[12];
+        for (int i = 0; i < marks.length; i++) {
+            marks[i] = (months & (1 << i)) != 0 ? CLOSED : OPEN;
+        }
+        return new String(marks);
+    }
+
+    /**
+     * Reads a month set written by monthsText.
+     *
+     * @param text The marks
+     * @return The month set
+     */
+    private static int parseMonths(String text) {
+        int months = 0;
+        for (int i = 0; i < Math.min(12, text.length()); i++) {
+            if (text.charAt(i) == CLOSED) {
+                months |= 1 << i;
+            }
+        }
+        return months;
+    }
+}
@@ -0,0 +1,495 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * RepositoryContractTest class checks that every storage backend behaves the same
+ * Runs one set of checks against CsvRepositories and against JdbcRepositories on an embedded database:
+ * employees and payroll data read back exactly as saved and saves from another instance are detected and
+ * rejected, attendance queries, replacements, removals and batches return the same records, credentials are
+ * looked up alike, and importing the CSV data into an empty database copies every table.
+ * Writes GEAR.HR in the working folder, so it must be run from a folder without GEAR.HR data; that folder can
+ * be deleted afterwards. The JDBC driver must be on the classpath.
+ * Usage: java -cp bin:h2.jar RepositoryContractTest [jdbc-url]
+ * Note: All information in this program are sample data for demonstration purposes
+ */
+public class RepositoryContractTest {
+    private static final Path DATA_FOLDER = Paths.get("GEAR.HR");
+    private static final String DEFAULT_URL = "jdbc:h2:./GEAR.HR/contract";
+    private static final String CREDENTIALS_CSV =
+        "userId,password,role,email\n"
+        + "1001,admin123,Admin,admin@MotorPH.com\n"
+        + "1002,manager123,Manager\n";
+
+    // Number of checks run and of checks that failed
+    private static int checks;
+    private static int failures;
+
+    /**
+     * Opens one storage backend, as another instance sharing the same data would.
+     */
+    private interface Backend {
+        /**
+         * Opens the backend.
+         *
+         * @return The employee, payroll, attendance and credential repositories, in that order
+         * @throws Exception If the storage cannot be opened
+         */
+        Object[] open() throws Exception;
+    }
+
+    /**
+     * Runs the contract against both backends and prints every failed check.
+     *
+     * @param args Optional JDBC URL of a database file (default an H2 database in GEAR.HR)
+     * @throws Exception If a backend cannot be opened
+     */
+    public static void main(String[] args) throws Exception {
+        String url = args.length > 0 ? args[0] : DEFAULT_URL;
+        if (Files.exists(DATA_FOLDER)) {
+            System.err.println("Run from a folder without GEAR.HR data; the test writes its data to " + DATA_FOLDER.toAbsolutePath());
+            return;
+        }
+        Files.createDirectories(DATA_FOLDER);
+        Files.write(DATA_FOLDER.resolve("user_credentials.csv"), CREDENTIALS_CSV.getBytes(StandardCharsets.UTF_8));
+
+        Backend csv = () -> {
+            CsvRepositories repositories = new CsvRepositories();
+            return new Object[] {repositories.employees(), repositories.payroll(), repositories.attendance(), repositories.credentials()};
+        };
+        Backend jdbc = () -> {
+            JdbcRepositories repositories = new JdbcRepositories(url);
+            // Copies the credentials; the other tables are still empty
+            repositories.importIfEmpty(new CsvRepositories());
+            return new Object[] {repositories.employees(), repositories.payroll(), repositories.attendance(), repositories.credentials()};
+        };
+
+        // The database first, so its import finds no CSV data left by the CSV checks
+        for (String name : new String[] {url, "csv"}) {
+            Backend backend = name.equals("csv") ? csv : jdbc;
+            int failed = failures;
+            checkEmployees(name, backend);
+            checkPayroll(name, backend);
+            checkAttendance(name, backend);
+            checkCredentials(name, backend);
+            System.out.printf("%s: %s%n", name, failures == failed ? "passed" : (failures - failed) + " checks failed");
+        }
+        checkImport(url);
+        FlushScheduler.flushAll();
+
+        System.out.printf("Repository contract: %d checks, %d failed%n", checks, failures);
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Checks that employees read back in order with every field, and that a save made by another
+     * instance is detected and rejects this instance's save until it loads again.
+     *
+     * @param name The backend name
+     * @param backend The backend
+     * @throws Exception If the backend cannot be opened
+     */
+    private static void checkEmployees(String name, Backend backend) throws Exception {
+        Repositories.EmployeeRepository repository = (Repositories.EmployeeRepository) backend.open()[0];
+        check(name, "no employees before the first save", repository.loadAll().isEmpty());
+
+        List<EmployeeProfile.Employee> employees = Arrays.asList(
+            employee("10003", "Zamora", "Ana", "Davao"),
+            employee("10001", "Garcia", "Manuel III", "Valero Carpark Building, Makati City"),
+            employee("E-7", "O\"Brien", "", "Line one\nLine two")
+        );
+        repository.saveAll(employees);
+        check(name, "employees read back in order with every field", sameEmployees(repository.loadAll(), employees));
+        check(name, "own employee save is not an external change", !repository.hasExternalChanges());
+
+        Repositories.EmployeeRepository other = (Repositories.EmployeeRepository) backend.open()[0];
+        check(name, "another instance reads the saved employees", sameEmployees(other.loadAll(), employees));
+        List<EmployeeProfile.Employee> changed = new ArrayList<>(employees.subList(0, 2));
+        other.saveAll(changed);
+        check(name, "employee save by another instance is an external change", repository.hasExternalChanges());
+        check(name, "employee save over another instance's save is rejected", rejectsStaleSave(() -> repository.saveAll(employees)));
+        check(name, "rejected employee save leaves the other save", sameEmployees(other.loadAll(), changed));
+        check(name, "employees reloaded after a conflict", sameEmployees(repository.loadAll(), changed));
+        repository.saveAll(employees);
+        check(name, "employee save after reloading is accepted", sameEmployees(other.loadAll(), employees));
+    }
+
+    /**
+     * Checks that payroll data reads back to the centavo, including amounts too large for single precision,
+     * and that a save made by another instance is detected and rejected.
+     *
+     * @param name The backend name
+     * @param backend The backend
+     * @throws Exception If the backend cannot be opened
+     */
+    private static void checkPayroll(String name, Backend backend) throws Exception {
+        Repositories.PayrollRepository repository = (Repositories.PayrollRepository) backend.open()[1];
+        check(name, "no payroll data before the first save", repository.loadAll().isEmpty());
+
+        Map<String, SalaryComputation.PayrollData> records = new HashMap<>();
+        records.put("10001", SalaryComputation.PayrollData.ofCentavos(9_000_000L, 45_000L, 45_000L, 10_000L, 0L, 150_000L, 200_000L, 100_000L));
+        records.put("10002", SalaryComputation.PayrollData.ofCentavos(123_456_789L, 1_234_567L, 2_345_678L, 10_001L, 0L, 150_001L, 99_999L, 1L));
+        records.put("E-7", SalaryComputation.PayrollData.ofCentavos(1_234_567_891L, 0L, 0L, 0L, 0L, 123_456_789L, 98_765_432L, 33_333_333L));
+        repository.saveAll(records);
+        check(name, "payroll data reads back to the centavo", samePayroll(repository.loadAll(), records));
+        check(name, "own payroll save is not an external change", !repository.hasExternalChanges());
+
+        Repositories.PayrollRepository other = (Repositories.PayrollRepository) backend.open()[1];
+        check(name, "another instance reads the saved payroll data", samePayroll(other.loadAll(), records));
+        Map<String, SalaryComputation.PayrollData> changed = new HashMap<>(records);
+        changed.remove("E-7");
+        other.saveAll(changed);
+        check(name, "payroll save by another instance is an external change", repository.hasExternalChanges());
+        check(name, "payroll save over another instance's save is rejected", rejectsStaleSave(() -> repository.saveAll(records)));
+        check(name, "payroll data reloaded after a conflict", samePayroll(repository.loadAll(), changed));
+        repository.saveAll(records);
+        check(name, "payroll save after reloading is accepted", samePayroll(other.loadAll(), records));
+    }
+
+    /**
+     * Checks attendance queries, replacements, batches, removals and clearing.
+     *
+     * @param name The backend name
+     * @param backend The backend
+     * @throws Exception If the backend cannot be opened
+     */
+    private static void checkAttendance(String name, Backend backend) throws Exception {
+        Repositories.AttendanceRepository repository = (Repositories.AttendanceRepository) backend.open()[2];
+        repository.open();
+        check(name, "no attendance months before the first record", repository.getMonths().isEmpty());
+        check(name, "no records in a month without data", repository.getRecords("2025-07").isEmpty());
+        check(name, "no record contained before the first record", !repository.contains("10001", "2025-07-01"));
+
+        Map<String, Attendance.AttendanceRecord> expected = new LinkedHashMap<>();
+        Attendance.AttendanceRecord first = record("10001", "2025-07-01", "Late", "08:15", "17:00");
+        check(name, "put of a new record replaces nothing", repository.put(first) == null);
+        expected.put(key(first), first);
+        Attendance.AttendanceRecord corrected = record("10001", "2025-07-01", "Present", "08:00", "17:00");
+        check(name, "put of a correction returns the replaced record", sameRecord(repository.put(corrected), first));
+        expected.put(key(corrected), corrected);
+
+        List<Attendance.AttendanceRecord> batch = Arrays.asList(
+            record("10001", "2025-06-30", "Present", "08:00", "17:00"),
+            record("10002", "2025-07-01", "Absent", "", ""),
+            record("10001", "2025-07-01", "Half Day", "08:00", "12:00"),
+            record("10002", "2025-08-01", "Present", "07:55", "18:30"),
+            record("E-7", "2025-07-02", "Present", "8:00", "17:00"),
+            record("10003", "07/15/2025", "Present", "08:00", "17:00"),
+            record("10002", "2025-07-01", "Late", "09:00", "17:00")
+        );
+        List<Attendance.AttendanceRecord> previous = repository.putAll(batch);
+        check(name, "putAll returns one replaced record per record", previous.size() == batch.size());
+        check(name, "putAll returns the stored record it replaced", sameRecord(previous.get(2), corrected));
+        check(name, "putAll returns a record replaced earlier in the batch", sameRecord(previous.get(6), batch.get(1)));
+        check(name, "putAll returns null for new records", previous.get(0) == null && previous.get(1) == null && previous.get(5) == null);
+        for (Attendance.AttendanceRecord record : batch) {
+            expected.put(key(record), record);
+        }
+
+        check(name, "months in calendar order", repository.getMonths().equals(
+            Arrays.asList("2025-06", "2025-07", "2025-08", AttendancePartitions.UNDATED_MONTH)));
+        check(name, "records of a month", sameRecords(repository.getRecords("2025-07"), select(expected, "2025-07-01", "2025-07-31")));
+        check(name, "records of the undated month", sameRecords(repository.getRecords(AttendancePartitions.UNDATED_MONTH),
+            Collections.singletonList(batch.get(5))));
+        check(name, "records between dates across months", sameRecords(
+            repository.getRecordsBetween(LocalDate.of(2025, 6, 30), LocalDate.of(2025, 7, 1)), select(expected, "2025-06-30", "2025-07-01")));
+        check(name, "records of one day", sameRecords(repository.getRecordsOn(LocalDate.of(2025, 7, 1)), select(expected, "2025-07-01", "2025-07-01")));
+        List<Attendance.AttendanceRecord> employeeRecords = repository.getEmployeeRecords("10001", LocalDate.of(2025, 6, 1), LocalDate.of(2025, 8, 31));
+        check(name, "records of one employee in date order", employeeRecords.size() == 2
+            && sameRecord(employeeRecords.get(0), batch.get(0)) && sameRecord(employeeRecords.get(1), batch.get(2)));
+        check(name, "records of an employee ID with letters", sameRecords(
+            repository.getEmployeeRecords("E-7", LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 31)), Collections.singletonList(batch.get(4))));
+        check(name, "times as entered are kept", repository.getRecordsOn(LocalDate.of(2025, 7, 2)).get(0).getTimeIn().equals("8:00"));
+        check(name, "stored record contained", repository.contains("10002", "2025-08-01") && repository.contains("10003", "07/15/2025"));
+        check(name, "missing record not contained", !repository.contains("10003", "2025-08-01"));
+        check(name, "own writes are not reported as outside changes", repository.reloadChanges().isEmpty());
+
+        FlushScheduler.flushAll();
+        Repositories.AttendanceRepository other = (Repositories.AttendanceRepository) backend.open()[2];
+        other.open();
+        check(name, "another instance reads the stored records", sameRecords(
+            other.getRecordsBetween(LocalDate.of(2025, 6, 1), LocalDate.of(2025, 8, 31)), select(expected, "2025-06-01", "2025-08-31")));
+
+        repository.removeEmployee("10002");
+        expected.keySet().removeIf(key -> key.startsWith("10002|"));
+        check(name, "removed employee has no records", repository.getEmployeeRecords("10002", LocalDate.of(2025, 6, 1),
+            LocalDate.of(2025, 8, 31)).isEmpty() && !repository.contains("10002", "2025-08-01"));
+        check(name, "other employees keep their records after a removal", sameRecords(
+            repository.getRecordsBetween(LocalDate.of(2025, 6, 1), LocalDate.of(2025, 8, 31)), select(expected, "2025-06-01", "2025-08-31")));
+
+        repository.clear();
+        boolean empty = true;
+        for (String month : Arrays.asList("2025-06", "2025-07", "2025-08", AttendancePartitions.UNDATED_MONTH)) {
+            empty &= repository.getRecords(month).isEmpty();
+        }
+        check(name, "clear removes every record", empty && !repository.contains("10001", "2025-06-30"));
+        check(name, "status summary", repository.getStatusSummary() != null && !repository.getStatusSummary().isEmpty());
+    }
+
+    /**
+     * Checks that credentials are listed and looked up alike, with missing fields read as empty text.
+     *
+     * @param name The backend name
+     * @param backend The backend
+     * @throws Exception If the backend cannot be opened
+     */
+    private static void checkCredentials(String name, Backend backend) throws Exception {
+        Repositories.CredentialRepository repository = (Repositories.CredentialRepository) backend.open()[3];
+        Map<String, String[]> credentials = repository.loadAll();
+        check(name, "every credential listed", credentials.keySet().equals(new java.util.HashSet<>(Arrays.asList("1001", "1002"))));
+        check(name, "credential looked up by trimmed ID", Arrays.equals(repository.findById(" 1001 "),
+            new String[] {"admin123", "Admin", "admin@MotorPH.com"}));
+        check(name, "missing credential fields read as empty", Arrays.equals(credentials.get("1002"), new String[] {"manager123", "Manager", ""}));
+        check(name, "unknown user not found", repository.findById("9999") == null);
+    }
+
+    /**
+     * Checks that importing the CSV data into an empty database copies every table as the CSV backend reads it.
+     *
+     * @param url The JDBC URL the contract ran against; the import uses a database next to it
+     * @throws Exception If a backend cannot be opened
+     */
+    private static void checkImport(String url) throws Exception {
+        String name = url + " import";
+        int failed = failures;
+        CsvRepositories csv = new CsvRepositories();
+        csv.attendance().open();
+        List<Attendance.AttendanceRecord> attendance = Arrays.asList(
+            record("10001", "2025-07-01", "Present", "08:00", "17:00"),
+            record("10003", "2025-09-15", "Late", "08:20", "17:00"));
+        csv.attendance().putAll(attendance);
+        FlushScheduler.flushAll();
+
+        JdbcRepositories jdbc = new JdbcRepositories(url + "-import");
+        jdbc.importIfEmpty(csv);
+        check(name, "employees copied", sameEmployees(jdbc.employees().loadAll(), csv.employees().loadAll()));
+        check(name, "payroll data copied", samePayroll(jdbc.payroll().loadAll(), csv.payroll().loadAll()));
+        check(name, "credentials copied", jdbc.credentials().loadAll().keySet().equals(csv.credentials().loadAll().keySet()));
+        check(name, "attendance copied", sameRecords(jdbc.attendance().getRecordsBetween(LocalDate.of(2025, 1, 1),
+            LocalDate.of(2025, 12, 31)), attendance));
+        System.out.printf("%s: %s%n", name, failures == failed ? "passed" : (failures - failed) + " checks failed");
+    }
+
+    /**
+     * A save expected to be rejected.
+     */
+    private interface Save {
+        void run() throws IOException;
+    }
+
+    /**
+     * Runs a save that another instance's save should have made stale.
+     *
+     * @param save The save
+     * @return true if the save was rejected with StaleDataException
+     */
+    private static boolean rejectsStaleSave(Save save) {
+        try {
+            save.run();
+            return false;
+        } catch (SharedFileLock.StaleDataException e) {
+            return true;
+        } catch (IOException e) {
+            System.out.println("  unexpected error: " + e);
+            return false;
+        }
+    }
+
+    /**
+     * Records the result of one check, printing it if it failed.
+     *
+     * @param backend The backend name
+     * @param what What was checked
+     * @param passed Whether the check passed
+     */
+    private static void check(String backend, String what, boolean passed) {
+        checks++;
+        if (!passed) {
+            failures++;
+            System.out.printf("FAILED %s: %s%n", backend, what);
+        }
+    }
+
+    /**
+     * Creates an employee with sample government numbers and contact details.
+     *
+     * @param number The employee number
+     * @param lastName The last name
+     * @param firstName The first name
+     * @param address The address
+     * @return The employee
+     */
+    private static EmployeeProfile.Employee employee(String number, String lastName, String firstName, String address) {
+        return new EmployeeProfile.Employee(number, lastName, firstName, "44-4506057-3", "820126853951", "442-605-657-000",
+            "691295330870", number + "@MotorPH.com", "Chief Executive Officer", address, "966-860-270");
+    }
+
+    /**
+     * Checks whether two employee lists hold the same employees in the same order.
+     *
+     * @param actual The employees read back
+     * @param expected The employees saved
+     * @return true if every field of every employee is equal
+     */
+    private static boolean sameEmployees(List<EmployeeProfile.Employee> actual, List<EmployeeProfile.Employee> expected) {
+        if (actual.size() != expected.size()) {
+            return false;
+        }
+        for (int i = 0; i < actual.size(); i++) {
+            if (!Arrays.equals(fields(actual.get(i)), fields(expected.get(i)))) {
+                System.out.println("  employee " + i + ": " + Arrays.toString(fields(actual.get(i)))
+                    + " expected " + Arrays.toString(fields(expected.get(i))));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets every stored field of an employee.
+     *
+     * @param emp The employee
+     * @return The fields in employees.csv column order
+     */
+    private static String[] fields(EmployeeProfile.Employee emp) {
+        return new String[] {emp.getEmployeeNumber(), emp.getLastName(), emp.getFirstName(), emp.getSssNumber(),
+            emp.getPhilHealthNumber(), emp.getTin(), emp.getPagIbigNumber(), emp.getEmail(), emp.getPosition(),
+            emp.getAddress(), emp.getPhone()};
+    }
+
+    /**
+     * Checks whether payroll data read back holds the saved amounts.
+     * A save stores the withholding tax as computed, so that is what must read back.
+     *
+     * @param actual The payroll data read back
+     * @param expected The payroll data saved
+     * @return true if every amount of every employee is equal
+     */
+    private static boolean samePayroll(Map<String, SalaryComputation.PayrollData> actual, Map<String, SalaryComputation.PayrollData> expected) {
+        if (!actual.keySet().equals(expected.keySet())) {
+            return false;
+        }
+        for (Map.Entry<String, SalaryComputation.PayrollData> entry : expected.entrySet()) {
+            long[] saved = amounts(entry.getValue());
+            long[] read = amounts(actual.get(entry.getKey()));
+            if (!Arrays.equals(read, saved)) {
+                System.out.println("  payroll " + entry.getKey() + ": " + Arrays.toString(read) + " expected " + Arrays.toString(saved));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets every stored amount of payroll data.
+     *
+     * @param data The payroll data
+     * @return The amounts in centavos, in payroll_records.csv column order
+     */
+    private static long[] amounts(SalaryComputation.PayrollData data) {
+        return new long[] {data.getBaseSalary(), data.getSSSDeduction(), data.getPhilHealthDeduction(), data.getPagIbigDeduction(),
+            data.getTaxDeduction(), data.getRiceSubsidy(), data.getPhoneAllowance(), data.getClothingAllowance()};
+    }
+
+    /**
+     * Creates an attendance record from its fields as entered.
+     *
+     * @param employeeId The employee ID
+     * @param date The date
+     * @param status The status
+     * @param timeIn The time in
+     * @param timeOut The time out
+     * @return The record
+     */
+    private static Attendance.AttendanceRecord record(String employeeId, String date, String status, String timeIn, String timeOut) {
+        return new Attendance.AttendanceRecord(employeeId, date, status, timeIn, timeOut);
+    }
+
+    /**
+     * Gets the key of a record: its employee ID and date.
+     *
+     * @param record The record
+     * @return The key
+     */
+    private static String key(Attendance.AttendanceRecord record) {
+        return record.getEmployeeId() + "|" + record.getDate();
+    }
+
+    /**
+     * Selects the expected records dated within a range, comparing the dates as text.
+     *
+     * @param expected The expected records by key
+     * @param from The first date, inclusive
+     * @param to The last date, inclusive
+     * @return The records in the range
+     */
+    private static List<Attendance.AttendanceRecord> select(Map<String, Attendance.AttendanceRecord> expected, String from, String to) {
+        List<Attendance.AttendanceRecord> records = new ArrayList<>();
+        for (Attendance.AttendanceRecord record : expected.values()) {
+            if (record.getDate().compareTo(from) >= 0 && record.getDate().compareTo(to) <= 0) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Checks whether two records hold the same fields as text.
+     *
+     * @param actual The record read back, or null
+     * @param expected The record stored
+     * @return true if both are null or every field is equal
+     */
+    private static boolean sameRecord(Attendance.AttendanceRecord actual, Attendance.AttendanceRecord expected) {
+        if (actual == null || expected == null) {
+            return actual == expected;
+        }
+        return Arrays.equals(text(actual), text(expected));
+    }
+
+    /**
+     * Checks whether two lists hold the same records, in any order.
+     *
+     * @param actual The records read back
+     * @param expected The records stored
+     * @return true if both hold the same records
+     */
+    private static boolean sameRecords(List<Attendance.AttendanceRecord> actual, List<Attendance.AttendanceRecord> expected) {
+        Map<String, String> actualText = new TreeMap<>();
+        Map<String, String> expectedText = new TreeMap<>();
+        for (Attendance.AttendanceRecord record : actual) {
+            actualText.put(key(record), Arrays.toString(text(record)));
+        }
+        for (Attendance.AttendanceRecord record : expected) {
+            expectedText.put(key(record), Arrays.toString(text(record)));
+        }
+        if (actual.size() != expected.size() || !actualText.equals(expectedText)) {
+            System.out.println("  records: " + actualText.values() + " expected " + expectedText.values());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the fields of a record as text.
+     *
+     * @param record The record
+     * @return The employee ID, date, status, time in and time out
+     */
+    private static String[] text(Attendance.AttendanceRecord record) {
+        return new String[] {record.getEmployeeId(), record.getDate(), record.getStatus(), record.getTimeIn(), record.getTimeOut()};
+    }
+}